@@ -44,6 +44,26 @@ public interface PackageOptions {
          */
         String KEY = "COMPRESSION";
 
+        /**
+         * Compression level key, the value is an integer whose meaning depends on the compression: {@code 1} (fastest)
+         * through {@code 9} (smallest) for GZIP and ZIP, the block size in units of 100 KiB, {@code 1} through
+         * {@code 9}, for BZIP2, and {@code 1} through {@code 22} for ZSTD.  LZ4 has no levels.
+         */
+        String LEVEL_KEY = "COMPRESSION_LEVEL";
+
+        /**
+         * Incompressible media types key, the value is a list, or comma-separated string, of media types whose ZIP
+         * entries are stored rather than deflated, e.g. {@code ["image/jpeg", "video/*"]}.  When absent, a default list
+         * of already-compressed media types is used; an empty list compresses every entry.
+         */
+        String INCOMPRESSIBLE_MEDIA_TYPES_KEY = "INCOMPRESSIBLE_MEDIA_TYPES";
+
+        /**
+         * Incompressible level key, the value is the compression level, {@code 0} through {@code 9}, of ZIP entries
+         * with an incompressible media type.  The default, {@code 0}, stores the entries without compressing them.
+         */
+        String INCOMPRESSIBLE_LEVEL_KEY = "INCOMPRESSIBLE_LEVEL";
+
         /**
          * Supported compression
          */
@@ -51,7 +71,17 @@ public interface PackageOptions {
             NONE,
             GZIP,
             BZIP2,
-            ZIP
+            ZIP,
+
+            /**
+             * Zstandard, using {@link CompressionThreads} worker threads when more than one is configured
+             */
+            ZSTD,
+
+            /**
+             * LZ4, using the LZ4 frame format
+             */
+            LZ4
         }
 
     }
@@ -87,13 +117,113 @@ public interface PackageOptions {
          */
         String KEY = "ALGO";
 
+        /**
+         * Checksum lanes key, the value is the size in MiB at and above which the checksums of a resource are each
+         * computed on their own thread, concurrently with writing the resource to the package.  When absent, or
+         * negative, checksums are computed by the thread writing the package.
+         */
+        String LANES_MIN_MIB_KEY = "CHECKSUM_LANES_MIN_MIB";
+
         /**
          * Supported checksum algorithms
          */
         enum OPTS {
             SHA512,
             SHA256,
-            MD5
+            MD5,
+            SHA1
+        }
+
+    }
+
+    /**
+     * Size of the buffer between the thread writing a package stream and the thread reading it
+     */
+    interface PipeSize {
+
+        /**
+         * Pipe size key, the value is the size of the buffer in MiB
+         */
+        String KEY = "PIPE_SIZE_MIB";
+
+    }
+
+    /**
+     * Fetching custodial resources ahead of the resource being written to the package
+     */
+    interface Prefetch {
+
+        /**
+         * Prefetch key, the value is the number of custodial resources fetched concurrently ahead of the package
+         * writer; {@code 0} disables prefetching
+         */
+        String KEY = "PREFETCH";
+
+        /**
+         * Prefetch memory key, the value is the maximum number of MiB used to hold prefetched resources in memory;
+         * resources that do not fit are spilled to temporary files
+         */
+        String MEMORY_KEY = "PREFETCH_MEMORY_MIB";
+
+    }
+
+    /**
+     * Spooling the package to a temporary file before it is read
+     */
+    interface Spool {
+
+        /**
+         * Spool key, the value is {@code true} if the package is to be written to a temporary file before it is
+         * opened, which allows the exact size and checksums of the package to be known before it is read
+         */
+        String KEY = "SPOOL";
+
+    }
+
+    /**
+     * Compressing the package using multiple threads
+     */
+    interface CompressionThreads {
+
+        /**
+         * Compression threads key, the value is the number of threads used to compress the package; values greater
+         * than {@code 1} select a compressor which compresses blocks of the package concurrently
+         */
+        String KEY = "COMPRESSION_THREADS";
+
+    }
+
+    /**
+     * Use of checksums already stored for custodial resources (e.g. by Fedora) when computing the checksums of package
+     * resources
+     */
+    interface Fixity {
+
+        /**
+         * Fixity key, the value is one of {@link OPTS}; when absent stored checksums are ignored
+         */
+        String KEY = "STORED_FIXITY";
+
+        /**
+         * Supported fixity policies
+         */
+        enum OPTS {
+
+            /**
+             * Stored checksums are not requested; every checksum is computed from the bytes of the resource
+             */
+            IGNORE,
+
+            /**
+             * Stored checksums are used as-is, and are not computed from the bytes of the resource
+             */
+            TRUST,
+
+            /**
+             * Stored checksums are computed from the bytes of the resource, and writing the package fails if they
+             * differ
+             */
+            VERIFY
         }
 
     }
@@ -29,7 +29,7 @@ import org.dataconservancy.pass.deposit.model.DepositSubmission;
  *
  * @author Elliot Metsger (emetsger@jhu.edu)
  */
-public interface PackageStream {
+public interface PackageStream extends AutoCloseable {
 
     /**
      * Opens the package in its entirety, and streams back the bytes as specified by the archive and compression
@@ -63,6 +63,17 @@ public interface PackageStream {
      */
     Metadata metadata();
 
+    /**
+     * Releases any resources held by this {@code PackageStream} that were not released by closing the stream returned
+     * from {@link #open()}, for example a temporary copy of the package written in order to answer its {@link
+     * #metadata() metadata}, but never opened.  Streams which have already been opened are not affected.  The default
+     * implementation does nothing.
+     */
+    @Override
+    default void close() {
+        // no-op
+    }
+
     /**
      * Metadata describing the package.
      */
@@ -23,6 +23,7 @@ import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
 import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
 import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
 import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
@@ -38,6 +39,7 @@ import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
  *       "options": {
  *         "archive": "ZIP",
  *         "compression": "NONE",
+ *         "compression-level": 6,
  *         "algorithms": [
  *           "sha512",
  *           "md5"
@@ -53,6 +55,8 @@ public class AssemblerOptions {
 
     private String compression;
 
+    private Integer compressionLevel;
+
     private String archive;
 
     private List<String> algorithms;
@@ -72,6 +76,22 @@ public class AssemblerOptions {
         this.compression = compression;
     }
 
+    /**
+     * The compression level used for the package, or the entries of a ZIP package, as described by
+     * {@link Compression#LEVEL_KEY}.
+     *
+     * @return the compression level, or {@code null} if the default level of the compression is used
+     */
+    @JsonProperty("compression-level")
+    public Integer getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    @JsonProperty("compression-level")
+    public void setCompressionLevel(Integer compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
     public String getArchive() {
         return archive;
     }
@@ -117,6 +137,7 @@ public class AssemblerOptions {
      * @see #getAlgorithms()
      * @see #getArchive()
      * @see #getCompression()
+     * @see #getCompressionLevel()
      */
     @JsonAnyGetter
     public Map<String, Object> getOptionsMap() {
@@ -162,6 +183,9 @@ public class AssemblerOptions {
                 if (compression != null) {
                     put(Compression.KEY, Compression.OPTS.valueOf(compression.toUpperCase()));
                 }
+                if (compressionLevel != null) {
+                    put(Compression.LEVEL_KEY, compressionLevel);
+                }
                 if (archive != null) {
                     put(Archive.KEY, Archive.OPTS.valueOf(archive.toUpperCase()));
                 }
@@ -185,19 +209,20 @@ public class AssemblerOptions {
             return false;
         }
         AssemblerOptions that = (AssemblerOptions) o;
-        return Objects.equals(compression, that.compression) && Objects.equals(archive, that.archive) && Objects.equals(
-            algorithms, that.algorithms);
+        return Objects.equals(compression, that.compression) &&
+               Objects.equals(compressionLevel, that.compressionLevel) && Objects.equals(archive, that.archive) &&
+               Objects.equals(algorithms, that.algorithms);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(compression, archive, algorithms);
+        return Objects.hash(compression, compressionLevel, archive, algorithms);
     }
 
     @Override
     public String toString() {
-        return "AssemblerOptions{" + "compression='" + compression + '\'' + ", archive='" + archive + '\'' + ", " +
-               "algorithms=" + algorithms + '}';
+        return "AssemblerOptions{" + "compression='" + compression + '\'' + ", compressionLevel=" + compressionLevel +
+               ", archive='" + archive + '\'' + ", " + "algorithms=" + algorithms + '}';
     }
 
 }
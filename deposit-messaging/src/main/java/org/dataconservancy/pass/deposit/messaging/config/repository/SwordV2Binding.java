@@ -58,6 +58,9 @@ public class SwordV2Binding extends ProtocolBinding {
     @JsonProperty("collection-hints")
     private Map<String, String> collectionHints;
 
+    @JsonProperty("segment-size-mib")
+    private Long segmentSizeMib;
+
     public SwordV2Binding() {
         this.setProtocol(PROTO);
     }
@@ -126,6 +129,14 @@ public class SwordV2Binding extends ProtocolBinding {
         this.collectionHints = collectionHints;
     }
 
+    public Long getSegmentSizeMib() {
+        return segmentSizeMib;
+    }
+
+    public void setSegmentSizeMib(Long segmentSizeMib) {
+        this.segmentSizeMib = segmentSizeMib;
+    }
+
     /**
      * Encodes the map of hints to SWORD collection urls as a string (to maintain compatibility with {@link
      * #asPropertiesMap()}).  Note that any spaces in the urls *must* be properly encoded in the configuration file.
@@ -169,6 +180,10 @@ public class SwordV2Binding extends ProtocolBinding {
             transportProperties.put(Sword2TransportHints.SWORD_COLLECTION_HINTS, collectionHints);
         }
 
+        if (segmentSizeMib != null) {
+            transportProperties.put(Sword2TransportHints.SWORD_SEGMENT_SIZE_MIB, String.valueOf(segmentSizeMib));
+        }
+
         return transportProperties;
     }
 
@@ -188,13 +203,14 @@ public class SwordV2Binding extends ProtocolBinding {
             password, that.password) && Objects.equals(serviceDocUrl, that.serviceDocUrl) && Objects.equals(
             defaultCollectionUrl, that.defaultCollectionUrl) && Objects.equals(onBehalfOf,
                                                                                that.onBehalfOf) && Objects.equals(
-            userAgent, that.userAgent) && Objects.equals(collectionHints, that.collectionHints);
+            userAgent, that.userAgent) && Objects.equals(collectionHints, that.collectionHints) && Objects.equals(
+            segmentSizeMib, that.segmentSizeMib);
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(super.hashCode(), username, password, serviceDocUrl, defaultCollectionUrl, onBehalfOf,
-                            depositReceipt, userAgent, collectionHints);
+                            depositReceipt, userAgent, collectionHints, segmentSizeMib);
     }
 
     @Override
@@ -203,6 +219,7 @@ public class SwordV2Binding extends ProtocolBinding {
             "username='" + username + "'").add("password='" + password + "'").add(
             "serviceDocUrl='" + serviceDocUrl + "'").add("defaultCollectionUrl='" + defaultCollectionUrl + "'").add(
             "onBehalfOf='" + onBehalfOf + "'").add("depositReceipt=" + depositReceipt).add(
-            "userAgent='" + userAgent + "'").add("collectionHints=" + collectionHints).toString();
+            "userAgent='" + userAgent + "'").add("collectionHints=" + collectionHints).add(
+            "segmentSizeMib=" + segmentSizeMib).toString();
     }
 }
@@ -20,17 +20,19 @@ import static java.lang.System.identityHashCode;
 import static java.util.Base64.getEncoder;
 import static org.springframework.beans.factory.config.BeanDefinition.SCOPE_PROTOTYPE;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Paths;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.xml.parsers.DocumentBuilderFactory;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.logging.HttpLoggingInterceptor;
@@ -40,7 +42,7 @@ import org.dataconservancy.pass.client.PassClientDefault;
 import org.dataconservancy.pass.client.SubmissionStatusService;
 import org.dataconservancy.pass.client.adapter.PassJsonAdapterBasic;
 import org.dataconservancy.pass.deposit.assembler.Assembler;
-import org.dataconservancy.pass.deposit.assembler.shared.ExceptionHandlingThreadPoolExecutor;
+import org.dataconservancy.pass.deposit.assembler.shared.PackageStreamExecutor;
 import org.dataconservancy.pass.deposit.builder.fs.FcrepoModelBuilder;
 import org.dataconservancy.pass.deposit.builder.fs.FilesystemModelBuilder;
 import org.dataconservancy.pass.deposit.messaging.DepositServiceErrorHandler;
@@ -54,6 +56,7 @@ import org.dataconservancy.pass.deposit.messaging.service.DepositTask;
 import org.dataconservancy.pass.deposit.messaging.status.DefaultDepositStatusProcessor;
 import org.dataconservancy.pass.deposit.messaging.status.DepositStatusProcessor;
 import org.dataconservancy.pass.deposit.messaging.status.DepositStatusResolver;
+import org.dataconservancy.pass.deposit.messaging.support.PackageCache;
 import org.dataconservancy.pass.deposit.messaging.support.swordv2.AtomFeedStatusResolver;
 import org.dataconservancy.pass.deposit.messaging.support.swordv2.ResourceResolver;
 import org.dataconservancy.pass.deposit.messaging.support.swordv2.ResourceResolverImpl;
@@ -63,6 +66,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.web.client.RestTemplateAutoConfiguration;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -406,9 +410,53 @@ public class DepositConfig {
         return new DepositServiceErrorHandler(cri);
     }
 
+    /**
+     * The executor shared by all assemblers for writing package streams.  Closed by the container on shutdown.
+     *
+     * @param threads            the maximum number of packages written concurrently
+     * @param queueCapacity      the maximum number of opened packages waiting to be written
+     * @param fetchThreads       the maximum number of custodial resources fetched concurrently
+     * @param compressionThreads the maximum number of blocks compressed concurrently, across all packages
+     * @return the package stream executor
+     */
+    @Bean(destroyMethod = "close")
+    PackageStreamExecutor packageStreamExecutor(@Value("${pass.deposit.assembler.threads}") int threads,
+                                                @Value("${pass.deposit.assembler.queue-capacity}") int queueCapacity,
+                                                @Value("${pass.deposit.assembler.fetch-threads}") int fetchThreads,
+                                                @Value("${pass.deposit.assembler.compression-threads:" +
+                                                       "#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+                                                    int compressionThreads) {
+        return new PackageStreamExecutor(threads, queueCapacity, fetchThreads, compressionThreads);
+    }
+
+    @Bean
+    MeterBinder packageStreamExecutorMetrics(PackageStreamExecutor packageStreamExecutor) {
+        return registry -> {
+            Gauge.builder("pass.deposit.assembler.streams.active", packageStreamExecutor,
+                          PackageStreamExecutor::activeStreams)
+                 .description("Number of package streams being written")
+                 .register(registry);
+            Gauge.builder("pass.deposit.assembler.streams.queued", packageStreamExecutor,
+                          PackageStreamExecutor::queuedStreams)
+                 .description("Number of opened package streams waiting to be written")
+                 .register(registry);
+        };
+    }
+
+    /**
+     * The cache of assembled packages, used to re-send a package when a deposit is re-tried.  Only created if
+     * {@code pass.deposit.cache.enabled} is {@code true}.
+     *
+     * @param directory  the directory holding cached packages
+     * @param maxSizeMib the maximum size of the cache, in MiB
+     * @return the package cache
+     * @throws IOException if the cache directory cannot be created
+     */
     @Bean
-    ExceptionHandlingThreadPoolExecutor executorService() {
-        return new ExceptionHandlingThreadPoolExecutor(1, 2, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(10));
+    @ConditionalOnProperty(name = "pass.deposit.cache.enabled", havingValue = "true")
+    PackageCache packageCache(@Value("${pass.deposit.cache.directory}") String directory,
+                              @Value("${pass.deposit.cache.max-size-mib}") long maxSizeMib) throws IOException {
+        return new PackageCache(Paths.get(directory), maxSizeMib * 1024 * 1024);
     }
 
 }
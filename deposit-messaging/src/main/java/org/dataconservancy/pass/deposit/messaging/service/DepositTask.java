@@ -29,13 +29,20 @@ import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.dataconservancy.pass.client.PassClient;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions;
 import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport;
+import org.dataconservancy.pass.deposit.assembler.shared.MetadataBuilderImpl;
 import org.dataconservancy.pass.deposit.messaging.DepositServiceRuntimeException;
 import org.dataconservancy.pass.deposit.messaging.model.Packager;
 import org.dataconservancy.pass.deposit.messaging.policy.Policy;
 import org.dataconservancy.pass.deposit.messaging.service.DepositUtil.DepositWorkerContext;
+import org.dataconservancy.pass.deposit.messaging.support.PackageCache;
+import org.dataconservancy.pass.deposit.transport.PreflightCheck;
+import org.dataconservancy.pass.deposit.transport.PreflightException;
 import org.dataconservancy.pass.deposit.transport.TransportResponse;
 import org.dataconservancy.pass.deposit.transport.TransportSession;
 import org.dataconservancy.pass.deposit.transport.sword2.Sword2DepositReceiptResponse;
@@ -85,6 +92,8 @@ public class DepositTask implements Runnable {
     // e.g. https://jscholarship.library.jhu.edu/swordv2
     private String replacementPrefix;
 
+    private PackageCache packageCache;
+
     public DepositTask(DepositWorkerContext dc,
                        PassClient passClient,
                        Policy<Deposit.DepositStatus> intermediateDepositStatusPolicy,
@@ -116,7 +125,7 @@ public class DepositTask implements Runnable {
                 /*
                  * Assemble and stream a package of content to the repository endpoint, update status to SUBMITTED
                  */
-                                DepositTaskCriFunc.performDeposit(dc));
+                                DepositTaskCriFunc.performDeposit(dc, packageCache));
 
         // Check *physical* success: were the bytes of the package successfully streamed to endpoint?
 
@@ -242,6 +251,20 @@ public class DepositTask implements Runnable {
         return dc;
     }
 
+    public PackageCache getPackageCache() {
+        return packageCache;
+    }
+
+    /**
+     * Supplies the cache of assembled packages.  If a package for the deposit is in the cache, it is sent instead of
+     * assembling a new package.
+     *
+     * @param packageCache the package cache, may be {@code null}
+     */
+    public void setPackageCache(PackageCache packageCache) {
+        this.packageCache = packageCache;
+    }
+
     public long getSwordSleepTimeMs() {
         return swordSleepTimeMs;
     }
@@ -430,15 +453,41 @@ public class DepositTask implements Runnable {
          * @return
          */
         static Function<Deposit, TransportResponse> performDeposit(DepositWorkerContext dc) {
+            return performDeposit(dc, null);
+        }
+
+        /**
+         * Answers a {@code Function} that assembles and deposits a package to a downstream repository, as {@link
+         * #performDeposit(DepositWorkerContext)}.  If a {@code packageCache} is supplied, a package previously
+         * assembled for the same deposit is sent instead of assembling a new package, and a newly assembled package is
+         * cached as it is sent.  A package is evicted from the cache once it has been transferred successfully.
+         *
+         * @param dc           the context of the deposit
+         * @param packageCache the package cache, may be {@code null}
+         * @return the {@code Function}
+         */
+        static Function<Deposit, TransportResponse> performDeposit(DepositWorkerContext dc,
+                                                                   PackageCache packageCache) {
             return (deposit) -> {
                 Packager packager = null;
                 PackageStream packageStream = null;
+                Map<String, Object> assemblerOptions = null;
                 Map<String, String> packagerConfig = null;
+                String cacheKey = null;
 
                 try {
                     packager = dc.packager();
-                    packageStream = packager.getAssembler().assemble(
-                        dc.depositSubmission(), packager.getAssemblerOptions());
+                    assemblerOptions = packager.getAssemblerOptions();
+                    if (packageCache != null) {
+                        cacheKey = PackageCache.key(dc.depositSubmission(), packager.getName(), assemblerOptions);
+                        packageStream = packageCache.lookup(cacheKey, dc.depositSubmission()).orElse(null);
+                    }
+                    if (packageStream == null) {
+                        packageStream = packager.getAssembler().assemble(dc.depositSubmission(), assemblerOptions);
+                        if (packageCache != null) {
+                            packageStream = packageCache.caching(cacheKey, packageStream);
+                        }
+                    }
                     packagerConfig = packager.getConfiguration();
                 } catch (Exception e) {
                     throw new RuntimeException("Error resolving a Packager or Packager configuration for " +
@@ -446,16 +495,77 @@ public class DepositTask implements Runnable {
                 }
 
                 try (TransportSession transport = packager.getTransport().open(packagerConfig)) {
+                    if (transport instanceof PreflightCheck) {
+                        ((PreflightCheck) transport).preflight(
+                            expectedMetadata(dc, packageStream, assemblerOptions), packagerConfig);
+                    }
                     TransportResponse tr = transport.send(packageStream, packagerConfig);
                     deposit.setDepositStatus(SUBMITTED);
+                    recordFixity(dc, packageStream, tr);
+                    if (packageCache != null && tr.success()) {
+                        packageCache.evict(cacheKey);
+                    }
                     return tr;
+                } catch (PreflightException e) {
+                    throw new RuntimeException("Pre-flight check failed for deposit " + dc.deposit().getId() + ": " +
+                                               e.getMessage(), e);
                 } catch (Exception e) {
                     throw new RuntimeException("Error closing transport session for deposit " +
                                                dc.deposit().getId() + ": " + e.getMessage(), e);
+                } finally {
+                    packageStream.close();
                 }
             };
         }
 
+        /**
+         * Answers the metadata of the package expected to be sent, for a {@link PreflightCheck} made before the package
+         * is written.  Spooled packages are written in their entirety in order to answer their metadata, so their
+         * expected metadata carries the specification and submission metadata of the package, but not its size.
+         *
+         * @param dc               the context of the deposit
+         * @param packageStream    the package to be sent
+         * @param assemblerOptions the options used to assemble the package
+         * @return the expected metadata of the package
+         */
+        static PackageStream.Metadata expectedMetadata(DepositWorkerContext dc, PackageStream packageStream,
+                                                       Map<String, Object> assemblerOptions) {
+            if (!AssemblerSupport.booleanOption(assemblerOptions, PackageOptions.Spool.KEY, false)) {
+                return packageStream.metadata();
+            }
+
+            return new MetadataBuilderImpl()
+                .spec(assemblerOptions.getOrDefault(PackageOptions.Spec.KEY, "").toString())
+                .submissionMeta(dc.depositSubmission().getSubmissionMeta())
+                .build();
+        }
+
+        /**
+         * Records the size and checksums of the package that was sent, as computed while the package was streamed to
+         * the transport, in the {@code DepositWorkerContext}.  The {@link TransportResponse#packageMetadata() package
+         * metadata} of the transport response is preferred to the metadata of the package stream.  The metadata will
+         * lack the size and checksums if the transport did not read the package in its entirety.
+         *
+         * @param dc            the context of the deposit
+         * @param packageStream the package that was sent
+         * @param tr            the response of the transport that sent the package
+         */
+        static void recordFixity(DepositWorkerContext dc, PackageStream packageStream, TransportResponse tr) {
+            PackageStream.Metadata md = (tr.packageMetadata() != null) ?
+                tr.packageMetadata() : packageStream.metadata();
+            dc.packageMetadata(md);
+
+            if (md == null || md.checksums() == null || md.checksums().isEmpty()) {
+                LOG.debug("No checksums available for the package sent for {}", dc.deposit().getId());
+                return;
+            }
+
+            LOG.info("Sent package '{}' ({} bytes) for {}: {}", md.name(), md.sizeBytes(), dc.deposit().getId(),
+                     md.checksums().stream()
+                       .map(sum -> sum.algorithm() + "=" + sum.asHex())
+                       .collect(Collectors.joining(", ")));
+        }
+
         /**
          * Answers a {@code BiPredicate} that checks the TransportResponse for success and places the updated Deposit
          * resource in the DepositWorkerContext.  If the TransportResponse indicates an error, the exception is
@@ -44,6 +44,7 @@ import org.dataconservancy.pass.deposit.messaging.model.Packager;
 import org.dataconservancy.pass.deposit.messaging.policy.Policy;
 import org.dataconservancy.pass.deposit.messaging.service.DepositUtil.DepositWorkerContext;
 import org.dataconservancy.pass.deposit.messaging.status.DepositStatusProcessor;
+import org.dataconservancy.pass.deposit.messaging.support.PackageCache;
 import org.dataconservancy.pass.deposit.model.DepositSubmission;
 import org.dataconservancy.pass.model.Deposit;
 import org.dataconservancy.pass.model.Repository;
@@ -115,6 +116,8 @@ public class DepositTaskHelper {
 
     private Repositories repositories;
 
+    private PackageCache packageCache;
+
     @Autowired
     public DepositTaskHelper(PassClient passClient,
                              TaskExecutor depositWorkers,
@@ -161,6 +164,7 @@ public class DepositTaskHelper {
             depositTask.setSwordSleepTimeMs(swordDepositSleepTimeMs);
             depositTask.setPrefixToMatch(statementUriPrefix);
             depositTask.setReplacementPrefix(statementUriReplacement);
+            depositTask.setPackageCache(packageCache);
 
             WORKERS_LOGGER.debug("Submitting task ({}@{}) for tuple [{}, {}, {}]",
                                  depositTask.getClass().getSimpleName(), toHexString(identityHashCode(depositTask)),
@@ -174,6 +178,17 @@ public class DepositTaskHelper {
         }
     }
 
+    /**
+     * Supplies the cache of assembled packages to {@code DepositTask}s.  The cache is optional; without it every
+     * deposit assembles a new package.
+     *
+     * @param packageCache the package cache
+     */
+    @Autowired(required = false)
+    public void setPackageCache(PackageCache packageCache) {
+        this.packageCache = packageCache;
+    }
+
     public void processDepositStatus(URI depositUri) {
 
         CriticalResult<RepositoryCopy, Deposit> cr = cri.performCritical(depositUri, Deposit.class,
@@ -25,6 +25,7 @@ import java.util.stream.Stream;
 import javax.jms.JMSException;
 import javax.jms.Session;
 
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
 import org.dataconservancy.pass.deposit.messaging.model.Packager;
 import org.dataconservancy.pass.deposit.messaging.policy.TerminalDepositStatusPolicy;
 import org.dataconservancy.pass.deposit.messaging.policy.TerminalSubmissionStatusPolicy;
@@ -394,6 +395,7 @@ public class DepositUtil {
         private Packager packager;
         private RepositoryCopy repoCopy;
         private String statusUri;
+        private PackageStream.Metadata packageMetadata;
 
         /**
          * the {@code Deposit} itself
@@ -478,6 +480,20 @@ public class DepositUtil {
             this.statusUri = statusUri;
         }
 
+        /**
+         * the metadata of the package sent to the {@code Repository}, including its size and checksums if they were
+         * computed while the package was sent
+         *
+         * @return the package metadata, {@code null} if the package has not been sent
+         */
+        public PackageStream.Metadata packageMetadata() {
+            return packageMetadata;
+        }
+
+        public void packageMetadata(PackageStream.Metadata packageMetadata) {
+            this.packageMetadata = packageMetadata;
+        }
+
         @Override
         public String toString() {
             return "DepositWorkerContext{" +
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.messaging.support;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.dataconservancy.pass.deposit.assembler.shared.PackageIndex;
+
+/**
+ * A package served from the {@link PackageCache}.
+ */
+class CachedPackageStream implements PackageStream {
+
+    private final Path pkg;
+
+    private final Metadata metadata;
+
+    private final List<Resource> resources;
+
+    private PackageIndex index;
+
+    CachedPackageStream(Path pkg, Metadata metadata, List<Resource> resources) {
+        this.pkg = pkg;
+        this.metadata = metadata;
+        this.resources = resources;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation returns a {@code FileInputStream} over the cached package.
+     * </p>
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public InputStream open() {
+        try {
+            return new FileInputStream(pkg.toFile());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open cached package " + pkg, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation opens the resource using a {@link PackageIndex} over the cached package, created on first
+     * use.
+     * </p>
+     *
+     * @param packageResource the identifier for a resource within the package
+     * @return {@inheritDoc}
+     * @throws UnsupportedOperationException if the cached package is not a TAR or ZIP archive
+     */
+    @Override
+    public synchronized InputStream open(String packageResource) {
+        try {
+            if (index == null) {
+                Map<String, Object> packageOptions = new HashMap<>();
+                if (metadata.archive() != null) {
+                    packageOptions.put(Archive.KEY, metadata.archive());
+                }
+                // The compression of metadata which does not record one defaults to GZIP, so it is only used for
+                // packages which are compressed
+                if (metadata.compressed() && metadata.compression() != null) {
+                    packageOptions.put(Compression.KEY, metadata.compression());
+                }
+                index = new PackageIndex(pkg.toFile(), packageOptions);
+            }
+            return index.open(packageResource);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open '" + packageResource + "' from cached package " + pkg, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation returns the resources recorded when the package was cached.
+     * </p>
+     *
+     * @return {@inheritDoc}
+     * @throws IllegalStateException if the resources of the package were not known when it was cached
+     */
+    @Override
+    public Iterator<Resource> resources() {
+        if (resources == null) {
+            throw new IllegalStateException("The resources of cached package " + pkg + " were not recorded");
+        }
+        return resources.iterator();
+    }
+
+    @Override
+    public Metadata metadata() {
+        return metadata;
+    }
+
+}
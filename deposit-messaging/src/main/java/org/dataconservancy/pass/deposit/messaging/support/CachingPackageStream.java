@@ -0,0 +1,200 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.messaging.support;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Iterator;
+
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Copies the bytes of a package to the {@link PackageCache} as they are read.  The package is stored in the cache when
+ * the stream returned by {@link #open()} is closed, provided it was read to the end without error.  Otherwise, the
+ * copied bytes are discarded.
+ */
+class CachingPackageStream implements PackageStream {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingPackageStream.class);
+
+    private final PackageCache cache;
+
+    private final String key;
+
+    private final PackageStream delegate;
+
+    CachingPackageStream(PackageCache cache, String key, PackageStream delegate) {
+        this.cache = cache;
+        this.key = key;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public InputStream open() {
+        InputStream in = delegate.open();
+        try {
+            Path partial = cache.newPartial(key);
+            return new CachingInputStream(in, partial);
+        } catch (IOException e) {
+            LOG.warn("Unable to cache package {}, it will not be cached: {}", key, e.getMessage(), e);
+            return in;
+        }
+    }
+
+    @Override
+    public InputStream open(String packageResource) {
+        return delegate.open(packageResource);
+    }
+
+    @Override
+    public Iterator<Resource> resources() {
+        return delegate.resources();
+    }
+
+    @Override
+    public Metadata metadata() {
+        return delegate.metadata();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private class CachingInputStream extends FilterInputStream {
+
+        private final Path partial;
+
+        private final OutputStream cacheOut;
+
+        private final MessageDigest digest = PackageCache.newSha256();
+
+        private long byteCount;
+
+        private boolean eof;
+
+        private boolean failed;
+
+        private boolean closed;
+
+        private CachingInputStream(InputStream in, Path partial) throws IOException {
+            super(in);
+            this.partial = partial;
+            this.cacheOut = new BufferedOutputStream(Files.newOutputStream(partial), 64 * 1024);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b == -1) {
+                eof = true;
+            } else {
+                cache(new byte[] {(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read == -1) {
+                eof = true;
+            } else {
+                cache(b, off, read);
+            }
+            return read;
+        }
+
+        /**
+         * Skipped bytes are not copied to the cache, so a package that has been skipped over is not cached.
+         */
+        @Override
+        public long skip(long n) throws IOException {
+            failed = true;
+            return in.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            try {
+                in.close();
+            } finally {
+                complete();
+            }
+        }
+
+        /**
+         * Answers the resources of the package read from the delegate, if the delegate is able to supply them.
+         *
+         * @return the resources of the package, or {@code null} if they are not known
+         */
+        private Iterator<Resource> resources() {
+            try {
+                return delegate.resources();
+            } catch (IllegalStateException | UnsupportedOperationException e) {
+                LOG.debug("Resources of package {} are not known, they will not be cached: {}", key, e.getMessage());
+                return null;
+            }
+        }
+
+        private void cache(byte[] b, int off, int len) {
+            if (failed) {
+                return;
+            }
+            try {
+                cacheOut.write(b, off, len);
+                digest.update(b, off, len);
+                byteCount += len;
+            } catch (IOException e) {
+                LOG.warn("Error caching package {}, it will not be cached: {}", key, e.getMessage(), e);
+                failed = true;
+            }
+        }
+
+        private void complete() {
+            try {
+                cacheOut.close();
+            } catch (IOException e) {
+                failed = true;
+            }
+
+            if (eof && !failed) {
+                cache.store(key, partial, digest.digest(), byteCount, delegate.metadata(), resources());
+            } else {
+                PackageCache.deleteQuietly(partial);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,509 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.messaging.support;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.dataconservancy.pass.deposit.assembler.MetadataBuilder;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Spec;
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.dataconservancy.pass.deposit.assembler.ResourceBuilder;
+import org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport;
+import org.dataconservancy.pass.deposit.assembler.shared.DefaultResourceBuilderFactory;
+import org.dataconservancy.pass.deposit.assembler.shared.MetadataBuilderImpl;
+import org.dataconservancy.pass.deposit.model.DepositFile;
+import org.dataconservancy.pass.deposit.model.DepositSubmission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An on-disk cache of assembled packages, so that re-trying a deposit whose package was already streamed in its
+ * entirety (e.g. because the transport to the downstream repository failed) sends the same bytes again, instead of
+ * re-retrieving the custodial content and re-assembling the package.
+ * <p>
+ * Packages are cached as a side effect of being read: the {@code PackageStream} returned by {@link
+ * #caching(String, PackageStream)} copies the bytes of the package to the cache as they are read by the transport.
+ * Only a package that is read to the end is cached.  Each cached package is accompanied by its metadata, the
+ * resources of the package (if they were known once it was read), and a SHA-256 digest of the cached bytes.  The
+ * digest is verified the first time the package is re-used by this process, and again whenever the cached file has
+ * been modified since it was last verified; otherwise only the size of the cached file is checked.
+ * </p>
+ * <p>
+ * Packages are keyed by the submission, the repository, the assembler options (including the package specification),
+ * and the custodial files of the submission; see {@link #key(DepositSubmission, String, Map)}.  When the cache grows
+ * beyond its maximum size, the least recently used packages are evicted.
+ * </p>
+ */
+public class PackageCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PackageCache.class);
+
+    static final String PACKAGE_SUFFIX = ".pkg";
+
+    static final String METADATA_SUFFIX = ".properties";
+
+    static final String PARTIAL_SUFFIX = ".partial";
+
+    private static final String SHA256 = "SHA-256";
+
+    private static final String MD_INTEGRITY = "cache.sha256";
+
+    private static final String MD_NAME = "name";
+
+    private static final String MD_SPEC = "spec";
+
+    private static final String MD_MIME_TYPE = "mimeType";
+
+    private static final String MD_SIZE = "sizeBytes";
+
+    private static final String MD_COMPRESSED = "compressed";
+
+    private static final String MD_COMPRESSION = "compression";
+
+    private static final String MD_ARCHIVED = "archived";
+
+    private static final String MD_ARCHIVE = "archive";
+
+    private static final String MD_CHECKSUM_PREFIX = "checksum.";
+
+    private static final String MD_RESOURCE_COUNT = "resources";
+
+    private static final String MD_RESOURCE_PREFIX = "resource.";
+
+    private final Path directory;
+
+    private final long maxBytes;
+
+    /**
+     * The last modified time of each cached package, keyed by cache key, when its bytes were last known to match its
+     * digest
+     */
+    private final Map<String, FileTime> verified = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a cache which stores packages in {@code directory}, and holds at most {@code maxBytes} of packages.
+     * Partially written packages left behind by a previous process are removed.
+     *
+     * @param directory the directory holding cached packages, created if it does not exist
+     * @param maxBytes  the maximum size of the cache, in bytes
+     * @throws IOException if the directory cannot be created or read
+     */
+    public PackageCache(Path directory, long maxBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+
+        try (DirectoryStream<Path> partials = Files.newDirectoryStream(directory, "*" + PARTIAL_SUFFIX)) {
+            for (Path partial : partials) {
+                Files.deleteIfExists(partial);
+            }
+        }
+    }
+
+    /**
+     * Answers the cache key for the package of {@code submission} assembled for the repository identified by {@code
+     * repositoryKey} using the supplied assembler {@code options}.
+     * <p>
+     * The custodial files of the submission are identified by their type, name, and location.  A file replaced in
+     * place at the same location is not detected, but a re-submission that adds, removes, or renames a file results in
+     * a new key.
+     * </p>
+     *
+     * @param submission    the submission being deposited
+     * @param repositoryKey the key of the repository the package is deposited to
+     * @param options       the assembler options
+     * @return the cache key, a hex-encoded SHA-256 digest
+     */
+    public static String key(DepositSubmission submission, String repositoryKey, Map<String, Object> options) {
+        MessageDigest digest = newSha256();
+        update(digest, submission.getId());
+        update(digest, repositoryKey);
+        update(digest, options.get(Spec.KEY));
+
+        // Order the options so equal maps produce the same key
+        new TreeMap<>(options).forEach((key, value) -> {
+            update(digest, key);
+            update(digest, value);
+        });
+
+        if (submission.getFiles() != null) {
+            for (DepositFile file : submission.getFiles()) {
+                update(digest, file.getType());
+                update(digest, file.getName());
+                update(digest, file.getLocation());
+            }
+        }
+
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Answers the cached package for {@code key}, if one is present and its bytes are intact.  A cached package that
+     * fails verification is evicted.  The bytes of the package are only digested if they have not been verified since
+     * the package was last modified.
+     *
+     * @param key        the cache key
+     * @param submission the submission being deposited, supplies the submission metadata of the package
+     * @return the cached package, or an empty {@code Optional} if there is none
+     */
+    public Optional<PackageStream> lookup(String key, DepositSubmission submission) {
+        Path pkg = packagePath(key);
+        Path md = metadataPath(key);
+        if (!Files.exists(pkg) || !Files.exists(md)) {
+            return Optional.empty();
+        }
+
+        try {
+            Properties props = new Properties();
+            try (InputStream in = Files.newInputStream(md)) {
+                props.load(in);
+            }
+
+            long expectedSize = Long.parseLong(props.getProperty(MD_SIZE));
+            long actualSize = Files.size(pkg);
+            if (actualSize != expectedSize) {
+                LOG.warn("Evicting cached package {}: expected {} bytes but was {}", pkg, expectedSize, actualSize);
+                evict(key);
+                return Optional.empty();
+            }
+
+            if (!Files.getLastModifiedTime(pkg).equals(verified.get(key))) {
+                String expected = props.getProperty(MD_INTEGRITY);
+                String actual = sha256(pkg);
+                if (!actual.equals(expected)) {
+                    LOG.warn("Evicting cached package {}: expected SHA-256 {} but was {}", pkg, expected, actual);
+                    evict(key);
+                    return Optional.empty();
+                }
+            }
+
+            // Record the use of the package, so it is evicted last
+            Files.setLastModifiedTime(pkg, FileTime.fromMillis(System.currentTimeMillis()));
+            verified.put(key, Files.getLastModifiedTime(pkg));
+
+            LOG.debug("Re-using cached package {} for submission {}", pkg, submission.getId());
+            return Optional.of(new CachedPackageStream(pkg, toMetadata(props, submission), toResources(props)));
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Evicting unreadable cached package {}: {}", pkg, e.getMessage(), e);
+            evict(key);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Answers a {@code PackageStream} which caches {@code packageStream} under {@code key} as it is read.
+     *
+     * @param key           the cache key
+     * @param packageStream the package to cache
+     * @return a {@code PackageStream} which reads and caches {@code packageStream}
+     */
+    public PackageStream caching(String key, PackageStream packageStream) {
+        return new CachingPackageStream(this, key, packageStream);
+    }
+
+    /**
+     * Removes the package cached under {@code key}, if there is one.
+     *
+     * @param key the cache key
+     */
+    public void evict(String key) {
+        verified.remove(key);
+        try {
+            Files.deleteIfExists(metadataPath(key));
+            Files.deleteIfExists(packagePath(key));
+        } catch (IOException e) {
+            LOG.warn("Unable to evict cached package {}: {}", packagePath(key), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The number of bytes occupied by cached packages.
+     *
+     * @return the size of the cache, in bytes
+     */
+    public long sizeBytes() {
+        long size = 0;
+        for (Path pkg : packages()) {
+            size += pkg.toFile().length();
+        }
+        return size;
+    }
+
+    /**
+     * Creates a file to hold a package being cached under {@code key}.
+     *
+     * @param key the cache key
+     * @return the partial file
+     * @throws IOException if the file cannot be created
+     */
+    Path newPartial(String key) throws IOException {
+        return Files.createTempFile(directory, key + "-", PARTIAL_SUFFIX);
+    }
+
+    /**
+     * Stores a completely read package, written to {@code partial}, in the cache.  The least recently used packages
+     * are evicted if the cache has grown beyond its maximum size.  Storing a package is serialized with {@link #trim()
+     * trimming} the cache, so a package being stored is not evicted part way through.
+     *
+     * @param key       the cache key
+     * @param partial   the file holding the bytes of the package
+     * @param sha256    the SHA-256 digest of the bytes of the package
+     * @param sizeBytes the size of the package
+     * @param metadata  the metadata of the package
+     * @param resources the resources of the package, or {@code null} if they are not known
+     */
+    synchronized void store(String key, Path partial, byte[] sha256, long sizeBytes, PackageStream.Metadata metadata,
+                            Iterator<PackageStream.Resource> resources) {
+        Properties props = fromMetadata(metadata, sizeBytes);
+        props.setProperty(MD_INTEGRITY, toHex(sha256));
+        if (resources != null) {
+            fromResources(props, resources);
+        }
+
+        Path md = metadataPath(key);
+        try {
+            Path mdPartial = newPartial(key);
+            try (OutputStream out = Files.newOutputStream(mdPartial)) {
+                props.store(out, "Cached package metadata");
+            }
+
+            // Lookups require the metadata, so it is moved into place last
+            move(partial, packagePath(key));
+            move(mdPartial, md);
+
+            // The bytes of the package were digested as they were written
+            verified.put(key, Files.getLastModifiedTime(packagePath(key)));
+            LOG.debug("Cached package {} ({} bytes)", packagePath(key), sizeBytes);
+        } catch (IOException e) {
+            LOG.warn("Unable to cache package {}: {}", packagePath(key), e.getMessage(), e);
+            evict(key);
+        } finally {
+            deleteQuietly(partial);
+        }
+
+        trim();
+    }
+
+    /**
+     * Evicts the least recently used packages until the cache is no larger than its maximum size.
+     */
+    synchronized void trim() {
+        List<Path> packages = packages();
+        long size = 0;
+        for (Path pkg : packages) {
+            size += pkg.toFile().length();
+        }
+
+        if (size <= maxBytes) {
+            return;
+        }
+
+        packages.sort(Comparator.comparingLong(pkg -> pkg.toFile().lastModified()));
+        for (Path pkg : packages) {
+            if (size <= maxBytes) {
+                break;
+            }
+            long length = pkg.toFile().length();
+            String fileName = pkg.getFileName().toString();
+            evict(fileName.substring(0, fileName.length() - PACKAGE_SUFFIX.length()));
+            size -= length;
+            LOG.debug("Evicted cached package {} ({} bytes)", pkg, length);
+        }
+    }
+
+    static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOG.trace("Unable to delete {}: {}", path, e.getMessage(), e);
+        }
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance(SHA256);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private List<Path> packages() {
+        List<Path> packages = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*" + PACKAGE_SUFFIX)) {
+            entries.forEach(packages::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return packages;
+    }
+
+    private Path packagePath(String key) {
+        return directory.resolve(key + PACKAGE_SUFFIX);
+    }
+
+    private Path metadataPath(String key) {
+        return directory.resolve(key + METADATA_SUFFIX);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, REPLACE_EXISTING);
+        }
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buf)) != -1) {
+                digest.update(buf, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static Properties fromMetadata(PackageStream.Metadata md, long sizeBytes) {
+        Properties props = new Properties();
+        setIfPresent(props, MD_NAME, md.name());
+        setIfPresent(props, MD_SPEC, md.spec());
+        setIfPresent(props, MD_MIME_TYPE, md.mimeType());
+        props.setProperty(MD_SIZE, String.valueOf(sizeBytes));
+        props.setProperty(MD_COMPRESSED, String.valueOf(md.compressed()));
+        setIfPresent(props, MD_COMPRESSION, md.compression());
+        props.setProperty(MD_ARCHIVED, String.valueOf(md.archived()));
+        setIfPresent(props, MD_ARCHIVE, md.archive());
+        if (md.checksums() != null) {
+            md.checksums().forEach(sum -> props.setProperty(MD_CHECKSUM_PREFIX + sum.algorithm().name(),
+                                                            sum.asBase64()));
+        }
+        return props;
+    }
+
+    private static void fromResources(Properties props, Iterator<PackageStream.Resource> resources) {
+        int count = 0;
+        while (resources.hasNext()) {
+            PackageStream.Resource resource = resources.next();
+            String prefix = MD_RESOURCE_PREFIX + count++ + ".";
+            setIfPresent(props, prefix + MD_NAME, resource.name());
+            setIfPresent(props, prefix + MD_MIME_TYPE, resource.mimeType());
+            props.setProperty(prefix + MD_SIZE, String.valueOf(resource.sizeBytes()));
+            if (resource.checksums() != null) {
+                resource.checksums().forEach(sum -> props.setProperty(prefix + MD_CHECKSUM_PREFIX +
+                                                                      sum.algorithm().name(), sum.asBase64()));
+            }
+        }
+        props.setProperty(MD_RESOURCE_COUNT, String.valueOf(count));
+    }
+
+    private static List<PackageStream.Resource> toResources(Properties props) {
+        if (props.getProperty(MD_RESOURCE_COUNT) == null) {
+            return null;
+        }
+
+        int count = Integer.parseInt(props.getProperty(MD_RESOURCE_COUNT));
+        List<PackageStream.Resource> resources = new ArrayList<>(count);
+        DefaultResourceBuilderFactory builderFactory = new DefaultResourceBuilderFactory();
+        for (int i = 0; i < count; i++) {
+            String prefix = MD_RESOURCE_PREFIX + i + ".";
+            ResourceBuilder rb = builderFactory.newInstance();
+            rb.name(props.getProperty(prefix + MD_NAME));
+            rb.mimeType(props.getProperty(prefix + MD_MIME_TYPE));
+            rb.sizeBytes(Long.parseLong(props.getProperty(prefix + MD_SIZE)));
+            for (Checksum.OPTS algo : Checksum.OPTS.values()) {
+                String value = props.getProperty(prefix + MD_CHECKSUM_PREFIX + algo.name());
+                if (value != null) {
+                    rb.checksum(AssemblerSupport.checksum(algo, Base64.getDecoder().decode(value)));
+                }
+            }
+            resources.add(rb.build());
+        }
+        return resources;
+    }
+
+    private static PackageStream.Metadata toMetadata(Properties props, DepositSubmission submission) {
+        MetadataBuilder mdb = new MetadataBuilderImpl();
+        mdb.name(props.getProperty(MD_NAME));
+        mdb.spec(props.getProperty(MD_SPEC));
+        mdb.mimeType(props.getProperty(MD_MIME_TYPE));
+        mdb.sizeBytes(Long.parseLong(props.getProperty(MD_SIZE)));
+        mdb.compressed(Boolean.parseBoolean(props.getProperty(MD_COMPRESSED)));
+        if (props.getProperty(MD_COMPRESSION) != null) {
+            mdb.compression(Compression.OPTS.valueOf(props.getProperty(MD_COMPRESSION)));
+        }
+        mdb.archived(Boolean.parseBoolean(props.getProperty(MD_ARCHIVED)));
+        if (props.getProperty(MD_ARCHIVE) != null) {
+            mdb.archive(Archive.OPTS.valueOf(props.getProperty(MD_ARCHIVE)));
+        }
+        for (Checksum.OPTS algo : Checksum.OPTS.values()) {
+            String value = props.getProperty(MD_CHECKSUM_PREFIX + algo.name());
+            if (value != null) {
+                mdb.checksum(AssemblerSupport.checksum(algo, Base64.getDecoder().decode(value)));
+            }
+        }
+        mdb.submissionMeta(submission.getSubmissionMeta());
+        return mdb.build();
+    }
+
+    private static void setIfPresent(Properties props, String key, Object value) {
+        if (value != null) {
+            props.setProperty(key, value.toString());
+        }
+    }
+
+    private static void update(MessageDigest digest, Object value) {
+        digest.update(String.valueOf(value).getBytes(UTF_8));
+        // Delimit values, so adjacent values cannot be confused
+        digest.update((byte) 0);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+}
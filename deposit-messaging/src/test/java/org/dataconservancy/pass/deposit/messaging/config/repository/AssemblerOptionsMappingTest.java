@@ -21,6 +21,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
 import org.junit.Test;
 
 /**
@@ -76,4 +77,14 @@ public class AssemblerOptionsMappingTest extends AbstractJacksonMappingTest {
         assertEquals("stringvalue", options.getOptionsMap().get("stringkey"));
         assertEquals(singletonList("arrayvalue"), options.getOptionsMap().get("arraykey"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void mapCompressionLevel() throws IOException {
+        AssemblerOptions options = mapper.readValue("{ \"compression\": \"GZIP\", \"compression-level\": 1 }",
+                                                    AssemblerOptions.class);
+
+        assertEquals(Integer.valueOf(1), options.getCompressionLevel());
+        assertTrue(options.getOptionsMap().isEmpty());
+        assertEquals(1, options.asOptionsMap().get(Compression.LEVEL_KEY));
+    }
+}
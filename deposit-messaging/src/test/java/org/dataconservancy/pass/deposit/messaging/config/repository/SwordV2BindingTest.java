@@ -18,11 +18,13 @@ package org.dataconservancy.pass.deposit.messaging.config.repository;
 import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints.HINT_TUPLE_SEPARATOR;
 import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints.HINT_URL_SEPARATOR;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -99,4 +101,12 @@ public class SwordV2BindingTest {
         assertEquals("", underTest.hintsToPropertyString(Collections.emptyMap()));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void segmentSizeMib() {
+        assertFalse(underTest.asPropertiesMap().containsKey(Sword2TransportHints.SWORD_SEGMENT_SIZE_MIB));
+
+        underTest.setSegmentSizeMib(512L);
+        assertEquals("512", underTest.asPropertiesMap().get(Sword2TransportHints.SWORD_SEGMENT_SIZE_MIB));
+    }
+
+}
@@ -18,23 +18,34 @@ package org.dataconservancy.pass.deposit.messaging.service;
 import static org.dataconservancy.pass.deposit.messaging.DepositMessagingTestUtil.randomIntermediateDepositStatus;
 import static org.dataconservancy.pass.deposit.messaging.DepositMessagingTestUtil.randomUri;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 import java.net.URI;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.abdera.i18n.iri.IRI;
 import org.dataconservancy.pass.client.PassClient;
 import org.dataconservancy.pass.deposit.assembler.Assembler;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions;
 import org.dataconservancy.pass.deposit.assembler.PackageStream;
 import org.dataconservancy.pass.deposit.messaging.model.Packager;
 import org.dataconservancy.pass.deposit.messaging.policy.Policy;
+import org.dataconservancy.pass.deposit.transport.PreflightCheck;
+import org.dataconservancy.pass.deposit.transport.PreflightException;
 import org.dataconservancy.pass.deposit.transport.Transport;
 import org.dataconservancy.pass.deposit.transport.TransportResponse;
 import org.dataconservancy.pass.deposit.transport.TransportSession;
@@ -163,6 +174,69 @@ public class DepositTaskTest {
         assertEquals(href, d.getDepositStatusRef());
     }
 
+    /**
+     * The metadata of the package, as computed while it was sent, is recorded in the deposit context.
+     */
+    @Test
+    public void recordFixityOfSentPackage() throws Exception {
+        Deposit d = new Deposit();
+        d.setId(randomUri());
+        dc.deposit(d);
+
+        PackageStream stream = mock(PackageStream.class);
+        PackageStream.Metadata md = mock(PackageStream.Metadata.class);
+        PackageStream.Checksum md5 = mock(PackageStream.Checksum.class);
+        when(md5.algorithm()).thenReturn(PackageOptions.Checksum.OPTS.MD5);
+        when(md5.asHex()).thenReturn("6cd3556deb0da54bca060b4c39479839");
+        when(md.checksums()).thenReturn(Collections.singletonList(md5));
+        when(stream.metadata()).thenReturn(md);
+
+        DepositTask.TransportResponseUpdateFunc.recordFixity(dc, stream, mock(TransportResponse.class));
+
+        assertSame(md, dc.packageMetadata());
+    }
+
+    /**
+     * The metadata of the package supplied by the transport response is preferred to that of the package stream.
+     */
+    @Test
+    public void recordFixityFromTransportResponse() throws Exception {
+        Deposit d = new Deposit();
+        d.setId(randomUri());
+        dc.deposit(d);
+
+        PackageStream stream = mock(PackageStream.class);
+        PackageStream.Metadata md = mock(PackageStream.Metadata.class);
+        TransportResponse tr = mock(TransportResponse.class);
+        when(tr.packageMetadata()).thenReturn(md);
+
+        DepositTask.TransportResponseUpdateFunc.recordFixity(dc, stream, tr);
+
+        assertSame(md, dc.packageMetadata());
+        verify(stream, never()).metadata();
+    }
+
+    /**
+     * A package failing the pre-flight check of the transport session is not sent.
+     */
+    @Test
+    public void preflightFailure() throws Exception {
+        Deposit d = depositContext(dc, mock(TransportResponse.class), passClient);
+        TransportSession session = mock(TransportSession.class, withSettings().extraInterfaces(PreflightCheck.class));
+        doThrow(new PreflightException("Package too large"))
+            .when((PreflightCheck) session).preflight(any(), anyMap());
+        when(dc.packager().getTransport().open(anyMap())).thenReturn(session);
+
+        try {
+            DepositTask.TransportResponseUpdateFunc.performDeposit(dc).apply(d);
+            fail("Expected the pre-flight check to fail the deposit");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().startsWith("Pre-flight check failed for deposit " + d.getId()));
+        }
+
+        verify(session, never()).send(any(), any());
+    }
+
     /**
      * Populates the supplied {@code depositContext} with a {@code Repository}, {@code Submission} and
      * {@code Deposit}.
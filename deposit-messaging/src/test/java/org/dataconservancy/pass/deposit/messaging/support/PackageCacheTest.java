@@ -0,0 +1,234 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.messaging.support;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport;
+import org.dataconservancy.pass.deposit.model.DepositFile;
+import org.dataconservancy.pass.deposit.model.DepositSubmission;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PackageCacheTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private PackageCache underTest;
+
+    private DepositSubmission submission;
+
+    @Before
+    public void setUp() throws Exception {
+        underTest = new PackageCache(tmp.newFolder("cache").toPath(), 1024 * 1024);
+        submission = new DepositSubmission();
+        submission.setId("http://example.org/submission/1");
+    }
+
+    /**
+     * A package read to the end is cached, and the cached package carries the bytes and metadata of the original.
+     */
+    @Test
+    public void packageReadToEndIsCached() throws Exception {
+        byte[] content = randomBytes(8192);
+        String key = PackageCache.key(submission, "repo", emptyMap());
+
+        try (InputStream in = underTest.caching(key, packageStream(content)).open()) {
+            IOUtils.toByteArray(in);
+        }
+
+        PackageStream cached = underTest.lookup(key, submission).orElseThrow(AssertionError::new);
+        try (InputStream in = cached.open()) {
+            assertArrayEquals(content, IOUtils.toByteArray(in));
+        }
+        assertEquals("package.tar", cached.metadata().name());
+        assertEquals(content.length, cached.metadata().sizeBytes());
+        assertEquals(Archive.OPTS.TAR, cached.metadata().archive());
+    }
+
+    /**
+     * The resources of a cached package are those of the original, as they were known once it was read.
+     */
+    @Test
+    public void resourcesOfPackageAreCached() throws Exception {
+        String key = PackageCache.key(submission, "repo", emptyMap());
+        PackageStream.Resource resource = mock(PackageStream.Resource.class);
+        when(resource.name()).thenReturn("manuscript.pdf");
+        when(resource.mimeType()).thenReturn("application/pdf");
+        when(resource.sizeBytes()).thenReturn(1234L);
+        when(resource.checksums()).thenReturn(Collections.singletonList(
+            AssemblerSupport.checksum(Checksum.OPTS.MD5, randomBytes(16))));
+        PackageStream stream = packageStream(randomBytes(8192));
+        when(stream.resources()).thenReturn(Collections.singletonList(resource).iterator());
+
+        try (InputStream in = underTest.caching(key, stream).open()) {
+            IOUtils.toByteArray(in);
+        }
+
+        PackageStream cached = underTest.lookup(key, submission).orElseThrow(AssertionError::new);
+        Iterator<PackageStream.Resource> resources = cached.resources();
+        PackageStream.Resource cachedResource = resources.next();
+        assertFalse(resources.hasNext());
+        assertEquals("manuscript.pdf", cachedResource.name());
+        assertEquals("application/pdf", cachedResource.mimeType());
+        assertEquals(1234L, cachedResource.sizeBytes());
+        assertEquals(resource.checksums().iterator().next().asHex(), cachedResource.checksum().asHex());
+        assertEquals(Checksum.OPTS.MD5, cachedResource.checksum().algorithm());
+    }
+
+    /**
+     * A single resource may be opened from a cached TAR package.
+     */
+    @Test
+    public void resourceOpenedFromCachedPackage() throws Exception {
+        String key = PackageCache.key(submission, "repo", emptyMap());
+        byte[] manuscript = randomBytes(4096);
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tarOut = new TarArchiveOutputStream(tar)) {
+            TarArchiveEntry entry = new TarArchiveEntry("data/manuscript.pdf");
+            entry.setSize(manuscript.length);
+            tarOut.putArchiveEntry(entry);
+            tarOut.write(manuscript);
+            tarOut.closeArchiveEntry();
+        }
+
+        try (InputStream in = underTest.caching(key, packageStream(tar.toByteArray())).open()) {
+            IOUtils.toByteArray(in);
+        }
+
+        PackageStream cached = underTest.lookup(key, submission).orElseThrow(AssertionError::new);
+        try (InputStream in = cached.open("data/manuscript.pdf")) {
+            assertArrayEquals(manuscript, IOUtils.toByteArray(in));
+        }
+    }
+
+    /**
+     * A package that is not read to the end is not cached.
+     */
+    @Test
+    public void partiallyReadPackageIsNotCached() throws Exception {
+        String key = PackageCache.key(submission, "repo", emptyMap());
+
+        try (InputStream in = underTest.caching(key, packageStream(randomBytes(8192))).open()) {
+            in.read(new byte[100]);
+        }
+
+        assertFalse(underTest.lookup(key, submission).isPresent());
+        assertEquals(0, underTest.sizeBytes());
+    }
+
+    /**
+     * A cached package whose bytes have changed is evicted rather than re-used.
+     */
+    @Test
+    public void corruptPackageIsEvicted() throws Exception {
+        String key = PackageCache.key(submission, "repo", emptyMap());
+        try (InputStream in = underTest.caching(key, packageStream(randomBytes(8192))).open()) {
+            IOUtils.toByteArray(in);
+        }
+
+        Path pkg = tmp.getRoot().toPath().resolve("cache").resolve(key + PackageCache.PACKAGE_SUFFIX);
+        Files.write(pkg, randomBytes(8192));
+
+        assertFalse(underTest.lookup(key, submission).isPresent());
+        assertFalse(Files.exists(pkg));
+    }
+
+    /**
+     * The least recently used packages are evicted when the cache grows beyond its maximum size.
+     */
+    @Test
+    public void leastRecentlyUsedPackageEvicted() throws Exception {
+        underTest = new PackageCache(tmp.newFolder("small").toPath(), 10000);
+        String first = PackageCache.key(submission, "first", emptyMap());
+        String second = PackageCache.key(submission, "second", emptyMap());
+
+        try (InputStream in = underTest.caching(first, packageStream(randomBytes(6000))).open()) {
+            IOUtils.toByteArray(in);
+        }
+        Path firstPkg = tmp.getRoot().toPath().resolve("small").resolve(first + PackageCache.PACKAGE_SUFFIX);
+        assertTrue(firstPkg.toFile().setLastModified(System.currentTimeMillis() - 60000));
+
+        try (InputStream in = underTest.caching(second, packageStream(randomBytes(6000))).open()) {
+            IOUtils.toByteArray(in);
+        }
+
+        assertFalse(underTest.lookup(first, submission).isPresent());
+        assertTrue(underTest.lookup(second, submission).isPresent());
+    }
+
+    /**
+     * Keys differ when the repository, options or custodial files differ.
+     */
+    @Test
+    public void keyIdentifiesPackage() throws Exception {
+        String key = PackageCache.key(submission, "repo", emptyMap());
+        assertEquals(key, PackageCache.key(submission, "repo", emptyMap()));
+        assertNotEquals(key, PackageCache.key(submission, "other", emptyMap()));
+        assertNotEquals(key, PackageCache.key(submission, "repo", singletonMap("ARCHIVE", Archive.OPTS.ZIP)));
+
+        DepositFile file = new DepositFile();
+        file.setName("manuscript.pdf");
+        file.setLocation("http://example.org/fcrepo/manuscript.pdf");
+        submission.setFiles(Collections.singletonList(file));
+        assertNotEquals(key, PackageCache.key(submission, "repo", emptyMap()));
+    }
+
+    private static PackageStream packageStream(byte[] content) {
+        PackageStream.Metadata md = mock(PackageStream.Metadata.class);
+        when(md.name()).thenReturn("package.tar");
+        when(md.archived()).thenReturn(true);
+        when(md.archive()).thenReturn(Archive.OPTS.TAR);
+
+        PackageStream stream = mock(PackageStream.class);
+        when(stream.open()).thenReturn(new ByteArrayInputStream(content));
+        when(stream.metadata()).thenReturn(md);
+        return stream;
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random().nextBytes(bytes);
+        return bytes;
+    }
+
+}
@@ -46,6 +46,11 @@ public class DepositFile {
      */
     private String location;
 
+    /**
+     * The media type of the file, as declared when the file was uploaded, may be {@code null}
+     */
+    private String mimeType;
+
     public DepositFileType getType() {
         return type;
     }
@@ -78,6 +83,14 @@ public class DepositFile {
         this.location = location;
     }
 
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -98,7 +111,10 @@ public class DepositFile {
         if (label != null ? !label.equals(depositFile.label) : depositFile.label != null) {
             return false;
         }
-        return location != null ? location.equals(depositFile.location) : depositFile.location == null;
+        if (location != null ? !location.equals(depositFile.location) : depositFile.location != null) {
+            return false;
+        }
+        return mimeType != null ? mimeType.equals(depositFile.mimeType) : depositFile.mimeType == null;
     }
 
     @Override
@@ -107,6 +123,7 @@ public class DepositFile {
         result = 31 * result + (name != null ? name.hashCode() : 0);
         result = 31 * result + (label != null ? label.hashCode() : 0);
         result = 31 * result + (location != null ? location.hashCode() : 0);
+        result = 31 * result + (mimeType != null ? mimeType.hashCode() : 0);
         return result;
     }
 
@@ -117,6 +134,7 @@ public class DepositFile {
                ", name='" + name + '\'' +
                ", label='" + label + '\'' +
                ", location='" + location + '\'' +
+               ", mimeType='" + mimeType + '\'' +
                '}';
     }
 
@@ -372,6 +372,7 @@ abstract class ModelBuilder {
                     // TODO - The client model currently only has "manuscript" and "supplement" roles.
                     depositFile.setType(getTypeForRole(file.getFileRole()));
                     depositFile.setLabel(file.getDescription());
+                    depositFile.setMimeType(file.getMimeType());
                     files.add(depositFile);
                 }
             }
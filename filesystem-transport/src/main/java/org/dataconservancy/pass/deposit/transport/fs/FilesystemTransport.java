@@ -21,10 +21,11 @@ import static org.dataconservancy.pass.deposit.transport.fs.FilesystemTransportH
 import static org.dataconservancy.pass.model.Deposit.DepositStatus.SUBMITTED;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -115,8 +116,8 @@ public class FilesystemTransport implements Transport {
             File outputFile = new File(baseDir, filename);
 
             if (!outputFile.exists() || overwrite) {
-                try (InputStream in = packageStream.open(); OutputStream out = new FileOutputStream(outputFile)) {
-                    IOUtils.copy(in, out);
+                try (InputStream in = packageStream.open(); FileOutputStream out = new FileOutputStream(outputFile)) {
+                    copy(in, out);
                 } catch (Exception e) {
                     transportException.set(e);
                 }
@@ -136,6 +137,11 @@ public class FilesystemTransport implements Transport {
                     return transportException.get();
                 }
 
+                @Override
+                public PackageStream.Metadata packageMetadata() {
+                    return packageStream.metadata();
+                }
+
                 /**
                  * If the package file created by
                  * {@link FilesystemTransport.FilesystemTransportSession#send(PackageStream, Map)
@@ -207,4 +213,27 @@ public class FilesystemTransport implements Transport {
         }
     }
 
+    /**
+     * Copies the package to the output file.  If the package is read from a file, as a spooled package is, its bytes
+     * are transferred from channel to channel, without being copied through the heap.
+     *
+     * @param in the package
+     * @param out the output file
+     * @throws IOException if the package cannot be copied
+     */
+    static void copy(InputStream in, FileOutputStream out) throws IOException {
+        if (in instanceof FileInputStream) {
+            FileChannel source = ((FileInputStream) in).getChannel();
+            long position = source.position();
+            long transferred;
+            while ((transferred = source.transferTo(position, source.size() - position, out.getChannel())) > 0) {
+                position += transferred;
+            }
+            source.position(position);
+        }
+
+        // Copies whatever remains of the package, which is all of it unless it was read from a file
+        IOUtils.copy(in, out);
+    }
+
 }
@@ -15,6 +15,7 @@
  */
 package org.dataconservancy.pass.deposit.transport.ftp;
 
+import java.io.IOException;
 import java.util.Map;
 
 import org.apache.commons.net.ftp.FTPClient;
@@ -35,4 +36,18 @@ interface FtpClientFactory {
      */
     FTPClient newInstance(Map<String, String> hints);
 
+    /**
+     * Release an FTP client created by this factory once the session using it is closed.  The default implementation
+     * disconnects the client.  Factories which re-use clients may answer an FTP client that is already connected and
+     * logged in from {@link #newInstance(Map)}, and use this method to return the client for re-use.
+     *
+     * @param ftpClient the FTP client being released
+     * @param reusable  {@code false} if the client may be in an unknown state (e.g. a transfer failed or was
+     *                  cancelled), and must not be re-used
+     * @throws IOException if the client cannot be disconnected
+     */
+    default void release(FTPClient ftpClient, boolean reusable) throws IOException {
+        FtpUtil.disconnect(ftpClient);
+    }
+
 }
@@ -42,6 +42,8 @@ import org.springframework.stereotype.Component;
  *     <li>Set the transfer mode being used for this session</li>
  *     <li>Create (if needed) and change into the base working directory</li>
  * </ol>
+ * The first three steps are skipped when the {@link FtpClientFactory} supplies a client that is already connected and
+ * logged in, e.g. one re-used by the {@link PooledFtpClientFactory}.
  * In other words, a caller executing a {@link FtpTransport#open(Map)} will receive a {@link FtpTransportSession} that
  * is connected, logged in, and set to a certain working directory.
  *
@@ -89,8 +91,9 @@ public class FtpTransport implements Transport {
     }
 
     /**
-     * Uses the supplied configuration hints to open a new session with an FTP server.  Each session has new {@link
-     * FTPClient} which is used to communicate with the remote FTP server.  The {@link #FtpTransport(FtpClientFactory)
+     * Uses the supplied configuration hints to open a new session with an FTP server.  Each session has its own {@link
+     * FTPClient} which is used to communicate with the remote FTP server, and which is released to the client factory
+     * when the session is closed.  The {@link #FtpTransport(FtpClientFactory)
      * client factory} supplied on construction is used for creating the {@code FTPClient} instances.
      *
      * @param hints configuration hints
@@ -115,29 +118,57 @@ public class FtpTransport implements Transport {
      * @throws RuntimeException if the session cannot be successfully opened
      */
     FtpTransportSession open(FTPClient ftpClient, Map<String, String> hints) {
+        String baseDir = hints.get(FtpTransportHints.BASE_DIRECTORY);
+
+        try {
+            // Clients supplied by a pooling factory may already be connected and logged in
+            if (!ftpClient.isConnected()) {
+                connect(ftpClient, hints);
+            }
+
+            if (baseDir != null && baseDir.trim().length() > 0) {
+                if (baseDir.contains("%s")) {
+                    baseDir = String.format(baseDir, OffsetDateTime.now(ZoneId.of("UTC")).format(ISO_LOCAL_DATE));
+                }
+                setWorkingDirectory(ftpClient, baseDir);
+            }
+        } catch (RuntimeException e) {
+            try {
+                ftpClientFactory.release(ftpClient, false);
+            } catch (Exception inner) {
+                e.addSuppressed(inner);
+            }
+            throw e;
+        }
+
+        FtpTransportSession session = new FtpTransportSession(ftpClient, ftpClientFactory);
+        LOG.debug("Opened {}@{}...", session.getClass().getSimpleName(), toHexString(identityHashCode(session)));
+        return session;
+    }
+
+    /**
+     * Connects to the FTP server, logs in, and sets the transfer mode of the supplied client using the supplied
+     * configuration hints.
+     * <p>
+     * Package private for use by {@link PooledFtpClientFactory}.
+     * </p>
+     *
+     * @param ftpClient the FTP client that is not yet connected
+     * @param hints     configuration hints
+     * @throws RuntimeException if the client cannot be connected or logged in
+     */
+    static void connect(FTPClient ftpClient, Map<String, String> hints) {
         String serverName = hints.get(Transport.TRANSPORT_SERVER_FQDN);
         String serverPort = hints.get(Transport.TRANSPORT_SERVER_PORT);
         String transferMode = hints.get(FtpTransportHints.TRANSFER_MODE);
-        String baseDir = hints.get(FtpTransportHints.BASE_DIRECTORY);
 
         FtpUtil.connect(ftpClient, serverName, Integer.parseInt(serverPort));
         FtpUtil.login(ftpClient, hints.get(TRANSPORT_USERNAME), hints.get(TRANSPORT_PASSWORD));
         setTransferMode(ftpClient, transferMode);
 
-        if (baseDir != null && baseDir.trim().length() > 0) {
-            if (baseDir.contains("%s")) {
-                baseDir = String.format(baseDir, OffsetDateTime.now(ZoneId.of("UTC")).format(ISO_LOCAL_DATE));
-            }
-            setWorkingDirectory(ftpClient, baseDir);
-        }
-
         // Initialize the system type, which is cached for the duration of an FTP Client instance
         // Having this value cached will resolve some issues with aborted file transfers and directory listings
         FtpUtil.performSilently(ftpClient, ftpClient::getSystemType);
-
-        FtpTransportSession session = new FtpTransportSession(ftpClient);
-        LOG.debug("Opened {}@{}...", session.getClass().getSimpleName(), toHexString(identityHashCode(session)));
-        return session;
     }
 
 }
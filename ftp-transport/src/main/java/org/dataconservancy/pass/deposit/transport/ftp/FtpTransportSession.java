@@ -70,18 +70,42 @@ public class FtpTransportSession implements TransportSession {
      */
     private FTPClient ftpClient;
 
+    /**
+     * Releases the {@link #ftpClient} when this session is closed
+     */
+    private FtpClientFactory ftpClientFactory;
+
+    /**
+     * Whether or not the {@link #ftpClient} may be re-used once this session is closed; {@code false} once a transfer
+     * fails or is cancelled
+     */
+    private boolean reusable = true;
+
     /**
      * A transfer that may still be in-progress
      */
     private FutureTask<TransportResponse> transfer;
 
     public FtpTransportSession(FTPClient ftpClient) {
-        this(ftpClient, Executors.newSingleThreadExecutor());
+        this(ftpClient, new DefaultFtpClientFactory());
     }
 
-    private FtpTransportSession(FTPClient ftpClient, ExecutorService executorService) {
+    /**
+     * Constructs a session using the supplied FTP client, which is {@link FtpClientFactory#release(FTPClient, boolean)
+     * released} to the supplied factory when the session is closed.
+     *
+     * @param ftpClient        a connected FTP client
+     * @param ftpClientFactory the factory which supplied the FTP client
+     */
+    FtpTransportSession(FTPClient ftpClient, FtpClientFactory ftpClientFactory) {
+        this(ftpClient, ftpClientFactory, Executors.newSingleThreadExecutor());
+    }
+
+    private FtpTransportSession(FTPClient ftpClient, FtpClientFactory ftpClientFactory,
+                                ExecutorService executorService) {
         this.executorService = executorService;
         this.ftpClient = ftpClient;
+        this.ftpClientFactory = ftpClientFactory;
     }
 
     @Override
@@ -100,8 +124,26 @@ public class FtpTransportSession implements TransportSession {
         executorService.submit(transfer);
 
         try {
-            return transfer.get();
+            TransportResponse response = transfer.get();
+            reusable &= response.success();
+            return new TransportResponse() {
+                @Override
+                public boolean success() {
+                    return response.success();
+                }
+
+                @Override
+                public Throwable error() {
+                    return response.error();
+                }
+
+                @Override
+                public PackageStream.Metadata packageMetadata() {
+                    return packageStream.metadata();
+                }
+            };
         } catch (InterruptedException e) {
+            reusable = false;
             LOG.info(format(ERR_TRANSFER, streamMetadata.name(), "<host>", "<port>", "transfer was cancelled!"));
             return new TransportResponse() {
                 @Override
@@ -115,6 +157,7 @@ public class FtpTransportSession implements TransportSession {
                 }
             };
         } catch (ExecutionException e) {
+            reusable = false;
             LOG.info(format(ERR_TRANSFER, streamMetadata.name(), "<host>", "<port>", e.getMessage()), e);
             return new TransportResponse() {
                 @Override
@@ -144,6 +187,7 @@ public class FtpTransportSession implements TransportSession {
             LOG.debug("Closing {}@{}, cancelling pending transfer...",
                       this.getClass().getSimpleName(), toHexString(identityHashCode(this)));
             transfer.cancel(true);
+            reusable = false;
         }
 
         if (this.isClosed) {
@@ -153,7 +197,7 @@ public class FtpTransportSession implements TransportSession {
         }
 
         try {
-            FtpUtil.disconnect(ftpClient);
+            ftpClientFactory.release(ftpClient, reusable);
         } catch (IOException e) {
             LOG.debug("Exception encountered while closing {}@{}, FTP client logout failed.  " +
                       "Continuing to close the object despite the exception: {}",
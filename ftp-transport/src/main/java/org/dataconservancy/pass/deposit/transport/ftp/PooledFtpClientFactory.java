@@ -0,0 +1,480 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.transport.ftp;
+
+import static java.lang.Integer.toHexString;
+import static java.lang.System.identityHashCode;
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_PASSWORD;
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_SERVER_FQDN;
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_SERVER_PORT;
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_USERNAME;
+import static org.dataconservancy.pass.deposit.transport.ftp.FtpTransportHints.TRANSFER_MODE;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPReply;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+/**
+ * Supplies {@link FTPClient}s from a pool of connected, logged-in clients, keyed by the host, port, credentials, and
+ * transfer mode of the FTP server.  Opening a {@link FtpTransportSession} with a pooled client skips the connection
+ * and login handshake, which otherwise dominates the time spent depositing small packages.
+ * <p>
+ * Idle clients are checked with a {@code NOOP} before they are re-used, and are disconnected once they have been idle
+ * for longer than the maximum idle time.  At most {@link #setMaxPerHost(int) max-per-host} clients, idle or in use,
+ * are connected to an FTP server (identified by its host and port) at a time; callers wait for a client to be
+ * {@link #release(FTPClient, boolean) released} when the limit is reached.  The working directory of a released client
+ * is reset to the directory it was in after logging in.  A maximum idle time of {@code 0} or less disables pooling:
+ * every released client is disconnected.
+ * </p>
+ */
+@Component
+@Primary
+public class PooledFtpClientFactory implements FtpClientFactory {
+
+    static final int DEFAULT_MAX_PER_HOST = 4;
+
+    static final long DEFAULT_MAX_IDLE_MS = 60 * 1000;
+
+    static final long DEFAULT_BORROW_TIMEOUT_MS = 2 * 60 * 1000;
+
+    /**
+     * How often idle clients are checked for eviction, in milliseconds
+     */
+    static final long EVICTION_INTERVAL_MS = 15 * 1000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(PooledFtpClientFactory.class);
+
+    private final FtpClientFactory delegate;
+
+    private final LongSupplier clock;
+
+    /**
+     * Idle clients, keyed by host, port, credentials, and transfer mode, most recently released last
+     */
+    private final Map<List<String>, Deque<PooledClient>> idle = new HashMap<>();
+
+    /**
+     * Clients which are in use
+     */
+    private final Map<FTPClient, PooledClient> borrowed = new IdentityHashMap<>();
+
+    /**
+     * The number of connected clients, idle or in use, keyed by host and port
+     */
+    private final Map<String, Integer> connected = new HashMap<>();
+
+    private int maxPerHost = DEFAULT_MAX_PER_HOST;
+
+    private volatile long maxIdleMs = DEFAULT_MAX_IDLE_MS;
+
+    private long borrowTimeoutMs = DEFAULT_BORROW_TIMEOUT_MS;
+
+    /**
+     * Evicts idle clients in the background, {@code null} if idle clients are only evicted on demand
+     */
+    private ScheduledExecutorService evictor;
+
+    private boolean closed;
+
+    /**
+     * Creates a pool of clients created by the supplied factory, evicting idle clients using a single background
+     * thread.
+     *
+     * @param delegate creates the clients in the pool
+     */
+    @Autowired
+    public PooledFtpClientFactory(DefaultFtpClientFactory delegate) {
+        this(delegate, System::currentTimeMillis);
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "FTP-Connection-Evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdle, EVICTION_INTERVAL_MS, EVICTION_INTERVAL_MS,
+                                       TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a pool of clients created by the supplied factory.  Idle clients are only evicted when a client is
+     * requested, or when {@link #evictIdle()} is invoked.
+     * <p>
+     * Package private for testing.
+     * </p>
+     *
+     * @param delegate creates the clients in the pool
+     * @param clock    supplies the current time in milliseconds
+     */
+    PooledFtpClientFactory(FtpClientFactory delegate, LongSupplier clock) {
+        this.delegate = delegate;
+        this.clock = clock;
+    }
+
+    /**
+     * The maximum number of clients, idle or in use, connected to an FTP server at a time.
+     *
+     * @param maxPerHost the maximum number of connected clients per host and port
+     */
+    @Value("${pass.deposit.transport.ftp.pool.max-per-host:" + DEFAULT_MAX_PER_HOST + "}")
+    public void setMaxPerHost(int maxPerHost) {
+        if (maxPerHost < 1) {
+            throw new IllegalArgumentException("Maximum connections per host must be a positive integer.");
+        }
+        synchronized (this) {
+            this.maxPerHost = maxPerHost;
+            notifyAll();
+        }
+    }
+
+    /**
+     * The time a client may be idle before it is disconnected; {@code 0} or less disables pooling.
+     *
+     * @param maxIdleMs the maximum idle time, in milliseconds
+     */
+    @Value("${pass.deposit.transport.ftp.pool.max-idle-ms:" + DEFAULT_MAX_IDLE_MS + "}")
+    public void setMaxIdleMs(long maxIdleMs) {
+        synchronized (this) {
+            this.maxIdleMs = maxIdleMs;
+        }
+        evictIdle();
+    }
+
+    /**
+     * The time to wait for a client when the maximum number of clients are connected to an FTP server.
+     *
+     * @param borrowTimeoutMs the maximum time to wait, in milliseconds
+     */
+    @Value("${pass.deposit.transport.ftp.pool.borrow-timeout-ms:" + DEFAULT_BORROW_TIMEOUT_MS + "}")
+    public synchronized void setBorrowTimeoutMs(long borrowTimeoutMs) {
+        this.borrowTimeoutMs = borrowTimeoutMs;
+    }
+
+    /**
+     * Answers a connected, logged-in, client for the FTP server and credentials in the supplied {@code hints}.  An idle
+     * client which answers a {@code NOOP} is preferred; otherwise a new client is connected and logged in.
+     *
+     * @param hints used to configure the FTP client
+     * @return a connected and logged-in FTP client
+     * @throws RuntimeException if a client cannot be connected, or if the maximum number of clients remain connected to
+     *                          the FTP server for longer than the borrow timeout
+     */
+    @Override
+    public FTPClient newInstance(Map<String, String> hints) {
+        // Pooled clients are not connected again, so the transfer mode set when they connected must match the hints
+        List<String> key = Arrays.asList(hints.get(TRANSPORT_SERVER_FQDN), hints.get(TRANSPORT_SERVER_PORT),
+                                         hints.get(TRANSPORT_USERNAME), hints.get(TRANSPORT_PASSWORD),
+                                         hints.get(TRANSFER_MODE));
+        String host = host(key);
+
+        while (true) {
+            PooledClient candidate = null;
+            List<PooledClient> evicted = new ArrayList<>();
+
+            synchronized (this) {
+                evicted.addAll(expired());
+                long deadline = clock.getAsLong() + borrowTimeoutMs;
+
+                while (candidate == null) {
+                    Deque<PooledClient> clients = idle.get(key);
+                    if (clients != null && !clients.isEmpty()) {
+                        candidate = clients.pollLast();
+                    } else if (connected.getOrDefault(host, 0) < maxPerHost) {
+                        connected.merge(host, 1, Integer::sum);
+                        break;
+                    } else {
+                        // Connections idle for other credentials on the same server make room for this one
+                        PooledClient other = idleForHost(host);
+                        if (other != null) {
+                            evicted.add(other);
+                            connected.merge(host, -1, Integer::sum);
+                            continue;
+                        }
+
+                        long remainingMs = deadline - clock.getAsLong();
+                        if (remainingMs <= 0) {
+                            disconnectAll(evicted);
+                            throw new RuntimeException("Timed out after " + borrowTimeoutMs + " ms waiting for one " +
+                                                       "of " + maxPerHost + " connections to " + host);
+                        }
+
+                        try {
+                            wait(remainingMs);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            disconnectAll(evicted);
+                            throw new RuntimeException("Interrupted waiting for a connection to " + host, e);
+                        }
+                    }
+                }
+            }
+
+            disconnectAll(evicted);
+
+            if (candidate == null) {
+                return connect(key, hints);
+            }
+
+            if (isHealthy(candidate.ftpClient)) {
+                synchronized (this) {
+                    borrowed.put(candidate.ftpClient, candidate);
+                }
+                LOG.debug("Re-using FTP client {} connected to {}", asString(candidate.ftpClient), host);
+                return candidate.ftpClient;
+            }
+
+            LOG.debug("Discarding FTP client {} connected to {}, NOOP failed", asString(candidate.ftpClient), host);
+            discard(candidate);
+        }
+    }
+
+    /**
+     * Returns the supplied client to the pool, after resetting its working directory.  Clients which are not {@code
+     * reusable}, whose working directory cannot be reset, which were not created by this pool, or which are released
+     * after the pool is {@link #close() closed}, are disconnected.
+     *
+     * @param ftpClient the client being released
+     * @param reusable  whether or not the client is in a state to be re-used
+     */
+    @Override
+    public void release(FTPClient ftpClient, boolean reusable) throws IOException {
+        PooledClient client;
+        synchronized (this) {
+            client = borrowed.remove(ftpClient);
+        }
+
+        if (client == null) {
+            FtpUtil.disconnect(ftpClient);
+            return;
+        }
+
+        if (reusable && maxIdleMs > 0 && resetWorkingDirectory(client)) {
+            synchronized (this) {
+                if (!closed) {
+                    client.lastUsed = clock.getAsLong();
+                    idle.computeIfAbsent(client.key, k -> new ArrayDeque<>()).addLast(client);
+                    notifyAll();
+                    return;
+                }
+            }
+        }
+
+        discard(client);
+    }
+
+    /**
+     * Stops evicting idle clients in the background, and disconnects the idle clients.  Clients in use are
+     * disconnected when they are released.
+     */
+    @PreDestroy
+    public void close() {
+        List<PooledClient> evicted = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            if (evictor != null) {
+                evictor.shutdownNow();
+            }
+            idle.values().forEach(clients -> clients.forEach(client -> {
+                connected.merge(host(client.key), -1, Integer::sum);
+                evicted.add(client);
+            }));
+            idle.clear();
+            notifyAll();
+        }
+        disconnectAll(evicted);
+    }
+
+    /**
+     * Disconnects clients which have been idle for longer than the maximum idle time.
+     */
+    void evictIdle() {
+        List<PooledClient> evicted;
+        synchronized (this) {
+            evicted = expired();
+        }
+        disconnectAll(evicted);
+    }
+
+    /**
+     * The number of idle clients in the pool.
+     *
+     * @return the number of idle clients
+     */
+    synchronized int idleCount() {
+        return idle.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    /**
+     * Connects and logs in a new client.  The caller must have counted the client against the connections to its host.
+     */
+    private FTPClient connect(List<String> key, Map<String, String> hints) {
+        FTPClient ftpClient = null;
+        try {
+            ftpClient = delegate.newInstance(hints);
+            FtpTransport.connect(ftpClient, hints);
+            String loginDirectory = FtpUtil.performSilently(ftpClient, FTPClient::printWorkingDirectory);
+            synchronized (this) {
+                borrowed.put(ftpClient, new PooledClient(key, ftpClient, loginDirectory));
+            }
+            LOG.debug("Connected FTP client {} to {}", asString(ftpClient), host(key));
+            return ftpClient;
+        } catch (RuntimeException e) {
+            discard(new PooledClient(key, ftpClient, null));
+            throw e;
+        }
+    }
+
+    private boolean isHealthy(FTPClient ftpClient) {
+        try {
+            return ftpClient.isConnected() && ftpClient.sendNoOp();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean resetWorkingDirectory(PooledClient client) {
+        try {
+            return client.loginDirectory != null &&
+                   client.ftpClient.changeWorkingDirectory(client.loginDirectory) &&
+                   FTPReply.isPositiveCompletion(client.ftpClient.getReplyCode());
+        } catch (IOException e) {
+            LOG.debug("Unable to reset the working directory of FTP client {} to '{}': {}",
+                      asString(client.ftpClient), client.loginDirectory, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Removes, and answers, the idle clients which have been idle for longer than the maximum idle time.  The caller
+     * must hold the monitor of this pool, and is responsible for disconnecting the answered clients.
+     */
+    private List<PooledClient> expired() {
+        List<PooledClient> expired = new ArrayList<>();
+        long now = clock.getAsLong();
+        for (Iterator<Deque<PooledClient>> itr = idle.values().iterator(); itr.hasNext(); ) {
+            Deque<PooledClient> clients = itr.next();
+            // Clients are released to the end of the deque, so the oldest are at the front
+            while (!clients.isEmpty() && (maxIdleMs <= 0 || now - clients.peekFirst().lastUsed >= maxIdleMs)) {
+                PooledClient client = clients.pollFirst();
+                connected.merge(host(client.key), -1, Integer::sum);
+                expired.add(client);
+            }
+            if (clients.isEmpty()) {
+                itr.remove();
+            }
+        }
+
+        if (!expired.isEmpty()) {
+            notifyAll();
+        }
+
+        return expired;
+    }
+
+    /**
+     * Removes, and answers, the least recently used idle client connected to the supplied host, regardless of its
+     * credentials.  The caller must hold the monitor of this pool.
+     */
+    private PooledClient idleForHost(String host) {
+        PooledClient oldest = null;
+        for (Deque<PooledClient> clients : idle.values()) {
+            PooledClient client = clients.peekFirst();
+            if (client != null && host(client.key).equals(host) &&
+                    (oldest == null || client.lastUsed < oldest.lastUsed)) {
+                oldest = client;
+            }
+        }
+
+        if (oldest != null) {
+            idle.get(oldest.key).pollFirst();
+        }
+
+        return oldest;
+    }
+
+    /**
+     * Disconnects a client which is no longer counted as idle, or in use, making room for another connection to its
+     * host.
+     */
+    private void discard(PooledClient client) {
+        synchronized (this) {
+            connected.merge(host(client.key), -1, Integer::sum);
+            notifyAll();
+        }
+        disconnectAll(Arrays.asList(client));
+    }
+
+    private static void disconnectAll(List<PooledClient> clients) {
+        clients.stream().filter(client -> client.ftpClient != null).forEach(client -> {
+            try {
+                FtpUtil.disconnect(client.ftpClient);
+            } catch (IOException e) {
+                LOG.debug("Exception encountered disconnecting FTP client {}: {}",
+                          asString(client.ftpClient), e.getMessage(), e);
+            }
+        });
+    }
+
+    private static String host(List<String> key) {
+        return key.get(0) + ":" + key.get(1);
+    }
+
+    private static String asString(FTPClient ftpClient) {
+        return FTPClient.class.getSimpleName() + "@" + toHexString(identityHashCode(ftpClient));
+    }
+
+    private static class PooledClient {
+
+        private final List<String> key;
+
+        private final FTPClient ftpClient;
+
+        /**
+         * The working directory of the client after it logged in
+         */
+        private final String loginDirectory;
+
+        private long lastUsed;
+
+        private PooledClient(List<String> key, FTPClient ftpClient, String loginDirectory) {
+            this.key = key;
+            this.ftpClient = ftpClient;
+            this.loginDirectory = loginDirectory;
+        }
+
+    }
+
+}
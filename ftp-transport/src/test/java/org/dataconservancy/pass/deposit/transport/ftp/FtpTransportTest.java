@@ -29,6 +29,7 @@ import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -138,4 +139,31 @@ public class FtpTransportTest {
         verify(ftpClient, atLeastOnce()).getReplyCode();
         verify(ftpClient, atLeastOnce()).getReplyString();
     }
-}
\ No newline at end of file
+
+    /**
+     * A client supplied already connected (e.g. re-used from a pool) is not connected or logged in again, and is
+     * released to the factory, without being re-used, when the working directory cannot be set.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testOpenConnectedClient() throws IOException {
+        when(ftpClient.isConnected()).thenReturn(true);
+        when(ftpClient.getReplyCode()).thenReturn(FTPReply.COMMAND_OK);
+        when(ftpClient.changeWorkingDirectory(FTP_ROOT_DIR)).thenReturn(true);
+
+        assertNotNull(transport.open(expectedHints));
+        verify(ftpClient, never()).connect(anyString(), anyInt());
+        verify(ftpClient, never()).login(anyString(), anyString());
+
+        when(ftpClient.printWorkingDirectory()).thenThrow(new IOException("Connection closed"));
+        try {
+            transport.open(expectedHints);
+            fail("Expected RuntimeException to be thrown.");
+        } catch (RuntimeException e) {
+            // expected
+        }
+
+        verify(ftpClientFactory).release(ftpClient, false);
+    }
+}
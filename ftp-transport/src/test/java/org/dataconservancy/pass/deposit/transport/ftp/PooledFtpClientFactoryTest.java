@@ -0,0 +1,221 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.transport.ftp;
+
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_AUTHMODE;
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_PASSWORD;
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_PROTOCOL;
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_SERVER_FQDN;
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_SERVER_PORT;
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_USERNAME;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPReply;
+import org.dataconservancy.pass.deposit.transport.Transport;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PooledFtpClientFactoryTest {
+
+    private static final String LOGIN_DIR = "/home/nihmsftpuser";
+
+    private FtpClientFactory delegate;
+
+    private AtomicLong clock = new AtomicLong();
+
+    private PooledFtpClientFactory underTest;
+
+    @Before
+    public void setUp() throws Exception {
+        delegate = mock(FtpClientFactory.class);
+        when(delegate.newInstance(anyMap())).then(inv -> mockClient());
+        underTest = new PooledFtpClientFactory(delegate, clock::get);
+    }
+
+    /**
+     * A released client is re-used, after answering a NOOP, without connecting or logging in again.  Its working
+     * directory is reset to the login directory when it is released.
+     */
+    @Test
+    public void reused() throws Exception {
+        FTPClient client = underTest.newInstance(hints("nihmsftpuser"));
+        verify(client).login("nihmsftpuser", "nihmsftppass");
+
+        underTest.release(client, true);
+        verify(client).changeWorkingDirectory(LOGIN_DIR);
+        assertEquals(1, underTest.idleCount());
+
+        assertSame(client, underTest.newInstance(hints("nihmsftpuser")));
+        assertEquals(0, underTest.idleCount());
+        verify(delegate).newInstance(anyMap());
+        verify(client).login(anyString(), anyString());
+        verify(client, times(2)).sendNoOp();
+    }
+
+    /**
+     * Clients are not shared between different credentials.
+     */
+    @Test
+    public void keyedByCredentials() throws Exception {
+        FTPClient client = underTest.newInstance(hints("nihmsftpuser"));
+        underTest.release(client, true);
+
+        FTPClient other = underTest.newInstance(hints("otheruser"));
+        assertNotSame(client, other);
+        verify(other).login("otheruser", "nihmsftppass");
+        assertEquals(1, underTest.idleCount());
+    }
+
+    /**
+     * Clients are not shared between different transfer modes, because a pooled client is not connected again.
+     */
+    @Test
+    public void keyedByTransferMode() throws Exception {
+        FTPClient client = underTest.newInstance(hints("nihmsftpuser"));
+        underTest.release(client, true);
+
+        Map<String, String> hints = hints("nihmsftpuser");
+        hints.put(FtpTransportHints.TRANSFER_MODE, FtpTransportHints.MODE.block.name());
+        assertNotSame(client, underTest.newInstance(hints));
+        assertEquals(1, underTest.idleCount());
+    }
+
+    /**
+     * Closing the pool disconnects idle clients, and clients released after the pool is closed.
+     */
+    @Test
+    public void closed() throws Exception {
+        FTPClient idle = underTest.newInstance(hints("nihmsftpuser"));
+        FTPClient inUse = underTest.newInstance(hints("nihmsftpuser"));
+        underTest.release(idle, true);
+
+        underTest.close();
+        verify(idle).disconnect();
+        assertEquals(0, underTest.idleCount());
+
+        underTest.release(inUse, true);
+        verify(inUse).disconnect();
+        assertEquals(0, underTest.idleCount());
+    }
+
+    /**
+     * An idle client which does not answer a NOOP is disconnected, and a new client is connected in its place.
+     */
+    @Test
+    public void unhealthyDiscarded() throws Exception {
+        FTPClient client = underTest.newInstance(hints("nihmsftpuser"));
+        underTest.release(client, true);
+        when(client.sendNoOp()).thenReturn(false);
+
+        assertNotSame(client, underTest.newInstance(hints("nihmsftpuser")));
+        verify(client).disconnect();
+    }
+
+    /**
+     * Clients released after a failed, or cancelled, transfer are disconnected rather than re-used.
+     */
+    @Test
+    public void notReusable() throws Exception {
+        FTPClient client = underTest.newInstance(hints("nihmsftpuser"));
+        underTest.release(client, false);
+
+        verify(client).disconnect();
+        verify(client, never()).changeWorkingDirectory(anyString());
+        assertEquals(0, underTest.idleCount());
+    }
+
+    @Test
+    public void idleEvicted() throws Exception {
+        FTPClient client = underTest.newInstance(hints("nihmsftpuser"));
+        underTest.release(client, true);
+
+        clock.addAndGet(PooledFtpClientFactory.DEFAULT_MAX_IDLE_MS - 1);
+        underTest.evictIdle();
+        assertEquals(1, underTest.idleCount());
+
+        clock.incrementAndGet();
+        underTest.evictIdle();
+        assertEquals(0, underTest.idleCount());
+        verify(client).disconnect();
+    }
+
+    /**
+     * Once the maximum number of clients are connected to a host, callers time out waiting for a client, unless an
+     * idle client connected with other credentials can be disconnected to make room.
+     */
+    @Test
+    public void maxPerHost() throws Exception {
+        underTest.setMaxPerHost(1);
+        underTest.setBorrowTimeoutMs(0);
+
+        FTPClient client = underTest.newInstance(hints("nihmsftpuser"));
+        try {
+            underTest.newInstance(hints("nihmsftpuser"));
+            fail("Expected the maximum connections per host to be exceeded");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().startsWith("Timed out"));
+        }
+
+        underTest.release(client, true);
+        FTPClient other = underTest.newInstance(hints("otheruser"));
+        assertNotSame(client, other);
+        verify(client).disconnect();
+        assertEquals(0, underTest.idleCount());
+    }
+
+    private static Map<String, String> hints(String username) {
+        Map<String, String> hints = new HashMap<>();
+        hints.put(TRANSPORT_PROTOCOL, Transport.PROTOCOL.ftp.name());
+        hints.put(TRANSPORT_AUTHMODE, Transport.AUTHMODE.userpass.name());
+        hints.put(TRANSPORT_USERNAME, username);
+        hints.put(TRANSPORT_PASSWORD, "nihmsftppass");
+        hints.put(TRANSPORT_SERVER_FQDN, "example.ftp.submission.nih.org");
+        hints.put(TRANSPORT_SERVER_PORT, "21");
+        hints.put(FtpTransportHints.TRANSFER_MODE, FtpTransportHints.MODE.stream.name());
+        return hints;
+    }
+
+    private static FTPClient mockClient() throws IOException {
+        FTPClient client = mock(FTPClient.class);
+        when(client.getReplyCode()).thenReturn(FTPReply.COMMAND_OK);
+        when(client.sendNoOp()).thenReturn(true);
+        when(client.login(anyString(), anyString())).thenReturn(true);
+        when(client.setFileTransferMode(anyInt())).thenReturn(true);
+        when(client.printWorkingDirectory()).thenReturn(LOGIN_DIR);
+        when(client.changeWorkingDirectory(anyString())).thenReturn(true);
+        when(client.isConnected()).thenReturn(true);
+        return client;
+    }
+
+}
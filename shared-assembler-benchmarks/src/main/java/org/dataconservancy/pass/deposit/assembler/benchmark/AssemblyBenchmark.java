@@ -0,0 +1,241 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.dataconservancy.pass.deposit.assembler.shared.ArchivingPackageStream;
+import org.dataconservancy.pass.deposit.assembler.shared.DefaultMetadataBuilderFactory;
+import org.dataconservancy.pass.deposit.assembler.shared.DefaultResourceBuilderFactory;
+import org.dataconservancy.pass.deposit.assembler.shared.DepositFileResource;
+import org.dataconservancy.pass.deposit.assembler.shared.PackageStreamExecutor;
+import org.dataconservancy.pass.deposit.model.DepositFile;
+import org.dataconservancy.pass.deposit.model.DepositSubmission;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Measures the end-to-end throughput of assembling a package with an {@link ArchivingPackageStream}: custodial files
+ * are read from the local filesystem, written to the package by the stream writer, and the package is read to the end
+ * by the benchmark thread.  The primary score is in packages/s; the {@code custodialBytes} and {@code packageBytes}
+ * secondary scores are in bytes/s.  The peak number of live threads is printed at the end of each trial.
+ * <p>
+ * The sweep covers the archive format, compression, the checksums computed for each resource, and the number and
+ * size of the custodial files, given as {@code <count>x<size>} (e.g. {@code 5000x1KiB}).  Every custodial resource of
+ * a package is backed by the same file, so large packages need not occupy a correspondingly large amount of disk;
+ * each resource is read from the file independently.  The defaults sweep packages of up to a few hundred MiB; larger
+ * shapes may be supplied on the command line, e.g. {@code -p files=1x2GiB}.
+ * </p>
+ * <p>
+ * ZIP packages compress each entry rather than the package as a whole, so for ZIP packages {@code NONE} compression
+ * stores entries deflated at level {@code 0}, and {@code GZIP} deflates entries at the default level.
+ * </p>
+ * <p>
+ * Run {@link #main(String[])} to include the allocation rate reported by the JMH GC profiler, or supply
+ * {@code -prof gc} when running the benchmarks jar.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class AssemblyBenchmark {
+
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    @Param({"TAR", "ZIP"})
+    public String archive;
+
+    @Param({"NONE", "GZIP"})
+    public String compression;
+
+    /**
+     * Comma-separated checksum algorithms computed for each resource, or {@code NONE}
+     */
+    @Param({"NONE", "MD5", "MD5,SHA256,SHA512"})
+    public String checksums;
+
+    /**
+     * The number and size of the custodial files, e.g. {@code 100x1MiB}
+     */
+    @Param({"1x1KiB", "100x1KiB", "5000x1KiB", "1x1MiB", "100x1MiB", "1x256MiB"})
+    public String files;
+
+    private File custodialFile;
+
+    private List<DepositFileResource> resources;
+
+    private Map<String, Object> options;
+
+    private PackageStreamExecutor executor;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Bytes of custodial content and of package written, reported by JMH as rates
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+
+        public long custodialBytes;
+
+        public long packageBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            custodialBytes = 0;
+            packageBytes = 0;
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int separator = files.indexOf('x');
+        int count = Integer.parseInt(files.substring(0, separator));
+        long size = parseSize(files.substring(separator + 1));
+
+        custodialFile = File.createTempFile("custodial-", ".txt");
+        byte[] chunk = ParallelGzipBenchmark.textPayload(CHUNK_SIZE);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(custodialFile))) {
+            for (long remaining = size; remaining > 0; remaining -= CHUNK_SIZE) {
+                out.write(chunk, 0, (int) Math.min(CHUNK_SIZE, remaining));
+            }
+        }
+
+        resources = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DepositFile df = new DepositFile();
+            df.setName("file-" + i + ".txt");
+            resources.add(new DepositFileResource(df, new FileSystemResource(custodialFile) {
+                @Override
+                public String getFilename() {
+                    return df.getName();
+                }
+            }));
+        }
+
+        options = new HashMap<>();
+        options.put(Archive.KEY, Archive.OPTS.valueOf(archive));
+        Compression.OPTS compressionOpt = Compression.OPTS.valueOf(compression);
+        if (Archive.OPTS.valueOf(archive) == Archive.OPTS.ZIP) {
+            options.put(Compression.LEVEL_KEY, compressionOpt == Compression.OPTS.NONE ?
+                Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+        } else {
+            options.put(Compression.KEY, compressionOpt);
+        }
+        options.put(Checksum.KEY, checksumAlgorithms(checksums));
+
+        executor = new PackageStreamExecutor(1, 1);
+        threads.resetPeakThreadCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nPeak live threads (%s, %s, %s, %s): %d%n", archive, compression, checksums, files,
+                          threads.getPeakThreadCount());
+        executor.close();
+        FileUtils.deleteQuietly(custodialFile);
+    }
+
+    @Benchmark
+    public PackageStream.Metadata assemble(Bytes bytes) throws IOException {
+        ArchivingPackageStream packageStream = new ArchivingPackageStream(new DepositSubmission(), resources,
+            new DefaultMetadataBuilderFactory().newInstance(), new DefaultResourceBuilderFactory(), options,
+            new CustodialOnlyPackageProvider(), executor);
+
+        try (InputStream in = packageStream.open()) {
+            bytes.packageBytes += IOUtils.copyLarge(in, new NullOutputStream());
+        }
+        bytes.custodialBytes += custodialFile.length() * resources.size();
+
+        return packageStream.metadata();
+    }
+
+    /**
+     * Runs the benchmark with the JMH GC profiler, which reports the allocation rate.
+     *
+     * @param args unused
+     * @throws RunnerException if the benchmark cannot be run
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                       .include(AssemblyBenchmark.class.getSimpleName())
+                       .addProfiler(GCProfiler.class)
+                       .build()).run();
+    }
+
+    private static long parseSize(String size) {
+        String[] units = {"KiB", "MiB", "GiB"};
+        for (int i = 0; i < units.length; i++) {
+            if (size.endsWith(units[i])) {
+                return Long.parseLong(size.substring(0, size.length() - 3)) << (10 * (i + 1));
+            }
+        }
+        return Long.parseLong(size);
+    }
+
+    private static List<Checksum.OPTS> checksumAlgorithms(String checksums) {
+        if ("NONE".equals(checksums)) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(checksums.split(",")).map(Checksum.OPTS::valueOf).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.dataconservancy.pass.deposit.assembler.shared.DepositFileResource;
+import org.dataconservancy.pass.deposit.assembler.shared.PackageProvider;
+import org.dataconservancy.pass.deposit.model.DepositSubmission;
+
+/**
+ * Places each custodial resource at the root of the package under its file name, and adds no supplemental resources,
+ * so benchmarks measure the cost of writing custodial content alone.
+ */
+class CustodialOnlyPackageProvider implements PackageProvider {
+
+    @Override
+    public void start(DepositSubmission submission, List<DepositFileResource> custodialResources,
+                      Map<String, Object> packageOptions) {
+        // no-op
+    }
+
+    @Override
+    public String packagePath(DepositFileResource custodialResource) {
+        return custodialResource.getFilename();
+    }
+
+    @Override
+    public List<SupplementalResource> finish(DepositSubmission submission,
+                                             List<PackageStream.Resource> packageResources) {
+        return Collections.emptyList();
+    }
+
+}
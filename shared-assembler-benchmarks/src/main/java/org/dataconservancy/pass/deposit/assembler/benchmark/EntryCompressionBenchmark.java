@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.benchmark;
+
+import static java.util.Collections.emptyList;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+import org.dataconservancy.pass.deposit.assembler.shared.DefaultResourceBuilderFactory;
+import org.dataconservancy.pass.deposit.assembler.shared.DefaultStreamWriterImpl;
+import org.dataconservancy.pass.deposit.assembler.shared.DepositFileResource;
+import org.dataconservancy.pass.deposit.model.DepositFile;
+import org.dataconservancy.pass.deposit.model.DepositSubmission;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ByteArrayResource;
+
+/**
+ * Measures the throughput of writing a ZIP package of mostly incompressible custodial content, with and without the
+ * per-entry compression policy.  Each invocation writes {@link #PAYLOAD_MIB} MiB of custodial content, and counts as
+ * that many operations, so the reported throughput is in MiB/s.  The size of the resulting package, relative to the
+ * custodial content, is printed at the end of each trial.
+ * <p>
+ * The custodial content resembles a typical submission: JPEG and PNG figures, and a PDF manuscript, whose content is
+ * already compressed, and a small amount of text.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EntryCompressionBenchmark {
+
+    static final int PAYLOAD_MIB = 32;
+
+    private static final int FILES = 16;
+
+    private static final byte[][] MAGIC = new byte[][] {
+        {(byte) 0xff, (byte) 0xd8, (byte) 0xff, (byte) 0xe0, 0x00, 0x10, 'J', 'F', 'I', 'F', 0x00},
+        {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'},
+        {'%', 'P', 'D', 'F', '-', '1', '.', '7', '\n'}
+    };
+
+    /**
+     * {@code true} if incompressible entries are stored, {@code false} if every entry is deflated
+     */
+    @Param({"true", "false"})
+    public boolean policy;
+
+    private List<DepositFileResource> resources;
+
+    private Map<String, Object> options;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(PAYLOAD_MIB);
+        int length = PAYLOAD_MIB * 1024 * 1024 / FILES;
+        resources = new ArrayList<>();
+        for (int i = 0; i < FILES; i++) {
+            byte[] content;
+            if (i % 4 == 3) {
+                content = ParallelGzipBenchmark.textPayload(length);
+            } else {
+                content = new byte[length];
+                random.nextBytes(content);
+                byte[] magic = MAGIC[i % 4];
+                System.arraycopy(magic, 0, content, 0, magic.length);
+            }
+            resources.add(resource("file-" + i, content));
+        }
+
+        options = new HashMap<>();
+        options.put(Archive.KEY, Archive.OPTS.ZIP);
+        if (!policy) {
+            options.put(Compression.INCOMPRESSIBLE_MEDIA_TYPES_KEY, emptyList());
+        }
+    }
+
+    /**
+     * Reports the size of the package relative to its custodial content, which is not measured by JMH.
+     *
+     * @throws IOException if the package cannot be written
+     */
+    @TearDown(Level.Trial)
+    public void reportRatio() throws IOException {
+        System.out.printf("%nPackage size (policy = %s): %.4f of custodial content%n", policy,
+                          (double) writeZip() / (PAYLOAD_MIB * 1024 * 1024));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOAD_MIB)
+    public long writeZip() throws IOException {
+        CountingOutputStream out = new CountingOutputStream(new NullOutputStream());
+        new DefaultStreamWriterImpl(new DepositSubmission(), resources, new DefaultResourceBuilderFactory(), options,
+                                    new CustodialOnlyPackageProvider(), null)
+            .start(resources, new ZipArchiveOutputStream(out));
+        return out.getByteCount();
+    }
+
+    private static DepositFileResource resource(String name, byte[] content) {
+        DepositFile df = new DepositFile();
+        df.setName(name);
+        return new DepositFileResource(df, new ByteArrayResource(content, name) {
+            @Override
+            public String getFilename() {
+                return name;
+            }
+        });
+    }
+
+}
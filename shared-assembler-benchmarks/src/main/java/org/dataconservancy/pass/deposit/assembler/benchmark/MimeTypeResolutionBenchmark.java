@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.tika.detect.DefaultDetector;
+import org.apache.tika.mime.MediaType;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport;
+import org.dataconservancy.pass.deposit.assembler.shared.DefaultResourceBuilderFactory;
+import org.dataconservancy.pass.deposit.assembler.shared.DefaultStreamWriterImpl;
+import org.dataconservancy.pass.deposit.assembler.shared.DepositFileResource;
+import org.dataconservancy.pass.deposit.model.DepositFile;
+import org.dataconservancy.pass.deposit.model.DepositSubmission;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ByteArrayResource;
+
+/**
+ * Measures the per-entry overhead of writing a package of many small custodial files, according to how the media type
+ * of each file is resolved.  Each invocation writes {@link #FILES} files, and counts as that many operations, so the
+ * reported throughput is in entries/s.
+ * <p>
+ * {@link #sniffWithNewDetector()} measures media type detection alone, as it was performed before media types were
+ * resolved by the {@code MimeTypeResolver}: content is sniffed by a new Tika detector for every entry.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MimeTypeResolutionBenchmark {
+
+    static final int FILES = 1000;
+
+    private static final int FILE_SIZE = 4 * 1024;
+
+    /**
+     * How the media type of each file is resolved: {@code declared} by the {@code DepositFile}, from the
+     * {@code extension} of the file name, or {@code sniffed} from the content of the file
+     */
+    @Param({"declared", "extension", "sniffed"})
+    public String resolution;
+
+    private List<DepositFileResource> resources;
+
+    private Map<String, Object> options;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(FILES);
+        resources = new ArrayList<>();
+        for (int i = 0; i < FILES; i++) {
+            byte[] content = ParallelGzipBenchmark.textPayload(FILE_SIZE);
+            content[0] = (byte) ('a' + random.nextInt(26));
+
+            DepositFile df = new DepositFile();
+            switch (resolution) {
+                case "declared":
+                    df.setName("file-" + i);
+                    df.setMimeType("text/plain");
+                    break;
+                case "extension":
+                    df.setName("file-" + i + ".txt");
+                    break;
+                default:
+                    df.setName("file-" + i);
+                    break;
+            }
+            resources.add(new DepositFileResource(df, new ByteArrayResource(content, df.getName()) {
+                @Override
+                public String getFilename() {
+                    return df.getName();
+                }
+            }));
+        }
+
+        options = new HashMap<>();
+        options.put(Archive.KEY, Archive.OPTS.TAR);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILES)
+    public void writeTar() throws IOException {
+        new DefaultStreamWriterImpl(new DepositSubmission(), resources, new DefaultResourceBuilderFactory(), options,
+                                    new CustodialOnlyPackageProvider(), null)
+            .start(resources, new TarArchiveOutputStream(new NullOutputStream()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILES)
+    public MediaType sniffWithNewDetector() throws IOException {
+        MediaType mediaType = null;
+        for (DepositFileResource resource : resources) {
+            try (InputStream in = new BufferedInputStream(resource.getInputStream())) {
+                mediaType = AssemblerSupport.detectMediaType(in, new DefaultDetector());
+            }
+        }
+        return mediaType;
+    }
+
+}
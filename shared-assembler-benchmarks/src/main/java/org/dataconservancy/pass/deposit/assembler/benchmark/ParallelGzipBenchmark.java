@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.benchmark;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.dataconservancy.pass.deposit.assembler.shared.ParallelGzipOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of GZIP compression as the number of compression threads grows.  Each invocation compresses
+ * {@link #PAYLOAD_MIB} MiB, and counts as that many operations, so the reported throughput is in MiB/s.
+ * <p>
+ * The single-threaded {@code GzipCompressorOutputStream} used when parallel compression is not configured is
+ * measured by {@link #gzip()} as the baseline.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParallelGzipBenchmark {
+
+    static final int PAYLOAD_MIB = 64;
+
+    private static final String[] WORDS = ("the of and to in is was for that with as by on are from this be at an " +
+                                           "which article manuscript submission repository deposit package data " +
+                                           "figure table results methods").split(" ");
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private byte[] payload;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        payload = textPayload(PAYLOAD_MIB * 1024 * 1024);
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOAD_MIB)
+    public void parallelGzip() throws IOException {
+        try (OutputStream out = new ParallelGzipOutputStream(new NullOutputStream(), executor, threads)) {
+            out.write(payload);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOAD_MIB)
+    public void gzip() throws IOException {
+        try (OutputStream out = new GzipCompressorOutputStream(new NullOutputStream())) {
+            out.write(payload);
+        }
+    }
+
+    /**
+     * Answers compressible, text-like content, so the benchmark is not dominated by incompressible input.
+     *
+     * @param length the length of the payload
+     * @return the payload
+     */
+    static byte[] textPayload(int length) {
+        Random random = new Random(length);
+        StringBuilder text = new StringBuilder(length + 64);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(1000)).append(' ');
+        }
+        text.setLength(length);
+        return text.toString().getBytes(US_ASCII);
+    }
+
+}
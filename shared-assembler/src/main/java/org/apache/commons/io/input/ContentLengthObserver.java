@@ -23,7 +23,11 @@ import org.dataconservancy.pass.deposit.assembler.ResourceBuilder;
  * Applies the number of bytes observed to the supplied {@link ResourceBuilder}.
  *
  * @author Elliot Metsger (emetsger@jhu.edu)
+ * @deprecated the size of package resources is counted by {@link
+ * org.dataconservancy.pass.deposit.assembler.shared.DigestingInputStream}, which digests and counts the bytes of a
+ * resource in a single pass
  */
+@Deprecated
 public class ContentLengthObserver extends ResourceBuilderObserver {
 
     private long length = 0;
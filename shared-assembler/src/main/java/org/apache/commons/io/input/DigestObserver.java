@@ -30,7 +30,11 @@ import org.dataconservancy.pass.deposit.assembler.shared.ChecksumImpl;
  * Computes a digest over the observed bytes, and applies it to the {@link ResourceBuilder}.
  *
  * @author Elliot Metsger (emetsger@jhu.edu)
+ * @deprecated the checksums of package resources are computed by {@link
+ * org.dataconservancy.pass.deposit.assembler.shared.DigestingInputStream}, which updates every digest of a resource
+ * in a single pass
  */
+@Deprecated
 public class DigestObserver extends ResourceBuilderObserver {
 
     private Checksum.OPTS algo;
@@ -56,6 +60,9 @@ public class DigestObserver extends ResourceBuilderObserver {
                 case SHA512:
                     this.digest = MessageDigest.getInstance("SHA-512");
                     break;
+                case SHA1:
+                    this.digest = MessageDigest.getInstance("SHA-1");
+                    break;
                 default:
                     throw new IllegalArgumentException("Unknown algorithm: " + algo.name());
             }
@@ -24,7 +24,10 @@ import org.dataconservancy.pass.deposit.assembler.ResourceBuilder;
  * the state of the {@code ResourceBuilder} after observing the input stream.
  *
  * @author Elliot Metsger (emetsger@jhu.edu)
+ * @deprecated the size and checksums of package resources are supplied to the {@code ResourceBuilder} by {@link
+ * org.dataconservancy.pass.deposit.assembler.shared.DigestingInputStream}
  */
+@Deprecated
 public abstract class ResourceBuilderObserver extends ObservableInputStream.Observer {
 
     protected ResourceBuilder builder;
@@ -18,13 +18,19 @@ package org.dataconservancy.pass.deposit.assembler.shared;
 
 import static org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport.buildMetadata;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import okhttp3.OkHttpClient;
 import org.dataconservancy.deposit.util.spring.EncodingClassPathResource;
 import org.dataconservancy.pass.deposit.assembler.Assembler;
 import org.dataconservancy.pass.deposit.assembler.MetadataBuilder;
@@ -34,6 +40,7 @@ import org.dataconservancy.pass.deposit.model.DepositFile;
 import org.dataconservancy.pass.deposit.model.DepositSubmission;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
@@ -77,8 +84,16 @@ public abstract class AbstractAssembler implements Assembler {
 
     private String fedoraPassword;
 
+    private String fedoraBinaryDirectory;
+
+    private BinaryStoreLayout binaryStoreLayout = new MirroredBinaryStoreLayout();
+
+    private OkHttpClient httpClient;
+
     private boolean followRedirects;
 
+    private PackageStreamExecutor packageStreamExecutor;
+
     /**
      * Constructs a new assembler that provides {@link MetadataBuilderFactory} and {@link ResourceBuilderFactory} for
      * implementations to create and amend the state of package metadata and resources.
@@ -166,6 +181,12 @@ public abstract class AbstractAssembler implements Assembler {
      * bytestream be returned when calling {@link DepositFileResource#getInputStream()} on elements of the
      * returned {@code List}.
      * </p>
+     * <p>
+     * Binaries stored in Fedora are read from the {@link #setFedoraBinaryDirectory(String) locally mounted binary
+     * store}, if one is configured and the binary is present in it, as a {@link MountedBinaryResource}.  Otherwise they
+     * are retrieved using the {@link #setHttpClient(OkHttpClient) HTTP client}, if one is configured, as an {@link
+     * OkHttpResource}.
+     * </p>
      *
      * @param manifest a {@code List} of the custodial content to be assembled into a package
      * @return a Spring {@code DepositFileResource} for each entry in the manifest; entries in the returned {@code List}
@@ -246,14 +267,13 @@ public abstract class AbstractAssembler implements Assembler {
                     // do not require authentication
                     // TODO: a more flexible mechanism for authenticating to origin servers when retrieving resources
                     if (fedoraBaseUrl != null && location.startsWith(fedoraBaseUrl)) {
-                        if (fedoraUser != null) {
-                            try {
-                                LOG.trace("Returning AuthenticatedResource for {}", location);
-                                delegateResource = new AuthenticatedResource(new URL(location), fedoraUser,
-                                                                             fedoraPassword);
-                            } catch (MalformedURLException e) {
-                                throw new RuntimeException(e.getMessage(), e);
-                            }
+                        Resource fedoraResource = fedoraResource(location);
+                        File mountedBinary = mountedBinary(location, fedoraResource);
+                        if (mountedBinary != null) {
+                            LOG.trace("Returning MountedBinaryResource {} for {}", mountedBinary, location);
+                            delegateResource = new MountedBinaryResource(mountedBinary, fedoraResource);
+                        } else if (fedoraUser != null) {
+                            delegateResource = fedoraResource;
                         }
                     } else if (location.startsWith(HTTP_PREFIX) || location.startsWith(HTTPS_PREFIX) ||
                                location.startsWith(JAR_PREFIX)) {
@@ -277,6 +297,76 @@ public abstract class AbstractAssembler implements Assembler {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Answers a resource which retrieves the Fedora binary at {@code location} over HTTP, authenticating with the
+     * configured Fedora credentials.  If an {@link #setHttpClient(OkHttpClient) HTTP client} has been configured, the
+     * binary is retrieved using pooled connections of the client, otherwise using a new connection.
+     *
+     * @param location the location of a binary under the Fedora base URL
+     * @return an {@link OkHttpResource} if an HTTP client is configured, otherwise an {@link AuthenticatedResource}
+     */
+    private Resource fedoraResource(String location) {
+        try {
+            if (httpClient != null) {
+                LOG.trace("Returning OkHttpResource for {}", location);
+                return new OkHttpResource(httpClient, new URL(location), fedoraUser, fedoraPassword);
+            }
+            LOG.trace("Returning AuthenticatedResource for {}", location);
+            return new AuthenticatedResource(new URL(location), fedoraUser, fedoraPassword);
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Maps the location of a Fedora binary to its file in the locally mounted {@link #setFedoraBinaryDirectory(String)
+     * Fedora binary store}, using the configured {@link #setBinaryStoreLayout(BinaryStoreLayout) binary store layout}.
+     * By default, the path of the location relative to the Fedora base URL is resolved against the binary store
+     * directory, e.g. {@code http://localhost:8080/fcrepo/rest/ab/cd/binary} is mapped to {@code
+     * <binary store>/ab/cd/binary}.
+     *
+     * @param location the location of a binary under the Fedora base URL
+     * @param remote   the binary in Fedora
+     * @return the readable file holding the binary, or {@code null} if no binary store is configured, or the binary is
+     * not present in the store, in which case the binary is read over HTTP
+     */
+    protected File mountedBinary(String location, Resource remote) {
+        if (fedoraBinaryDirectory == null || fedoraBinaryDirectory.trim().isEmpty()) {
+            return null;
+        }
+
+        String fedoraPath = UriUtils.decode(location.substring(fedoraBaseUrl.length()), "UTF-8");
+        while (fedoraPath.startsWith("/")) {
+            fedoraPath = fedoraPath.substring(1);
+        }
+
+        String relativePath;
+        try {
+            relativePath = binaryStoreLayout.path(location, fedoraPath, remote);
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Unable to map {} to the binary store {}: {}", location, fedoraBinaryDirectory, e.getMessage());
+            return null;
+        }
+        if (relativePath == null) {
+            LOG.trace("No path in the binary store {} for {}, it will be read over HTTP", fedoraBinaryDirectory,
+                      location);
+            return null;
+        }
+
+        try {
+            Path binaryStore = Paths.get(fedoraBinaryDirectory).toAbsolutePath().normalize();
+            Path binary = binaryStore.resolve(relativePath).normalize();
+            if (!binary.startsWith(binaryStore) || !Files.isRegularFile(binary) || !Files.isReadable(binary)) {
+                LOG.trace("No readable binary at {} for {}, it will be read over HTTP", binary, location);
+                return null;
+            }
+            return binary.toFile();
+        } catch (InvalidPathException e) {
+            LOG.debug("Unable to map {} to the binary store {}: {}", location, fedoraBinaryDirectory, e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Sanitizes the supplied string, which is a candidate for use as a posix filename.  Alpha-numeric characters from
      * the latin-1 codeblock are allowed, all others are removed.  Path elements like {@code \} and {@code /} are
@@ -327,4 +417,78 @@ public abstract class AbstractAssembler implements Assembler {
         this.fedoraPassword = fedoraPassword;
     }
 
+    public String getFedoraBinaryDirectory() {
+        return fedoraBinaryDirectory;
+    }
+
+    /**
+     * The directory where the Fedora binary store is mounted, if it is mounted locally.  Binaries present in the store
+     * are read from disk rather than over HTTP.
+     *
+     * @param fedoraBinaryDirectory the mounted binary store, may be empty or {@code null} if the store is not mounted
+     * @see #mountedBinary(String, Resource)
+     */
+    @Value("${pass.fedora.binary.directory:}")
+    public void setFedoraBinaryDirectory(String fedoraBinaryDirectory) {
+        this.fedoraBinaryDirectory = fedoraBinaryDirectory;
+    }
+
+    public BinaryStoreLayout getBinaryStoreLayout() {
+        return binaryStoreLayout;
+    }
+
+    /**
+     * The layout of the {@link #setFedoraBinaryDirectory(String) mounted binary store}, which maps each Fedora binary
+     * to its file in the store.  When no layout is supplied, the store is expected to mirror the paths of the binaries
+     * in Fedora.
+     *
+     * @param binaryStoreLayout the layout of the binary store, typically a bean of the application, may be {@code null}
+     * @see MirroredBinaryStoreLayout
+     * @see DigestBinaryStoreLayout
+     */
+    @Autowired(required = false)
+    public void setBinaryStoreLayout(BinaryStoreLayout binaryStoreLayout) {
+        this.binaryStoreLayout = (binaryStoreLayout != null) ? binaryStoreLayout : new MirroredBinaryStoreLayout();
+    }
+
+    public OkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * The HTTP client used to retrieve Fedora binaries.  The connection pool and dispatcher of the supplied client are
+     * shared, but its interceptors are not: the credentials of each request are supplied by the {@link OkHttpResource},
+     * and redirects are not followed.  When no client is supplied, each binary is retrieved using a new connection.
+     *
+     * @param httpClient the HTTP client, typically shared by the application, may be {@code null}
+     */
+    @Autowired(required = false)
+    public void setHttpClient(OkHttpClient httpClient) {
+        if (httpClient == null) {
+            this.httpClient = null;
+            return;
+        }
+
+        OkHttpClient.Builder builder = httpClient.newBuilder().followRedirects(false);
+        builder.interceptors().clear();
+        builder.networkInterceptors().clear();
+        this.httpClient = builder.build();
+    }
+
+    /**
+     * The executor used to write the package streams created by this assembler.  Subclasses are expected to supply
+     * this executor when constructing an {@link ArchivingPackageStream}.
+     *
+     * @return the executor configured on this assembler, or the {@link PackageStreamExecutor#defaultInstance() default
+     * executor} if none has been configured
+     */
+    public PackageStreamExecutor getPackageStreamExecutor() {
+        return packageStreamExecutor != null ? packageStreamExecutor : PackageStreamExecutor.defaultInstance();
+    }
+
+    @Autowired(required = false)
+    public void setPackageStreamExecutor(PackageStreamExecutor packageStreamExecutor) {
+        this.packageStreamExecutor = packageStreamExecutor;
+    }
+
 }
@@ -16,22 +16,37 @@
 
 package org.dataconservancy.pass.deposit.assembler.shared;
 
-import static java.lang.Runtime.getRuntime;
-
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.emptyList;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport.booleanOption;
+import static org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport.intOption;
+
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.BiConsumer;
 
 import org.apache.commons.compress.archivers.ArchiveOutputStream;
 import org.dataconservancy.pass.deposit.assembler.MetadataBuilder;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions;
 import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.PipeSize;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Spool;
 import org.dataconservancy.pass.deposit.assembler.PackageStream;
 import org.dataconservancy.pass.deposit.assembler.ResourceBuilder;
 import org.dataconservancy.pass.deposit.model.DepositSubmission;
@@ -42,17 +57,43 @@ import org.slf4j.LoggerFactory;
  * Creates {@link PackageStream}s in a supported {@link Archive archival format}.  Package options, including the
  * archival format, are supplied upon construction.
  * <p>
- * This implementation employs {@link PipedOutputStream} and {@link PipedInputStream} to decouple write and read
- * operations to the {@code PackageStream}.  The intent is the caller (i.e. the client of {@code PackageStream}) can
+ * This implementation employs a {@link RingBufferPipe} to decouple write and read operations to the {@code
+ * PackageStream}.  The intent is the caller (i.e. the client of {@code PackageStream}) can
  * {@link PackageStream#open() open} the stream and begin to read it without blocking.  At the same time,
  * the concrete implementation of {@code ArchivingPackageStream} begins to write the contents of the package in a
- * separate thread.
+ * separate thread.  The size of the pipe, in MiB, may be supplied by the {@link PipeSize#KEY} package option, and
+ * defaults to {@link #DEFAULT_PIPE_SIZE_MIB}.
  * </p>
  * <p>
  * Subclasses of {@code ArchivingPackageStream} are expected to use the {@link MetadataBuilder} and
  * {@link ResourceBuilder} interfaces for adding metadata describing the stream and resources within the stream
  * ({@code ResourceBuilder} instances are obtained from the {@code ResourceBuilderFactory} supplied on construction).
  * </p>
+ * <p>
+ * The writing side of each stream is executed by a {@link PackageStreamExecutor}, which is normally shared by all
+ * {@code ArchivingPackageStream}s in the application.  Exceptions encountered by the writer are routed to the stream
+ * that submitted it, so concurrent streams sharing the executor do not observe each other's failures.
+ * </p>
+ * <p>
+ * If the {@link Spool#KEY} package option is {@code true}, the package is instead written in its entirety to a
+ * temporary file before it is read.  While the package is spooled, each of the configured
+ * {@link PackageOptions.Checksum#KEY checksum algorithms} is computed over the bytes of the package, so the exact size
+ * and checksums of the package are available from {@link #metadata()} before the package is opened.  Transports which
+ * need them up front (e.g. for {@code Content-Length} and {@code Content-MD5} headers) may spool the package, at the
+ * cost of disk space and of the latency of writing the whole package before the first byte can be read.  The
+ * temporary file is deleted when the stream returned by {@link #open()} is closed or, if the package is never opened,
+ * when this package stream is {@link #close() closed}.
+ * </p>
+ * <p>
+ * Packages which are not spooled are digested as they are written to the pipe, so the size and checksums of the bytes
+ * that were actually streamed are available from {@link #metadata()} once the stream has been read to the end.
+ * </p>
+ * <p>
+ * The size of some packages may be calculated without writing them: if the package is an uncompressed TAR archive, and
+ * the {@code PackageProvider} is a {@link SizedPackageProvider}, the size is calculated by a {@link
+ * PackageSizeCalculator} from the paths and lengths of the package resources, and is available from {@link
+ * #metadata()} before the package is opened.
+ * </p>
  */
 public class ArchivingPackageStream implements PackageStream {
 
@@ -62,7 +103,20 @@ public class ArchivingPackageStream implements PackageStream {
 
     private static final Logger LOG = LoggerFactory.getLogger(ArchivingPackageStream.class);
 
-    private static final int ONE_MIB = 2 ^ 20;
+    /**
+     * Size of the pipe between the writer and the reader of the package stream, in MiB, when the {@link PipeSize#KEY}
+     * option is not supplied
+     */
+    static final int DEFAULT_PIPE_SIZE_MIB = 4;
+
+    /**
+     * Size of the buffer used when writing a spooled package to its temporary file
+     */
+    private static final int SPOOL_BUFFER_SIZE = 64 * 1024;
+
+    private static final String SPOOL_PREFIX = "package-";
+
+    private static final String SPOOL_SUFFIX = ".spool";
 
     /**
      * The custodial content to be packaged and streamed.
@@ -86,26 +140,78 @@ public class ArchivingPackageStream implements PackageStream {
 
     private PackageProvider packageProvider;
 
+    private DepositSubmission submission;
+
+    /**
+     * The spooled package that has yet to be opened, or {@code null} if the package has not been spooled
+     */
+    private SpooledPackage spooled;
+
+    /**
+     * Whether the size and checksums of the package have been supplied to the {@code MetadataBuilder}
+     */
+    private boolean packageMetadataPublished;
+
+    /**
+     * The resources of the package described by the metadata, or {@code null} if the package has yet to be written
+     */
+    private List<PackageStream.Resource> packageResources;
+
+    /**
+     * The size of the package calculated before it is written, {@link PackageSizeCalculator#UNKNOWN_SIZE} if it cannot
+     * be calculated, or {@code null} if it has yet to be calculated
+     */
+    private Long calculatedSize;
+
     public ArchivingPackageStream(DepositSubmission submission,
                                   List<DepositFileResource> custodialContent,
                                   MetadataBuilder metadataBuilder,
                                   ResourceBuilderFactory rbf,
                                   Map<String, Object> packageOptions,
                                   PackageProvider packageProvider) {
+        this(submission, custodialContent, metadataBuilder, rbf, packageOptions, packageProvider,
+             PackageStreamExecutor.defaultInstance());
+    }
+
+    /**
+     * Creates a package stream that uses the archive format specified in the {@code packageOptions}, and writes the
+     * package using a thread provided by the supplied {@code executorService}.
+     *
+     * @param submission       the submission being packaged
+     * @param custodialContent the custodial content of the package
+     * @param metadataBuilder  interface used to add metadata describing the package
+     * @param rbf              interface used to instantiate {@code ResourceBuilder} instances
+     * @param packageOptions   the options used when building the package
+     * @param packageProvider  supplies package-specific paths and supplemental resources
+     * @param executorService  used to launch a thread which <em>writes</em> content to the package stream, typically
+     *                         shared across streams
+     */
+    public ArchivingPackageStream(DepositSubmission submission,
+                                  List<DepositFileResource> custodialContent,
+                                  MetadataBuilder metadataBuilder,
+                                  ResourceBuilderFactory rbf,
+                                  Map<String, Object> packageOptions,
+                                  PackageProvider packageProvider,
+                                  ExceptionHandlingThreadPoolExecutor executorService) {
         this.custodialContent = custodialContent;
         this.metadataBuilder = metadataBuilder;
         this.rbf = rbf;
         this.packageOptions = packageOptions;
-        this.executorService = new ExceptionHandlingThreadPoolExecutor(getRuntime().availableProcessors(),
-                                                                       getRuntime().availableProcessors() * 2, 1,
-                                                                       TimeUnit.MINUTES, new ArrayBlockingQueue<>(10));
+        this.executorService = executorService;
         this.packageProvider = packageProvider;
+        this.submission = submission;
+        PackageStreamExecutor pse = executorService instanceof PackageStreamExecutor ?
+            (PackageStreamExecutor) executorService : null;
+        ExecutorService compressionExecutor = pse != null ? pse.compressionExecutor() : null;
         this.streamWriter = new DefaultStreamWriterImpl(submission, custodialContent, rbf, packageOptions,
-                                                        packageProvider);
+                                                        packageProvider, pse != null ? pse.fetchExecutor() : null,
+                                                        compressionExecutor);
         if (STREAMING_IO_LOG.isDebugEnabled()) {
-            this.archiveOutputStreamFactory = new DebuggingArchiveOutputStreamFactory(packageOptions);
+            this.archiveOutputStreamFactory = new DebuggingArchiveOutputStreamFactory(packageOptions,
+                                                                                      compressionExecutor);
         } else {
-            this.archiveOutputStreamFactory = new DefaultArchiveOutputStreamFactory(packageOptions);
+            this.archiveOutputStreamFactory = new DefaultArchiveOutputStreamFactory(packageOptions,
+                                                                                    compressionExecutor);
         }
     }
 
@@ -135,53 +241,70 @@ public class ArchivingPackageStream implements PackageStream {
         this.packageOptions = packageOptions;
         this.executorService = executorService;
         this.streamWriter = streamWriter;
+        ExecutorService compressionExecutor = executorService instanceof PackageStreamExecutor ?
+            ((PackageStreamExecutor) executorService).compressionExecutor() : null;
         if (STREAMING_IO_LOG.isDebugEnabled()) {
-            this.archiveOutputStreamFactory = new DebuggingArchiveOutputStreamFactory(packageOptions);
+            this.archiveOutputStreamFactory = new DebuggingArchiveOutputStreamFactory(packageOptions,
+                                                                                      compressionExecutor);
         } else {
-            this.archiveOutputStreamFactory = new DefaultArchiveOutputStreamFactory(packageOptions);
+            this.archiveOutputStreamFactory = new DefaultArchiveOutputStreamFactory(packageOptions,
+                                                                                    compressionExecutor);
         }
     }
 
     /**
      * {@inheritDoc}
      * <p>
-     * This implementation returns an {@code PipedInputStream} whose bytes are supplied by an internal {@link
-     * StreamWriter}.
+     * This implementation returns the reading side of a {@link RingBufferPipe} whose bytes are supplied by an internal
+     * {@link StreamWriter}.
      * </p>
      * <p>
      * De-coupling the reading and writing of the stream allows the caller to open and begin reading the stream, even as
      * bytes are being written to the stream by this implementation.
      * </p>
+     * <p>
+     * If the package is {@link Spool spooled}, the returned stream reads the temporary file, and the file is deleted
+     * when the stream is closed.  Opening a spooled package more than once writes the package again; the {@link
+     * #metadata() metadata} continues to describe the package as it was first spooled.
+     * </p>
      *
      * @return {@inheritDoc}
      */
     @Override
     public InputStream open() {
-
-        // Create a pipe: bytes written to the PipedOutputStream will be the source of bytes read from the
-        // PipedInputStream.  As the caller reads bytes from the PipedInputStream, bytes will be read from the
-        // PipedOutputStream.
-        ExHandingPipedInputStream pipedIn = new ExHandingPipedInputStream(ONE_MIB);
-
-        PipedOutputStream pipedOut;
-        try {
-            pipedOut = new PipedOutputStream(pipedIn);
-        } catch (IOException e) {
-            throw new RuntimeException(e.getMessage(), e);
+        if (booleanOption(packageOptions, Spool.KEY, false)) {
+            return openSpooled();
         }
 
+        // Create a pipe: bytes written to the output stream of the pipe will be the source of bytes read from the
+        // input stream of the pipe.  As the caller reads bytes from the input stream, room is made for the writer.
+        RingBufferPipe pipe = RingBufferPipe.ofMib(intOption(packageOptions, PipeSize.KEY, DEFAULT_PIPE_SIZE_MIB));
+        OutputStream pipedOut = pipe.outputStream();
+
+        // Digest the bytes of the package as they are written to the pipe.  Once the package has been written without
+        // error, its size and checksums are supplied to the MetadataBuilder, before the pipe is closed, so they are
+        // available to the reader by the time it encounters the end of the stream
+        DigestingOutputStream digestingOut = new DigestingOutputStream(pipedOut, checksumAlgorithms()) {
+            @Override
+            protected void completed() {
+                if (pipe.getWriterEx() == null) {
+                    publishPackageMetadata(byteCount(), checksums());
+                }
+            }
+        };
+
         // Wrap the output stream in an ArchiveOutputStream
         // we support zip, tar and tar.gz so far
-        ArchiveOutputStream archiveOut = archiveOutputStreamFactory.newInstance(packageOptions, pipedOut);
+        ArchiveOutputStream archiveOut = archiveOutputStreamFactory.newInstance(packageOptions, digestingOut);
 
         // Set on the writer, and used to report any exceptions caught by the writer to the reader.  That way a full
         // stack trace of the exception will be reported when it is encountered by the reader
         BiConsumer<Runnable, Throwable> exceptionHandler = (runnable, throwable) -> {
 
-            // Make the exception caught by the writer available to the reader; set it on the PipedInputStream
+            // Make the exception caught by the writer available to the reader; set it on the pipe
             // The reader will use this to close any resources it has open when an exception occurs, and allow the
             // thread to be cleaned up.
-            pipedIn.setWriterEx(throwable);
+            pipe.setWriterEx(throwable);
 
             if (throwable != null) {
                 LOG.error("Error encountered when writing the package stream.", throwable);
@@ -213,39 +336,215 @@ public class ArchivingPackageStream implements PackageStream {
             }
         };
 
-        executorService.setExceptionHandler(exceptionHandler);
-
-        // invoke call() from another thread
+        // invoke call() from another thread, routing any exception to the handler for this stream
         CallableStreamWriter<?> callableSw = new CallableStreamWriter<>(streamWriter, archiveOut, custodialContent);
-        executorService.submit(callableSw);
+        executorService.submit(callableSw, exceptionHandler);
 
-        return pipedIn;
+        return pipe.inputStream();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The size and checksums of the package are present once a stream returned by {@link #open()} has been read to
+     * the end.  If the package is {@link Spool spooled}, it is written to its temporary file (if it has not been
+     * already), so the size and checksums are present before the package is opened.  Otherwise, if the size of the
+     * package can be calculated before it is written, the size (but not the checksums) is present before the package is
+     * opened.
+     * </p>
+     *
+     * @return {@inheritDoc}
+     */
     @Override
-    public PackageStream.Metadata metadata() {
+    public synchronized PackageStream.Metadata metadata() {
+        if (booleanOption(packageOptions, Spool.KEY, false) && !packageMetadataPublished) {
+            spooled = spool();
+        } else if (!packageMetadataPublished && calculatedSize == null) {
+            calculatedSize = new PackageSizeCalculator(packageOptions).sizeBytes(submission, custodialContent,
+                                                                                 packageProvider);
+            if (calculatedSize >= 0) {
+                metadataBuilder.sizeBytes(calculatedSize);
+            }
+        }
         return metadataBuilder.build();
     }
 
+    private synchronized InputStream openSpooled() {
+        SpooledPackage toOpen = (spooled != null) ? spooled : spool();
+        spooled = null;
+        try {
+            return toOpen.open();
+        } catch (IOException e) {
+            toOpen.delete();
+            throw new UncheckedIOException("Unable to open spooled package " + toOpen.file(), e);
+        }
+    }
+
+    /**
+     * Writes the package to a temporary file, computing its size and checksums as it is written.  The size and
+     * checksums of the first package spooled are supplied to the {@code MetadataBuilder}.
+     *
+     * @return the spooled package
+     */
+    private SpooledPackage spool() {
+        Collection<PackageOptions.Checksum.OPTS> algorithms = checksumAlgorithms();
+
+        Path spoolFile;
+        try {
+            spoolFile = Files.createTempFile(SPOOL_PREFIX, SPOOL_SUFFIX);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create a file to spool the package: " + e.getMessage(), e);
+        }
+
+        long start = System.nanoTime();
+        DigestingOutputStream digestingOut = null;
+        try {
+            FileChannel channel = FileChannel.open(spoolFile, WRITE, TRUNCATE_EXISTING);
+            digestingOut = new DigestingOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), SPOOL_BUFFER_SIZE), algorithms);
+            ArchiveOutputStream archiveOut = archiveOutputStreamFactory.newInstance(packageOptions, digestingOut);
+
+            CallableStreamWriter<?> callableSw = new CallableStreamWriter<>(streamWriter, archiveOut, custodialContent);
+            executorService.submit(callableSw, (runnable, throwable) ->
+                STREAMING_IO_LOG.debug("{} finished spooling package to {}", this, spoolFile, throwable)).get();
+
+            // The writer closes the archive output stream when it finishes, which completes the digests
+            digestingOut.close();
+        } catch (IOException | ExecutionException | InterruptedException | RuntimeException e) {
+            closeQuietly(digestingOut);
+            deleteQuietly(spoolFile.toFile());
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted spooling the package"));
+            }
+            Throwable cause = (e instanceof ExecutionException) ? e.getCause() : e;
+            throw new RuntimeException("Error spooling the package: " + cause.getMessage(), cause);
+        }
+
+        SpooledPackage result = new SpooledPackage(spoolFile.toFile(), digestingOut.byteCount(),
+                                                   digestingOut.checksums(), packageOptions);
+        LOG.debug("Spooled package to {} ({} bytes) in {} ms", spoolFile, result.sizeBytes(),
+                  (System.nanoTime() - start) / 1_000_000);
+
+        publishPackageMetadata(result.sizeBytes(), result.checksums());
+
+        return result;
+    }
+
+    /**
+     * Supplies the size and checksums of the package to the {@code MetadataBuilder}, and records the resources of the
+     * package.  Only the first package written by this stream is described by the metadata; subsequent invocations are
+     * ignored.
+     *
+     * @param sizeBytes the size of the package, in bytes
+     * @param checksums the checksums of the package
+     */
+    private synchronized void publishPackageMetadata(long sizeBytes, List<PackageStream.Checksum> checksums) {
+        if (packageMetadataPublished) {
+            return;
+        }
+        if (calculatedSize != null && calculatedSize >= 0 && calculatedSize != sizeBytes) {
+            LOG.warn("The calculated size of the package, {} bytes, differs from the {} bytes written", calculatedSize,
+                     sizeBytes);
+        }
+        metadataBuilder.sizeBytes(sizeBytes);
+        checksums.forEach(metadataBuilder::checksum);
+        packageResources = streamWriter.writtenResources();
+        packageMetadataPublished = true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<PackageOptions.Checksum.OPTS> checksumAlgorithms() {
+        return (Collection<PackageOptions.Checksum.OPTS>) packageOptions.getOrDefault(PackageOptions.Checksum.KEY,
+                                                                                      emptyList());
+    }
+
+    private static void closeQuietly(OutputStream out) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            STREAMING_IO_LOG.trace("Error closing spooled output stream: {}", e.getMessage(), e);
+        }
+    }
+
     /**
-     * Unsupported by this implementation, always throws {@code UnsupportedOperationException}.
+     * {@inheritDoc}
+     * <p>
+     * Resources may only be opened individually from {@link Spool spooled} packages.  The package is spooled (if it has
+     * not been already), and the resource is read from the temporary file: ZIP entries are located using the central
+     * directory of the package, and the entries of uncompressed TAR packages are located using an index of their
+     * offsets, built when the first resource is opened.  Resources of compressed TAR packages are located by
+     * decompressing the package up to the resource.  Once the package itself has been {@link #open() opened} and
+     * closed, opening a resource spools the package again.
+     * </p>
      *
-     * @param packageResource the identifier for a resource within the package
+     * @param packageResource the path of a resource within the package
      * @return {@inheritDoc}
+     * @throws UnsupportedOperationException if the package is not spooled, or is not a TAR or ZIP archive
+     * @throws IllegalArgumentException if the package has no resource at the supplied path
      */
     @Override
-    public InputStream open(String packageResource) {
-        throw new UnsupportedOperationException();
+    public synchronized InputStream open(String packageResource) {
+        if (!booleanOption(packageOptions, Spool.KEY, false)) {
+            throw new UnsupportedOperationException(
+                "Resources may only be opened individually from spooled packages (see the '" + Spool.KEY + "' option)");
+        }
+
+        if (spooled == null) {
+            spooled = spool();
+        }
+
+        try {
+            return spooled.index().open(packageResource);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open '" + packageResource + "' from spooled package " +
+                                           spooled.file(), e);
+        }
     }
 
     /**
-     * Unsupported by this implementation, always throws {@code UnsupportedOperationException}.
+     * {@inheritDoc}
+     * <p>
+     * The resources, including their sizes and checksums, are those of the package described by the {@link
+     * #metadata() metadata}.  If the package is {@link Spool spooled}, it is written to its temporary file (if it has
+     * not been already), so the resources are present before the package is opened.  Otherwise, the resources are
+     * present once a stream returned by {@link #open()} has been read to the end.
+     * </p>
      *
      * @return {@inheritDoc}
+     * @throws IllegalStateException if the package has not been spooled, and has yet to be read to the end
      */
     @Override
-    public Iterator<PackageStream.Resource> resources() {
-        throw new UnsupportedOperationException();
+    public synchronized Iterator<PackageStream.Resource> resources() {
+        if (booleanOption(packageOptions, Spool.KEY, false) && !packageMetadataPublished) {
+            spooled = spool();
+        }
+
+        if (packageResources == null) {
+            throw new IllegalStateException("The resources of the package are not known until the package has been " +
+                                            "read to the end, or spooled (see the '" + Spool.KEY + "' option)");
+        }
+
+        return packageResources.iterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Deletes the temporary file of a package that was {@link Spool spooled} in order to answer its {@link #metadata()
+     * metadata} or {@link #resources() resources}, but was never {@link #open() opened}.  The temporary file of a
+     * package that has been opened is deleted when the stream returned by {@code open()} is closed.
+     * </p>
+     */
+    @Override
+    public synchronized void close() {
+        if (spooled != null) {
+            spooled.delete();
+            spooled = null;
+        }
     }
 
 }
@@ -15,19 +15,29 @@
  */
 package org.dataconservancy.pass.deposit.assembler.shared;
 
+import static java.util.Base64.getEncoder;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
 import static org.apache.tika.mime.MediaType.APPLICATION_ZIP;
-import static org.dataconservancy.pass.deposit.assembler.PackageOptions.Spec.KEY;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.tika.detect.Detector;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 import org.dataconservancy.pass.deposit.assembler.MetadataBuilder;
 import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
 import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive.OPTS;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
 import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
 import org.dataconservancy.pass.deposit.assembler.PackageOptions.Spec;
 import org.dataconservancy.pass.deposit.assembler.PackageStream;
@@ -71,7 +81,7 @@ public class AssemblerSupport {
         mdb.archive((Archive.OPTS) options.getOrDefault(Archive.KEY, Archive.OPTS.NONE));
         mdb.archived(options.getOrDefault(Archive.KEY, Archive.OPTS.NONE) != OPTS.NONE);
         mdb.compression((Compression.OPTS) options.getOrDefault(Compression.KEY, Compression.OPTS.NONE));
-        mdb.compressed(options.getOrDefault(KEY, Compression.OPTS.NONE) != Compression.OPTS.NONE);
+        mdb.compressed(options.getOrDefault(Compression.KEY, Compression.OPTS.NONE) != Compression.OPTS.NONE);
 
         PackageStream.Metadata md = mdb.build();
 
@@ -99,11 +109,180 @@ public class AssemblerSupport {
             case GZIP:
                 mdb.mimeType(MediaType.application("gzip").toString());
                 break;
+            case ZSTD:
+                mdb.mimeType(MediaType.application("zstd").toString());
+                break;
+            case LZ4:
+                mdb.mimeType(MediaType.application("x-lz4").toString());
+                break;
             default:
                 break;
         }
     }
 
+    /**
+     * Answers the integer value of the option identified by {@code key}.  Options read from configuration (e.g. the
+     * {@code options} of an Assembler in {@code repositories.json}) may be supplied as JSON numbers or strings, so both
+     * are accepted.
+     *
+     * @param options      the Assembler options
+     * @param key          the key of the option
+     * @param defaultValue the value returned if the option is not present
+     * @return the value of the option, or {@code defaultValue} if the option is not present
+     * @throws IllegalArgumentException if the value of the option is not an integer
+     */
+    public static int intOption(Map<String, Object> options, String key, int defaultValue) {
+        Object value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                String.format("Value of option '%s' must be an integer, was '%s'", key, value), e);
+        }
+    }
+
+    /**
+     * Answers the boolean value of the option identified by {@code key}.  Options read from configuration may be
+     * supplied as JSON booleans or strings, so both are accepted.
+     *
+     * @param options      the Assembler options
+     * @param key          the key of the option
+     * @param defaultValue the value returned if the option is not present
+     * @return the value of the option, or {@code defaultValue} if the option is not present
+     */
+    public static boolean booleanOption(Map<String, Object> options, String key, boolean defaultValue) {
+        Object value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+
+        return Boolean.parseBoolean(value.toString().trim());
+    }
+
+    /**
+     * Answers a new {@code MessageDigest} for the supplied checksum algorithm.
+     *
+     * @param algorithm the checksum algorithm
+     * @return the {@code MessageDigest}
+     * @throws IllegalArgumentException if the algorithm is unknown, or not supported by the platform
+     */
+    public static MessageDigest newDigest(Checksum.OPTS algorithm) {
+        try {
+            switch (algorithm) {
+                case MD5:
+                    return MessageDigest.getInstance("MD5");
+                case SHA256:
+                    return MessageDigest.getInstance("SHA-256");
+                case SHA512:
+                    return MessageDigest.getInstance("SHA-512");
+                case SHA1:
+                    return MessageDigest.getInstance("SHA-1");
+                default:
+                    throw new IllegalArgumentException("Unknown algorithm: " + algorithm.name());
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException(
+                "Unable to obtain MessageDigest instance for algorithm: " + algorithm.name());
+        }
+    }
+
+    /**
+     * Answers a {@code PackageStream.Checksum} for the supplied digest value.
+     *
+     * @param algorithm the algorithm used to compute the digest
+     * @param value     the value of the digest
+     * @return the checksum
+     */
+    public static PackageStream.Checksum checksum(Checksum.OPTS algorithm, byte[] value) {
+        return new ChecksumImpl(algorithm, value, getEncoder().encodeToString(value), encodeHexString(value));
+    }
+
+    /**
+     * Answers the value of an HTTP {@code Want-Digest} header (RFC 3230) requesting digests for the supplied checksum
+     * algorithms, e.g. {@code sha-512, md5}.
+     *
+     * @param algorithms the checksum algorithms
+     * @return the value of the {@code Want-Digest} header
+     */
+    public static String wantDigest(Collection<Checksum.OPTS> algorithms) {
+        return algorithms.stream().map(AssemblerSupport::digestAlgorithm).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Parses the value of an HTTP {@code Digest} header (RFC 3230), e.g. {@code sha-256=X48E9q...=, md5=HUXZ...==}.
+     * Digest algorithms that are not supported checksum algorithms are ignored.  Values are expected to be base 64
+     * encoded, but hexadecimal values (as returned by some versions of Fedora) are accepted as well.
+     *
+     * @param header the value of the {@code Digest} header, may be {@code null}
+     * @return the digests keyed by checksum algorithm, may be empty
+     */
+    public static Map<Checksum.OPTS, byte[]> parseDigest(String header) {
+        Map<Checksum.OPTS, byte[]> digests = new EnumMap<>(Checksum.OPTS.class);
+        if (header == null) {
+            return digests;
+        }
+
+        for (String instance : header.split(",")) {
+            int eq = instance.indexOf('=');
+            if (eq < 1) {
+                continue;
+            }
+
+            String name = instance.substring(0, eq).trim();
+            String value = instance.substring(eq + 1).trim();
+            for (Checksum.OPTS algorithm : Checksum.OPTS.values()) {
+                if (!digestAlgorithm(algorithm).equalsIgnoreCase(name)) {
+                    continue;
+                }
+                try {
+                    int length = newDigest(algorithm).getDigestLength();
+                    byte[] digest = value.length() == length * 2 ?
+                        Hex.decodeHex(value) : Base64.getDecoder().decode(value);
+                    if (digest.length == length) {
+                        digests.put(algorithm, digest);
+                    }
+                } catch (DecoderException | IllegalArgumentException e) {
+                    LOG.debug("Ignoring malformed {} digest '{}': {}", name, value, e.getMessage());
+                }
+            }
+        }
+
+        return digests;
+    }
+
+    /**
+     * Answers the RFC 3230 digest algorithm name for the supplied checksum algorithm.
+     *
+     * @param algorithm the checksum algorithm
+     * @return the digest algorithm name
+     */
+    private static String digestAlgorithm(Checksum.OPTS algorithm) {
+        switch (algorithm) {
+            case MD5:
+                return "md5";
+            case SHA256:
+                return "sha-256";
+            case SHA512:
+                return "sha-512";
+            case SHA1:
+                return "sha";
+            default:
+                throw new IllegalArgumentException("Unknown algorithm: " + algorithm.name());
+        }
+    }
+
     /**
      * Determine the media type of the supplied InputStream.  If the supplied stream does not support {@code mark(int)}
      * the default mime type 'application/octet-stream' is returned.
@@ -24,16 +24,26 @@ import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.UrlResource;
 import org.springframework.util.ResourceUtils;
 
 /**
+ * A {@code UrlResource} requiring Basic authentication, typically a binary stored in Fedora.
+ * <p>
+ * The {@link #storedDigests(Collection) stored checksums} of the resource are requested using an HTTP {@code HEAD}
+ * carrying a {@code Want-Digest} header, and are read from the {@code Digest} header of the response.
+ * </p>
+ *
  * @author Elliot Metsger (emetsger@jhu.edu)
  */
-public class AuthenticatedResource extends UrlResource {
+public class AuthenticatedResource extends UrlResource implements FixityAware {
 
     private static final Logger LOG = LoggerFactory.getLogger(AuthenticatedResource.class);
 
@@ -74,6 +84,27 @@ public class AuthenticatedResource extends UrlResource {
         }
     }
 
+    @Override
+    public Map<Checksum.OPTS, byte[]> storedDigests(Collection<Checksum.OPTS> algorithms) throws IOException {
+        URLConnection con = this.url.openConnection();
+        if (algorithms.isEmpty() || !(con instanceof HttpURLConnection)) {
+            return Collections.emptyMap();
+        }
+
+        // The response to a HEAD has no body, so the connection is left open to be re-used by the GET which follows
+        HttpURLConnection httpCon = (HttpURLConnection) con;
+        httpCon.setRequestMethod("HEAD");
+        httpCon.setRequestProperty("Want-Digest", AssemblerSupport.wantDigest(algorithms));
+        customizeConnection(httpCon);
+        int status = httpCon.getResponseCode();
+        if (status < 200 || status > 299) {
+            LOG.debug("Unable to obtain stored digests of {}: HEAD returned {}", this.url, status);
+            return Collections.emptyMap();
+        }
+
+        return AssemblerSupport.parseDigest(httpCon.getHeaderField("Digest"));
+    }
+
     @Override
     protected void customizeConnection(HttpURLConnection con) throws IOException {
         LOG.trace("Customizing {}@{}", con.getClass().getName(), toHexString(identityHashCode(con)));
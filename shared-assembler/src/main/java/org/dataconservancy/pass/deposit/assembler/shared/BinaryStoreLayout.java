@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import java.io.IOException;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Maps a Fedora binary to the path of its file within a locally mounted copy of the Fedora binary store.  The layout
+ * of a binary store depends on the Fedora release and on how its storage is configured, so the layout used by an
+ * assembler may be supplied; see {@link AbstractAssembler#setBinaryStoreLayout(BinaryStoreLayout)}.
+ *
+ * @see MirroredBinaryStoreLayout
+ * @see DigestBinaryStoreLayout
+ */
+@FunctionalInterface
+public interface BinaryStoreLayout {
+
+    /**
+     * Answers the path of the binary at {@code location}, relative to the binary store.  The returned path is resolved
+     * against the binary store directory; paths that resolve outside of the directory are not read.
+     *
+     * @param location   the location of the binary, under the Fedora base URL
+     * @param fedoraPath the decoded path of the binary relative to the Fedora base URL, without a leading {@code /}
+     * @param remote     the binary in Fedora, which may be consulted (e.g. for its stored checksums)
+     * @return the path of the binary relative to the binary store, or {@code null} if the binary cannot be mapped, in
+     * which case it is read over HTTP
+     * @throws IOException if the binary in Fedora cannot be consulted
+     */
+    String path(String location, String fedoraPath, Resource remote) throws IOException;
+
+}
@@ -99,6 +99,11 @@ public class CallableStreamWriter<V> implements Callable<V>, StreamWriter {
         }
     }
 
+    @Override
+    public List<PackageStream.Resource> writtenResources() {
+        return delegate.writtenResources();
+    }
+
     @Override
     public void close() throws Exception {
         if (alreadyClosed.getAndSet(true) == Boolean.FALSE) {
@@ -17,6 +17,7 @@ package org.dataconservancy.pass.deposit.assembler.shared;
 
 import java.io.OutputStream;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.compress.archivers.ArchiveOutputStream;
 
@@ -29,6 +30,11 @@ public class DebuggingArchiveOutputStreamFactory extends DefaultArchiveOutputStr
         super(packageOptions);
     }
 
+    public DebuggingArchiveOutputStreamFactory(Map<String, Object> packageOptions,
+                                               ExecutorService compressionExecutor) {
+        super(packageOptions, compressionExecutor);
+    }
+
     @Override
     public ArchiveOutputStream newInstance(Map<String, Object> packageOptions, OutputStream toWrap) {
         return new DebuggingArchiveOutputStream(super.newInstance(packageOptions, toWrap));
@@ -18,16 +18,26 @@ package org.dataconservancy.pass.deposit.assembler.shared;
 import static java.lang.String.format;
 import static org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive.OPTS.TAR;
 import static org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive.OPTS.ZIP;
+import static org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport.intOption;
 
+import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
 
+import com.github.luben.zstd.ZstdOutputStream;
 import org.apache.commons.compress.archivers.ArchiveOutputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
 import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
 import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.CompressionThreads;
 
 /**
  * @author Elliot Metsger (emetsger@jhu.edu)
@@ -40,31 +50,57 @@ public class DefaultArchiveOutputStreamFactory implements ArchiveOutputStreamFac
     protected static final String ERR_NO_ARCHIVE_FORMAT = "No supported archive format was specified in the metadata " +
                                                           "builder";
 
+    /**
+     * The Zstandard level used if no {@link Compression#LEVEL_KEY} is supplied, the default of the Zstandard library
+     */
+    static final int DEFAULT_ZSTD_LEVEL = 3;
+
+    /**
+     * The block size of TAR archives: the archive is padded to a whole number of blocks.  The size is fixed, rather
+     * than left to the default of the commons-compress release in use, so the size of the archive may be calculated by
+     * the {@link PackageSizeCalculator}.
+     */
+    static final int TAR_BLOCK_SIZE = TarConstants.DEFAULT_RCDSIZE;
+
     protected Map<String, Object> packageOptions;
 
+    protected ExecutorService compressionExecutor;
+
     public DefaultArchiveOutputStreamFactory(Map<String, Object> packageOptions) {
+        this(packageOptions, null);
+    }
+
+    /**
+     * Creates a factory which may compress packages using threads provided by {@code compressionExecutor}, if the
+     * {@link CompressionThreads#KEY} package option calls for more than one thread.
+     *
+     * @param packageOptions      the package options
+     * @param compressionExecutor executes concurrent compression of packages, may be {@code null}
+     */
+    public DefaultArchiveOutputStreamFactory(Map<String, Object> packageOptions, ExecutorService compressionExecutor) {
         this.packageOptions = packageOptions;
+        this.compressionExecutor = compressionExecutor;
     }
 
     @Override
     public ArchiveOutputStream newInstance(Map<String, Object> packageOptions, OutputStream toWrap) {
         // Wrap the output stream in an ArchiveOutputStream
-        // we support zip, tar and tar.gz so far
+        // we support zip, and tar, optionally compressed
         ArchiveOutputStream archiveOut;
 
         if (packageOptions.getOrDefault(Archive.KEY, Archive.OPTS.NONE) == TAR) {
             try {
-                if (packageOptions.getOrDefault(Compression.KEY, Compression.OPTS.NONE) == Compression.OPTS.GZIP) {
-                    archiveOut = new TarArchiveOutputStream(new GzipCompressorOutputStream(toWrap));
-                } else {
-                    archiveOut = new TarArchiveOutputStream(toWrap);
-                }
+                archiveOut = new TarArchiveOutputStream(newCompressorOutputStream(packageOptions, toWrap),
+                                                        TAR_BLOCK_SIZE);
             } catch (Exception e) {
                 throw new RuntimeException(format(ERR_CREATING_ARCHIVE_STREAM, TAR, e.getMessage()), e);
             }
         } else if (packageOptions.getOrDefault(Archive.KEY, Archive.OPTS.NONE) == ZIP) {
             try {
-                archiveOut = new ZipArchiveOutputStream(toWrap);
+                ZipArchiveOutputStream zipOut = new ZipArchiveOutputStream(toWrap);
+                zipOut.setLevel(compressionLevel(packageOptions, Deflater.NO_COMPRESSION, Deflater.BEST_COMPRESSION,
+                                                 Deflater.DEFAULT_COMPRESSION));
+                archiveOut = zipOut;
             } catch (Exception e) {
                 throw new RuntimeException(format(ERR_CREATING_ARCHIVE_STREAM, ZIP, e.getMessage()), e);
             }
@@ -75,4 +111,113 @@ public class DefaultArchiveOutputStreamFactory implements ArchiveOutputStreamFac
         return archiveOut;
     }
 
+    /**
+     * Answers an output stream which compresses the bytes written to it according to the {@link Compression#KEY}
+     * option, or {@code toWrap} itself if the package is not compressed.  {@link Compression.OPTS#ZIP ZIP} compression
+     * is applied by the ZIP archive format itself, so it is not applied by this method.
+     *
+     * @param packageOptions the package options
+     * @param toWrap         the underlying output stream
+     * @return the compressing output stream
+     * @throws IOException if the compressing output stream cannot be created
+     */
+    protected OutputStream newCompressorOutputStream(Map<String, Object> packageOptions, OutputStream toWrap)
+        throws IOException {
+        switch ((Compression.OPTS) packageOptions.getOrDefault(Compression.KEY, Compression.OPTS.NONE)) {
+            case GZIP:
+                return newGzipOutputStream(packageOptions, toWrap);
+            case BZIP2:
+                return new BZip2CompressorOutputStream(toWrap,
+                    compressionLevel(packageOptions, BZip2CompressorOutputStream.MIN_BLOCKSIZE,
+                                     BZip2CompressorOutputStream.MAX_BLOCKSIZE,
+                                     BZip2CompressorOutputStream.MAX_BLOCKSIZE));
+            case ZSTD:
+                return newZstdOutputStream(packageOptions, toWrap);
+            case LZ4:
+                return new FramedLZ4CompressorOutputStream(toWrap);
+            default:
+                return toWrap;
+        }
+    }
+
+    /**
+     * Answers a GZIP output stream which compresses blocks concurrently if the {@link CompressionThreads#KEY} option is
+     * greater than one and a compression executor is available, otherwise a single-threaded GZIP output stream.
+     *
+     * @param packageOptions the package options
+     * @param toWrap         the underlying output stream
+     * @return the GZIP output stream
+     * @throws IOException if the GZIP output stream cannot be created
+     */
+    protected OutputStream newGzipOutputStream(Map<String, Object> packageOptions, OutputStream toWrap)
+        throws IOException {
+        int threads = intOption(packageOptions, CompressionThreads.KEY, 1);
+        int level = compressionLevel(packageOptions, Deflater.NO_COMPRESSION, Deflater.BEST_COMPRESSION,
+                                     Deflater.DEFAULT_COMPRESSION);
+        if (threads > 1 && compressionExecutor != null) {
+            return new ParallelGzipOutputStream(toWrap, compressionExecutor, level,
+                                                ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE, threads * 2);
+        }
+        GzipParameters parameters = new GzipParameters();
+        parameters.setCompressionLevel(level);
+        return new GzipCompressorOutputStream(toWrap, parameters);
+    }
+
+    /**
+     * Answers a Zstandard output stream.  If the {@link CompressionThreads#KEY} option is greater than one, the stream
+     * compresses using that many worker threads, which are managed by the native Zstandard library rather than the
+     * compression executor.
+     *
+     * @param packageOptions the package options
+     * @param toWrap         the underlying output stream
+     * @return the Zstandard output stream
+     * @throws IOException if the Zstandard output stream cannot be created
+     */
+    protected OutputStream newZstdOutputStream(Map<String, Object> packageOptions, OutputStream toWrap)
+        throws IOException {
+        ZstdOutputStream zstdOut = new ZstdOutputStream(toWrap,
+            intOption(packageOptions, Compression.LEVEL_KEY, DEFAULT_ZSTD_LEVEL));
+        zstdOut.setChecksum(true);
+        int threads = intOption(packageOptions, CompressionThreads.KEY, 1);
+        if (threads > 1) {
+            zstdOut.setWorkers(threads);
+        }
+        return zstdOut;
+    }
+
+    /**
+     * Answers the {@link Compression#LEVEL_KEY compression level} option, clamped to the levels supported by a codec.
+     * If the option is absent, or is {@link Deflater#DEFAULT_COMPRESSION}, {@code defaultLevel} is answered.  Zstandard
+     * levels are not clamped, because the Zstandard library clamps them itself.
+     *
+     * @param packageOptions the package options
+     * @param min            the lowest level supported by the codec
+     * @param max            the highest level supported by the codec
+     * @param defaultLevel   the default level of the codec
+     * @return the compression level
+     */
+    static int compressionLevel(Map<String, Object> packageOptions, int min, int max, int defaultLevel) {
+        return compressionLevel(packageOptions, Compression.LEVEL_KEY, min, max, defaultLevel);
+    }
+
+    /**
+     * Answers the compression level held by the {@code levelKey} option, clamped to the levels supported by a codec.
+     * If the option is absent, or is {@link Deflater#DEFAULT_COMPRESSION}, {@code defaultLevel} is answered.
+     *
+     * @param packageOptions the package options
+     * @param levelKey       the key of the option holding the level
+     * @param min            the lowest level supported by the codec
+     * @param max            the highest level supported by the codec
+     * @param defaultLevel   the default level of the codec
+     * @return the compression level
+     */
+    static int compressionLevel(Map<String, Object> packageOptions, String levelKey, int min, int max,
+                                int defaultLevel) {
+        int level = intOption(packageOptions, levelKey, defaultLevel);
+        if (level == Deflater.DEFAULT_COMPRESSION) {
+            return defaultLevel;
+        }
+        return Math.max(min, Math.min(max, level));
+    }
+
 }
@@ -17,27 +17,48 @@ package org.dataconservancy.pass.deposit.assembler.shared;
 
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
 import static org.dataconservancy.pass.deposit.assembler.shared.ArchivingPackageStream.ERR_PUT_RESOURCE;
 import static org.dataconservancy.pass.deposit.assembler.shared.ArchivingPackageStream.STREAMING_IO_LOG;
-import static org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport.detectMediaType;
+import static org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport.intOption;
 
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveOutputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ScatterZipOutputStream;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntryRequest;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.input.ContentLengthObserver;
-import org.apache.commons.io.input.DigestObserver;
-import org.apache.commons.io.input.ObservableInputStream;
-import org.apache.tika.detect.DefaultDetector;
+import org.apache.tika.mime.MediaType;
 import org.dataconservancy.pass.deposit.assembler.PackageOptions;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.CompressionThreads;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Fixity;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Prefetch;
 import org.dataconservancy.pass.deposit.assembler.PackageStream;
 import org.dataconservancy.pass.deposit.assembler.ResourceBuilder;
 import org.dataconservancy.pass.deposit.assembler.shared.PackageProvider.SupplementalResource;
@@ -51,6 +72,25 @@ import org.springframework.core.io.Resource;
  */
 public class DefaultStreamWriterImpl implements StreamWriter {
 
+    /**
+     * Number of custodial resources fetched ahead of the writer when the {@link Prefetch#KEY} option is not supplied
+     */
+    static final int DEFAULT_PREFETCH = 4;
+
+    /**
+     * MiB of memory used to hold prefetched resources when the {@link Prefetch#MEMORY_KEY} option is not supplied
+     */
+    static final int DEFAULT_PREFETCH_MEMORY_MIB = 32;
+
+    /**
+     * Buffers used to copy resources into the package, one per thread writing packages
+     */
+    private static final ThreadLocal<byte[]> COPY_BUFFER = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
+    private static final String SCATTER_PREFIX = "scatter-";
+
+    private static final String SCATTER_SUFFIX = ".tmp";
+
     private List<DepositFileResource> packageFiles;
 
     private ResourceBuilderFactory rbf;
@@ -65,6 +105,16 @@ public class DefaultStreamWriterImpl implements StreamWriter {
 
     protected PackageProvider packageProvider;
 
+    private ExecutorService fetchExecutor;
+
+    private ExecutorService compressionExecutor;
+
+    private EntryCompressionPolicy compressionPolicy;
+
+    private MimeTypeResolver mimeTypeResolver = new MimeTypeResolver();
+
+    private volatile List<PackageStream.Resource> writtenResources;
+
     /**
      * Constructs an {@code StreamWriter} that is supplied with the output stream being written to, the custodial
      * content being packaged, the submission, and other supporting classes.
@@ -80,11 +130,63 @@ public class DefaultStreamWriterImpl implements StreamWriter {
                                    ResourceBuilderFactory rbf,
                                    Map<String, Object> packageOptions,
                                    PackageProvider packageProvider) {
+        this(submission, packageFiles, rbf, packageOptions, packageProvider, null);
+    }
+
+    /**
+     * Constructs an {@code StreamWriter} that is supplied with the output stream being written to, the custodial
+     * content being packaged, the submission, and other supporting classes.  Custodial content is fetched ahead of
+     * the writer using the supplied {@code fetchExecutor}, according to the {@link Prefetch} package options.
+     *
+     * @param submission      the submission
+     * @param packageFiles    the custodial content of the package
+     * @param rbf             factory for building {@link PackageStream.Resource package resources}
+     * @param packageOptions  options used for building the package
+     * @param packageProvider used to resources within a package, and generate non-custodial package resources
+     * @param fetchExecutor   used to fetch custodial content ahead of the writer, may be {@code null} in which case
+     *                        custodial content is fetched as it is written
+     */
+    public DefaultStreamWriterImpl(DepositSubmission submission,
+                                   List<DepositFileResource> packageFiles,
+                                   ResourceBuilderFactory rbf,
+                                   Map<String, Object> packageOptions,
+                                   PackageProvider packageProvider,
+                                   ExecutorService fetchExecutor) {
+        this(submission, packageFiles, rbf, packageOptions, packageProvider, fetchExecutor, null);
+    }
+
+    /**
+     * Constructs an {@code StreamWriter} that is supplied with the output stream being written to, the custodial
+     * content being packaged, the submission, and other supporting classes.  Custodial content is fetched ahead of
+     * the writer using the supplied {@code fetchExecutor}, according to the {@link Prefetch} package options.  The
+     * custodial content of ZIP packages is compressed concurrently using the supplied {@code compressionExecutor},
+     * according to the {@link CompressionThreads} package option.
+     *
+     * @param submission          the submission
+     * @param packageFiles        the custodial content of the package
+     * @param rbf                 factory for building {@link PackageStream.Resource package resources}
+     * @param packageOptions      options used for building the package
+     * @param packageProvider     used to resources within a package, and generate non-custodial package resources
+     * @param fetchExecutor       used to fetch custodial content ahead of the writer, may be {@code null} in which
+     *                            case custodial content is fetched as it is written
+     * @param compressionExecutor used to compress the entries of ZIP packages concurrently, may be {@code null} in
+     *                            which case entries are compressed as they are written
+     */
+    public DefaultStreamWriterImpl(DepositSubmission submission,
+                                   List<DepositFileResource> packageFiles,
+                                   ResourceBuilderFactory rbf,
+                                   Map<String, Object> packageOptions,
+                                   PackageProvider packageProvider,
+                                   ExecutorService fetchExecutor,
+                                   ExecutorService compressionExecutor) {
         this.packageFiles = packageFiles;
         this.rbf = rbf;
         this.submission = submission;
         this.packageOptions = packageOptions;
         this.packageProvider = packageProvider;
+        this.fetchExecutor = fetchExecutor;
+        this.compressionExecutor = compressionExecutor;
+        this.compressionPolicy = new EntryCompressionPolicy(packageOptions);
     }
 
     @Override
@@ -105,13 +207,62 @@ public class DefaultStreamWriterImpl implements StreamWriter {
 
             packageProvider.start(submission, custodialFiles, packageOptions);
 
-            packageFiles.forEach(custodialFile -> assembledResources.add(assembleResource(custodialFile)));
+            // Streaming providers are supplied each custodial resource as it is written
+            StreamingPackageProvider streamingProvider = (packageProvider instanceof StreamingPackageProvider) ?
+                (StreamingPackageProvider) packageProvider : null;
+            Consumer<PackageStream.Resource> custodialWritten = (streamingProvider == null) ?
+                assembledResources::add : resource -> {
+                    assembledResources.add(resource);
+                    streamingProvider.resourceWritten(resource);
+                };
+
+            // Custodial resources of ZIP packages may be compressed concurrently, otherwise each resource is written
+            // to the package as it is encountered
+            ScatterZipWriter scatterZipWriter = null;
+            int compressionThreads = intOption(packageOptions, CompressionThreads.KEY, 1);
+            if (compressionThreads > 1 && compressionExecutor != null && archiveOut instanceof ZipArchiveOutputStream) {
+                scatterZipWriter = new ScatterZipWriter(custodialWritten, compressionThreads * 2);
+            }
+
+            try (ScatterZipWriter scatter = scatterZipWriter) {
+                Consumer<DepositFileResource> custodialWriter = (scatter != null) ?
+                    scatter::add : custodialFile -> custodialWritten.accept(assembleResource(custodialFile));
+
+                int prefetch = intOption(packageOptions, Prefetch.KEY, DEFAULT_PREFETCH);
+                if (fetchExecutor != null && prefetch > 0) {
+                    long memoryBudget = intOption(packageOptions, Prefetch.MEMORY_KEY, DEFAULT_PREFETCH_MEMORY_MIB) *
+                                        1024L * 1024L;
+                    // Resources being compressed concurrently are held in memory alongside those being fetched
+                    int held = (scatter != null) ? scatter.maxInFlight : 1;
+                    try (ResourcePrefetcher prefetcher =
+                             new ResourcePrefetcher(packageFiles, fetchExecutor, prefetch, memoryBudget, held)) {
+                        while (prefetcher.hasNext()) {
+                            custodialWriter.accept(prefetcher.next());
+                        }
+                    }
+                } else {
+                    packageFiles.forEach(custodialWriter);
+                }
+
+                if (scatter != null) {
+                    scatter.finish();
+                }
+            }
 
-            List<SupplementalResource> supplementalResources =
-                packageProvider.finish(submission, assembledResources);
+            if (streamingProvider != null) {
+                // Each supplemental resource is generated, written, and released before the next is requested
+                Iterator<SupplementalResource> supplementalResources =
+                    streamingProvider.supplementalResources(submission);
+                while (supplementalResources.hasNext()) {
+                    assembledResources.add(assembleResource(supplementalResources.next()));
+                }
+            } else {
+                List<SupplementalResource> supplementalResources =
+                    packageProvider.finish(submission, assembledResources);
 
-            supplementalResources.forEach(supplementalResource ->
-                                              assembledResources.add(assembleResource(supplementalResource)));
+                supplementalResources.forEach(supplementalResource ->
+                                                  assembledResources.add(assembleResource(supplementalResource)));
+            }
 
             finish(submission, assembledResources);
 
@@ -139,13 +290,66 @@ public class DefaultStreamWriterImpl implements StreamWriter {
     public void finish(DepositSubmission submission, List<PackageStream.Resource> custodialResources)
         throws IOException {
         archiveOut.finish();
+        writtenResources = Collections.unmodifiableList(new ArrayList<>(custodialResources));
+    }
+
+    @Override
+    public List<PackageStream.Resource> writtenResources() {
+        return writtenResources;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public PackageStream.Resource writeResource(ResourceBuilder resourceBuilder, Resource resource) throws IOException {
-        try (InputStream resourceIn = resource.getInputStream(); BufferedInputStream buffIn =
-            resourceIn.markSupported() ? null : new BufferedInputStream(resourceIn)) {
+        return writeResource(resourceBuilder, resource, null, compressionExecutor,
+                             (entry, level, in) -> writeResource(archiveOut, entry, level, in));
+    }
+
+    /**
+     * Builds the {@link PackageStream.Resource} for {@code resource}, supplying the bytes of {@code resource}, the
+     * {@code ArchiveEntry} describing them, and the compression level for the entry chosen by the
+     * {@link EntryCompressionPolicy} from the media type of {@code resource}, to the {@code entryWriter}.
+     *
+     * @param resourceBuilder the builder for the package resource
+     * @param resource        the resource being written
+     * @param packagePath     the path of the resource in the package, or {@code null} if it is to be obtained by
+     *                        this thread
+     * @param laneExecutor    executes the lanes computing the checksums of large resources, may be {@code null} in
+     *                        which case checksums are computed as the resource is read
+     * @param entryWriter     writes the archive entry and the bytes of the resource
+     * @return the package resource
+     * @throws IOException if the resource cannot be read or written
+     */
+    private PackageStream.Resource writeResource(ResourceBuilder resourceBuilder, Resource resource,
+                                                 String packagePath, ExecutorService laneExecutor,
+                                                 EntryWriter entryWriter)
+        throws IOException {
+        try {
+            return writeEntry(resourceBuilder, resource, packagePath, laneExecutor, entryWriter);
+        } finally {
+            // Prefetched resources spilled to a file are read through a channel rather than their input stream, so
+            // closing the stream does not release them
+            release(resource);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private PackageStream.Resource writeEntry(ResourceBuilder resourceBuilder, Resource resource, String packagePath,
+                                              ExecutorService laneExecutor, EntryWriter entryWriter)
+        throws IOException {
+        List<Checksum.OPTS> algorithms = (List<Checksum.OPTS>) packageOptions.getOrDefault(Checksum.KEY, emptyList());
+        Fixity.OPTS fixity = fixityOption(packageOptions);
+        Map<Checksum.OPTS, byte[]> storedDigests = storedDigests(resource, algorithms, fixity);
+
+        // Content is only buffered, so that it may be sniffed, if the media type of the resource isn't otherwise known
+        MediaType mediaType = mimeTypeResolver.resolve(resource);
+
+        // Local files are read through a channel, which also allows the checksums of large files to be computed from
+        // memory-mapped regions of the file
+        FileChannel channel = openFile(resource);
+
+        try (InputStream resourceIn = channel != null ? Channels.newInputStream(channel) : resource.getInputStream();
+             BufferedInputStream buffIn =
+            mediaType != null || resourceIn.markSupported() ? null : new BufferedInputStream(resourceIn)) {
 
             InputStream in;
 
@@ -155,28 +359,29 @@ public class DefaultStreamWriterImpl implements StreamWriter {
                 in = resourceIn;
             }
 
-            resourceBuilder.mimeType(detectMediaType(in, new DefaultDetector()).toString());
+            if (mediaType == null) {
+                mediaType = mimeTypeResolver.detect(in);
+            }
 
-            try (ObservableInputStream observableIn = new ObservableInputStream(in)) {
-                ContentLengthObserver clObs = new ContentLengthObserver(resourceBuilder);
-                observableIn.add(clObs);
+            resourceBuilder.mimeType(mediaType.toString());
 
-                ((List<PackageOptions.Checksum.OPTS>) packageOptions.getOrDefault(
-                    PackageOptions.Checksum.KEY, emptyList()))
-                    .forEach(algo -> observableIn.add(new DigestObserver(resourceBuilder, algo)));
+            String name = (packagePath != null) ? packagePath : packagePath(resource);
+            if (name != null) {
+                resourceBuilder.name(name);
+            }
 
-                if (resource instanceof DepositFileResource) {
-                    resourceBuilder.name(packageProvider.packagePath((DepositFileResource) resource));
-                }
+            PackageStream.Resource packageResource = resourceBuilder.build();
+            long length = resource.contentLength();
 
-                if (resource instanceof SupplementalResource) {
-                    resourceBuilder.name(((SupplementalResource) resource).getPackagePath());
-                }
+            // Large resources may have their checksums computed on separate lanes
+            int lanesMinMib = intOption(packageOptions, Checksum.LANES_MIN_MIB_KEY, -1);
+            ExecutorService lanes = laneExecutor != null && lanesMinMib >= 0 && length >= lanesMinMib * 1024L * 1024L ?
+                laneExecutor : null;
 
-                PackageStream.Resource packageResource = resourceBuilder.build();
-                long length = resource.contentLength();
+            try (DigestingInputStream digestingIn = new DigestingInputStream(in, channel, resourceBuilder, algorithms,
+                lanes, storedDigests, fixity == Fixity.OPTS.VERIFY)) {
                 ArchiveEntry archiveEntry = createEntry(packageResource.name(), length);
-                writeResource(archiveOut, archiveEntry, observableIn);
+                entryWriter.write(archiveEntry, compressionPolicy.level(packageResource.mimeType()), digestingIn);
             }
 
             LOG.debug("Adding resource: {}", resourceBuilder.build());
@@ -184,6 +389,106 @@ public class DefaultStreamWriterImpl implements StreamWriter {
         }
     }
 
+    /**
+     * Answers the path of {@code resource} in the package: the path supplied by the {@link PackageProvider} for
+     * custodial resources, or the path of a {@link SupplementalResource}.
+     *
+     * @param resource the resource being written
+     * @return the path of the resource in the package, or {@code null} if the resource has no package path
+     */
+    private String packagePath(Resource resource) {
+        if (resource instanceof DepositFileResource) {
+            return packageProvider.packagePath((DepositFileResource) resource);
+        }
+
+        if (resource instanceof SupplementalResource) {
+            return ((SupplementalResource) resource).getPackagePath();
+        }
+
+        return null;
+    }
+
+    /**
+     * Answers the checksums stored for {@code resource} by the system holding its bytes (e.g. Fedora), according to the
+     * {@link Fixity fixity policy}.  Stored checksums are not requested when the policy is {@link Fixity.OPTS#IGNORE},
+     * and checksums which cannot be retrieved are computed from the bytes of the resource instead.
+     *
+     * @param resource   the resource being written
+     * @param algorithms the checksum algorithms of the package resources
+     * @param fixity     the fixity policy
+     * @return the stored checksums, keyed by algorithm, may be empty
+     */
+    private static Map<Checksum.OPTS, byte[]> storedDigests(Resource resource, List<Checksum.OPTS> algorithms,
+                                                            Fixity.OPTS fixity) {
+        if (fixity == Fixity.OPTS.IGNORE || algorithms.isEmpty() || !(resource instanceof FixityAware)) {
+            return Collections.emptyMap();
+        }
+
+        try {
+            return ((FixityAware) resource).storedDigests(algorithms);
+        } catch (IOException e) {
+            LOG.warn("Unable to obtain the stored checksums of {}, they will be computed instead: {}",
+                     resource.getDescription(), e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Opens a channel to the local file holding the bytes of {@code resource}, if it is backed by one (e.g. a {@code
+     * FileSystemResource}, or a {@code UrlResource} with a {@code file:} URL).
+     *
+     * @param resource the resource being written
+     * @return a channel to the file, or {@code null} if the resource is not a file, or the file cannot be opened, in
+     * which case the resource is read from its input stream
+     */
+    private static FileChannel openFile(Resource resource) {
+        if (!resource.isFile()) {
+            return null;
+        }
+
+        try {
+            return FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+        } catch (IOException | InvalidPathException e) {
+            LOG.debug("Unable to open {} as a file, it will be read as a stream: {}", resource.getDescription(),
+                      e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Releases the bytes held by {@code resource} if it was fetched ahead of the writer by a {@link
+     * ResourcePrefetcher}, deleting the temporary file it was spilled to, if any.
+     *
+     * @param resource the resource that was written
+     */
+    private static void release(Resource resource) {
+        Resource fetched = resource instanceof DepositFileResource ?
+            ((DepositFileResource) resource).getResource() : resource;
+        if (fetched instanceof PrefetchedResource) {
+            ((PrefetchedResource) fetched).release();
+        }
+    }
+
+    /**
+     * Answers the {@link Fixity fixity policy} supplied in the package options, which may be an {@link Fixity.OPTS} or
+     * its (case-insensitive) name.
+     *
+     * @param packageOptions the package options
+     * @return the fixity policy, {@link Fixity.OPTS#IGNORE} if none is supplied
+     */
+    private static Fixity.OPTS fixityOption(Map<String, Object> packageOptions) {
+        Object value = packageOptions.get(Fixity.KEY);
+        if (value == null) {
+            return Fixity.OPTS.IGNORE;
+        }
+
+        if (value instanceof Fixity.OPTS) {
+            return (Fixity.OPTS) value;
+        }
+
+        return Fixity.OPTS.valueOf(value.toString().trim().toUpperCase());
+    }
+
     /**
      * Create an ArchiveEntry from a {@code String} name and a {@code long} length
      *
@@ -222,20 +527,73 @@ public class DefaultStreamWriterImpl implements StreamWriter {
      * <p>
      * Note this method closes the {@code ArchiveEntry} after the bytes of {@code archiveEntryIn} are written.
      * </p>
+     * <p>
+     * ZIP entries are deflated at the supplied {@code level}.  Entries cannot be stored when streaming a ZIP, because
+     * their size and CRC must be known before their bytes are written, so incompressible entries are deflated at level
+     * {@code 0} instead, which adds a few bytes of framing to each entry.
+     * </p>
      *
      * @param archiveOut     the package output stream
      * @param archiveEntry   metadata describing {@code archiveEntryIn}, closed before this method returns
+     * @param level          the compression level of the entry, if the package format compresses each entry
      * @param archiveEntryIn the bytes to be written
      * @throws IOException if there is an error encountered writing the bytes
      */
-    private void writeResource(ArchiveOutputStream archiveOut, ArchiveEntry archiveEntry, InputStream archiveEntryIn)
-        throws IOException {
+    private void writeResource(ArchiveOutputStream archiveOut, ArchiveEntry archiveEntry, int level,
+                               InputStream archiveEntryIn) throws IOException {
+        if (archiveOut instanceof ZipArchiveOutputStream) {
+            ((ZipArchiveOutputStream) archiveOut).setLevel(level);
+        }
         archiveOut.putArchiveEntry(archiveEntry);
-        int bytesWritten = IOUtils.copy(archiveEntryIn, archiveOut);
+        long bytesWritten = IOUtils.copyLarge(archiveEntryIn, archiveOut, COPY_BUFFER.get());
         STREAMING_IO_LOG.debug("Wrote {}: {} bytes", archiveEntry.getName(), bytesWritten);
         archiveOut.closeArchiveEntry();
     }
 
+    /**
+     * Reads {@code resource} and compresses it into its own scatter store, building the {@link PackageStream.Resource}
+     * as it is read.  Invoked by tasks executing on the compression executor.  The {@code ResourceBuilder} and the
+     * package path are obtained by the thread writing the package, so neither the {@link ResourceBuilderFactory} nor
+     * the {@link PackageProvider} is invoked concurrently.
+     * <p>
+     * Because the size and CRC of the entry are known once it has been scattered, incompressible entries are stored
+     * rather than deflated.
+     * </p>
+     *
+     * @param resource        the custodial resource
+     * @param resourceBuilder the builder for the package resource
+     * @param packagePath     the path of the resource in the package
+     * @return the package resource, and the scatter store holding its compressed entry
+     * @throws IOException if the resource cannot be read, or the scatter store cannot be written
+     */
+    private ScatteredEntry scatter(DepositFileResource resource, ResourceBuilder resourceBuilder, String packagePath)
+        throws IOException {
+        File scatterFile = File.createTempFile(SCATTER_PREFIX, SCATTER_SUFFIX);
+        ScatterZipOutputStream[] scatterOut = new ScatterZipOutputStream[1];
+
+        EntryWriter scatterWriter = (entry, level, in) -> {
+            ZipArchiveEntry zipEntry = (ZipArchiveEntry) entry;
+            if (level == Deflater.NO_COMPRESSION) {
+                zipEntry.setMethod(ZipEntry.STORED);
+                scatterOut[0] = ScatterZipOutputStream.fileBased(scatterFile);
+            } else {
+                zipEntry.setMethod(ZipEntry.DEFLATED);
+                scatterOut[0] = ScatterZipOutputStream.fileBased(scatterFile, level);
+            }
+            scatterOut[0].addArchiveEntry(ZipArchiveEntryRequest.createZipArchiveEntryRequest(zipEntry, () -> in));
+        };
+
+        try {
+            // Checksums are computed by this thread, which is already one of the threads compressing the package
+            PackageStream.Resource packageResource = writeResource(resourceBuilder, resource, packagePath, null,
+                                                                   scatterWriter);
+            return new ScatteredEntry(packageResource, scatterOut[0], scatterFile);
+        } catch (IOException | RuntimeException e) {
+            new ScatteredEntry(null, scatterOut[0], scatterFile).close();
+            throw e;
+        }
+    }
+
     /**
      * Accepts a Spring {@code Resource} (typically a {@link DepositFileResource} or {@link SupplementalResource}), and
      * uses the {@link #rbf ResourceBuilderFactory} to build a {@link PackageStream.Resource} representation of the
@@ -255,4 +613,157 @@ public class DefaultStreamWriterImpl implements StreamWriter {
         }
     }
 
+    /**
+     * Writes an archive entry and its bytes, compressing the entry at the supplied level if the package format
+     * compresses each entry
+     */
+    @FunctionalInterface
+    private interface EntryWriter {
+
+        void write(ArchiveEntry entry, int level, InputStream in) throws IOException;
+
+    }
+
+    /**
+     * Compresses the custodial resources of a ZIP package concurrently, and gathers the compressed entries into the
+     * package in the order the resources were added.
+     * <p>
+     * Each resource is read and compressed into its own scatter store by a task on the compression executor, so
+     * resources are compressed concurrently.  The thread writing the package appends each compressed entry to the
+     * package, as a raw entry, once it and the entries preceding it have been compressed.  At most {@code maxInFlight}
+     * resources are compressed or waiting to be appended at any time, and prefetched resources share their memory
+     * budget with them.
+     * </p>
+     */
+    private class ScatterZipWriter implements AutoCloseable {
+
+        private final Deque<Future<ScatteredEntry>> inFlight = new ArrayDeque<>();
+
+        private final Deque<DepositFileResource> inFlightResources = new ArrayDeque<>();
+
+        private final Consumer<PackageStream.Resource> gathered;
+
+        private final int maxInFlight;
+
+        private volatile boolean closed;
+
+        private ScatterZipWriter(Consumer<PackageStream.Resource> gathered, int maxInFlight) {
+            this.gathered = gathered;
+            this.maxInFlight = maxInFlight;
+        }
+
+        private void add(DepositFileResource resource) {
+            while (inFlight.size() >= maxInFlight) {
+                gather();
+            }
+            ResourceBuilder resourceBuilder;
+            String packagePath;
+            try {
+                resourceBuilder = rbf.newInstance();
+                packagePath = packagePath(resource);
+            } catch (RuntimeException e) {
+                release(resource);
+                throw e;
+            }
+            inFlight.addLast(compressionExecutor.submit(() -> {
+                if (closed) {
+                    release(resource);
+                    throw new CancellationException("Writer closed before " + resource.getFilename() +
+                                                    " was compressed");
+                }
+                return scatter(resource, resourceBuilder, packagePath);
+            }));
+            inFlightResources.addLast(resource);
+        }
+
+        private void finish() {
+            while (!inFlight.isEmpty()) {
+                gather();
+            }
+        }
+
+        private void gather() {
+            DepositFileResource resource = inFlightResources.removeFirst();
+            ScatteredEntry entry;
+            try {
+                entry = inFlight.removeFirst().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(format(ERR_PUT_RESOURCE, resource.getFilename(), "interrupted"), e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw new RuntimeException(format(ERR_PUT_RESOURCE, resource.getFilename(), cause.getMessage()),
+                                           cause);
+            }
+
+            try (ScatteredEntry toGather = entry) {
+                toGather.scatterOut.writeTo((ZipArchiveOutputStream) archiveOut);
+                STREAMING_IO_LOG.debug("Wrote {}: {} bytes", toGather.resource.name(), toGather.resource.sizeBytes());
+            } catch (IOException e) {
+                throw new RuntimeException(format(ERR_PUT_RESOURCE, resource.getFilename(), e.getMessage()), e);
+            }
+
+            gathered.accept(entry.resource);
+        }
+
+        /**
+         * Discards entries which have been compressed but not gathered.  Resources which have not started compressing
+         * are released without being compressed; compression already in progress is allowed to complete, so that its
+         * scatter store, and the resource being compressed, are released.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            Future<ScatteredEntry> future;
+            while ((future = inFlight.pollFirst()) != null) {
+                try {
+                    future.get().close();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOG.debug("Interrupted discarding compressed entries, {} entries were not discarded",
+                              inFlight.size() + 1);
+                    break;
+                } catch (ExecutionException | CancellationException e) {
+                    LOG.trace("Discarding failed entry: {}", e.getMessage(), e);
+                }
+            }
+            inFlight.clear();
+            inFlightResources.clear();
+        }
+    }
+
+    /**
+     * A custodial resource compressed into its own scatter store
+     */
+    private static class ScatteredEntry implements AutoCloseable {
+
+        private final PackageStream.Resource resource;
+
+        private final ScatterZipOutputStream scatterOut;
+
+        private final File scatterFile;
+
+        private ScatteredEntry(PackageStream.Resource resource, ScatterZipOutputStream scatterOut, File scatterFile) {
+            this.resource = resource;
+            this.scatterOut = scatterOut;
+            this.scatterFile = scatterFile;
+        }
+
+        /**
+         * Closes the scatter store, and deletes its backing file
+         */
+        @Override
+        public void close() {
+            try {
+                if (scatterOut != null) {
+                    scatterOut.close();
+                }
+            } catch (IOException e) {
+                LOG.trace("Error closing scatter store {}: {}", scatterFile, e.getMessage(), e);
+            } finally {
+                deleteQuietly(scatterFile);
+            }
+        }
+    }
+
 }
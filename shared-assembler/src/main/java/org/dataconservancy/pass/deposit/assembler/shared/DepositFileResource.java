@@ -21,7 +21,11 @@ import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
 import java.nio.channels.ReadableByteChannel;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
 import org.dataconservancy.pass.deposit.model.DepositFile;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
@@ -45,7 +49,7 @@ import org.springframework.lang.Nullable;
  *
  * @author Elliot Metsger (emetsger@jhu.edu)
  */
-public class DepositFileResource implements Resource {
+public class DepositFileResource implements Resource, FixityAware {
 
     private Resource resource;
 
@@ -328,6 +332,26 @@ public class DepositFileResource implements Resource {
         return resource.getInputStream();
     }
 
+    /**
+     * <em>Implementation note:</em> forwards to the underlying Spring {@link Resource} if it is {@link FixityAware},
+     * otherwise no checksums are stored.
+     *
+     * {@inheritDoc}
+     *
+     * @param algorithms {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     * @throws IllegalStateException if the underlying Spring {@code Resource} has not been set
+     */
+    @Override
+    public Map<Checksum.OPTS, byte[]> storedDigests(Collection<Checksum.OPTS> algorithms) throws IOException {
+        assertState();
+        if (resource instanceof FixityAware) {
+            return ((FixityAware) resource).storedDigests(algorithms);
+        }
+        return Collections.emptyMap();
+    }
+
     private void assertState() {
         if (this.resource == null) {
             throw new IllegalStateException("The delegate Spring Resource is null: has setResource(Resource) been " +
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static java.util.Collections.singleton;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+
+import java.io.IOException;
+
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.springframework.core.io.Resource;
+
+/**
+ * A content-addressed binary store, which holds each binary in a file named by the hex-encoded digest of its bytes.
+ * The file is nested in directories named by successive pairs of characters of the digest, e.g. with a depth of
+ * {@code 3}, a binary with the digest {@code 0a1b2c3d...} is stored at {@code <binary store>/0a/1b/2c/0a1b2c3d...}.
+ * <p>
+ * The digest of each binary is the checksum stored by Fedora, obtained from the remote resource without reading its
+ * bytes.  Binaries without a stored checksum for the configured algorithm are not mapped.
+ * </p>
+ * <p>
+ * The file binary store of ModeShape, used by Fedora 4 and 5, is laid out by the SHA-1 digest of each binary, three
+ * directories deep; see {@link #modeShape()}.
+ * </p>
+ */
+public class DigestBinaryStoreLayout implements BinaryStoreLayout {
+
+    private final Checksum.OPTS algorithm;
+
+    private final int depth;
+
+    /**
+     * Creates a layout which locates binaries by their stored {@code algorithm} digest, nested {@code depth}
+     * directories deep.
+     *
+     * @param algorithm the digest algorithm used to name binaries
+     * @param depth     the number of directory levels, each named by two characters of the digest
+     */
+    public DigestBinaryStoreLayout(Checksum.OPTS algorithm, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth must not be negative: " + depth);
+        }
+        this.algorithm = algorithm;
+        this.depth = depth;
+    }
+
+    /**
+     * Creates the layout of a ModeShape file binary store, as used by Fedora 4 and 5, which locates binaries by their
+     * SHA-1 digest nested three directories deep, e.g. {@code <binary store>/0a/1b/2c/0a1b2c3d...}.
+     *
+     * @return the layout of a ModeShape file binary store
+     */
+    public static DigestBinaryStoreLayout modeShape() {
+        return new DigestBinaryStoreLayout(Checksum.OPTS.SHA1, 3);
+    }
+
+    @Override
+    public String path(String location, String fedoraPath, Resource remote) throws IOException {
+        if (!(remote instanceof FixityAware)) {
+            return null;
+        }
+
+        byte[] digest = ((FixityAware) remote).storedDigests(singleton(algorithm)).get(algorithm);
+        if (digest == null) {
+            return null;
+        }
+
+        String hex = encodeHexString(digest);
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < depth && (i + 1) * 2 < hex.length(); i++) {
+            path.append(hex, i * 2, (i + 1) * 2).append('/');
+        }
+        return path.append(hex).toString();
+    }
+
+}
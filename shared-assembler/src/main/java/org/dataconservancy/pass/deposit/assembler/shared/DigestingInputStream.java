@@ -0,0 +1,438 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport.checksum;
+import static org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport.newDigest;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.codec.binary.Hex;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.dataconservancy.pass.deposit.assembler.ResourceBuilder;
+
+/**
+ * Computes the size and checksums of the bytes read through this stream in a single pass, and applies them to a
+ * {@link ResourceBuilder} once the end of the stream is reached.
+ * <p>
+ * By default, every digest is updated by the thread reading the stream.  If a lane executor is supplied, each digest is
+ * instead updated on its own lane: a sequence of tasks on the executor which update the digest, in order, with copies
+ * of the bytes read.  Lanes allow expensive digests of large resources (e.g. SHA-512) to be computed concurrently with
+ * each other, and with the reader, at the cost of copying the bytes read.  At most {@link #LANE_BUFFERS} buffers of
+ * {@link #LANE_BUFFER_SIZE} bytes are outstanding; the reader blocks once every buffer is in use.
+ * </p>
+ * <p>
+ * If the bytes read are those of a local file, the channel of the file may be supplied.  Lanes then digest
+ * memory-mapped regions of the file, rather than copies of the bytes read, so the reader neither copies the bytes nor
+ * waits for buffers to be digested.  The file must not change while it is read: if the number of bytes read differs
+ * from the size of the file when the lanes began, reaching the end of the stream fails with an {@code IOException}.
+ * </p>
+ * <p>
+ * Digests already known for the bytes of the stream (e.g. stored by Fedora) may be supplied.  A known digest is either
+ * trusted, in which case it is applied to the {@code ResourceBuilder} without being computed, or verified, in which
+ * case the digest is computed and compared to the known digest when the end of the stream is reached; a mismatch is
+ * reported as an {@code IOException}.
+ * </p>
+ * <p>
+ * {@code MessageDigest} instances are pooled and re-used by instances of this class.  Marking the stream is not
+ * supported, and skipped bytes are read, so the digests account for every byte of the underlying stream.
+ * </p>
+ */
+public class DigestingInputStream extends FilterInputStream {
+
+    /**
+     * The number of buffers of bytes waiting to be digested by lanes
+     */
+    static final int LANE_BUFFERS = 4;
+
+    /**
+     * The size of each buffer of bytes waiting to be digested by lanes
+     */
+    static final int LANE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The size of each region of a file mapped into memory by lanes
+     */
+    static final long MAPPED_REGION_SIZE = 16 * 1024 * 1024;
+
+    private static final String ERR_FIXITY = "Fixity check failed: the known %s checksum %s does not match the " +
+                                             "computed checksum %s of the %s bytes read";
+
+    private static final String ERR_FILE_CHANGED = "The size of the file being digested changed while it was read: " +
+                                                   "%s bytes were read, but %s bytes were digested";
+
+    /**
+     * Idle {@code MessageDigest} instances, keyed by algorithm
+     */
+    static final Map<Checksum.OPTS, Queue<MessageDigest>> DIGEST_POOL = new EnumMap<>(Checksum.OPTS.class);
+
+    static {
+        for (Checksum.OPTS algorithm : Checksum.OPTS.values()) {
+            DIGEST_POOL.put(algorithm, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    private final ResourceBuilder builder;
+
+    private final List<Checksum.OPTS> algorithms;
+
+    private final Map<Checksum.OPTS, byte[]> knownDigests;
+
+    /**
+     * The algorithms of the digests computed by this stream, in the same order as {@link #digests}
+     */
+    private final Checksum.OPTS[] computed;
+
+    private final MessageDigest[] digests;
+
+    private final ExecutorService laneExecutor;
+
+    private final byte[] single = new byte[1];
+
+    private CompletableFuture<?>[] lanes;
+
+    private BlockingQueue<byte[]> laneBuffers;
+
+    /**
+     * The size of the file digested by the lanes, or {@code -1} if the lanes digest the bytes read
+     */
+    private long mappedSize = -1;
+
+    private long count;
+
+    private boolean finished;
+
+    /**
+     * Creates a stream which updates every digest on the thread reading the stream.
+     *
+     * @param in         the underlying stream
+     * @param builder    receives the size and checksums of the stream once the end of the stream is reached
+     * @param algorithms the checksum algorithms, may be empty
+     */
+    public DigestingInputStream(InputStream in, ResourceBuilder builder, List<Checksum.OPTS> algorithms) {
+        this(in, builder, algorithms, null);
+    }
+
+    /**
+     * Creates a stream which updates each digest on its own lane, if {@code laneExecutor} is not {@code null}.
+     *
+     * @param in           the underlying stream
+     * @param builder      receives the size and checksums of the stream once the end of the stream is reached
+     * @param algorithms   the checksum algorithms, may be empty
+     * @param laneExecutor executes the lanes which update the digests, may be {@code null} in which case the digests
+     *                     are updated by the thread reading the stream
+     */
+    public DigestingInputStream(InputStream in, ResourceBuilder builder, List<Checksum.OPTS> algorithms,
+                                ExecutorService laneExecutor) {
+        this(in, builder, algorithms, laneExecutor, Collections.emptyMap(), false);
+    }
+
+    /**
+     * Creates a stream which trusts, or verifies, the supplied known digests, and updates each remaining digest on
+     * its own lane, if {@code laneExecutor} is not {@code null}.  Known digests for algorithms not present in {@code
+     * algorithms} are ignored.
+     *
+     * @param in           the underlying stream
+     * @param builder      receives the size and checksums of the stream once the end of the stream is reached
+     * @param algorithms   the checksum algorithms, may be empty
+     * @param laneExecutor executes the lanes which update the digests, may be {@code null} in which case the digests
+     *                     are updated by the thread reading the stream
+     * @param knownDigests digests already known for the bytes of the stream, keyed by algorithm, may be empty
+     * @param verify       if {@code true} known digests are computed and verified, otherwise they are trusted
+     */
+    public DigestingInputStream(InputStream in, ResourceBuilder builder, List<Checksum.OPTS> algorithms,
+                                ExecutorService laneExecutor, Map<Checksum.OPTS, byte[]> knownDigests,
+                                boolean verify) {
+        this(in, null, builder, algorithms, laneExecutor, knownDigests, verify);
+    }
+
+    /**
+     * Creates a stream which trusts, or verifies, the supplied known digests, and updates each remaining digest on
+     * its own lane, if {@code laneExecutor} is not {@code null}.  If {@code source} is not {@code null}, the lanes
+     * digest memory-mapped regions of the file, which must contain the same bytes that are read from {@code in}.
+     *
+     * @param in           the underlying stream
+     * @param source       the channel of the local file read by {@code in}, may be {@code null}; it is not closed by
+     *                     this stream
+     * @param builder      receives the size and checksums of the stream once the end of the stream is reached
+     * @param algorithms   the checksum algorithms, may be empty
+     * @param laneExecutor executes the lanes which update the digests, may be {@code null} in which case the digests
+     *                     are updated by the thread reading the stream
+     * @param knownDigests digests already known for the bytes of the stream, keyed by algorithm, may be empty
+     * @param verify       if {@code true} known digests are computed and verified, otherwise they are trusted
+     * @throws UncheckedIOException if the size of the {@code source} file cannot be determined
+     */
+    public DigestingInputStream(InputStream in, FileChannel source, ResourceBuilder builder,
+                                List<Checksum.OPTS> algorithms, ExecutorService laneExecutor,
+                                Map<Checksum.OPTS, byte[]> knownDigests, boolean verify) {
+        super(in);
+        this.builder = builder;
+        this.algorithms = algorithms;
+        this.knownDigests = knownDigests;
+
+        List<Checksum.OPTS> toCompute = new ArrayList<>(algorithms.size());
+        for (Checksum.OPTS algorithm : algorithms) {
+            if (verify || !knownDigests.containsKey(algorithm)) {
+                toCompute.add(algorithm);
+            }
+        }
+
+        this.computed = toCompute.toArray(new Checksum.OPTS[0]);
+        this.digests = new MessageDigest[computed.length];
+        for (int i = 0; i < computed.length; i++) {
+            MessageDigest digest = DIGEST_POOL.get(computed[i]).poll();
+            digests[i] = digest != null ? digest : newDigest(computed[i]);
+        }
+
+        this.laneExecutor = digests.length > 0 ? laneExecutor : null;
+        if (this.laneExecutor != null && source != null) {
+            try {
+                mappedSize = source.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to determine the size of the file being digested", e);
+            }
+            long size = mappedSize;
+            lanes = new CompletableFuture<?>[digests.length];
+            for (int i = 0; i < lanes.length; i++) {
+                MessageDigest digest = digests[i];
+                lanes[i] = CompletableFuture.runAsync(() -> digestMapped(source, size, digest), laneExecutor);
+            }
+        } else if (this.laneExecutor != null) {
+            lanes = new CompletableFuture<?>[digests.length];
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] = CompletableFuture.completedFuture(null);
+            }
+            laneBuffers = new ArrayBlockingQueue<>(LANE_BUFFERS);
+            for (int i = 0; i < LANE_BUFFERS; i++) {
+                laneBuffers.offer(new byte[LANE_BUFFER_SIZE]);
+            }
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            finish();
+        } else {
+            single[0] = (byte) b;
+            update(single, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n < 0) {
+            finish();
+        } else if (n > 0) {
+            update(b, off, n);
+        }
+        return n;
+    }
+
+    /**
+     * Reads and digests, rather than skips, up to {@code n} bytes.
+     *
+     * @param n the number of bytes to skip
+     * @return the number of bytes skipped
+     * @throws IOException if the underlying stream cannot be read
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] skipped = new byte[(int) Math.min(n, 8192)];
+        long remaining = n;
+        while (remaining > 0) {
+            int read = read(skipped, 0, (int) Math.min(remaining, skipped.length));
+            if (read < 0) {
+                break;
+            }
+            remaining -= read;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        // no-op
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Closes the underlying stream.  If the end of the stream has not been reached, no size or checksums are applied
+     * to the {@code ResourceBuilder}, and the digests are returned to the pool once any outstanding lanes complete.
+     *
+     * @throws IOException if the underlying stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (!finished) {
+                finished = true;
+                if (lanes == null) {
+                    release();
+                } else {
+                    CompletableFuture.allOf(lanes).whenComplete((result, e) -> release());
+                }
+            }
+        }
+    }
+
+    /**
+     * The number of bytes read from this stream so far.
+     *
+     * @return the number of bytes read
+     */
+    public long byteCount() {
+        return count;
+    }
+
+    private void update(byte[] b, int off, int len) throws IOException {
+        count += len;
+
+        if (mappedSize >= 0) {
+            return;
+        }
+
+        if (lanes == null) {
+            for (MessageDigest digest : digests) {
+                digest.update(b, off, len);
+            }
+            return;
+        }
+
+        while (len > 0) {
+            byte[] buffer;
+            try {
+                buffer = laneBuffers.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting to digest bytes");
+            }
+
+            int chunk = Math.min(len, buffer.length);
+            System.arraycopy(b, off, buffer, 0, chunk);
+            for (int i = 0; i < lanes.length; i++) {
+                MessageDigest digest = digests[i];
+                lanes[i] = lanes[i].thenRunAsync(() -> digest.update(buffer, 0, chunk), laneExecutor);
+            }
+            CompletableFuture.allOf(lanes).whenComplete((result, e) -> laneBuffers.offer(buffer));
+
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    private void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+
+        if (lanes != null) {
+            try {
+                CompletableFuture.allOf(lanes).join();
+            } catch (CompletionException e) {
+                throw new IOException("Error computing checksums: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        if (mappedSize >= 0 && mappedSize != count) {
+            throw new IOException(String.format(ERR_FILE_CHANGED, count, mappedSize));
+        }
+
+        builder.sizeBytes(count);
+
+        Map<Checksum.OPTS, byte[]> values = new EnumMap<>(Checksum.OPTS.class);
+        for (int i = 0; i < digests.length; i++) {
+            values.put(computed[i], digests[i].digest());
+            DIGEST_POOL.get(computed[i]).offer(digests[i]);
+        }
+
+        for (Checksum.OPTS algorithm : algorithms) {
+            byte[] known = knownDigests.get(algorithm);
+            byte[] value = values.get(algorithm);
+            if (value == null) {
+                value = known;
+            } else if (known != null && !Arrays.equals(known, value)) {
+                throw new IOException(String.format(ERR_FIXITY, algorithm, Hex.encodeHexString(known),
+                                                    Hex.encodeHexString(value), count));
+            }
+            builder.checksum(checksum(algorithm, value));
+        }
+    }
+
+    /**
+     * Resets the digests, and returns them to the pool.
+     */
+    private void release() {
+        for (int i = 0; i < digests.length; i++) {
+            digests[i].reset();
+            DIGEST_POOL.get(computed[i]).offer(digests[i]);
+        }
+    }
+
+    /**
+     * Updates {@code digest} with the first {@code size} bytes of the file, mapping a region of the file into memory
+     * at a time.
+     *
+     * @param source the channel of the file
+     * @param size   the number of bytes to digest
+     * @param digest the digest
+     */
+    private static void digestMapped(FileChannel source, long size, MessageDigest digest) {
+        try {
+            for (long position = 0; position < size; position += MAPPED_REGION_SIZE) {
+                digest.update(source.map(READ_ONLY, position, Math.min(MAPPED_REGION_SIZE, size - position)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport.checksum;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+
+/**
+ * Computes digests and a byte count over the bytes written to the underlying output stream.  Once the stream is
+ * closed, the digests are available from {@link #checksums()}, and the number of bytes written from {@link
+ * #byteCount()}.
+ */
+public class DigestingOutputStream extends FilterOutputStream {
+
+    private final Map<Checksum.OPTS, MessageDigest> digests = new LinkedHashMap<>();
+
+    private long byteCount;
+
+    private List<PackageStream.Checksum> checksums;
+
+    private boolean closed;
+
+    /**
+     * Computes a digest for each of the supplied {@code algorithms} over the bytes written to {@code out}.
+     *
+     * @param out        the underlying output stream
+     * @param algorithms the checksum algorithms to compute, may be empty
+     */
+    public DigestingOutputStream(OutputStream out, Collection<Checksum.OPTS> algorithms) {
+        super(out);
+        algorithms.forEach(algo -> digests.computeIfAbsent(algo, AssemblerSupport::newDigest));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        for (MessageDigest digest : digests.values()) {
+            digest.update((byte) b);
+        }
+        byteCount++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        for (MessageDigest digest : digests.values()) {
+            digest.update(b, off, len);
+        }
+        byteCount += len;
+    }
+
+    /**
+     * Flushes the underlying output stream, completes the digests, and closes the underlying output stream.  If the
+     * underlying output stream cannot be flushed, the digests are not completed.
+     *
+     * @throws IOException if the underlying output stream cannot be flushed or closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            out.flush();
+            List<PackageStream.Checksum> result = new ArrayList<>(digests.size());
+            digests.forEach((algo, digest) -> result.add(checksum(algo, digest.digest())));
+            checksums = Collections.unmodifiableList(result);
+            completed();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Invoked once the digests have been completed, prior to closing the underlying output stream.  Subclasses may
+     * override this method to publish the {@link #checksums()} and {@link #byteCount()}.  The default implementation
+     * does nothing.
+     */
+    protected void completed() {
+        // no-op
+    }
+
+    /**
+     * The number of bytes written to the underlying output stream.
+     *
+     * @return the number of bytes written
+     */
+    public long byteCount() {
+        return byteCount;
+    }
+
+    /**
+     * The checksums of the bytes written to the underlying output stream, in the order the algorithms were supplied.
+     *
+     * @return the checksums
+     * @throws IllegalStateException if the stream has not been closed, or could not be flushed when it was closed
+     */
+    public List<PackageStream.Checksum> checksums() {
+        if (checksums == null) {
+            throw new IllegalStateException("Checksums are not available until the stream has been closed.");
+        }
+        return checksums;
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static org.dataconservancy.pass.deposit.assembler.shared.DefaultArchiveOutputStreamFactory.compressionLevel;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+import org.apache.tika.mime.MediaType;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+
+/**
+ * Determines the compression level of each entry in a ZIP package from the media type of the entry.  Entries whose
+ * media type is already compressed (e.g. JPEG images, or ZIP files) gain little or nothing from being deflated again,
+ * so they are compressed at the {@link Compression#INCOMPRESSIBLE_LEVEL_KEY incompressible level} instead of the
+ * {@link Compression#LEVEL_KEY package level}.
+ * <p>
+ * Media types are matched without their parameters.  A media type of the form {@code type/*} matches every subtype of
+ * {@code type}.
+ * </p>
+ */
+public class EntryCompressionPolicy {
+
+    /**
+     * Media types considered incompressible if the {@link Compression#INCOMPRESSIBLE_MEDIA_TYPES_KEY} option is absent
+     */
+    public static final List<String> DEFAULT_INCOMPRESSIBLE_MEDIA_TYPES = Collections.unmodifiableList(Arrays.asList(
+        "application/pdf",
+        "application/zip",
+        "application/gzip",
+        "application/x-gzip",
+        "application/x-bzip2",
+        "application/x-xz",
+        "application/zstd",
+        "application/x-7z-compressed",
+        "application/x-rar-compressed",
+        "application/x-tika-ooxml",
+        "application/epub+zip",
+        "image/jpeg",
+        "image/png",
+        "image/gif",
+        "image/webp",
+        "image/jp2",
+        "audio/*",
+        "video/*"));
+
+    private final Set<String> mediaTypes = new HashSet<>();
+
+    private final Set<String> wildcardTypes = new HashSet<>();
+
+    private final int level;
+
+    private final int incompressibleLevel;
+
+    /**
+     * Creates a policy from the {@link Compression#LEVEL_KEY}, {@link Compression#INCOMPRESSIBLE_MEDIA_TYPES_KEY} and
+     * {@link Compression#INCOMPRESSIBLE_LEVEL_KEY} package options.  Levels are clamped to the range supported by the
+     * {@code Deflater}, {@code 0} through {@code 9}.
+     *
+     * @param packageOptions the package options
+     */
+    public EntryCompressionPolicy(Map<String, Object> packageOptions) {
+        // Levels outside the range of the Deflater would fail the package as the entry is written
+        this.level = compressionLevel(packageOptions, Compression.LEVEL_KEY, Deflater.NO_COMPRESSION,
+                                      Deflater.BEST_COMPRESSION, Deflater.DEFAULT_COMPRESSION);
+        this.incompressibleLevel = compressionLevel(packageOptions, Compression.INCOMPRESSIBLE_LEVEL_KEY,
+                                                    Deflater.NO_COMPRESSION, Deflater.BEST_COMPRESSION,
+                                                    Deflater.NO_COMPRESSION);
+
+        Object types = packageOptions.get(Compression.INCOMPRESSIBLE_MEDIA_TYPES_KEY);
+        Collection<?> incompressible;
+        if (types == null) {
+            incompressible = DEFAULT_INCOMPRESSIBLE_MEDIA_TYPES;
+        } else if (types instanceof Collection) {
+            incompressible = (Collection<?>) types;
+        } else {
+            incompressible = Arrays.asList(types.toString().split(","));
+        }
+
+        incompressible.stream()
+                      .map(type -> type.toString().trim().toLowerCase())
+                      .filter(type -> !type.isEmpty())
+                      .forEach(type -> {
+                          if (type.endsWith("/*")) {
+                              wildcardTypes.add(type.substring(0, type.length() - 2));
+                          } else {
+                              mediaTypes.add(type);
+                          }
+                      });
+    }
+
+    /**
+     * Answers whether or not {@code mediaType} is considered incompressible by this policy.
+     *
+     * @param mediaType the media type of an entry, may be {@code null}
+     * @return {@code true} if the media type is incompressible
+     */
+    public boolean isIncompressible(String mediaType) {
+        if (mediaType == null) {
+            return false;
+        }
+
+        MediaType parsed = MediaType.parse(mediaType);
+        if (parsed == null) {
+            return false;
+        }
+
+        return mediaTypes.contains(parsed.getBaseType().toString().toLowerCase()) ||
+               wildcardTypes.contains(parsed.getType().toLowerCase());
+    }
+
+    /**
+     * Answers the compression level for an entry of the supplied media type.
+     *
+     * @param mediaType the media type of an entry, may be {@code null}
+     * @return the compression level, {@link Deflater#NO_COMPRESSION} if the entry should be stored
+     */
+    public int level(String mediaType) {
+        return isIncompressible(mediaType) ? incompressibleLevel : level;
+    }
+
+}
@@ -16,9 +16,11 @@
 package org.dataconservancy.pass.deposit.assembler.shared;
 
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -26,6 +28,14 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 
 /**
+ * A {@code ThreadPoolExecutor} which reports exceptions thrown by executed tasks to a {@code BiConsumer}.
+ * <p>
+ * Exceptions may be routed to a handler supplied with an individual task (see {@link #submit(Callable, BiConsumer)}),
+ * or to the executor-wide handler supplied by {@link #setExceptionHandler(BiConsumer)}.  A task-specific handler takes
+ * precedence over the executor-wide handler, which allows a single executor to be shared by many concurrent
+ * producers, each of which need to be notified of their own failures.
+ * </p>
+ *
  * @author Elliot Metsger (emetsger@jhu.edu)
  */
 public class ExceptionHandlingThreadPoolExecutor extends ThreadPoolExecutor {
@@ -63,6 +73,26 @@ public class ExceptionHandlingThreadPoolExecutor extends ThreadPoolExecutor {
         this.exceptionHandler = exceptionHandler;
     }
 
+    /**
+     * Submits the supplied task for execution.  If the task throws an exception, it is reported to the supplied {@code
+     * exceptionHandler} instead of the executor-wide handler.
+     *
+     * @param task             the task to execute
+     * @param exceptionHandler receives the task and any exception thrown by the task; if {@code null} the
+     *                         executor-wide handler is used
+     * @param <T>              the type of the task's result
+     * @return a Future representing pending completion of the task
+     */
+    public <T> Future<T> submit(Callable<T> task, BiConsumer<Runnable, Throwable> exceptionHandler) {
+        if (task == null) {
+            throw new NullPointerException("Task must not be null.");
+        }
+
+        RoutingFutureTask<T> future = new RoutingFutureTask<>(task, exceptionHandler);
+        execute(future);
+        return future;
+    }
+
     @Override
     protected void afterExecute(Runnable runnable, Throwable throwable) {
         super.afterExecute(runnable, throwable);
@@ -84,8 +114,28 @@ public class ExceptionHandlingThreadPoolExecutor extends ThreadPoolExecutor {
 
         // Only invoke the exception handler if the Throwable is present, otherwise the stream closing logic supplied
         // by ArchivingPackageStream is executed erroneously.
-        if (exceptionHandler != null && throwable != null) {
-            exceptionHandler.accept(runnable, throwable);
+        BiConsumer<Runnable, Throwable> handler = exceptionHandler;
+        if (runnable instanceof RoutingFutureTask && ((RoutingFutureTask<?>) runnable).exceptionHandler != null) {
+            handler = ((RoutingFutureTask<?>) runnable).exceptionHandler;
+        }
+
+        if (handler != null && throwable != null) {
+            handler.accept(runnable, throwable);
+        }
+    }
+
+    /**
+     * A {@code FutureTask} which carries the exception handler for the task it wraps.
+     *
+     * @param <V> the type of the task's result
+     */
+    private static class RoutingFutureTask<V> extends FutureTask<V> {
+
+        private final BiConsumer<Runnable, Throwable> exceptionHandler;
+
+        private RoutingFutureTask(Callable<V> callable, BiConsumer<Runnable, Throwable> exceptionHandler) {
+            super(callable);
+            this.exceptionHandler = exceptionHandler;
         }
     }
 }
@@ -41,7 +41,17 @@ public enum Extension {
     /**
      * Extension for the BZIP2 format, {@code bz2}
      */
-    BZ2("bz2");
+    BZ2("bz2"),
+
+    /**
+     * Extension for the Zstandard format, {@code zst}
+     */
+    ZST("zst"),
+
+    /**
+     * Extension for the LZ4 frame format, {@code lz4}
+     */
+    LZ4("lz4");
 
     /**
      * The extension as it would be used in a file name, with no preceding or succeeding periods
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+
+/**
+ * A resource whose checksums may already be stored by the system holding its bytes (e.g. Fedora), and which can be
+ * obtained without reading the bytes of the resource.
+ */
+public interface FixityAware {
+
+    /**
+     * Answers the stored checksums of this resource for the requested algorithms.  Algorithms without a stored
+     * checksum are absent from the returned {@code Map}.
+     *
+     * @param algorithms the checksum algorithms of interest
+     * @return the stored checksums keyed by algorithm, may be empty but never {@code null}
+     * @throws IOException if the stored checksums cannot be retrieved
+     */
+    Map<Checksum.OPTS, byte[]> storedDigests(Collection<Checksum.OPTS> algorithms) throws IOException;
+
+}
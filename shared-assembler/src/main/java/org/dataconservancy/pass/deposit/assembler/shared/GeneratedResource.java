@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.dataconservancy.pass.deposit.assembler.shared.PackageProvider.SupplementalResource;
+import org.springframework.core.io.AbstractResource;
+
+/**
+ * A {@link SupplementalResource} whose content is generated when it is first read or its length is requested, by a
+ * {@link ContentWriter} supplied on construction.  Allows a {@link StreamingPackageProvider} to supply content whose
+ * length is not known in advance (e.g. a manifest) without holding the content in memory: content is buffered in
+ * memory up to a threshold, and spilled to a temporary file beyond it.
+ * <p>
+ * A {@code GeneratedResource} may be read once: closing the stream returned by {@link #getInputStream()} releases the
+ * buffered content, and deletes the temporary file, if any.
+ * </p>
+ */
+public class GeneratedResource extends AbstractResource implements SupplementalResource {
+
+    /**
+     * Number of bytes of generated content held in memory before the content is spilled to a temporary file, unless
+     * otherwise specified
+     */
+    public static final int DEFAULT_MEMORY_THRESHOLD = 1024 * 1024;
+
+    private static final String SPILL_PREFIX = "generated-";
+
+    private static final String SPILL_SUFFIX = ".tmp";
+
+    private final String packagePath;
+
+    private final ContentWriter contentWriter;
+
+    private final int memoryThreshold;
+
+    private DeferredFileOutputStream content;
+
+    private boolean opened;
+
+    /**
+     * Writes the content of a {@link GeneratedResource}
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+
+        /**
+         * Writes the content of the resource to the supplied stream.  Implementations should not close the stream.
+         *
+         * @param out the stream receiving the content of the resource
+         * @throws IOException if the content cannot be written
+         */
+        void writeTo(OutputStream out) throws IOException;
+
+    }
+
+    /**
+     * A resource generated at the supplied path, holding up to {@link #DEFAULT_MEMORY_THRESHOLD} bytes in memory.
+     *
+     * @param packagePath   the path of the resource relative to the base of the package
+     * @param contentWriter writes the content of the resource
+     */
+    public GeneratedResource(String packagePath, ContentWriter contentWriter) {
+        this(packagePath, contentWriter, DEFAULT_MEMORY_THRESHOLD);
+    }
+
+    /**
+     * A resource generated at the supplied path, holding up to {@code memoryThreshold} bytes in memory.
+     *
+     * @param packagePath     the path of the resource relative to the base of the package
+     * @param contentWriter   writes the content of the resource
+     * @param memoryThreshold the number of bytes held in memory before the content is spilled to a temporary file
+     */
+    public GeneratedResource(String packagePath, ContentWriter contentWriter, int memoryThreshold) {
+        this.packagePath = packagePath;
+        this.contentWriter = contentWriter;
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    @Override
+    public String getPackagePath() {
+        return packagePath;
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() throws IOException {
+        if (opened) {
+            throw new IllegalStateException("Generated resource " + getDescription() + " has already been read.");
+        }
+        DeferredFileOutputStream generated = generate();
+        opened = true;
+
+        if (generated.isInMemory()) {
+            return new FilterInputStream(new ByteArrayInputStream(generated.getData())) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    release();
+                }
+            };
+        }
+
+        return new BufferedInputStream(new FileInputStream(generated.getFile())) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    release();
+                }
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Generates the content of the resource, if it has not been generated already.
+     * </p>
+     *
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public synchronized long contentLength() throws IOException {
+        return generate().getByteCount();
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public String getFilename() {
+        return packagePath.substring(packagePath.lastIndexOf('/') + 1);
+    }
+
+    @Override
+    public String getDescription() {
+        return "Generated resource [" + packagePath + "]";
+    }
+
+    private DeferredFileOutputStream generate() throws IOException {
+        if (content != null) {
+            return content;
+        }
+
+        DeferredFileOutputStream out = new DeferredFileOutputStream(memoryThreshold, SPILL_PREFIX, SPILL_SUFFIX,
+                                                                    null);
+        try {
+            contentWriter.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            if (!out.isInMemory() && !out.getFile().delete()) {
+                out.getFile().deleteOnExit();
+            }
+            throw e;
+        }
+        out.close();
+
+        content = out;
+        return content;
+    }
+
+    /**
+     * Releases the generated content, deleting the temporary file, if any.
+     */
+    private synchronized void release() {
+        if (content != null && !content.isInMemory() && content.getFile().exists() && !content.getFile().delete()) {
+            content.getFile().deleteOnExit();
+        }
+        content = null;
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static org.dataconservancy.pass.deposit.assembler.shared.AssemblerSupport.detectMediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.tika.detect.DefaultDetector;
+import org.apache.tika.detect.Detector;
+import org.apache.tika.mime.MediaType;
+import org.dataconservancy.pass.deposit.assembler.shared.PackageProvider.SupplementalResource;
+import org.dataconservancy.pass.deposit.model.DepositFile;
+import org.springframework.core.io.Resource;
+
+/**
+ * Resolves the media type of resources being written to a package, reading the content of a resource only when its
+ * media type cannot be determined otherwise.  In order of preference, the media type of a resource is:
+ * <ol>
+ *     <li>the media type declared by the {@link DepositFileResource#getDepositFile() DepositFile} of a custodial
+ *         resource, which is supplied by the PASS {@code File} it was created from</li>
+ *     <li>the media type associated with the extension of the resource's file name</li>
+ *     <li>the media type detected from the content of the resource by a Tika {@code Detector}</li>
+ * </ol>
+ * <p>
+ * Constructing a Tika {@code DefaultDetector} loads the Tika media type registry, so a single detector is shared by
+ * all instances of this class.  Instances are thread-safe.
+ * </p>
+ */
+public class MimeTypeResolver {
+
+    private static final Detector SHARED_DETECTOR = new DefaultDetector();
+
+    private static final Map<String, MediaType> EXTENSIONS;
+
+    static {
+        Map<String, MediaType> extensions = new HashMap<>();
+        extensions.put("pdf", MediaType.application("pdf"));
+        extensions.put("doc", MediaType.application("msword"));
+        extensions.put("docx", MediaType.application("vnd.openxmlformats-officedocument.wordprocessingml.document"));
+        extensions.put("xls", MediaType.application("vnd.ms-excel"));
+        extensions.put("xlsx", MediaType.application("vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+        extensions.put("ppt", MediaType.application("vnd.ms-powerpoint"));
+        extensions.put("pptx", MediaType.application("vnd.openxmlformats-officedocument.presentationml.presentation"));
+        extensions.put("odt", MediaType.application("vnd.oasis.opendocument.text"));
+        extensions.put("rtf", MediaType.application("rtf"));
+        extensions.put("tex", MediaType.application("x-tex"));
+        extensions.put("epub", MediaType.application("epub+zip"));
+        extensions.put("txt", MediaType.TEXT_PLAIN);
+        extensions.put("csv", MediaType.text("csv"));
+        extensions.put("tsv", MediaType.text("tab-separated-values"));
+        extensions.put("md", MediaType.text("markdown"));
+        extensions.put("htm", MediaType.TEXT_HTML);
+        extensions.put("html", MediaType.TEXT_HTML);
+        extensions.put("xml", MediaType.APPLICATION_XML);
+        extensions.put("json", MediaType.application("json"));
+        extensions.put("jpg", MediaType.image("jpeg"));
+        extensions.put("jpeg", MediaType.image("jpeg"));
+        extensions.put("png", MediaType.image("png"));
+        extensions.put("gif", MediaType.image("gif"));
+        extensions.put("tif", MediaType.image("tiff"));
+        extensions.put("tiff", MediaType.image("tiff"));
+        extensions.put("svg", MediaType.image("svg+xml"));
+        extensions.put("eps", MediaType.application("postscript"));
+        extensions.put("zip", MediaType.APPLICATION_ZIP);
+        extensions.put("gz", MediaType.application("gzip"));
+        extensions.put("tgz", MediaType.application("gzip"));
+        extensions.put("tar", MediaType.application("x-tar"));
+        extensions.put("bz2", MediaType.application("x-bzip2"));
+        extensions.put("7z", MediaType.application("x-7z-compressed"));
+        extensions.put("mp3", MediaType.audio("mpeg"));
+        extensions.put("wav", MediaType.audio("vnd.wave"));
+        extensions.put("mp4", MediaType.video("mp4"));
+        extensions.put("mov", MediaType.video("quicktime"));
+        extensions.put("avi", MediaType.video("x-msvideo"));
+        EXTENSIONS = Collections.unmodifiableMap(extensions);
+    }
+
+    /**
+     * Answers the media type of {@code resource} without reading its content, from the media type declared by its
+     * {@code DepositFile}, or the extension of its file name.
+     *
+     * @param resource the resource
+     * @return the media type, or {@code null} if the content of the resource must be read to determine it
+     */
+    public MediaType resolve(Resource resource) {
+        String name;
+        if (resource instanceof DepositFileResource) {
+            DepositFile depositFile = ((DepositFileResource) resource).getDepositFile();
+            MediaType declared = parse(depositFile.getMimeType());
+            if (declared != null && !MediaType.OCTET_STREAM.equals(declared)) {
+                return declared;
+            }
+            // the name of the file as it was uploaded, custodial resources are often retrieved from opaque URIs
+            name = depositFile.getName();
+        } else if (resource instanceof SupplementalResource) {
+            name = ((SupplementalResource) resource).getPackagePath();
+        } else {
+            name = resource.getFilename();
+        }
+
+        return byExtension(name);
+    }
+
+    /**
+     * Detects the media type of the content supplied by {@code in}, which must support {@code mark(int)}.  The stream
+     * is reset to its position prior to detection.
+     *
+     * @param in the content
+     * @return the media type, {@code application/octet-stream} if it cannot be detected
+     * @throws IOException if the content cannot be read
+     */
+    public MediaType detect(InputStream in) throws IOException {
+        return detectMediaType(in, SHARED_DETECTOR);
+    }
+
+    /**
+     * Answers the media type associated with the extension of {@code name}.
+     *
+     * @param name a file name or path, may be {@code null}
+     * @return the media type, or {@code null} if the extension is unknown
+     */
+    static MediaType byExtension(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        int dot = name.lastIndexOf('.');
+        if (dot < 0 || dot < name.lastIndexOf('/') || dot == name.length() - 1) {
+            return null;
+        }
+
+        return EXTENSIONS.get(name.substring(dot + 1).toLowerCase());
+    }
+
+    private static MediaType parse(String mediaType) {
+        if (mediaType == null || mediaType.trim().isEmpty()) {
+            return null;
+        }
+
+        return MediaType.parse(mediaType.trim());
+    }
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * A binary store whose directory structure mirrors the paths of the binaries in Fedora, e.g. {@code
+ * http://localhost:8080/fcrepo/rest/ab/cd/binary} is stored at {@code <binary store>/ab/cd/binary}.  This is the
+ * default layout.
+ */
+public class MirroredBinaryStoreLayout implements BinaryStoreLayout {
+
+    @Override
+    public String path(String location, String fedoraPath, Resource remote) {
+        return fedoraPath;
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+/**
+ * A Fedora binary read directly from a locally mounted copy of the Fedora binary store, rather than over HTTP.
+ * <p>
+ * If the local file cannot be opened when it is read (e.g. the store has been unmounted), the bytes are read from the
+ * remote resource instead.  The {@link #storedDigests(Collection) stored checksums} of the binary are those held by
+ * Fedora, and are obtained from the remote resource.
+ * </p>
+ */
+public class MountedBinaryResource extends FileSystemResource implements FixityAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MountedBinaryResource.class);
+
+    private final Resource remote;
+
+    /**
+     * Creates a resource which reads the bytes of {@code remote} from {@code file}.
+     *
+     * @param file   the local copy of the binary
+     * @param remote the binary in Fedora, read if {@code file} cannot be opened, and consulted for stored checksums if
+     *               it is {@link FixityAware}
+     */
+    public MountedBinaryResource(File file, Resource remote) {
+        super(file);
+        this.remote = remote;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        try {
+            return super.getInputStream();
+        } catch (IOException e) {
+            LOG.warn("Unable to read {} from the mounted binary store, reading {} instead: {}", getPath(),
+                     remote.getURL(), e.getMessage());
+            return remote.getInputStream();
+        }
+    }
+
+    @Override
+    public Map<Checksum.OPTS, byte[]> storedDigests(Collection<Checksum.OPTS> algorithms) throws IOException {
+        if (remote instanceof FixityAware) {
+            return ((FixityAware) remote).storedDigests(algorithms);
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * The binary in Fedora whose bytes are read from the mounted binary store.
+     *
+     * @return the remote resource
+     */
+    public Resource getRemote() {
+        return remote;
+    }
+
+    @Override
+    public String getDescription() {
+        return "mounted binary [" + getPath() + "] of " + remote.getDescription();
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import okhttp3.Credentials;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.util.StringUtils;
+
+/**
+ * A resource requiring Basic authentication, typically a binary stored in Fedora, which is retrieved using a shared
+ * {@link OkHttpClient}.  Connections (and TLS sessions) are pooled by the client, and re-used across resources.
+ * <p>
+ * Credentials are supplied preemptively with each request, if a username is supplied.  The {@link #contentLength()
+ * length} of the resource is taken from the response to the {@code GET} issued by {@link #getInputStream()}, so
+ * reading a resource, and then asking for its length, costs a single request.  The length is only requested with a
+ * {@code HEAD} if it is asked for before the resource is read, or the {@code GET} response did not carry a length.
+ * </p>
+ * <p>
+ * The {@link #storedDigests(Collection) stored checksums} of the resource are requested using an HTTP {@code HEAD}
+ * carrying a {@code Want-Digest} header, and are read from the {@code Digest} header of the response.
+ * </p>
+ */
+public class OkHttpResource extends AbstractResource implements FixityAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OkHttpResource.class);
+
+    private static final String ERR_REQUEST = "Unable to connect or read from %s: %s %s";
+
+    private final OkHttpClient httpClient;
+
+    private final URL url;
+
+    private final String username;
+
+    private final String password;
+
+    /**
+     * The length of the resource from the most recent response carrying one, or {@code -1} if it is not known
+     */
+    private volatile long contentLength = -1;
+
+    /**
+     * Retrieves the resource at {@code url} using the supplied client, preemptively supplying Basic authentication
+     * credentials.
+     *
+     * @param httpClient the client used to retrieve the resource, typically shared by all resources
+     * @param url        the URL of the resource requiring authentication
+     * @param username   the username used to authenticate to the resource, may be empty or {@code null}
+     * @param password   the password used to authenticate to the resource, may be empty or {@code null}
+     */
+    public OkHttpResource(OkHttpClient httpClient, URL url, String username, String password) {
+        this.httpClient = httpClient;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Closing the returned stream releases the connection to the pool of the client.
+     * </p>
+     *
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        Response response = httpClient.newCall(request().get().build()).execute();
+        if (!response.isSuccessful()) {
+            response.close();
+            if (response.code() == 404) {
+                throw new FileNotFoundException(String.format(ERR_REQUEST, url, response.code(), response.message()));
+            }
+            throw new IOException(String.format(ERR_REQUEST, url, response.code(), response.message()));
+        }
+
+        ResponseBody body = response.body();
+        if (body.contentLength() >= 0) {
+            contentLength = body.contentLength();
+        }
+        return body.byteStream();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        long length = contentLength;
+        if (length >= 0) {
+            return length;
+        }
+
+        try (Response response = httpClient.newCall(request().head().build()).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException(String.format(ERR_REQUEST, url, response.code(), response.message()));
+            }
+            String header = response.header("Content-Length");
+            if (header == null) {
+                return -1;
+            }
+            contentLength = Long.parseLong(header.trim());
+            return contentLength;
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid Content-Length returned by " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<Checksum.OPTS, byte[]> storedDigests(Collection<Checksum.OPTS> algorithms) throws IOException {
+        if (algorithms.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Request head = request().head().header("Want-Digest", AssemblerSupport.wantDigest(algorithms)).build();
+        try (Response response = httpClient.newCall(head).execute()) {
+            if (!response.isSuccessful()) {
+                LOG.debug("Unable to obtain stored digests of {}: HEAD returned {}", url, response.code());
+                return Collections.emptyMap();
+            }
+            return AssemblerSupport.parseDigest(response.header("Digest"));
+        }
+    }
+
+    @Override
+    public boolean exists() {
+        try (Response response = httpClient.newCall(request().head().build()).execute()) {
+            return response.isSuccessful();
+        } catch (IOException e) {
+            LOG.debug("Unable to determine if {} exists: {}", url, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public URL getURL() {
+        return url;
+    }
+
+    @Override
+    public URI getURI() throws IOException {
+        try {
+            return url.toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid URI for " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getFilename() {
+        return StringUtils.getFilename(url.getPath());
+    }
+
+    @Override
+    public String getDescription() {
+        return "URL [" + url + "]";
+    }
+
+    /**
+     * Answers a builder for a request of the resource, carrying Basic authentication credentials.
+     *
+     * @return the request builder
+     */
+    private Request.Builder request() {
+        Request.Builder request = new Request.Builder().url(url);
+        if (StringUtils.hasLength(username)) {
+            request.header("Authorization", Credentials.basic(username, (password != null) ? password : "", UTF_8));
+        }
+        return request;
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+
+/**
+ * Random access to the resources of a package that has been written to a file, by the path of each resource within
+ * the package.
+ * <p>
+ * ZIP packages are read using their central directory.  The entries of uncompressed TAR packages are located by
+ * reading each entry header once, when the index is created, and recording the offset and size of each entry; opening
+ * a resource seeks to its offset.  Compressed TAR packages cannot be read at random, so opening a resource decompresses
+ * the package up to the resource.
+ * </p>
+ */
+public class PackageIndex {
+
+    private static final String ERR_NO_RESOURCE = "No resource named '%s' in package %s";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+
+    private final Archive.OPTS archive;
+
+    private final Compression.OPTS compression;
+
+    /**
+     * The offset and size, in that order, of the bytes of each resource in an uncompressed TAR package, keyed by the
+     * name of the resource
+     */
+    private final Map<String, long[]> tarOffsets = new HashMap<>();
+
+    /**
+     * Creates an index over the package in {@code file}, which was written according to the supplied package options.
+     *
+     * @param file           the package
+     * @param packageOptions the options used to write the package
+     * @throws IOException if the package cannot be read
+     * @throws UnsupportedOperationException if the package is not a TAR or ZIP archive
+     */
+    public PackageIndex(File file, Map<String, Object> packageOptions) throws IOException {
+        this.file = file;
+        this.archive = (Archive.OPTS) packageOptions.getOrDefault(Archive.KEY, Archive.OPTS.NONE);
+        this.compression = (Compression.OPTS) packageOptions.getOrDefault(Compression.KEY, Compression.OPTS.NONE);
+
+        if (archive == Archive.OPTS.NONE) {
+            throw new UnsupportedOperationException("Resources cannot be located in a package that is not archived");
+        }
+
+        if (archive == Archive.OPTS.TAR && !isCompressed()) {
+            // Entry data is skipped, rather than read, so only the headers of the package are read
+            try (TarArchiveInputStream tarIn = new TarArchiveInputStream(new FileInputStream(file))) {
+                TarArchiveEntry entry;
+                while ((entry = tarIn.getNextTarEntry()) != null) {
+                    if (entry.isFile()) {
+                        tarOffsets.put(entry.getName(), new long[] {tarIn.getBytesRead(), entry.getSize()});
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens the named resource.  The caller is responsible for closing the returned stream.
+     *
+     * @param name the path of the resource within the package
+     * @return the bytes of the resource
+     * @throws IOException if the package cannot be read
+     * @throws IllegalArgumentException if the package has no resource named {@code name}
+     */
+    public InputStream open(String name) throws IOException {
+        if (archive == Archive.OPTS.ZIP) {
+            return openZipEntry(name);
+        }
+
+        if (!isCompressed()) {
+            long[] offset = tarOffsets.get(name);
+            if (offset == null) {
+                throw new IllegalArgumentException(String.format(ERR_NO_RESOURCE, name, file));
+            }
+            FileInputStream in = new FileInputStream(file);
+            in.getChannel().position(offset[0]);
+            return new BufferedInputStream(new BoundedInputStream(in, offset[1]), BUFFER_SIZE);
+        }
+
+        return scanTarEntry(name);
+    }
+
+    private InputStream openZipEntry(String name) throws IOException {
+        ZipFile zipFile = new ZipFile(file);
+        ZipArchiveEntry entry = zipFile.getEntry(name);
+        if (entry == null || entry.isDirectory()) {
+            zipFile.close();
+            throw new IllegalArgumentException(String.format(ERR_NO_RESOURCE, name, file));
+        }
+
+        return new FilterInputStream(zipFile.getInputStream(entry)) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    zipFile.close();
+                }
+            }
+        };
+    }
+
+    private InputStream scanTarEntry(String name) throws IOException {
+        TarArchiveInputStream tarIn = new TarArchiveInputStream(decompress(
+            new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)));
+        try {
+            TarArchiveEntry entry;
+            while ((entry = tarIn.getNextTarEntry()) != null) {
+                if (entry.isFile() && entry.getName().equals(name)) {
+                    return tarIn;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            tarIn.close();
+            throw e;
+        }
+
+        tarIn.close();
+        throw new IllegalArgumentException(String.format(ERR_NO_RESOURCE, name, file));
+    }
+
+    private InputStream decompress(InputStream in) throws IOException {
+        switch (compression) {
+            case GZIP:
+                return new GzipCompressorInputStream(in, true);
+            case BZIP2:
+                return new BZip2CompressorInputStream(in, true);
+            case ZSTD:
+                return new ZstdInputStream(in);
+            case LZ4:
+                return new FramedLZ4CompressorInputStream(in, true);
+            default:
+                return in;
+        }
+    }
+
+    private boolean isCompressed() {
+        switch (compression) {
+            case GZIP:
+            case BZIP2:
+            case ZSTD:
+            case LZ4:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+}
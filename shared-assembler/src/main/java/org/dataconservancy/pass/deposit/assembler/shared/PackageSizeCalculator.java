@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+import org.dataconservancy.pass.deposit.model.DepositSubmission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calculates the exact size of a package before it is written, from the path and length of each of its resources.
+ * <p>
+ * Only uncompressed TAR packages are supported.  Each entry of a TAR archive is a 512 byte header record followed by
+ * the bytes of the entry padded to a whole number of records, and the archive ends with two empty records, padded to a
+ * whole number of {@link DefaultArchiveOutputStreamFactory#TAR_BLOCK_SIZE blocks}.  Sizes are not calculated for
+ * entries whose names need more than one header record (i.e. names of 100 bytes or more, or names that are not ASCII),
+ * or entries too large for the size field of the header, which the archive writer rejects in any case.
+ * </p>
+ * <p>
+ * The size of ZIP packages is not calculated: entries are deflated as they are streamed (entries that are not
+ * compressed are deflated at level {@code 0}), because a streamed ZIP entry may only be stored if its CRC is known
+ * before its bytes are written.  The size of deflated entries cannot be known without compressing them.
+ * </p>
+ */
+class PackageSizeCalculator {
+
+    /**
+     * Answered when the size of a package cannot be calculated
+     */
+    static final long UNKNOWN_SIZE = -1;
+
+    private static final Logger LOG = LoggerFactory.getLogger(PackageSizeCalculator.class);
+
+    private final Map<String, Object> packageOptions;
+
+    /**
+     * Creates a calculator for packages built with the supplied options.
+     *
+     * @param packageOptions the options used when building the package
+     */
+    PackageSizeCalculator(Map<String, Object> packageOptions) {
+        this.packageOptions = packageOptions;
+    }
+
+    /**
+     * Calculates the size of the package containing the {@code custodialResources}, pathed by the {@code
+     * packageProvider}, and the supplemental resources of the {@code packageProvider}.  The size is only calculated if
+     * the package is an uncompressed TAR archive, the provider is a {@link SizedPackageProvider}, and the length of
+     * every resource is known.
+     *
+     * @param submission         the submission being packaged
+     * @param custodialResources the custodial content of the package
+     * @param packageProvider    supplies package-specific paths and supplemental resources, may be {@code null}
+     * @return the size of the package in bytes, or {@link #UNKNOWN_SIZE} if it cannot be calculated
+     */
+    long sizeBytes(DepositSubmission submission, List<DepositFileResource> custodialResources,
+                   PackageProvider packageProvider) {
+        if (packageOptions.getOrDefault(Archive.KEY, Archive.OPTS.NONE) != Archive.OPTS.TAR ||
+            packageOptions.getOrDefault(Compression.KEY, Compression.OPTS.NONE) != Compression.OPTS.NONE ||
+            !(packageProvider instanceof SizedPackageProvider)) {
+            return UNKNOWN_SIZE;
+        }
+
+        SizedPackageProvider provider = (SizedPackageProvider) packageProvider;
+        Map<String, Long> supplementalLengths =
+            provider.supplementalResourceLengths(submission, custodialResources, packageOptions);
+        if (supplementalLengths == null) {
+            return UNKNOWN_SIZE;
+        }
+
+        long size = 0;
+        try {
+            for (DepositFileResource custodialResource : custodialResources) {
+                long entrySize = tarEntrySize(provider.packagePath(custodialResource),
+                                              custodialResource.contentLength());
+                if (entrySize < 0) {
+                    return UNKNOWN_SIZE;
+                }
+                size += entrySize;
+            }
+        } catch (IOException e) {
+            LOG.debug("Unable to calculate the size of the package, the length of a custodial resource is not " +
+                      "known: {}", e.getMessage());
+            return UNKNOWN_SIZE;
+        }
+
+        for (Map.Entry<String, Long> supplementalLength : supplementalLengths.entrySet()) {
+            long entrySize = tarEntrySize(supplementalLength.getKey(), supplementalLength.getValue());
+            if (entrySize < 0) {
+                return UNKNOWN_SIZE;
+            }
+            size += entrySize;
+        }
+
+        return tarSize(size);
+    }
+
+    /**
+     * Answers the number of bytes occupied by a TAR entry, including its header and padding.
+     *
+     * @param name   the name of the entry
+     * @param length the length of the entry in bytes
+     * @return the number of bytes occupied by the entry, or {@link #UNKNOWN_SIZE} if the entry needs more than one
+     * header record, or its length is unknown
+     */
+    static long tarEntrySize(String name, Long length) {
+        if (length == null || length < 0 || length > TarConstants.MAXSIZE) {
+            return UNKNOWN_SIZE;
+        }
+
+        String entryName = new TarArchiveEntry(name).getName();
+        if (!US_ASCII.newEncoder().canEncode(entryName) || entryName.length() >= TarConstants.NAMELEN) {
+            return UNKNOWN_SIZE;
+        }
+
+        return TarConstants.DEFAULT_RCDSIZE + records(length) * TarConstants.DEFAULT_RCDSIZE;
+    }
+
+    /**
+     * Answers the size of a TAR archive whose entries occupy {@code entriesSize} bytes, including the end of archive
+     * records and the padding of the final block.
+     *
+     * @param entriesSize the number of bytes occupied by the entries of the archive
+     * @return the size of the archive in bytes
+     */
+    static long tarSize(long entriesSize) {
+        long size = entriesSize + 2 * TarConstants.DEFAULT_RCDSIZE;
+        int blockSize = DefaultArchiveOutputStreamFactory.TAR_BLOCK_SIZE;
+        return ((size + blockSize - 1) / blockSize) * blockSize;
+    }
+
+    private static long records(long length) {
+        return (length + TarConstants.DEFAULT_RCDSIZE - 1) / TarConstants.DEFAULT_RCDSIZE;
+    }
+
+}
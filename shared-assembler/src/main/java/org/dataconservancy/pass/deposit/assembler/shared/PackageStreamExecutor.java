@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the writing side of {@link ArchivingPackageStream}s.  A single instance is meant to be shared by every
+ * {@code ArchivingPackageStream} in the application, so that the number of threads used to assemble packages is
+ * bounded, and threads are re-used across deposits.
+ * <p>
+ * The executor maintains a fixed number of threads and a bounded queue.  Each {@link ArchivingPackageStream#open()
+ * opened} stream occupies a thread for as long as the package is being written.  Streams opened while all threads are
+ * busy wait in the queue; once the queue is full, further attempts to open a stream are rejected with a {@link
+ * java.util.concurrent.RejectedExecutionException}.  Running a rejected writer on the caller's thread is not an
+ * option: the caller is the reader of the stream, and would block forever writing to a pipe that nobody reads.
+ * </p>
+ * <p>
+ * Idle threads are allowed to time out, so an application that rarely deposits does not hold on to threads.
+ * </p>
+ * <p>
+ * A separate {@link #fetchExecutor() fetch executor} is provided for retrieving custodial resources ahead of the
+ * package writer, and a {@link #compressionExecutor() compression executor} for compressing blocks of a package
+ * concurrently.  Writers wait on fetches and compression, so those tasks must never queue behind writers in the same
+ * pool.
+ * </p>
+ */
+public class PackageStreamExecutor extends ExceptionHandlingThreadPoolExecutor implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PackageStreamExecutor.class);
+
+    /**
+     * Default number of seconds to wait for in-flight streams to be written on {@link #close()}
+     */
+    static final long DEFAULT_SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger(0);
+
+    private static volatile PackageStreamExecutor defaultInstance;
+
+    private final ThreadPoolExecutor fetchExecutor;
+
+    private final ThreadPoolExecutor compressionExecutor;
+
+    private long shutdownTimeoutSeconds = DEFAULT_SHUTDOWN_TIMEOUT_SECONDS;
+
+    /**
+     * Creates an executor with {@code threads} threads, and a queue which holds at most {@code queueCapacity} streams
+     * waiting to be written.  The fetch executor is sized at twice the number of {@code threads}.
+     *
+     * @param threads       the maximum number of packages written concurrently, must be greater than zero
+     * @param queueCapacity the maximum number of opened packages waiting for a thread, must be greater than zero
+     */
+    public PackageStreamExecutor(int threads, int queueCapacity) {
+        this(threads, queueCapacity, threads * 2);
+    }
+
+    /**
+     * Creates an executor with {@code threads} threads, and a queue which holds at most {@code queueCapacity} streams
+     * waiting to be written.
+     *
+     * @param threads       the maximum number of packages written concurrently, must be greater than zero
+     * @param queueCapacity the maximum number of opened packages waiting for a thread, must be greater than zero
+     * @param fetchThreads  the maximum number of custodial resources fetched concurrently, must be greater than zero
+     */
+    public PackageStreamExecutor(int threads, int queueCapacity, int fetchThreads) {
+        this(threads, queueCapacity, fetchThreads, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an executor with {@code threads} threads, and a queue which holds at most {@code queueCapacity} streams
+     * waiting to be written.
+     *
+     * @param threads            the maximum number of packages written concurrently, must be greater than zero
+     * @param queueCapacity      the maximum number of opened packages waiting for a thread, must be greater than zero
+     * @param fetchThreads       the maximum number of custodial resources fetched concurrently, must be greater than
+     *                           zero
+     * @param compressionThreads the maximum number of blocks compressed concurrently, must be greater than zero
+     */
+    public PackageStreamExecutor(int threads, int queueCapacity, int fetchThreads, int compressionThreads) {
+        this(threads, queueCapacity, fetchThreads, compressionThreads, POOL_COUNTER.incrementAndGet());
+    }
+
+    private PackageStreamExecutor(int threads, int queueCapacity, int fetchThreads, int compressionThreads,
+                                  int poolId) {
+        super(threads, threads, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(queueCapacity),
+              newThreadFactory("Package-Stream-" + poolId + "-"), new AbortPolicy());
+        allowCoreThreadTimeOut(true);
+
+        // The number of outstanding fetches is bounded by the prefetch depth of each stream, so the queue need not be
+        // bounded
+        this.fetchExecutor = new ThreadPoolExecutor(fetchThreads, fetchThreads, 1, TimeUnit.MINUTES,
+                                                    new LinkedBlockingQueue<>(),
+                                                    newThreadFactory("Package-Fetch-" + poolId + "-"));
+        this.fetchExecutor.allowCoreThreadTimeOut(true);
+
+        // Compression is CPU-bound, and the number of outstanding blocks is bounded by each compressing stream
+        this.compressionExecutor = new ThreadPoolExecutor(compressionThreads, compressionThreads, 1, TimeUnit.MINUTES,
+                                                          new LinkedBlockingQueue<>(),
+                                                          newThreadFactory("Package-Compress-" + poolId + "-"));
+        this.compressionExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Answers the executor used by {@link ArchivingPackageStream}s which have not been supplied an executor.  The
+     * default instance is created on first use, and is sized according to the number of available processors.
+     *
+     * @return the default executor, never {@code null}
+     */
+    public static PackageStreamExecutor defaultInstance() {
+        PackageStreamExecutor instance = defaultInstance;
+        if (instance == null) {
+            synchronized (PackageStreamExecutor.class) {
+                instance = defaultInstance;
+                if (instance == null) {
+                    int cores = Runtime.getRuntime().availableProcessors();
+                    instance = new PackageStreamExecutor(cores, cores * 4);
+                    defaultInstance = instance;
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * The number of packages currently being written.
+     *
+     * @return the number of active streams
+     */
+    public int activeStreams() {
+        return getActiveCount();
+    }
+
+    /**
+     * The number of opened packages waiting for a thread to be written.
+     *
+     * @return the number of queued streams
+     */
+    public int queuedStreams() {
+        return getQueue().size();
+    }
+
+    /**
+     * The executor used to fetch custodial resources ahead of the package writer.  It is shut down when this executor
+     * is {@link #close() closed}.
+     *
+     * @return the fetch executor
+     */
+    public ExecutorService fetchExecutor() {
+        return fetchExecutor;
+    }
+
+    /**
+     * The executor used to compress blocks of a package concurrently.  It is shut down when this executor is {@link
+     * #close() closed}.
+     *
+     * @return the compression executor
+     */
+    public ExecutorService compressionExecutor() {
+        return compressionExecutor;
+    }
+
+    public long getShutdownTimeoutSeconds() {
+        return shutdownTimeoutSeconds;
+    }
+
+    public void setShutdownTimeoutSeconds(long shutdownTimeoutSeconds) {
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+    }
+
+    /**
+     * Stops accepting new streams, and waits up to {@link #getShutdownTimeoutSeconds() the shutdown timeout} for
+     * streams in progress to be written.  Streams that have not completed by then are interrupted.
+     */
+    @Override
+    public void close() {
+        shutdown();
+        try {
+            if (!awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+                LOG.warn("{} package stream(s) did not complete within {} seconds, interrupting them.",
+                         activeStreams(), shutdownTimeoutSeconds);
+                shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            // Writers have completed or been interrupted, so nothing is waiting on outstanding fetches or compression
+            fetchExecutor.shutdownNow();
+            compressionExecutor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory newThreadFactory(String namePrefix) {
+        AtomicInteger threadCounter = new AtomicInteger(0);
+        return r -> {
+            Thread t = new Thread(r, namePrefix + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A GZIP output stream which compresses blocks of its input concurrently, in the manner of
+ * <a href="https://zlib.net/pigz/">pigz</a>.
+ * <p>
+ * Input is divided into fixed-size blocks.  Each block is compressed to raw DEFLATE data by a task submitted to the
+ * supplied executor, primed with the last 32 KiB of the preceding block as its dictionary so that the compression ratio
+ * is close to that of a single-threaded stream.  Every block but the last is terminated with a sync flush, so the
+ * compressed blocks may simply be concatenated.  The result is a single, standard GZIP member: the CRC-32 and length in
+ * the trailer are computed over the uncompressed input by the thread writing to this stream.
+ * </p>
+ * <p>
+ * Compressed blocks are written to the underlying stream in order.  At most {@code maxBlocksInFlight} blocks are
+ * compressed concurrently; writers block once that many are outstanding, which bounds the memory used by the stream.
+ * </p>
+ * <p>
+ * Instances are not thread-safe: a single thread is expected to write to the stream.
+ * </p>
+ */
+public class ParallelGzipOutputStream extends FilterOutputStream {
+
+    /**
+     * Default size of each block of input, in bytes
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final byte[] HEADER = new byte[] {
+        0x1f, (byte) 0x8b,    // magic
+        Deflater.DEFLATED,    // compression method
+        0,                    // flags
+        0, 0, 0, 0,           // modification time
+        0,                    // extra flags
+        (byte) 0xff           // operating system: unknown
+    };
+
+    private final ExecutorService executor;
+
+    private final int level;
+
+    private final int blockSize;
+
+    private final int maxBlocksInFlight;
+
+    private final CRC32 crc = new CRC32();
+
+    private final Deque<Future<CompressedBlock>> inFlight = new ArrayDeque<>();
+
+    /**
+     * Deflaters are expensive to create, so they are re-used by the tasks compressing blocks of this stream
+     */
+    private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Input buffers of compressed blocks, available for re-use
+     */
+    private final Deque<byte[]> freeBuffers = new ArrayDeque<>();
+
+    private byte[] block;
+
+    private int blockLength;
+
+    private byte[] dictionary;
+
+    private long totalIn;
+
+    private boolean headerWritten;
+
+    private boolean closed;
+
+    /**
+     * Creates a stream which compresses blocks of {@link #DEFAULT_BLOCK_SIZE} bytes at the default compression level,
+     * with up to twice {@code threads} blocks in flight.
+     *
+     * @param out      the underlying output stream
+     * @param executor executes the compression of blocks
+     * @param threads  the number of blocks expected to be compressed concurrently
+     */
+    public ParallelGzipOutputStream(OutputStream out, ExecutorService executor, int threads) {
+        this(out, executor, Deflater.DEFAULT_COMPRESSION, DEFAULT_BLOCK_SIZE, threads * 2);
+    }
+
+    /**
+     * Creates a stream which compresses blocks of {@code blockSize} bytes at the supplied compression {@code level}.
+     *
+     * @param out               the underlying output stream
+     * @param executor          executes the compression of blocks
+     * @param level             the DEFLATE compression level, 0 through 9, or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param blockSize         the number of bytes of input in each block, at least 32 KiB
+     * @param maxBlocksInFlight the maximum number of blocks being compressed or waiting to be written, greater than
+     *                          zero
+     */
+    public ParallelGzipOutputStream(OutputStream out, ExecutorService executor, int level, int blockSize,
+                                    int maxBlocksInFlight) {
+        super(out);
+        if (blockSize < DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("Block size must be at least " + DICTIONARY_SIZE + " bytes, was " +
+                                               blockSize);
+        }
+        if (maxBlocksInFlight < 1) {
+            throw new IllegalArgumentException("Blocks in flight must be a positive integer, was " +
+                                               maxBlocksInFlight);
+        }
+        this.executor = executor;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.maxBlocksInFlight = maxBlocksInFlight;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        crc.update(b, off, len);
+        totalIn += len;
+
+        while (len > 0) {
+            if (blockLength == blockSize) {
+                submit(false);
+            }
+            int n = Math.min(len, blockSize - blockLength);
+            System.arraycopy(b, off, block, blockLength, n);
+            blockLength += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Writes the blocks which have been compressed so far to the underlying stream, and flushes it.  Input which has
+     * not filled a block remains buffered.
+     *
+     * @throws IOException if the underlying stream cannot be written, or a block could not be compressed
+     */
+    @Override
+    public void flush() throws IOException {
+        drain(0);
+        out.flush();
+    }
+
+    /**
+     * Compresses any buffered input, writes all compressed blocks and the GZIP trailer, and closes the underlying
+     * stream.
+     *
+     * @throws IOException if the underlying stream cannot be written or closed, or a block could not be compressed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        try {
+            submit(true);
+            drain(0);
+            writeTrailer();
+            out.flush();
+        } finally {
+            closed = true;
+            inFlight.forEach(future -> future.cancel(true));
+            inFlight.clear();
+            Deflater deflater;
+            while ((deflater = deflaters.poll()) != null) {
+                deflater.end();
+            }
+            out.close();
+        }
+    }
+
+    private void submit(boolean last) throws IOException {
+        byte[] input = block;
+        int length = blockLength;
+        byte[] dict = dictionary;
+
+        // Retain the tail of this block as the dictionary of the next
+        if (!last) {
+            int dictLength = Math.min(DICTIONARY_SIZE, length);
+            dictionary = Arrays.copyOfRange(input, length - dictLength, length);
+        }
+
+        drain(maxBlocksInFlight - 1);
+        inFlight.addLast(executor.submit(() -> compress(input, length, dict, last)));
+
+        block = freeBuffers.isEmpty() ? new byte[blockSize] : freeBuffers.pop();
+        blockLength = 0;
+    }
+
+    /**
+     * Writes compressed blocks, in order, until no more than {@code maxOutstanding} blocks remain in flight.
+     */
+    private void drain(int maxOutstanding) throws IOException {
+        if (!headerWritten) {
+            out.write(HEADER);
+            headerWritten = true;
+        }
+
+        while (inFlight.size() > maxOutstanding) {
+            CompressedBlock compressed;
+            try {
+                compressed = inFlight.peekFirst().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for a block to be compressed");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw new IOException("Error compressing block: " + cause.getMessage(), cause);
+            }
+            inFlight.removeFirst();
+            out.write(compressed.data, 0, compressed.length);
+            freeBuffers.push(compressed.input);
+        }
+    }
+
+    private CompressedBlock compress(byte[] input, int length, byte[] dict, boolean last) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+
+        try {
+            if (dict != null) {
+                deflater.setDictionary(dict);
+            }
+            deflater.setInput(input, 0, length);
+
+            // Sized so incompressible input rarely requires the output buffer to grow
+            byte[] data = new byte[length + (length >> 8) + 64];
+            int written = 0;
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    if (written == data.length) {
+                        data = Arrays.copyOf(data, data.length * 2);
+                    }
+                    written += deflater.deflate(data, written, data.length - written);
+                }
+            } else {
+                // A sync flush is complete once the deflater no longer fills the space available to it
+                while (true) {
+                    if (written == data.length) {
+                        data = Arrays.copyOf(data, data.length * 2);
+                    }
+                    int available = data.length - written;
+                    int n = deflater.deflate(data, written, available, Deflater.SYNC_FLUSH);
+                    written += n;
+                    if (n < available) {
+                        break;
+                    }
+                }
+            }
+
+            return new CompressedBlock(input, data, written);
+        } finally {
+            deflater.reset();
+            deflaters.offer(deflater);
+        }
+    }
+
+    private void writeTrailer() throws IOException {
+        writeIntLe(crc.getValue());
+        writeIntLe(totalIn);
+    }
+
+    private void writeIntLe(long value) throws IOException {
+        out.write((int) (value & 0xff));
+        out.write((int) ((value >> 8) & 0xff));
+        out.write((int) ((value >> 16) & 0xff));
+        out.write((int) ((value >> 24) & 0xff));
+    }
+
+    private static class CompressedBlock {
+
+        private final byte[] input;
+
+        private final byte[] data;
+
+        private final int length;
+
+        private CompressedBlock(byte[] input, byte[] data, int length) {
+            this.input = input;
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+/**
+ * The bytes of a {@link Resource}, fetched ahead of time by a {@link ResourcePrefetcher}.  The bytes are held in
+ * memory, or in a temporary file if the resource was too large to be held in memory.
+ * <p>
+ * A {@code PrefetchedResource} may be read once: closing the stream returned by {@link #getInputStream()} releases the
+ * buffered bytes, and deletes the temporary file, if any.  Descriptive methods ({@link #getFilename()}, {@link
+ * #getURI()}, etc.) and {@link #storedDigests(Collection) stored checksums} answer the values of the original
+ * resource.
+ * </p>
+ */
+class PrefetchedResource extends AbstractResource implements FixityAware {
+
+    private final Resource original;
+
+    private final long length;
+
+    private byte[] bytes;
+
+    private File file;
+
+    private boolean opened;
+
+    /**
+     * A resource whose bytes are held in memory.
+     *
+     * @param original the resource that was fetched
+     * @param bytes    the bytes of the resource
+     */
+    PrefetchedResource(Resource original, byte[] bytes) {
+        this.original = original;
+        this.bytes = bytes;
+        this.length = bytes.length;
+    }
+
+    /**
+     * A resource whose bytes were spilled to a temporary file.
+     *
+     * @param original the resource that was fetched
+     * @param file     the temporary file containing the bytes of the resource, deleted when the resource is released
+     */
+    PrefetchedResource(Resource original, File file) {
+        this.original = original;
+        this.file = file;
+        this.length = file.length();
+    }
+
+    /**
+     * Answers whether the bytes of this resource are held in memory.
+     *
+     * @return true if the bytes are in memory, false if they are in a temporary file
+     */
+    boolean isInMemory() {
+        return file == null;
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() throws IOException {
+        if (opened) {
+            throw new IllegalStateException("Prefetched resource " + getDescription() + " has already been read.");
+        }
+        opened = true;
+
+        if (isInMemory()) {
+            return new FilterInputStream(new ByteArrayInputStream(bytes)) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    release();
+                }
+            };
+        }
+
+        return new BufferedInputStream(new FileInputStream(file)) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    release();
+                }
+            }
+        };
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public boolean isFile() {
+        return file != null;
+    }
+
+    @Override
+    public File getFile() throws IOException {
+        if (file == null) {
+            return super.getFile();
+        }
+        return file;
+    }
+
+    @Override
+    public URL getURL() throws IOException {
+        return original.getURL();
+    }
+
+    @Override
+    public URI getURI() throws IOException {
+        return original.getURI();
+    }
+
+    @Override
+    public String getFilename() {
+        return original.getFilename();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Prefetched " + original.getDescription();
+    }
+
+    @Override
+    public Map<Checksum.OPTS, byte[]> storedDigests(Collection<Checksum.OPTS> algorithms) throws IOException {
+        if (original instanceof FixityAware) {
+            return ((FixityAware) original).storedDigests(algorithms);
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Releases the bytes of this resource, deleting the temporary file, if any.
+     */
+    synchronized void release() {
+        bytes = null;
+        if (file != null && file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+}
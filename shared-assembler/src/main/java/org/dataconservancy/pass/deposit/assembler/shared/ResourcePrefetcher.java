@@ -0,0 +1,254 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetches the bytes of custodial resources ahead of the package writer.  While the writer copies one resource into
+ * the package, up to {@code depth} of the following resources are retrieved concurrently, so the latency of
+ * retrieving each resource (e.g. from Fedora) is overlapped with writing the package.
+ * <p>
+ * Resources are returned by {@link #next()} in the order they were supplied, so the order of entries in the package
+ * is unchanged.  Each resource being fetched, or held by the writer, is allotted an equal share of the memory budget;
+ * a resource larger than its share is spilled to a temporary file.  Resources that are already files on the local
+ * filesystem are not prefetched: they are returned as-is.
+ * </p>
+ */
+class ResourcePrefetcher implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResourcePrefetcher.class);
+
+    private static final String ERR_FETCH = "Error prefetching resource '%s': %s";
+
+    private static final String SPILL_PREFIX = "prefetch-";
+
+    private static final String SPILL_SUFFIX = ".tmp";
+
+    private final List<DepositFileResource> resources;
+
+    private final ExecutorService executor;
+
+    private final int depth;
+
+    private final int memoryPerResource;
+
+    private final Deque<Future<DepositFileResource>> inFlight = new ArrayDeque<>();
+
+    /**
+     * Resources which have been fetched, but not yet returned by {@link #next()}; guarded by {@code this}
+     */
+    private final Set<PrefetchedResource> unclaimed = new HashSet<>();
+
+    /**
+     * Whether or not this prefetcher has been closed; guarded by {@code this}
+     */
+    private boolean closed;
+
+    /**
+     * The index of the next resource to be submitted for fetching
+     */
+    private int submitted;
+
+    /**
+     * The index of the next resource to be returned by {@link #next()}
+     */
+    private int returned;
+
+    /**
+     * Creates a prefetcher for the supplied resources, for a writer which holds one resource at a time.
+     *
+     * @param resources         the resources to fetch, in the order they will be written
+     * @param executor          executes the fetches
+     * @param depth             the maximum number of resources fetched ahead of the writer, greater than zero
+     * @param memoryBudgetBytes the maximum number of bytes held in memory by fetched resources
+     */
+    ResourcePrefetcher(List<DepositFileResource> resources, ExecutorService executor, int depth,
+                       long memoryBudgetBytes) {
+        this(resources, executor, depth, memoryBudgetBytes, 1);
+    }
+
+    /**
+     * Creates a prefetcher for the supplied resources.
+     *
+     * @param resources         the resources to fetch, in the order they will be written
+     * @param executor          executes the fetches
+     * @param depth             the maximum number of resources fetched ahead of the writer, greater than zero
+     * @param memoryBudgetBytes the maximum number of bytes held in memory by fetched resources
+     * @param held              the maximum number of resources returned by {@link #next()} which the writer holds at
+     *                          a time (e.g. while they are compressed concurrently), greater than zero
+     */
+    ResourcePrefetcher(List<DepositFileResource> resources, ExecutorService executor, int depth,
+                       long memoryBudgetBytes, int held) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Prefetch depth must be a positive integer, was " + depth);
+        }
+        if (held < 1) {
+            throw new IllegalArgumentException("Held resources must be a positive integer, was " + held);
+        }
+        this.resources = resources;
+        this.executor = executor;
+        this.depth = depth;
+        // The resources held by the writer and the resources being fetched share the budget
+        this.memoryPerResource =
+            (int) Math.min(Integer.MAX_VALUE - 8, Math.max(0, memoryBudgetBytes / (depth + held)));
+    }
+
+    /**
+     * The number of bytes of each fetched resource which may be held in memory.
+     * <p>
+     * Package private for testing.
+     * </p>
+     *
+     * @return the share of the memory budget allotted to each resource
+     */
+    int memoryPerResource() {
+        return memoryPerResource;
+    }
+
+    boolean hasNext() {
+        return returned < resources.size();
+    }
+
+    /**
+     * Answers the next resource, blocking until it has been fetched.  The returned {@code DepositFileResource} carries
+     * the same {@code DepositFile} as the original, but its bytes are served from memory or a temporary file.
+     *
+     * @return the next resource
+     * @throws IOException if the resource could not be fetched
+     */
+    DepositFileResource next() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        fill();
+
+        Future<DepositFileResource> future = inFlight.removeFirst();
+        DepositFileResource original = resources.get(returned++);
+
+        try {
+            DepositFileResource fetched = future.get();
+            synchronized (this) {
+                unclaimed.remove(fetched.getResource());
+            }
+            return fetched;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(format(ERR_FETCH, original.getFilename(), "interrupted"));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(format(ERR_FETCH, original.getFilename(), cause.getMessage()), cause);
+        } finally {
+            fill();
+        }
+    }
+
+    /**
+     * Cancels any fetches in progress, and releases the resources that have been fetched but not returned.  A fetch
+     * which is already running when it is cancelled may still complete; it releases its own resource once it finds
+     * this prefetcher closed.
+     */
+    @Override
+    public void close() {
+        Set<PrefetchedResource> toRelease;
+        synchronized (this) {
+            closed = true;
+            toRelease = new HashSet<>(unclaimed);
+            unclaimed.clear();
+        }
+
+        Future<DepositFileResource> future;
+        while ((future = inFlight.pollFirst()) != null) {
+            future.cancel(true);
+        }
+
+        toRelease.forEach(PrefetchedResource::release);
+    }
+
+    private void fill() {
+        while (inFlight.size() < depth && submitted < resources.size()) {
+            DepositFileResource resource = resources.get(submitted++);
+            inFlight.addLast(executor.submit(() -> fetch(resource)));
+        }
+    }
+
+    private DepositFileResource fetch(DepositFileResource resource) throws IOException {
+        if (resource.isFile()) {
+            return resource;
+        }
+
+        long start = System.nanoTime();
+        DeferredFileOutputStream buffer = new DeferredFileOutputStream(memoryPerResource, SPILL_PREFIX, SPILL_SUFFIX,
+                                                                       null);
+        try (InputStream in = resource.getInputStream()) {
+            IOUtils.copyLarge(in, buffer);
+        } catch (IOException | RuntimeException e) {
+            buffer.close();
+            if (!buffer.isInMemory() && !buffer.getFile().delete()) {
+                buffer.getFile().deleteOnExit();
+            }
+            throw e;
+        } finally {
+            buffer.close();
+        }
+
+        PrefetchedResource prefetched;
+        if (buffer.isInMemory()) {
+            prefetched = new PrefetchedResource(resource, buffer.getData());
+        } else {
+            prefetched = new PrefetchedResource(resource, buffer.getFile());
+        }
+
+        // A fetch that completes after the prefetcher is closed will never be returned by next(), so release it here
+        boolean claimable;
+        synchronized (this) {
+            claimable = !closed && unclaimed.add(prefetched);
+        }
+
+        if (!claimable) {
+            prefetched.release();
+            throw new InterruptedIOException(format(ERR_FETCH, resource.getFilename(), "prefetcher was closed"));
+        }
+
+        LOG.trace("Prefetched {} ({} bytes, in memory: {}) in {} ms", resource.getFilename(),
+                  prefetched.contentLength(), prefetched.isInMemory(), (System.nanoTime() - start) / 1_000_000);
+
+        return new DepositFileResource(resource.getDepositFile(), prefetched);
+    }
+
+}
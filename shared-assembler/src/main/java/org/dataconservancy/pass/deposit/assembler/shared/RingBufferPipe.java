@@ -0,0 +1,413 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static java.lang.Integer.toHexString;
+import static java.lang.System.identityHashCode;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.dataconservancy.pass.deposit.assembler.shared.ArchivingPackageStream.STREAMING_IO_LOG;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single-producer, single-consumer byte pipe backed by a fixed-size ring buffer.  Bytes written to the {@link
+ * #outputStream() output stream} by one thread are read from the {@link #inputStream() input stream} by another.
+ * <p>
+ * Unlike {@link java.io.PipedInputStream}, reads and writes are performed as bulk array copies, and a blocked reader
+ * or writer is woken by a {@link Condition} as soon as the other side makes progress, rather than polling.  The
+ * positions of the reader and the writer are published through {@code volatile} fields, so in the common case where
+ * neither side has to wait, no lock is acquired at all.
+ * </p>
+ * <p>
+ * An exception encountered by the writer may be set on the pipe by {@link #setWriterEx(Throwable)}, and will be
+ * re-thrown to the reader as an {@code IOException}.
+ * </p>
+ * <p>
+ * The pipe keeps track of how long the writer spent waiting for the reader to make room ({@link
+ * #writerBlockedNanos()}), and how long the reader spent waiting for the writer to supply bytes ({@link
+ * #readerBlockedNanos()}).  A writer that is mostly blocked indicates the reader (e.g. the transport) is the
+ * bottleneck; a reader that is mostly blocked indicates the writer (i.e. package assembly) is the bottleneck.
+ * </p>
+ */
+public class RingBufferPipe {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RingBufferPipe.class);
+
+    private static final int ONE_MIB = 1 << 20;
+
+    private final byte[] buffer;
+
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Condition notFull = lock.newCondition();
+
+    private final PipeInputStream in = new PipeInputStream();
+
+    private final PipeOutputStream out = new PipeOutputStream();
+
+    /**
+     * Total number of bytes written to the pipe, only modified by the writer
+     */
+    private volatile long writePos;
+
+    /**
+     * Total number of bytes read from the pipe, only modified by the reader
+     */
+    private volatile long readPos;
+
+    private volatile boolean readerWaiting;
+
+    private volatile boolean writerWaiting;
+
+    private volatile boolean writerClosed;
+
+    private volatile boolean readerClosed;
+
+    private volatile Throwable writerEx;
+
+    private volatile long writerBlockedNanos;
+
+    private volatile long readerBlockedNanos;
+
+    /**
+     * Creates a pipe with a buffer of {@code sizeMib} mebibytes.
+     *
+     * @param sizeMib the size of the buffer in MiB, must be greater than zero
+     * @return the pipe
+     */
+    public static RingBufferPipe ofMib(int sizeMib) {
+        if (sizeMib < 1 || sizeMib > Integer.MAX_VALUE / ONE_MIB) {
+            throw new IllegalArgumentException("Pipe size must be between 1 and " + (Integer.MAX_VALUE / ONE_MIB) +
+                                               " MiB, was " + sizeMib);
+        }
+        return new RingBufferPipe(sizeMib * ONE_MIB);
+    }
+
+    /**
+     * Creates a pipe with a buffer of {@code capacity} bytes.
+     *
+     * @param capacity the size of the buffer in bytes, must be greater than zero
+     */
+    public RingBufferPipe(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Pipe capacity must be a positive integer, was " + capacity);
+        }
+        this.capacity = capacity;
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * The reading side of the pipe.  Must only be used by a single thread.
+     *
+     * @return the input stream
+     */
+    public InputStream inputStream() {
+        return in;
+    }
+
+    /**
+     * The writing side of the pipe.  Must only be used by a single thread.
+     *
+     * @return the output stream
+     */
+    public OutputStream outputStream() {
+        return out;
+    }
+
+    /**
+     * Obtain the {@code Throwable} that occurred on the <em>writing</em> side of this pipe.
+     *
+     * @return a {@code Throwable} that occurred while writing to the pipe, or {@code null} if no exception has occurred
+     */
+    public Throwable getWriterEx() {
+        return writerEx;
+    }
+
+    /**
+     * Set the {@code Throwable} that occurred on the <em>writing</em> side of this pipe.  It will be re-thrown as an
+     * {@link IOException} the next time the reader invokes a method of the {@link #inputStream() input stream}.  A
+     * reader blocked waiting for bytes is woken up.
+     *
+     * @param writerEx a {@code Throwable} that occurred while writing to the pipe
+     */
+    public void setWriterEx(Throwable writerEx) {
+        this.writerEx = writerEx;
+        signalAll();
+    }
+
+    /**
+     * The size of the buffer backing this pipe, in bytes.
+     *
+     * @return the capacity of the pipe
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * The number of bytes that have passed through this pipe, i.e. the number of bytes read by the reader.
+     *
+     * @return the number of bytes read
+     */
+    public long bytesRead() {
+        return readPos;
+    }
+
+    /**
+     * The total time, in nanoseconds, the writer has spent waiting for room in the buffer.
+     *
+     * @return the time the writer has been blocked
+     */
+    public long writerBlockedNanos() {
+        return writerBlockedNanos;
+    }
+
+    /**
+     * The total time, in nanoseconds, the reader has spent waiting for bytes to be written to the buffer.
+     *
+     * @return the time the reader has been blocked
+     */
+    public long readerBlockedNanos() {
+        return readerBlockedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "RingBufferPipe@" + toHexString(identityHashCode(this)) + "{" + "capacity=" + capacity + ", written=" +
+               writePos + ", read=" + readPos + ", writerBlockedMs=" + NANOSECONDS.toMillis(writerBlockedNanos) +
+               ", readerBlockedMs=" + NANOSECONDS.toMillis(readerBlockedNanos) + '}';
+    }
+
+    private void signalAll() {
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void handleEx() throws IOException {
+        Throwable ex = writerEx;
+        if (ex == null) {
+            return;
+        }
+
+        throw new IOException("The writing side of this pipe encountered an exception: " + ex.getMessage(), ex);
+    }
+
+    private class PipeInputStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int read = read(b, 0, 1);
+            return read < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            handleEx();
+
+            if (readerClosed) {
+                throw new IOException("Pipe closed");
+            }
+
+            if (len == 0) {
+                return 0;
+            }
+
+            long available = writePos - readPos;
+            if (available == 0) {
+                available = awaitBytes();
+                if (available == 0) {
+                    return -1;
+                }
+            }
+
+            int n = (int) Math.min(available, len);
+            int start = (int) (readPos % capacity);
+            int first = Math.min(n, capacity - start);
+            System.arraycopy(buffer, start, b, off, first);
+            if (first < n) {
+                System.arraycopy(buffer, 0, b, off + first, n - first);
+            }
+
+            readPos += n;
+
+            if (writerWaiting) {
+                lock.lock();
+                try {
+                    notFull.signal();
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            handleEx();
+            return (int) Math.min(Integer.MAX_VALUE, writePos - readPos);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Close the stream, regardless of whether or not there is an exception waiting for us
+            if (!readerClosed) {
+                readerClosed = true;
+                signalAll();
+                STREAMING_IO_LOG.debug("{} reader closed", RingBufferPipe.this);
+                LOG.debug("Closed {}: the writer was blocked for {} ms, the reader was blocked for {} ms",
+                          RingBufferPipe.this, NANOSECONDS.toMillis(writerBlockedNanos),
+                          NANOSECONDS.toMillis(readerBlockedNanos));
+            }
+
+            handleEx();
+        }
+
+        /**
+         * Blocks until bytes are available to be read, the writer closes the pipe, or the writer reports an exception.
+         *
+         * @return the number of bytes available, which is zero if the writer closed the pipe
+         * @throws IOException if the writer reported an exception, or the reading thread is interrupted
+         */
+        private long awaitBytes() throws IOException {
+            long start = System.nanoTime();
+            lock.lock();
+            try {
+                readerWaiting = true;
+                long available;
+                while ((available = writePos - readPos) == 0 && !writerClosed && writerEx == null) {
+                    notEmpty.await();
+                }
+                handleEx();
+                return available;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for bytes to be written to the pipe");
+            } finally {
+                readerWaiting = false;
+                lock.unlock();
+                readerBlockedNanos += System.nanoTime() - start;
+            }
+        }
+    }
+
+    private class PipeOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            while (len > 0) {
+                if (writerClosed) {
+                    throw new IOException("Pipe closed");
+                }
+
+                if (readerClosed) {
+                    throw new IOException("Pipe closed by the reader");
+                }
+
+                long free = capacity - (writePos - readPos);
+                if (free == 0) {
+                    awaitRoom();
+                    continue;
+                }
+
+                int n = (int) Math.min(free, len);
+                int start = (int) (writePos % capacity);
+                int first = Math.min(n, capacity - start);
+                System.arraycopy(b, off, buffer, start, first);
+                if (first < n) {
+                    System.arraycopy(b, off + first, buffer, 0, n - first);
+                }
+
+                writePos += n;
+                off += n;
+                len -= n;
+
+                if (readerWaiting) {
+                    lock.lock();
+                    try {
+                        notEmpty.signal();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!writerClosed) {
+                writerClosed = true;
+                signalAll();
+                STREAMING_IO_LOG.debug("{} writer closed", RingBufferPipe.this);
+            }
+        }
+
+        /**
+         * Blocks until there is room in the buffer, or the reader closes the pipe.
+         *
+         * @throws IOException if the writing thread is interrupted
+         */
+        private void awaitRoom() throws IOException {
+            long start = System.nanoTime();
+            lock.lock();
+            try {
+                writerWaiting = true;
+                while (capacity - (writePos - readPos) == 0 && !readerClosed) {
+                    notFull.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for room in the pipe");
+            } finally {
+                writerWaiting = false;
+                lock.unlock();
+                writerBlockedNanos += System.nanoTime() - start;
+            }
+        }
+    }
+
+}
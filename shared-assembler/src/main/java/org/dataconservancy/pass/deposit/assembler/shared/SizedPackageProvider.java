@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import java.util.List;
+import java.util.Map;
+
+import org.dataconservancy.pass.deposit.model.DepositSubmission;
+
+/**
+ * A {@link PackageProvider} which knows the path and length of each of its supplemental resources before the package is
+ * written.  Together with the {@link DepositFileResource#contentLength() length} of each custodial resource, this
+ * allows the exact size of some packages (e.g. uncompressed TAR archives) to be calculated before the package is
+ * streamed, so transports may send a {@code Content-Length} without spooling the package to disk first.
+ * <p>
+ * Because the size of the package is calculated before it is written, {@link #packagePath(DepositFileResource)} and
+ * {@link #supplementalResourceLengths(DepositSubmission, List, Map)} may be invoked before {@link
+ * #start(DepositSubmission, List, Map)}, and must answer the same paths, and lengths, as the package that is
+ * subsequently written.
+ * </p>
+ *
+ * @see PackageSizeCalculator
+ */
+public interface SizedPackageProvider extends PackageProvider {
+
+    /**
+     * Answers the path, relative to the base of the package, and the length in bytes, of each supplemental resource
+     * which will be included in the package.
+     *
+     * @param submission         the original submission
+     * @param custodialResources the custodial content to be packaged
+     * @param packageOptions     the options for creating the package, including the packaging specification
+     * @return the length of each supplemental resource keyed by its package path, or {@code null} if the lengths
+     * cannot be known before the package is written
+     */
+    Map<String, Long> supplementalResourceLengths(DepositSubmission submission,
+                                                  List<DepositFileResource> custodialResources,
+                                                  Map<String, Object> packageOptions);
+
+}
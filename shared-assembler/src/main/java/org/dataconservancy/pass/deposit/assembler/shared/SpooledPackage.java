@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A package that has been written in its entirety to a temporary file, along with its size and checksums.
+ * <p>
+ * The stream returned by {@link #open()} is a {@link FileInputStream}, so readers that are able to may obtain its
+ * {@link FileInputStream#getChannel() channel} and transfer the package without copying it through the heap.  Closing
+ * the stream deletes the temporary file.
+ * </p>
+ * <p>
+ * Individual resources of the package may be opened using its {@link #index() index}, until the package itself has
+ * been opened and closed.
+ * </p>
+ */
+class SpooledPackage {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpooledPackage.class);
+
+    private final File file;
+
+    private final long sizeBytes;
+
+    private final List<PackageStream.Checksum> checksums;
+
+    private final Map<String, Object> packageOptions;
+
+    private PackageIndex index;
+
+    SpooledPackage(File file, long sizeBytes, List<PackageStream.Checksum> checksums,
+                   Map<String, Object> packageOptions) {
+        this.file = file;
+        this.sizeBytes = sizeBytes;
+        this.checksums = checksums;
+        this.packageOptions = packageOptions;
+    }
+
+    File file() {
+        return file;
+    }
+
+    long sizeBytes() {
+        return sizeBytes;
+    }
+
+    List<PackageStream.Checksum> checksums() {
+        return checksums;
+    }
+
+    /**
+     * Answers the index of the resources in the spooled package, creating it on first use.
+     *
+     * @return the index
+     * @throws IOException if the spooled package cannot be read
+     */
+    synchronized PackageIndex index() throws IOException {
+        if (index == null) {
+            index = new PackageIndex(file, packageOptions);
+        }
+        return index;
+    }
+
+    /**
+     * Opens the spooled package.  The temporary file is deleted when the returned stream is closed.
+     *
+     * @return the bytes of the package
+     * @throws IOException if the temporary file cannot be opened
+     */
+    InputStream open() throws IOException {
+        return new FileInputStream(file) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    delete();
+                }
+            }
+        };
+    }
+
+    /**
+     * Deletes the temporary file.
+     */
+    void delete() {
+        if (file.exists() && !file.delete()) {
+            LOG.warn("Unable to delete spooled package {}, it will be deleted on exit.", file);
+            file.deleteOnExit();
+        }
+    }
+
+}
@@ -72,4 +72,12 @@ interface StreamWriter extends AutoCloseable {
      */
     void finish(DepositSubmission submission, List<PackageStream.Resource> custodialResources) throws IOException;
 
+    /**
+     * Answers the resources of the most recent package written to completion by this {@code StreamWriter}, in the
+     * order they were written, including their sizes and checksums.
+     *
+     * @return the resources of the package, or {@code null} if no package has been completely written
+     */
+    List<PackageStream.Resource> writtenResources();
+
 }
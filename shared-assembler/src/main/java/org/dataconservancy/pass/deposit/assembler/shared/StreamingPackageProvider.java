@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.dataconservancy.pass.deposit.model.DepositSubmission;
+
+/**
+ * A {@link PackageProvider} which is supplied each package resource as it is written, and which produces its
+ * supplemental resources lazily, one at a time.  The memory used by the provider and the package writer need not grow
+ * with the number of resources in the package: the writer does not accumulate supplemental resources, and each one is
+ * written to the package, and released, before the next is requested.
+ * <p>
+ * Supplemental resources of a known length may be implemented as any {@code SupplementalResource} whose bytes are
+ * produced when {@link SupplementalResource#getInputStream()} is invoked.  Supplemental resources of unknown length
+ * (e.g. a manifest whose lines are generated from the package resources) may be supplied as a {@link
+ * GeneratedResource}, which buffers its content in bounded memory, spilling to a temporary file.
+ * </p>
+ * <p>
+ * Writers which are unaware of this interface invoke {@link #finish(DepositSubmission, List)}, which supplies each
+ * package resource to {@link #resourceWritten(PackageStream.Resource)} and collects the supplemental resources into a
+ * {@code List}.
+ * </p>
+ */
+public interface StreamingPackageProvider extends PackageProvider {
+
+    /**
+     * Lifecycle method, invoked after each custodial resource has been written to the package stream, in the order the
+     * resources were written.
+     *
+     * @param packageResource the metadata for the resource that has been written
+     */
+    void resourceWritten(PackageStream.Resource packageResource);
+
+    /**
+     * Lifecycle method, invoked after streaming the custodial resources, but before closing the package stream being
+     * written to the caller.  Each supplemental resource answered by the returned {@code Iterator} is written to the
+     * package before the next is requested.
+     *
+     * @param submission the original submission
+     * @return supplemental resources to be included in the package stream
+     */
+    Iterator<SupplementalResource> supplementalResources(DepositSubmission submission);
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Supplies each of the {@code packageResources} to {@link #resourceWritten(PackageStream.Resource)}, and collects
+     * the {@link #supplementalResources(DepositSubmission) supplemental resources} into a {@code List}.
+     * </p>
+     *
+     * @param submission       {@inheritDoc}
+     * @param packageResources {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    default List<SupplementalResource> finish(DepositSubmission submission,
+                                              List<PackageStream.Resource> packageResources) {
+        packageResources.forEach(this::resourceWritten);
+        List<SupplementalResource> supplementalResources = new ArrayList<>();
+        supplementalResources(submission).forEachRemaining(supplementalResources::add);
+        return supplementalResources;
+    }
+
+}
@@ -16,12 +16,62 @@
 
 package org.dataconservancy.pass.deposit.assembler.shared;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
+import java.io.File;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.dataconservancy.pass.deposit.assembler.MetadataBuilder;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.dataconservancy.pass.deposit.model.DepositFile;
+import org.dataconservancy.pass.deposit.model.DepositSubmission;
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.Resource;
 
 public class AbstractAssemblerTest {
 
+    private static final String FEDORA_BASE_URL = "http://localhost:8080/fcrepo/rest/";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private AbstractAssembler underTest;
+
+    @Before
+    public void setUp() throws Exception {
+        underTest = new AbstractAssembler(null, null) {
+            @Override
+            protected PackageStream createPackageStream(DepositSubmission submission,
+                                                        List<DepositFileResource> custodialResources,
+                                                        MetadataBuilder mdb, ResourceBuilderFactory rbf,
+                                                        Map<String, Object> options) {
+                return null;
+            }
+        };
+        underTest.setFedoraBaseUrl(FEDORA_BASE_URL);
+        underTest.setFedoraUser("fedoraAdmin");
+        underTest.setFedoraPassword("moo");
+    }
+
     /**
      * Insures that that {@link AbstractAssembler#sanitizeFilename(String)} filters out non alphanumeric characters,
      * and non
@@ -39,4 +89,106 @@ public class AbstractAssemblerTest {
         assertEquals("f_oo", AbstractAssembler.sanitizeFilename("f_oo"));
         assertEquals("_foo_", AbstractAssembler.sanitizeFilename("_foo_"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Fedora binaries present in the mounted binary store are read from disk.
+     */
+    @Test
+    public void mountedBinary() throws Exception {
+        File binaryStore = tmp.newFolder("binaries");
+        FileUtils.writeStringToFile(new File(binaryStore, "ab/cd/manuscript one.pdf"), "%PDF-1.7", UTF_8);
+        underTest.setFedoraBinaryDirectory(binaryStore.getPath());
+
+        Resource resource = resolve(FEDORA_BASE_URL + "ab/cd/manuscript%20one.pdf");
+
+        assertTrue(resource instanceof MountedBinaryResource);
+        assertEquals(FEDORA_BASE_URL + "ab/cd/manuscript%20one.pdf",
+                     ((MountedBinaryResource) resource).getRemote().getURL().toString());
+        try (InputStream in = resource.getInputStream()) {
+            assertEquals("%PDF-1.7", IOUtils.toString(in, UTF_8));
+        }
+    }
+
+    /**
+     * Binaries absent from the mounted binary store, or outside of it, are read over HTTP.
+     */
+    @Test
+    public void unmountedBinary() throws Exception {
+        File binaryStore = tmp.newFolder("binaries");
+        FileUtils.writeStringToFile(tmp.newFile("secret"), "secret", UTF_8);
+        underTest.setFedoraBinaryDirectory(binaryStore.getPath());
+
+        assertEquals(AuthenticatedResource.class, resolve(FEDORA_BASE_URL + "ab/cd/missing").getClass());
+        assertEquals(AuthenticatedResource.class, resolve(FEDORA_BASE_URL + "../secret").getClass());
+
+        underTest.setFedoraBinaryDirectory("");
+        assertEquals(AuthenticatedResource.class, resolve(FEDORA_BASE_URL + "ab/cd/missing").getClass());
+    }
+
+    /**
+     * Binaries are located in the mounted binary store using the configured layout.
+     */
+    @Test
+    public void mountedBinaryLayout() throws Exception {
+        File binaryStore = tmp.newFolder("binaries");
+        FileUtils.writeStringToFile(new File(binaryStore, "0a/1b/0a1b2c3d"), "%PDF-1.7", UTF_8);
+        underTest.setFedoraBinaryDirectory(binaryStore.getPath());
+        underTest.setBinaryStoreLayout((location, fedoraPath, remote) ->
+            fedoraPath.equals("ab/cd/manuscript.pdf") ? "0a/1b/0a1b2c3d" : null);
+
+        Resource resource = resolve(FEDORA_BASE_URL + "ab/cd/manuscript.pdf");
+        assertTrue(resource instanceof MountedBinaryResource);
+        try (InputStream in = resource.getInputStream()) {
+            assertEquals("%PDF-1.7", IOUtils.toString(in, UTF_8));
+        }
+
+        assertEquals(AuthenticatedResource.class, resolve(FEDORA_BASE_URL + "ab/cd/other.pdf").getClass());
+    }
+
+    /**
+     * The digest layout nests the binary in directories named by pairs of characters of its stored digest.
+     */
+    @Test
+    public void digestBinaryStoreLayout() throws Exception {
+        Resource remote = mock(Resource.class, withSettings().extraInterfaces(FixityAware.class));
+        when(((FixityAware) remote).storedDigests(any()))
+            .thenReturn(singletonMap(Checksum.OPTS.SHA256, new byte[] {0x0a, 0x1b, 0x2c, 0x3d}));
+
+        assertEquals("0a/1b/0a1b2c3d",
+                     new DigestBinaryStoreLayout(Checksum.OPTS.SHA256, 2).path(FEDORA_BASE_URL + "ab", "ab", remote));
+        assertNull(new DigestBinaryStoreLayout(Checksum.OPTS.MD5, 2).path(FEDORA_BASE_URL + "ab", "ab", remote));
+        assertNull(new DigestBinaryStoreLayout(Checksum.OPTS.SHA256, 2).path(FEDORA_BASE_URL + "ab", "ab",
+                                                                             mock(Resource.class)));
+    }
+
+    /**
+     * The ModeShape layout of Fedora 4 and 5 locates a binary by its stored SHA-1 digest, in three directories named
+     * by the first three pairs of characters of the digest.
+     */
+    @Test
+    public void modeShapeBinaryStoreLayout() throws Exception {
+        byte[] sha1 = AssemblerSupport.newDigest(Checksum.OPTS.SHA1).digest("%PDF-1.7".getBytes(UTF_8));
+        String hex = Hex.encodeHexString(sha1);
+        File binaryStore = tmp.newFolder("binaries");
+        File binary = new File(binaryStore, String.join("/", hex.substring(0, 2), hex.substring(2, 4),
+                                                        hex.substring(4, 6), hex));
+        FileUtils.writeStringToFile(binary, "%PDF-1.7", UTF_8);
+        underTest.setFedoraBinaryDirectory(binaryStore.getPath());
+        underTest.setBinaryStoreLayout(DigestBinaryStoreLayout.modeShape());
+
+        Resource remote = mock(Resource.class, withSettings().extraInterfaces(FixityAware.class));
+        when(((FixityAware) remote).storedDigests(singleton(Checksum.OPTS.SHA1)))
+            .thenReturn(singletonMap(Checksum.OPTS.SHA1, sha1));
+
+        assertEquals(binary.getCanonicalFile(),
+                     underTest.mountedBinary(FEDORA_BASE_URL + "ab/cd/manuscript.pdf", remote).getCanonicalFile());
+    }
+
+    private Resource resolve(String location) {
+        DepositFile df = new DepositFile();
+        df.setName("file");
+        df.setLocation(location);
+        return underTest.resolveCustodialResources(singletonList(df)).get(0).getResource();
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Spool;
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.dataconservancy.pass.deposit.model.DepositFile;
+import org.dataconservancy.pass.deposit.model.DepositSubmission;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+public class ArchivingPackageStreamTest {
+
+    private PackageStreamExecutor executor;
+
+    private Map<String, Object> options;
+
+    private List<DepositFileResource> resources;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = new PackageStreamExecutor(2, 2);
+
+        options = new HashMap<>();
+        options.put(Archive.KEY, Archive.OPTS.ZIP);
+        options.put(Spool.KEY, true);
+        options.put(Checksum.KEY, Arrays.asList(Checksum.OPTS.MD5, Checksum.OPTS.SHA256));
+
+        resources = new ArrayList<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 4; i++) {
+            byte[] content = new byte[(i + 1) * 10000];
+            random.nextBytes(content);
+            resources.add(resource("file-" + i + ".bin", content));
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.close();
+    }
+
+    /**
+     * The size and checksums in the metadata of a spooled package are those of the bytes read from the stream returned
+     * by open().
+     */
+    @Test
+    public void spooledMetadataDescribesOpenedBytes() throws Exception {
+        ArchivingPackageStream underTest = packageStream();
+
+        PackageStream.Metadata metadata = underTest.metadata();
+
+        byte[] bytes;
+        try (InputStream in = underTest.open()) {
+            bytes = IOUtils.toByteArray(in);
+        }
+
+        assertEquals(bytes.length, metadata.sizeBytes());
+        assertEquals(2, metadata.checksums().size());
+        for (PackageStream.Checksum checksum : metadata.checksums()) {
+            MessageDigest digest = MessageDigest.getInstance(
+                checksum.algorithm() == Checksum.OPTS.MD5 ? "MD5" : "SHA-256");
+            assertEquals(Hex.encodeHexString(digest.digest(bytes)), checksum.asHex());
+        }
+    }
+
+    /**
+     * Closing a package stream which was spooled to answer its metadata, but never opened, deletes the spool file.
+     */
+    @Test
+    public void closeWithoutOpenDeletesSpoolFile() throws Exception {
+        Set<File> before = spoolFiles();
+        ArchivingPackageStream underTest = packageStream();
+
+        underTest.metadata();
+        Set<File> spooled = spoolFiles();
+        spooled.removeAll(before);
+        assertEquals(1, spooled.size());
+        File spoolFile = spooled.iterator().next();
+
+        underTest.close();
+
+        assertFalse(spoolFile.exists());
+    }
+
+    /**
+     * The stream returned by open() on a spooled package reads the spool file, which is deleted when the stream is
+     * closed.
+     */
+    @Test
+    public void closingOpenedStreamDeletesSpoolFile() throws Exception {
+        Set<File> before = spoolFiles();
+        ArchivingPackageStream underTest = packageStream();
+
+        InputStream in = underTest.open();
+        assertTrue(in instanceof FileInputStream);
+        Set<File> spooled = spoolFiles();
+        spooled.removeAll(before);
+        assertEquals(1, spooled.size());
+        File spoolFile = spooled.iterator().next();
+
+        IOUtils.toByteArray(in);
+        assertTrue(spoolFile.exists());
+        in.close();
+
+        assertFalse(spoolFile.exists());
+    }
+
+    private ArchivingPackageStream packageStream() {
+        return new ArchivingPackageStream(new DepositSubmission(), resources, new MetadataBuilderImpl(),
+                                          new DefaultResourceBuilderFactory(), options, packageProvider(), executor);
+    }
+
+    private static Set<File> spoolFiles() {
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles(
+            (dir, name) -> name.startsWith("package-") && name.endsWith(".spool"));
+        return (files == null) ? new HashSet<>() : new HashSet<>(Arrays.asList(files));
+    }
+
+    private static PackageProvider packageProvider() {
+        return new PackageProvider() {
+            @Override
+            public void start(DepositSubmission submission, List<DepositFileResource> custodialResources,
+                              Map<String, Object> packageOptions) {
+                // no-op
+            }
+
+            @Override
+            public String packagePath(DepositFileResource custodialResource) {
+                return "data/" + custodialResource.getFilename();
+            }
+
+            @Override
+            public List<SupplementalResource> finish(DepositSubmission submission,
+                                                     List<PackageStream.Resource> custodialResources) {
+                return Collections.emptyList();
+            }
+        };
+    }
+
+    private static DepositFileResource resource(String name, byte[] content) {
+        DepositFile df = new DepositFile();
+        df.setName(name);
+        return new DepositFileResource(df, new ByteArrayResource(content, name) {
+            @Override
+            public String getFilename() {
+                return name;
+            }
+        });
+    }
+
+}
@@ -17,8 +17,10 @@
 package org.dataconservancy.pass.deposit.assembler.shared;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -28,11 +30,21 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.input.CharSequenceInputStream;
 import org.apache.tika.detect.DefaultDetector;
 import org.apache.tika.detect.Detector;
 import org.apache.tika.mime.MediaType;
+import org.dataconservancy.pass.deposit.assembler.MetadataBuilder;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -116,4 +128,68 @@ public class AssemblerSupportTest {
         // javadoc on testResetStreamWhenMarkNotSupported
         verify(spy).detect(eq(markSupportedIn), argThat(arg -> arg.size() == 0));
     }
-}
\ No newline at end of file
+
+    /**
+     * Compressed packages are marked as compressed, and carry the MIME type of their compression.
+     */
+    @Test
+    public void buildMetadataForCompression() {
+        Map<String, Object> options = new HashMap<>();
+        options.put(Archive.KEY, Archive.OPTS.TAR);
+        options.put(Compression.KEY, Compression.OPTS.ZSTD);
+        MetadataBuilder mdb = new MetadataBuilderImpl();
+
+        AssemblerSupport.buildMetadata(mdb, options);
+
+        PackageStream.Metadata md = mdb.build();
+        assertTrue(md.compressed());
+        assertEquals(Compression.OPTS.ZSTD, md.compression());
+        assertEquals("application/zstd", md.mimeType());
+
+        options.put(Compression.KEY, Compression.OPTS.NONE);
+        mdb = new MetadataBuilderImpl();
+
+        AssemblerSupport.buildMetadata(mdb, options);
+
+        md = mdb.build();
+        assertFalse(md.compressed());
+        assertEquals("application/x-tar", md.mimeType());
+    }
+
+    @Test
+    public void wantDigest() {
+        assertEquals("sha-512, md5", AssemblerSupport.wantDigest(Arrays.asList(Checksum.OPTS.SHA512,
+                                                                               Checksum.OPTS.MD5)));
+    }
+
+    /**
+     * Base 64 and hexadecimal digest values are accepted; unsupported or malformed digests are ignored.
+     */
+    @Test
+    public void parseDigest() {
+        byte[] sha256 = AssemblerSupport.newDigest(Checksum.OPTS.SHA256).digest(new byte[] {1});
+        byte[] md5 = AssemblerSupport.newDigest(Checksum.OPTS.MD5).digest(new byte[] {1});
+        String header = "SHA-256=" + Base64.getEncoder().encodeToString(sha256) + ", sha=abc, md5=" +
+                        Hex.encodeHexString(md5) + ", sha-512=bm90IGEgZGlnZXN0";
+
+        Map<Checksum.OPTS, byte[]> digests = AssemblerSupport.parseDigest(header);
+
+        assertEquals(2, digests.size());
+        assertArrayEquals(sha256, digests.get(Checksum.OPTS.SHA256));
+        assertArrayEquals(md5, digests.get(Checksum.OPTS.MD5));
+        assertTrue(AssemblerSupport.parseDigest(null).isEmpty());
+    }
+
+    /**
+     * SHA-1 digests, which address the binaries of a ModeShape binary store, are requested and parsed as {@code sha}.
+     */
+    @Test
+    public void sha1Digest() {
+        byte[] sha1 = AssemblerSupport.newDigest(Checksum.OPTS.SHA1).digest(new byte[] {1});
+
+        assertEquals("sha", AssemblerSupport.wantDigest(Arrays.asList(Checksum.OPTS.SHA1)));
+        assertArrayEquals(sha1, AssemblerSupport.parseDigest("sha=" + Hex.encodeHexString(sha1))
+                                                .get(Checksum.OPTS.SHA1));
+    }
+
+}
@@ -17,6 +17,7 @@
 package org.dataconservancy.pass.deposit.assembler.shared;
 
 import static java.util.Base64.getEncoder;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -28,7 +29,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
 
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -91,4 +95,31 @@ public class AuthenticatedResourceTest {
         verify(urlConn).setRequestProperty(eq("Authorization"),
                                            eq("Basic " + getEncoder().encodeToString(":".getBytes())));
     }
-}
\ No newline at end of file
+
+    /**
+     * Stored digests are requested with an authenticated HEAD carrying a Want-Digest header
+     */
+    @Test
+    public void storedDigests() throws IOException {
+        byte[] md5 = AssemblerSupport.newDigest(Checksum.OPTS.MD5).digest(new byte[0]);
+        when(urlConn.getResponseCode()).thenReturn(200);
+        when(urlConn.getHeaderField("Digest")).thenReturn("md5=" + getEncoder().encodeToString(md5));
+
+        Map<Checksum.OPTS, byte[]> digests = underTest.storedDigests(Collections.singletonList(Checksum.OPTS.MD5));
+
+        assertArrayEquals(md5, digests.get(Checksum.OPTS.MD5));
+        verify(urlConn).setRequestMethod("HEAD");
+        verify(urlConn).setRequestProperty("Want-Digest", "md5");
+        verify(urlConn).setRequestProperty(eq("Authorization"), anyString());
+    }
+
+    /**
+     * No digests are answered if the HEAD is not successful
+     */
+    @Test
+    public void storedDigestsNotFound() throws IOException {
+        when(urlConn.getResponseCode()).thenReturn(404);
+
+        assertTrue(underTest.storedDigests(Collections.singletonList(Checksum.OPTS.MD5)).isEmpty());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.CompressionThreads;
+import org.junit.Test;
+
+public class DefaultArchiveOutputStreamFactoryTest {
+
+    private static final byte[] CONTENT = "The quick brown fox jumps over the lazy dog\n".getBytes(UTF_8);
+
+    @Test
+    public void tarGzip() throws Exception {
+        byte[] tar = writeTar(Compression.OPTS.GZIP, 1);
+        assertTarContent(new GzipCompressorInputStream(new ByteArrayInputStream(tar)));
+    }
+
+    @Test
+    public void tarBzip2() throws Exception {
+        byte[] tar = writeTar(Compression.OPTS.BZIP2, 1);
+        assertTarContent(new BZip2CompressorInputStream(new ByteArrayInputStream(tar)));
+    }
+
+    @Test
+    public void tarZstd() throws Exception {
+        byte[] tar = writeTar(Compression.OPTS.ZSTD, 1);
+        assertTarContent(new ZstdInputStream(new ByteArrayInputStream(tar)));
+    }
+
+    /**
+     * Zstandard streams compressed by multiple workers are ordinary Zstandard streams.
+     */
+    @Test
+    public void tarZstdWorkers() throws Exception {
+        byte[] tar = writeTar(Compression.OPTS.ZSTD, 2);
+        assertTarContent(new ZstdInputStream(new ByteArrayInputStream(tar)));
+    }
+
+    @Test
+    public void tarLz4() throws Exception {
+        byte[] tar = writeTar(Compression.OPTS.LZ4, 1);
+        assertTarContent(new FramedLZ4CompressorInputStream(new ByteArrayInputStream(tar)));
+    }
+
+    @Test
+    public void tarUncompressed() throws Exception {
+        byte[] tar = writeTar(Compression.OPTS.NONE, 1);
+        assertTarContent(new ByteArrayInputStream(tar));
+    }
+
+    /**
+     * Compression levels outside of the block sizes supported by BZIP2 are clamped rather than rejected.
+     */
+    @Test
+    public void bzip2LevelClamped() throws Exception {
+        for (int level : new int[] {-1, 0, 10}) {
+            Map<String, Object> options = new HashMap<>();
+            options.put(Compression.LEVEL_KEY, level);
+            byte[] tar = writeTar(Compression.OPTS.BZIP2, 1, options);
+            assertTarContent(new BZip2CompressorInputStream(new ByteArrayInputStream(tar)));
+        }
+
+        assertEquals(BZip2CompressorOutputStream.MAX_BLOCKSIZE, DefaultArchiveOutputStreamFactory.compressionLevel(
+            singletonMap(Compression.LEVEL_KEY, -1), BZip2CompressorOutputStream.MIN_BLOCKSIZE,
+            BZip2CompressorOutputStream.MAX_BLOCKSIZE, BZip2CompressorOutputStream.MAX_BLOCKSIZE));
+        assertEquals(BZip2CompressorOutputStream.MIN_BLOCKSIZE, DefaultArchiveOutputStreamFactory.compressionLevel(
+            singletonMap(Compression.LEVEL_KEY, 0), BZip2CompressorOutputStream.MIN_BLOCKSIZE,
+            BZip2CompressorOutputStream.MAX_BLOCKSIZE, BZip2CompressorOutputStream.MAX_BLOCKSIZE));
+    }
+
+    private static byte[] writeTar(Compression.OPTS compression, int threads) throws IOException {
+        return writeTar(compression, threads, new HashMap<>());
+    }
+
+    private static byte[] writeTar(Compression.OPTS compression, int threads, Map<String, Object> options)
+        throws IOException {
+        options.put(Archive.KEY, Archive.OPTS.TAR);
+        options.put(Compression.KEY, compression);
+        options.put(CompressionThreads.KEY, threads);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ArchiveOutputStream archiveOut = new DefaultArchiveOutputStreamFactory(options)
+                .newInstance(options, out)) {
+            TarArchiveEntry entry = new TarArchiveEntry("data/fox.txt");
+            entry.setSize(CONTENT.length);
+            archiveOut.putArchiveEntry(entry);
+            archiveOut.write(CONTENT);
+            archiveOut.closeArchiveEntry();
+            archiveOut.finish();
+        }
+        return out.toByteArray();
+    }
+
+    private static void assertTarContent(InputStream in) throws IOException {
+        try (TarArchiveInputStream tarIn = new TarArchiveInputStream(in)) {
+            TarArchiveEntry entry = tarIn.getNextTarEntry();
+            assertEquals("data/fox.txt", entry.getName());
+            assertArrayEquals(CONTENT, IOUtils.toByteArray(tarIn));
+            assertNull(tarIn.getNextTarEntry());
+        }
+    }
+
+}
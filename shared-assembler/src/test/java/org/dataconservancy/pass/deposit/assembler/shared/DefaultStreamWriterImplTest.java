@@ -0,0 +1,409 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.ArchiveStreamFactory;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.CompressionThreads;
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.dataconservancy.pass.deposit.model.DepositFile;
+import org.dataconservancy.pass.deposit.model.DepositSubmission;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+public class DefaultStreamWriterImplTest {
+
+    private static final byte[] JPEG_MAGIC = new byte[] {
+        (byte) 0xff, (byte) 0xd8, (byte) 0xff, (byte) 0xe0, 0x00, 0x10, 'J', 'F', 'I', 'F', 0x00};
+
+    private ExecutorService compressionExecutor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() throws Exception {
+        compressionExecutor.shutdownNow();
+    }
+
+    /**
+     * Entries of a ZIP package compressed concurrently are written in the order of the custodial resources, with the
+     * same content, and the same package resource metadata, as a ZIP package compressed serially.
+     */
+    @Test
+    public void parallelZipMatchesSerialZip() throws Exception {
+        List<DepositFileResource> resources = new ArrayList<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 12; i++) {
+            byte[] content = new byte[i * 10000];
+            random.nextBytes(content);
+            resources.add(resource("file-" + i + ".bin", content));
+        }
+
+        Map<String, Object> options = new HashMap<>();
+        options.put(Archive.KEY, Archive.OPTS.ZIP);
+        options.put(Checksum.KEY, singletonList(Checksum.OPTS.SHA256));
+        options.put(CompressionThreads.KEY, 4);
+
+        List<PackageStream.Resource> serialResources = new ArrayList<>();
+        Map<String, byte[]> serial = write(resources, options, null, serialResources);
+        List<PackageStream.Resource> parallelResources = new ArrayList<>();
+        Map<String, byte[]> parallel = write(resources, options, compressionExecutor, parallelResources);
+
+        assertEquals(new ArrayList<>(serial.keySet()), new ArrayList<>(parallel.keySet()));
+        serial.forEach((name, content) -> assertArrayEquals(content, parallel.get(name)));
+
+        assertEquals(serialResources.size(), parallelResources.size());
+        for (int i = 0; i < serialResources.size(); i++) {
+            PackageStream.Resource expected = serialResources.get(i);
+            PackageStream.Resource actual = parallelResources.get(i);
+            assertEquals(expected.name(), actual.name());
+            assertEquals(expected.sizeBytes(), actual.sizeBytes());
+            assertEquals(1, actual.checksums().size());
+            assertEquals(expected.checksums().iterator().next().asHex(),
+                         actual.checksums().iterator().next().asHex());
+        }
+    }
+
+    /**
+     * Incompressible entries are stored when the ZIP is compressed concurrently, and deflated at level 0 when it is
+     * compressed serially; compressible entries are deflated either way.
+     */
+    @Test
+    public void incompressibleEntriesAreNotDeflated() throws Exception {
+        byte[] jpeg = new byte[64 * 1024];
+        new Random(1).nextBytes(jpeg);
+        System.arraycopy(JPEG_MAGIC, 0, jpeg, 0, JPEG_MAGIC.length);
+        byte[] text = new byte[64 * 1024];
+        Arrays.fill(text, (byte) 'a');
+
+        List<DepositFileResource> resources = new ArrayList<>();
+        resources.add(resource("image.jpg", jpeg));
+        resources.add(resource("text.txt", text));
+
+        Map<String, Object> options = new HashMap<>();
+        options.put(Archive.KEY, Archive.OPTS.ZIP);
+        options.put(CompressionThreads.KEY, 2);
+
+        Map<String, ZipArchiveEntry> parallel = entries(write(resources, options, compressionExecutor));
+        assertEquals(ZipEntry.STORED, parallel.get("data/image.jpg").getMethod());
+        assertEquals(ZipEntry.DEFLATED, parallel.get("data/text.txt").getMethod());
+
+        Map<String, ZipArchiveEntry> serial = entries(write(resources, options, null));
+        assertEquals(ZipEntry.DEFLATED, serial.get("data/image.jpg").getMethod());
+        assertTrue(serial.get("data/image.jpg").getCompressedSize() > jpeg.length);
+        assertTrue(serial.get("data/text.txt").getCompressedSize() < text.length / 10);
+    }
+
+    /**
+     * Streaming package providers are supplied each custodial resource as it is written, in order, and their generated
+     * supplemental resources are written to the package, whether or not custodial resources are compressed
+     * concurrently.
+     */
+    @Test
+    public void streamingProviderGeneratesManifest() throws Exception {
+        List<DepositFileResource> resources = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            resources.add(resource("file-" + i + ".txt", ("content of file " + i).getBytes(UTF_8)));
+        }
+
+        for (Archive.OPTS archive : new Archive.OPTS[] {Archive.OPTS.TAR, Archive.OPTS.ZIP}) {
+            Map<String, Object> options = new HashMap<>();
+            options.put(Archive.KEY, archive);
+            options.put(Checksum.KEY, singletonList(Checksum.OPTS.MD5));
+            options.put(CompressionThreads.KEY, 2);
+
+            ManifestProvider provider = new ManifestProvider();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            DefaultStreamWriterImpl underTest = new DefaultStreamWriterImpl(new DepositSubmission(), resources,
+                new DefaultResourceBuilderFactory(), options, provider, null, compressionExecutor);
+            underTest.start(resources, new DefaultArchiveOutputStreamFactory(options).newInstance(options, out));
+
+            StringBuilder expected = new StringBuilder();
+            for (int i = 0; i < 5; i++) {
+                PackageStream.Resource written = underTest.writtenResources().get(i);
+                assertEquals("data/file-" + i + ".txt", written.name());
+                expected.append(written.checksums().iterator().next().asHex()).append("  ").append(written.name())
+                        .append("\n");
+            }
+
+            PackageStream.Resource manifest = underTest.writtenResources().get(5);
+            assertEquals("manifest-md5.txt", manifest.name());
+            assertEquals(expected.length(), manifest.sizeBytes());
+
+            Map<String, byte[]> entries = new LinkedHashMap<>();
+            try (ArchiveInputStream in = new ArchiveStreamFactory().createArchiveInputStream(
+                    new ByteArrayInputStream(out.toByteArray()))) {
+                ArchiveEntry entry;
+                while ((entry = in.getNextEntry()) != null) {
+                    entries.put(entry.getName(), IOUtils.toByteArray(in));
+                }
+            }
+            assertEquals(expected.toString(), new String(entries.get("manifest-md5.txt"), UTF_8));
+        }
+    }
+
+    /**
+     * Compression levels outside the range of the Deflater are clamped, rather than failing the package as its entries
+     * are written, whether the ZIP is compressed serially or concurrently.
+     */
+    @Test
+    public void outOfRangeLevelsClamped() throws Exception {
+        byte[] jpeg = new byte[16 * 1024];
+        new Random(1).nextBytes(jpeg);
+        System.arraycopy(JPEG_MAGIC, 0, jpeg, 0, JPEG_MAGIC.length);
+        byte[] text = new byte[16 * 1024];
+        Arrays.fill(text, (byte) 'a');
+
+        List<DepositFileResource> resources = new ArrayList<>();
+        resources.add(resource("image.jpg", jpeg));
+        resources.add(resource("text.txt", text));
+
+        Map<String, Object> options = new HashMap<>();
+        options.put(Archive.KEY, Archive.OPTS.ZIP);
+        options.put(Compression.LEVEL_KEY, 22);
+        options.put(Compression.INCOMPRESSIBLE_LEVEL_KEY, 12);
+        options.put(CompressionThreads.KEY, 2);
+
+        for (ExecutorService executor : Arrays.asList(null, compressionExecutor)) {
+            Map<String, byte[]> entries = write(resources, options, executor, new ArrayList<>());
+            assertArrayEquals(jpeg, entries.get("data/image.jpg"));
+            assertArrayEquals(text, entries.get("data/text.txt"));
+        }
+    }
+
+    /**
+     * When a ZIP package is compressed concurrently, package paths and resource builders are obtained by the thread
+     * writing the package, not by the compression threads.
+     */
+    @Test
+    public void scatteredPathsResolvedByWriter() throws Exception {
+        List<DepositFileResource> resources = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            resources.add(resource("file-" + i + ".txt", ("content of file " + i).getBytes(UTF_8)));
+        }
+
+        Map<String, Object> options = new HashMap<>();
+        options.put(Archive.KEY, Archive.OPTS.ZIP);
+        options.put(CompressionThreads.KEY, 4);
+
+        Set<Thread> callers = ConcurrentHashMap.newKeySet();
+        PackageProvider delegate = packageProvider(packageResources -> { });
+        PackageProvider provider = new PackageProvider() {
+            @Override
+            public void start(DepositSubmission submission, List<DepositFileResource> custodialResources,
+                              Map<String, Object> packageOptions) {
+                delegate.start(submission, custodialResources, packageOptions);
+            }
+
+            @Override
+            public String packagePath(DepositFileResource custodialResource) {
+                callers.add(Thread.currentThread());
+                return delegate.packagePath(custodialResource);
+            }
+
+            @Override
+            public List<SupplementalResource> finish(DepositSubmission submission,
+                                                     List<PackageStream.Resource> custodialResources) {
+                return delegate.finish(submission, custodialResources);
+            }
+        };
+        ResourceBuilderFactory rbf = () -> {
+            callers.add(Thread.currentThread());
+            return new ResourceBuilderImpl();
+        };
+
+        DefaultStreamWriterImpl underTest = new DefaultStreamWriterImpl(new DepositSubmission(), resources, rbf,
+            options, provider, null, compressionExecutor);
+        underTest.start(resources, new ZipArchiveOutputStream(new ByteArrayOutputStream()));
+
+        assertEquals(8, underTest.writtenResources().size());
+        assertEquals(singleton(Thread.currentThread()), callers);
+    }
+
+    /**
+     * A prefetched resource spilled to a temporary file is read through a channel, and its temporary file is deleted
+     * once it has been written to the package.
+     */
+    @Test
+    public void spilledPrefetchedResourceReleased() throws Exception {
+        byte[] content = new byte[8192];
+        new Random(1).nextBytes(content);
+        File spilled = File.createTempFile("prefetch-", ".tmp");
+        FileUtils.writeByteArrayToFile(spilled, content);
+        DepositFileResource original = resource("spilled.bin", content);
+        DepositFileResource prefetched = new DepositFileResource(original.getDepositFile(),
+                                                                 new PrefetchedResource(original, spilled));
+        assertTrue(prefetched.isFile());
+
+        Map<String, Object> options = new HashMap<>();
+        options.put(Archive.KEY, Archive.OPTS.ZIP);
+        options.put(Checksum.KEY, singletonList(Checksum.OPTS.SHA256));
+        List<DepositFileResource> resources = singletonList(prefetched);
+        DefaultStreamWriterImpl underTest = new DefaultStreamWriterImpl(new DepositSubmission(), resources,
+            new DefaultResourceBuilderFactory(), options, packageProvider(packageResources -> { }), null, null);
+        underTest.start(resources, new ZipArchiveOutputStream(new ByteArrayOutputStream()));
+
+        assertEquals(content.length, underTest.writtenResources().get(0).sizeBytes());
+        assertFalse(spilled.exists());
+    }
+
+    private static Map<String, byte[]> write(List<DepositFileResource> resources, Map<String, Object> options,
+                                             ExecutorService compressionExecutor,
+                                             List<PackageStream.Resource> packageResources) throws Exception {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipArchiveInputStream in = new ZipArchiveInputStream(
+                new ByteArrayInputStream(write(resources, options, compressionExecutor, packageResources::addAll)))) {
+            ZipArchiveEntry entry;
+            while ((entry = in.getNextZipEntry()) != null) {
+                assertNull(entries.put(entry.getName(), IOUtils.toByteArray(in)));
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] write(List<DepositFileResource> resources, Map<String, Object> options,
+                                ExecutorService compressionExecutor) throws Exception {
+        return write(resources, options, compressionExecutor, packageResources -> { });
+    }
+
+    private static Map<String, ZipArchiveEntry> entries(byte[] zip) throws Exception {
+        Map<String, ZipArchiveEntry> entries = new HashMap<>();
+        File zipFile = File.createTempFile("package-", ".zip");
+        try {
+            FileUtils.writeByteArrayToFile(zipFile, zip);
+            try (ZipFile in = new ZipFile(zipFile)) {
+                Collections.list(in.getEntries()).forEach(entry -> entries.put(entry.getName(), entry));
+            }
+        } finally {
+            FileUtils.deleteQuietly(zipFile);
+        }
+        return entries;
+    }
+
+    private static byte[] write(List<DepositFileResource> resources, Map<String, Object> options,
+                                ExecutorService compressionExecutor,
+                                Consumer<List<PackageStream.Resource>> packageResources) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DefaultStreamWriterImpl underTest = new DefaultStreamWriterImpl(new DepositSubmission(), resources,
+                                                                        new DefaultResourceBuilderFactory(), options,
+                                                                        packageProvider(packageResources), null,
+                                                                        compressionExecutor);
+        underTest.start(resources, new ZipArchiveOutputStream(out));
+        return out.toByteArray();
+    }
+
+    private static PackageProvider packageProvider(Consumer<List<PackageStream.Resource>> packageResources) {
+        return new PackageProvider() {
+            @Override
+            public void start(DepositSubmission submission, List<DepositFileResource> custodialResources,
+                              Map<String, Object> packageOptions) {
+                // no-op
+            }
+
+            @Override
+            public String packagePath(DepositFileResource custodialResource) {
+                return "data/" + custodialResource.getFilename();
+            }
+
+            @Override
+            public List<SupplementalResource> finish(DepositSubmission submission,
+                                                     List<PackageStream.Resource> custodialResources) {
+                packageResources.accept(custodialResources);
+                return Collections.emptyList();
+            }
+        };
+    }
+
+    /**
+     * Generates a manifest of the custodial resources, holding no more than a few bytes of the manifest in memory
+     */
+    private static class ManifestProvider implements StreamingPackageProvider {
+
+        private final StringBuilder manifest = new StringBuilder();
+
+        @Override
+        public void start(DepositSubmission submission, List<DepositFileResource> custodialResources,
+                          Map<String, Object> packageOptions) {
+            // no-op
+        }
+
+        @Override
+        public String packagePath(DepositFileResource custodialResource) {
+            return "data/" + custodialResource.getFilename();
+        }
+
+        @Override
+        public void resourceWritten(PackageStream.Resource packageResource) {
+            manifest.append(packageResource.checksums().iterator().next().asHex()).append("  ")
+                    .append(packageResource.name()).append("\n");
+        }
+
+        @Override
+        public Iterator<SupplementalResource> supplementalResources(DepositSubmission submission) {
+            return Collections.<SupplementalResource>singletonList(new GeneratedResource("manifest-md5.txt",
+                out -> out.write(manifest.toString().getBytes(UTF_8)), 16)).iterator();
+        }
+    }
+
+    private static DepositFileResource resource(String name, byte[] content) {
+        DepositFile df = new DepositFile();
+        df.setName(name);
+        return new DepositFileResource(df, new ByteArrayResource(content, name) {
+            @Override
+            public String getFilename() {
+                return name;
+            }
+        });
+    }
+
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DigestingInputStreamTest {
+
+    private static final List<Checksum.OPTS> ALGORITHMS =
+        Arrays.asList(Checksum.OPTS.SHA512, Checksum.OPTS.MD5, Checksum.OPTS.SHA256);
+
+    private ExecutorService laneExecutor = Executors.newFixedThreadPool(3);
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @After
+    public void tearDown() throws Exception {
+        laneExecutor.shutdownNow();
+    }
+
+    @Test
+    public void checksumsComputedByReader() throws Exception {
+        byte[] content = randomBytes(1024 * 1024 + 17);
+        assertChecksums(content, digest(content, null));
+    }
+
+    /**
+     * Checksums computed on lanes are the same as those computed by the reader, even when the content is larger than
+     * all of the lane buffers combined.
+     */
+    @Test
+    public void checksumsComputedOnLanes() throws Exception {
+        byte[] content = randomBytes(
+            DigestingInputStream.LANE_BUFFERS * DigestingInputStream.LANE_BUFFER_SIZE * 3 + 17);
+        assertChecksums(content, digest(content, laneExecutor));
+    }
+
+    /**
+     * Skipped bytes are included in the checksums.
+     */
+    @Test
+    public void skippedBytesAreDigested() throws Exception {
+        byte[] content = randomBytes(10000);
+        ResourceBuilderImpl builder = new ResourceBuilderImpl();
+        try (InputStream in = new DigestingInputStream(new ByteArrayInputStream(content), builder, ALGORITHMS)) {
+            assertEquals(100, in.skip(100));
+            IOUtils.toByteArray(in);
+        }
+
+        assertChecksums(content, builder.build());
+    }
+
+    /**
+     * The size and checksums are not applied until the end of the stream is reached.
+     */
+    @Test
+    public void nothingAppliedBeforeEndOfStream() throws Exception {
+        ResourceBuilderImpl builder = new ResourceBuilderImpl();
+        try (InputStream in = new DigestingInputStream(new ByteArrayInputStream(randomBytes(100)), builder,
+                                                       ALGORITHMS)) {
+            in.read(new byte[10]);
+        }
+
+        assertTrue(builder.build().checksums().isEmpty());
+    }
+
+    /**
+     * Closing the stream before the end is reached returns its digests to the pool, reset, when they are updated by
+     * the reader.
+     */
+    @Test
+    public void earlyCloseReleasesDigests() throws Exception {
+        assertEarlyCloseReleasesDigests(null);
+    }
+
+    /**
+     * Closing the stream before the end is reached returns its digests to the pool, reset, once the lanes updating
+     * them complete.
+     */
+    @Test
+    public void earlyCloseReleasesDigestsOfLanes() throws Exception {
+        assertEarlyCloseReleasesDigests(laneExecutor);
+    }
+
+    @Test
+    public void sizeWithoutChecksums() throws Exception {
+        ResourceBuilderImpl builder = new ResourceBuilderImpl();
+        try (InputStream in = new DigestingInputStream(new ByteArrayInputStream(randomBytes(100)), builder,
+                                                       emptyList(), laneExecutor)) {
+            IOUtils.toByteArray(in);
+        }
+
+        assertEquals(100, builder.build().sizeBytes());
+        assertTrue(builder.build().checksums().isEmpty());
+    }
+
+    /**
+     * Trusted known digests are applied as-is, without being computed, in the order of the algorithms.
+     */
+    @Test
+    public void knownDigestsTrusted() throws Exception {
+        byte[] content = randomBytes(10000);
+        byte[] bogus = new byte[16];
+        Map<Checksum.OPTS, byte[]> known = new EnumMap<>(Checksum.OPTS.class);
+        known.put(Checksum.OPTS.MD5, bogus);
+
+        ResourceBuilderImpl builder = new ResourceBuilderImpl();
+        try (InputStream in = new DigestingInputStream(new ByteArrayInputStream(content), builder, ALGORITHMS, null,
+                                                       known, false)) {
+            IOUtils.toByteArray(in);
+        }
+
+        PackageStream.Resource resource = builder.build();
+        assertEquals(content.length, resource.sizeBytes());
+        Iterator<PackageStream.Checksum> checksums = resource.checksums().iterator();
+        assertArrayEquals(AssemblerSupport.newDigest(Checksum.OPTS.SHA512).digest(content), checksums.next().value());
+        assertArrayEquals(bogus, checksums.next().value());
+        assertArrayEquals(AssemblerSupport.newDigest(Checksum.OPTS.SHA256).digest(content), checksums.next().value());
+    }
+
+    /**
+     * Verified known digests that match the computed digests are applied.
+     */
+    @Test
+    public void knownDigestsVerified() throws Exception {
+        byte[] content = randomBytes(10000);
+        Map<Checksum.OPTS, byte[]> known = new EnumMap<>(Checksum.OPTS.class);
+        known.put(Checksum.OPTS.SHA256, AssemblerSupport.newDigest(Checksum.OPTS.SHA256).digest(content));
+
+        ResourceBuilderImpl builder = new ResourceBuilderImpl();
+        try (InputStream in = new DigestingInputStream(new ByteArrayInputStream(content), builder, ALGORITHMS,
+                                                       laneExecutor, known, true)) {
+            IOUtils.toByteArray(in);
+        }
+
+        assertChecksums(content, builder.build());
+    }
+
+    /**
+     * Verified known digests that do not match the computed digests fail the read which reaches the end of the stream.
+     */
+    @Test
+    public void knownDigestMismatch() throws Exception {
+        Map<Checksum.OPTS, byte[]> known = new EnumMap<>(Checksum.OPTS.class);
+        known.put(Checksum.OPTS.MD5, new byte[16]);
+
+        try (InputStream in = new DigestingInputStream(new ByteArrayInputStream(randomBytes(10000)),
+                                                       new ResourceBuilderImpl(), ALGORITHMS, null, known, true)) {
+            IOUtils.toByteArray(in);
+            fail("Expected the fixity check to fail");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Fixity check failed"));
+        }
+    }
+
+    /**
+     * Lanes digest memory-mapped regions of a local file, spanning more than one region, while the reader only counts
+     * the bytes read.
+     */
+    @Test
+    public void checksumsComputedFromMappedFile() throws Exception {
+        byte[] content = randomBytes((int) DigestingInputStream.MAPPED_REGION_SIZE + 17);
+        File file = tmp.newFile();
+        FileUtils.writeByteArrayToFile(file, content);
+
+        ResourceBuilderImpl builder = new ResourceBuilderImpl();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             InputStream in = new DigestingInputStream(Channels.newInputStream(channel), channel, builder, ALGORITHMS,
+                                                       laneExecutor, emptyMap(), false)) {
+            IOUtils.toByteArray(in);
+        }
+
+        assertChecksums(content, builder.build());
+    }
+
+    /**
+     * Reading a different number of bytes than were digested from the file fails the read which reaches the end of
+     * the stream.
+     */
+    @Test
+    public void mappedFileChanged() throws Exception {
+        byte[] content = randomBytes(10000);
+        File file = tmp.newFile();
+        FileUtils.writeByteArrayToFile(file, content);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             InputStream in = new DigestingInputStream(new ByteArrayInputStream(content, 0, 9000), channel,
+                                                       new ResourceBuilderImpl(), ALGORITHMS, laneExecutor, emptyMap(),
+                                                       false)) {
+            IOUtils.toByteArray(in);
+            fail("Expected the read to fail");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("The size of the file being digested changed"));
+        }
+    }
+
+    private static PackageStream.Resource digest(byte[] content, ExecutorService laneExecutor) throws Exception {
+        ResourceBuilderImpl builder = new ResourceBuilderImpl();
+        try (InputStream in = new DigestingInputStream(new ByteArrayInputStream(content), builder, ALGORITHMS,
+                                                       laneExecutor)) {
+            assertEquals(content[0] & 0xff, in.read());
+            byte[] buffer = new byte[100 * 1024];
+            while (in.read(buffer) >= 0) {
+                // digest
+            }
+            assertEquals(-1, in.read());
+        }
+        return builder.build();
+    }
+
+    private static void assertEarlyCloseReleasesDigests(ExecutorService laneExecutor) throws Exception {
+        byte[] content = randomBytes(DigestingInputStream.LANE_BUFFERS * DigestingInputStream.LANE_BUFFER_SIZE * 2);
+        ResourceBuilderImpl builder = new ResourceBuilderImpl();
+        InputStream in = new DigestingInputStream(new ByteArrayInputStream(content), builder, ALGORITHMS,
+                                                  laneExecutor);
+        Map<Checksum.OPTS, Integer> idle = new EnumMap<>(Checksum.OPTS.class);
+        ALGORITHMS.forEach(algorithm -> idle.put(algorithm, DigestingInputStream.DIGEST_POOL.get(algorithm).size()));
+
+        in.read(new byte[DigestingInputStream.LANE_BUFFER_SIZE * 3]);
+        in.close();
+
+        long deadline = System.currentTimeMillis() + 10000;
+        for (Checksum.OPTS algorithm : ALGORITHMS) {
+            while (DigestingInputStream.DIGEST_POOL.get(algorithm).size() < idle.get(algorithm) + 1) {
+                if (System.currentTimeMillis() > deadline) {
+                    fail("The " + algorithm + " digest was not returned to the pool");
+                }
+                Thread.sleep(10);
+            }
+        }
+        assertTrue(builder.build().checksums().isEmpty());
+
+        // the released digests are reset before they are re-used
+        assertChecksums(content, digest(content, laneExecutor));
+    }
+
+    private static void assertChecksums(byte[] content, PackageStream.Resource resource) throws Exception {
+        assertEquals(content.length, resource.sizeBytes());
+        assertEquals(ALGORITHMS.size(), resource.checksums().size());
+
+        Iterator<PackageStream.Checksum> checksums = resource.checksums().iterator();
+        for (Checksum.OPTS algorithm : ALGORITHMS) {
+            PackageStream.Checksum checksum = checksums.next();
+            assertEquals(algorithm, checksum.algorithm());
+            assertArrayEquals(AssemblerSupport.newDigest(algorithm).digest(content), checksum.value());
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+}
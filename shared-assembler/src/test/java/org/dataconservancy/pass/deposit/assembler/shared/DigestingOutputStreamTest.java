@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.junit.Test;
+
+public class DigestingOutputStreamTest {
+
+    /**
+     * Bytes are passed through to the underlying stream, and each requested digest is computed over them.
+     */
+    @Test
+    public void digestsComputedOnClose() throws Exception {
+        byte[] content = "Hello, world!".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+
+        DigestingOutputStream underTest = new DigestingOutputStream(sink, asList(Checksum.OPTS.MD5,
+                                                                                Checksum.OPTS.SHA256));
+        underTest.write(content[0]);
+        underTest.write(content, 1, content.length - 1);
+        underTest.close();
+
+        assertArrayEquals(content, sink.toByteArray());
+        assertEquals(content.length, underTest.byteCount());
+
+        List<PackageStream.Checksum> checksums = underTest.checksums();
+        assertEquals(2, checksums.size());
+        assertEquals(Checksum.OPTS.MD5, checksums.get(0).algorithm());
+        assertEquals(DigestUtils.md5Hex(content), checksums.get(0).asHex());
+        assertEquals(Checksum.OPTS.SHA256, checksums.get(1).algorithm());
+        assertEquals(DigestUtils.sha256Hex(content), checksums.get(1).asHex());
+    }
+
+    /**
+     * Checksums are not available until the stream is closed.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void checksumsUnavailableBeforeClose() throws Exception {
+        new DigestingOutputStream(new ByteArrayOutputStream(), asList(Checksum.OPTS.MD5)).checksums();
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+import org.junit.Test;
+
+public class EntryCompressionPolicyTest {
+
+    @Test
+    public void defaultMediaTypes() {
+        EntryCompressionPolicy underTest = new EntryCompressionPolicy(emptyMap());
+
+        assertTrue(underTest.isIncompressible("application/pdf"));
+        assertTrue(underTest.isIncompressible("image/JPEG"));
+        assertTrue(underTest.isIncompressible("video/mp4"));
+        assertFalse(underTest.isIncompressible("text/plain; charset=UTF-8"));
+        assertFalse(underTest.isIncompressible(null));
+
+        assertEquals(Deflater.NO_COMPRESSION, underTest.level("image/png"));
+        assertEquals(Deflater.DEFAULT_COMPRESSION, underTest.level("application/xml"));
+    }
+
+    @Test
+    public void configuredMediaTypesAndLevels() {
+        Map<String, Object> options = new HashMap<>();
+        options.put(Compression.INCOMPRESSIBLE_MEDIA_TYPES_KEY, "image/*, application/x-hdf");
+        options.put(Compression.INCOMPRESSIBLE_LEVEL_KEY, "1");
+        options.put(Compression.LEVEL_KEY, 9);
+        EntryCompressionPolicy underTest = new EntryCompressionPolicy(options);
+
+        assertTrue(underTest.isIncompressible("image/tiff"));
+        assertTrue(underTest.isIncompressible("application/x-hdf"));
+        assertFalse(underTest.isIncompressible("application/pdf"));
+        assertEquals(1, underTest.level("image/tiff"));
+        assertEquals(9, underTest.level("application/pdf"));
+    }
+
+    /**
+     * Levels outside the range supported by the Deflater are clamped to it.
+     */
+    @Test
+    public void outOfRangeLevelsAreClamped() {
+        Map<String, Object> options = new HashMap<>();
+        options.put(Compression.LEVEL_KEY, 22);
+        options.put(Compression.INCOMPRESSIBLE_LEVEL_KEY, -5);
+        EntryCompressionPolicy underTest = new EntryCompressionPolicy(options);
+
+        assertEquals(Deflater.BEST_COMPRESSION, underTest.level("application/xml"));
+        assertEquals(Deflater.NO_COMPRESSION, underTest.level("image/jpeg"));
+
+        options.put(Compression.LEVEL_KEY, -5);
+        options.put(Compression.INCOMPRESSIBLE_LEVEL_KEY, 12);
+        underTest = new EntryCompressionPolicy(options);
+
+        assertEquals(Deflater.NO_COMPRESSION, underTest.level("application/xml"));
+        assertEquals(Deflater.BEST_COMPRESSION, underTest.level("image/jpeg"));
+    }
+
+    /**
+     * An empty list of media types compresses every entry.
+     */
+    @Test
+    public void noIncompressibleMediaTypes() {
+        Map<String, Object> options = new HashMap<>();
+        options.put(Compression.INCOMPRESSIBLE_MEDIA_TYPES_KEY, emptyList());
+        EntryCompressionPolicy underTest = new EntryCompressionPolicy(options);
+
+        assertFalse(underTest.isIncompressible("image/jpeg"));
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.apache.tika.mime.MediaType;
+import org.dataconservancy.pass.deposit.model.DepositFile;
+import org.junit.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+public class MimeTypeResolverTest {
+
+    private MimeTypeResolver underTest = new MimeTypeResolver();
+
+    /**
+     * The media type declared by the DepositFile is preferred to the extension of its name.
+     */
+    @Test
+    public void declaredMediaType() {
+        assertEquals(MediaType.application("pdf"), underTest.resolve(resource("manuscript.txt", "application/pdf")));
+    }
+
+    /**
+     * The extension of the DepositFile name is used when no media type, or application/octet-stream, is declared.
+     */
+    @Test
+    public void mediaTypeFromExtension() {
+        assertEquals(MediaType.image("jpeg"), underTest.resolve(resource("figure1.JPG", null)));
+        assertEquals(MediaType.image("jpeg"),
+                     underTest.resolve(resource("figure1.jpg", MediaType.OCTET_STREAM.toString())));
+    }
+
+    /**
+     * Resources with no declared type, and an unknown extension, must be sniffed.
+     */
+    @Test
+    public void unresolvedMediaType() {
+        assertNull(underTest.resolve(resource("README", null)));
+        assertNull(underTest.resolve(resource("data.v1/README", null)));
+        assertNull(underTest.resolve(resource("data.unknown", "not a media type")));
+    }
+
+    @Test
+    public void detectMediaType() throws Exception {
+        InputStream in = new ByteArrayInputStream("%PDF-1.7\n".getBytes(UTF_8));
+        assertEquals(MediaType.application("pdf"), underTest.detect(in));
+        assertEquals('%', in.read());
+    }
+
+    private static DepositFileResource resource(String name, String mimeType) {
+        DepositFile df = new DepositFile();
+        df.setName(name);
+        df.setMimeType(mimeType);
+        return new DepositFileResource(df, new ByteArrayResource(new byte[0]));
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Base64.getEncoder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.apache.commons.io.IOUtils;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class OkHttpResourceTest {
+
+    private static final byte[] CONTENT = "%PDF-1.7".getBytes(UTF_8);
+
+    private OkHttpClient httpClient;
+
+    private Call call;
+
+    private ArgumentCaptor<Request> requests = ArgumentCaptor.forClass(Request.class);
+
+    private OkHttpResource underTest;
+
+    @Before
+    public void setUp() throws Exception {
+        httpClient = mock(OkHttpClient.class);
+        call = mock(Call.class);
+        when(httpClient.newCall(requests.capture())).thenReturn(call);
+
+        underTest = new OkHttpResource(httpClient, new URL("http://localhost:8080/fcrepo/rest/ab/manuscript.pdf"),
+                                       "cow", "moo");
+    }
+
+    /**
+     * The length of the resource is taken from the GET which reads it, and credentials are supplied preemptively.
+     */
+    @Test
+    public void lengthFromGet() throws Exception {
+        when(call.execute()).thenAnswer(inv -> response(200, ResponseBody.create(null, CONTENT)));
+
+        try (InputStream in = underTest.getInputStream()) {
+            assertArrayEquals(CONTENT, IOUtils.toByteArray(in));
+        }
+        assertEquals(CONTENT.length, underTest.contentLength());
+
+        verify(httpClient, times(1)).newCall(any());
+        assertEquals("GET", requests.getValue().method());
+        assertEquals("Basic " + getEncoder().encodeToString("cow:moo".getBytes(UTF_8)),
+                     requests.getValue().header("Authorization"));
+    }
+
+    /**
+     * The length of a resource which has not been read is requested with a HEAD.
+     */
+    @Test
+    public void lengthFromHead() throws Exception {
+        when(call.execute()).thenAnswer(inv -> response(200, ResponseBody.create(null, new byte[0]))
+            .newBuilder().header("Content-Length", "1234").build());
+
+        assertEquals(1234, underTest.contentLength());
+        assertEquals("HEAD", requests.getValue().method());
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void notFound() throws Exception {
+        when(call.execute()).thenAnswer(inv -> response(404, ResponseBody.create(null, new byte[0])));
+
+        underTest.getInputStream();
+    }
+
+    /**
+     * Stored digests are requested with a HEAD carrying a Want-Digest header
+     */
+    @Test
+    public void storedDigests() throws Exception {
+        byte[] md5 = AssemblerSupport.newDigest(Checksum.OPTS.MD5).digest(CONTENT);
+        when(call.execute()).thenAnswer(inv -> response(200, ResponseBody.create(null, new byte[0]))
+            .newBuilder().header("Digest", "md5=" + getEncoder().encodeToString(md5)).build());
+
+        Map<Checksum.OPTS, byte[]> digests = underTest.storedDigests(Collections.singletonList(Checksum.OPTS.MD5));
+
+        assertArrayEquals(md5, digests.get(Checksum.OPTS.MD5));
+        assertEquals("HEAD", requests.getValue().method());
+        assertEquals("md5", requests.getValue().header("Want-Digest"));
+        assertTrue(requests.getValue().header("Authorization").startsWith("Basic "));
+    }
+
+    /**
+     * No credentials are sent if no username is supplied.
+     */
+    @Test
+    public void noCredentials() throws Exception {
+        underTest = new OkHttpResource(httpClient, new URL("http://localhost:8080/fcrepo/rest/ab/manuscript.pdf"),
+                                       null, null);
+        when(call.execute()).thenAnswer(inv -> response(200, ResponseBody.create(null, CONTENT)));
+
+        try (InputStream in = underTest.getInputStream()) {
+            assertArrayEquals(CONTENT, IOUtils.toByteArray(in));
+        }
+        assertNull(requests.getValue().header("Authorization"));
+    }
+
+    private Response response(int code, ResponseBody body) {
+        return new Response.Builder()
+            .request(requests.getValue())
+            .protocol(Protocol.HTTP_1_1)
+            .code(code)
+            .message(code == 200 ? "OK" : "Not Found")
+            .body(body)
+            .build();
+    }
+
+}
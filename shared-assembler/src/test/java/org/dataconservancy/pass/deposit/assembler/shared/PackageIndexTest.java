@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PackageIndexTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Map<String, byte[]> content = new LinkedHashMap<>();
+
+    @Before
+    public void setUp() throws Exception {
+        Random random = new Random(1);
+        String longName = "data/" + new String(new char[120]).replace('\0', 'x') + "/manuscript.pdf";
+        for (String name : new String[] {"bagit.txt", "data/figure.jpg", longName, "manifest-md5.txt"}) {
+            byte[] bytes = new byte[random.nextInt(30000) + 1];
+            random.nextBytes(bytes);
+            content.put(name, bytes);
+        }
+    }
+
+    @Test
+    public void openTarEntry() throws Exception {
+        assertEntries(Archive.OPTS.TAR, Compression.OPTS.NONE);
+    }
+
+    @Test
+    public void openGzippedTarEntry() throws Exception {
+        assertEntries(Archive.OPTS.TAR, Compression.OPTS.GZIP);
+    }
+
+    @Test
+    public void openZipEntry() throws Exception {
+        assertEntries(Archive.OPTS.ZIP, Compression.OPTS.NONE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openMissingEntry() throws Exception {
+        Map<String, Object> options = options(Archive.OPTS.TAR, Compression.OPTS.NONE);
+        new PackageIndex(write(options), options).open("data/missing.txt");
+    }
+
+    private void assertEntries(Archive.OPTS archive, Compression.OPTS compression) throws Exception {
+        Map<String, Object> options = options(archive, compression);
+        PackageIndex underTest = new PackageIndex(write(options), options);
+
+        // Entries may be opened in any order, any number of times
+        for (int i = 0; i < 2; i++) {
+            for (String name : new String[] {"manifest-md5.txt", "bagit.txt"}) {
+                try (InputStream in = underTest.open(name)) {
+                    assertArrayEquals(content.get(name), IOUtils.toByteArray(in));
+                }
+            }
+        }
+
+        for (Map.Entry<String, byte[]> entry : content.entrySet()) {
+            try (InputStream in = underTest.open(entry.getKey())) {
+                assertArrayEquals(entry.getValue(), IOUtils.toByteArray(in));
+            }
+        }
+    }
+
+    private File write(Map<String, Object> options) throws IOException {
+        File file = tmp.newFile();
+        DefaultArchiveOutputStreamFactory factory = new DefaultArchiveOutputStreamFactory(options);
+        DefaultStreamWriterImpl writer = new DefaultStreamWriterImpl(null, null, null, options, null, null);
+        try (OutputStream out = new FileOutputStream(file);
+             ArchiveOutputStream archiveOut = factory.newInstance(options, out)) {
+            if (archiveOut instanceof TarArchiveOutputStream) {
+                ((TarArchiveOutputStream) archiveOut).setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            }
+            for (Map.Entry<String, byte[]> entry : content.entrySet()) {
+                archiveOut.putArchiveEntry(writer.createEntry(entry.getKey(), entry.getValue().length));
+                archiveOut.write(entry.getValue());
+                archiveOut.closeArchiveEntry();
+            }
+            archiveOut.finish();
+        }
+        return file;
+    }
+
+    private static Map<String, Object> options(Archive.OPTS archive, Compression.OPTS compression) {
+        Map<String, Object> options = new HashMap<>();
+        options.put(Archive.KEY, archive);
+        options.put(Compression.KEY, compression);
+        return options;
+    }
+
+}
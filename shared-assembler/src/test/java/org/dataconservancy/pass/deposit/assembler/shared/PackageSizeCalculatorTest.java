@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static org.dataconservancy.pass.deposit.assembler.shared.PackageSizeCalculator.UNKNOWN_SIZE;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Archive;
+import org.dataconservancy.pass.deposit.assembler.PackageOptions.Compression;
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.dataconservancy.pass.deposit.model.DepositFile;
+import org.dataconservancy.pass.deposit.model.DepositSubmission;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+public class PackageSizeCalculatorTest {
+
+    private Map<String, Object> packageOptions = new HashMap<>();
+
+    private Map<String, Long> supplementalLengths = new LinkedHashMap<>();
+
+    private List<DepositFileResource> custodialResources = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        packageOptions.put(Archive.KEY, Archive.OPTS.TAR);
+        packageOptions.put(Compression.KEY, Compression.OPTS.NONE);
+    }
+
+    /**
+     * The calculated size is the size of the TAR archive written by the DefaultArchiveOutputStreamFactory, for entries
+     * that are empty, smaller than a record, and a whole number of records.
+     */
+    @Test
+    public void calculatedSizeMatchesWrittenTar() throws Exception {
+        int[] lengths = { 0, 1, 511, 512, 513, 64 * 1024 + 7 };
+        for (int length : lengths) {
+            custodialResources.add(resource("file-" + length + ".bin", length));
+        }
+        supplementalLengths.put("manifest-md5.txt", 1234L);
+
+        assertEquals(writeTar(), new PackageSizeCalculator(packageOptions).sizeBytes(new DepositSubmission(),
+                                                                                       custodialResources,
+                                                                                       new Provider()));
+    }
+
+    @Test
+    public void compressedPackagesNotCalculated() throws Exception {
+        custodialResources.add(resource("file.bin", 100));
+        packageOptions.put(Compression.KEY, Compression.OPTS.GZIP);
+
+        assertEquals(UNKNOWN_SIZE, new PackageSizeCalculator(packageOptions).sizeBytes(new DepositSubmission(),
+                                                                                       custodialResources,
+                                                                                       new Provider()));
+    }
+
+    @Test
+    public void zipPackagesNotCalculated() throws Exception {
+        custodialResources.add(resource("file.bin", 100));
+        packageOptions.put(Archive.KEY, Archive.OPTS.ZIP);
+        packageOptions.remove(Compression.KEY);
+
+        assertEquals(UNKNOWN_SIZE, new PackageSizeCalculator(packageOptions).sizeBytes(new DepositSubmission(),
+                                                                                       custodialResources,
+                                                                                       new Provider()));
+    }
+
+    /**
+     * Providers which do not know the lengths of their supplemental resources, or do not implement {@code
+     * SizedPackageProvider}, prevent the size from being calculated.
+     */
+    @Test
+    public void unknownSupplementalLengths() throws Exception {
+        custodialResources.add(resource("file.bin", 100));
+        supplementalLengths = null;
+
+        assertEquals(UNKNOWN_SIZE, new PackageSizeCalculator(packageOptions).sizeBytes(new DepositSubmission(),
+                                                                                       custodialResources,
+                                                                                       new Provider()));
+        assertEquals(UNKNOWN_SIZE, new PackageSizeCalculator(packageOptions).sizeBytes(new DepositSubmission(),
+                                                                                       custodialResources, null));
+    }
+
+    /**
+     * Names which need more than one header record are not calculated.
+     */
+    @Test
+    public void longAndNonAsciiNames() throws Exception {
+        assertEquals(UNKNOWN_SIZE, PackageSizeCalculator.tarEntrySize(String.join("", Collections.nCopies(100, "a")),
+                                                                      1L));
+        assertEquals(1024, PackageSizeCalculator.tarEntrySize(String.join("", Collections.nCopies(99, "a")), 1L));
+        assertEquals(UNKNOWN_SIZE, PackageSizeCalculator.tarEntrySize("r\u00e9sum\u00e9.pdf", 1L));
+        assertEquals(UNKNOWN_SIZE, PackageSizeCalculator.tarEntrySize("file.bin", -1L));
+    }
+
+    private long writeTar() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Provider provider = new Provider();
+        try (ArchiveOutputStream tarOut = new DefaultArchiveOutputStreamFactory(packageOptions)
+            .newInstance(packageOptions, out)) {
+            for (DepositFileResource resource : custodialResources) {
+                putEntry(tarOut, provider.packagePath(resource), resource.contentLength());
+            }
+            for (Map.Entry<String, Long> supplemental : supplementalLengths.entrySet()) {
+                putEntry(tarOut, supplemental.getKey(), supplemental.getValue());
+            }
+        }
+        return out.size();
+    }
+
+    private static void putEntry(ArchiveOutputStream tarOut, String name, long length) throws IOException {
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(length);
+        tarOut.putArchiveEntry(entry);
+        tarOut.write(new byte[(int) length]);
+        tarOut.closeArchiveEntry();
+    }
+
+    private static DepositFileResource resource(String name, int length) {
+        DepositFile df = new DepositFile();
+        df.setName(name);
+        return new DepositFileResource(df, new ByteArrayResource(new byte[length]));
+    }
+
+    private class Provider implements SizedPackageProvider {
+
+        @Override
+        public Map<String, Long> supplementalResourceLengths(DepositSubmission submission,
+                                                             List<DepositFileResource> custodialResources,
+                                                             Map<String, Object> packageOptions) {
+            return supplementalLengths;
+        }
+
+        @Override
+        public void start(DepositSubmission submission, List<DepositFileResource> custodialResources,
+                          Map<String, Object> packageOptions) {
+            // no-op
+        }
+
+        @Override
+        public String packagePath(DepositFileResource custodialResource) {
+            return "data/" + custodialResource.getDepositFile().getName();
+        }
+
+        @Override
+        public List<SupplementalResource> finish(DepositSubmission submission,
+                                                 List<PackageStream.Resource> packageResources) {
+            return Collections.emptyList();
+        }
+
+    }
+
+}
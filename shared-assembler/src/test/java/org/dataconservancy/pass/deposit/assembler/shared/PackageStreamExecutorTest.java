@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PackageStreamExecutorTest {
+
+    private PackageStreamExecutor underTest;
+
+    @Before
+    public void setUp() throws Exception {
+        underTest = new PackageStreamExecutor(1, 1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        underTest.close();
+    }
+
+    /**
+     * Exceptions thrown by a task should be routed to the handler supplied with that task, and not to the handler of
+     * any other task sharing the executor.
+     */
+    @Test
+    public void exceptionRoutedToSubmittingTask() throws Exception {
+        RuntimeException expected = new RuntimeException("Expected");
+        AtomicReference<Throwable> failingHandlerEx = new AtomicReference<>();
+        AtomicReference<Throwable> succeedingHandlerEx = new AtomicReference<>();
+        CountDownLatch handled = new CountDownLatch(1);
+
+        underTest.submit(() -> {
+            throw expected;
+        }, (r, t) -> {
+            failingHandlerEx.set(t);
+            handled.countDown();
+        });
+        underTest.submit(() -> "ok", (r, t) -> succeedingHandlerEx.set(t)).get();
+
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        assertSame(expected, failingHandlerEx.get());
+        assertNull(succeedingHandlerEx.get());
+    }
+
+    /**
+     * Streams submitted while the thread is busy are queued, and further streams are rejected once the queue is full.
+     */
+    @Test
+    public void queuedAndRejectedStreams() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        underTest.submit(() -> {
+            running.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }, null);
+        underTest.submit(() -> "queued", null);
+
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        assertEquals(1, underTest.activeStreams());
+        assertEquals(1, underTest.queuedStreams());
+
+        try {
+            underTest.submit(() -> "rejected", null);
+            throw new AssertionError("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        release.countDown();
+    }
+
+    @Test
+    public void closeWaitsForStreamsInProgress() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        AtomicReference<String> result = new AtomicReference<>();
+
+        underTest.submit(() -> {
+            running.countDown();
+            Thread.sleep(200);
+            result.set("done");
+            return null;
+        }, null);
+
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        underTest.close();
+
+        assertTrue(underTest.isTerminated());
+        assertEquals("done", result.get());
+    }
+
+}
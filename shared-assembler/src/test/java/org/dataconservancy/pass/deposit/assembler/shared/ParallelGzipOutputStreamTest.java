@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Test;
+
+public class ParallelGzipOutputStreamTest {
+
+    private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Input of various lengths, including empty input and input that does not fill the last block, is decompressed
+     * to the original bytes by a standard GZIP decoder.
+     */
+    @Test
+    public void roundTrip() throws Exception {
+        Random random = new Random();
+        byte[] content = new byte[1024 * 1024];
+        // Compressible: a small alphabet of random bytes
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + random.nextInt(8));
+        }
+
+        for (int length : new int[] {0, 1, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE,
+            ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE + 1, content.length}) {
+            byte[] expected = Arrays.copyOf(content, length);
+            assertArrayEquals("Round trip of " + length + " bytes", expected, gunzip(gzip(expected, random)));
+        }
+    }
+
+    /**
+     * Incompressible input is decompressed to the original bytes.
+     */
+    @Test
+    public void roundTripIncompressible() throws Exception {
+        Random random = new Random();
+        byte[] content = new byte[512 * 1024 + 17];
+        random.nextBytes(content);
+
+        assertArrayEquals(content, gunzip(gzip(content, random)));
+    }
+
+    private byte[] gzip(byte[] content, Random random) throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new ParallelGzipOutputStream(compressed, executor, 4)) {
+            // Write in uneven chunks, so writes straddle block boundaries
+            int off = 0;
+            while (off < content.length) {
+                int len = Math.min(content.length - off, 1 + random.nextInt(70000));
+                out.write(content, off, len);
+                off += len;
+            }
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws Exception {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+}
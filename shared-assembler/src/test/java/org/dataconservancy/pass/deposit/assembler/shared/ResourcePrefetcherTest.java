@@ -0,0 +1,217 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.dataconservancy.pass.deposit.model.DepositFile;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+public class ResourcePrefetcherTest {
+
+    private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Resources are returned in the order supplied, with the same DepositFile and content as the original.
+     */
+    @Test
+    public void resourcesReturnedInOrder() throws Exception {
+        List<DepositFileResource> resources = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            resources.add(resource("file-" + i, new byte[i * 100]));
+        }
+
+        try (ResourcePrefetcher underTest = new ResourcePrefetcher(resources, executor, 3, 1024 * 1024)) {
+            for (DepositFileResource expected : resources) {
+                assertTrue(underTest.hasNext());
+                DepositFileResource actual = underTest.next();
+                assertSame(expected.getDepositFile(), actual.getDepositFile());
+                assertEquals(expected.contentLength(), actual.contentLength());
+                try (InputStream in = actual.getInputStream()) {
+                    assertArrayEquals(IOUtils.toByteArray(expected.getResource().getInputStream()),
+                                      IOUtils.toByteArray(in));
+                }
+            }
+            assertFalse(underTest.hasNext());
+        }
+    }
+
+    /**
+     * Resources larger than their share of the memory budget are spilled to a temporary file, which is deleted once the
+     * resource has been read.
+     */
+    @Test
+    public void largeResourceSpilledToDisk() throws Exception {
+        byte[] content = new byte[4096];
+        List<DepositFileResource> resources = new ArrayList<>();
+        resources.add(resource("large", content));
+
+        try (ResourcePrefetcher underTest = new ResourcePrefetcher(resources, executor, 1, 1024)) {
+            PrefetchedResource prefetched = (PrefetchedResource) underTest.next().getResource();
+            assertFalse(prefetched.isInMemory());
+
+            File spilled = prefetched.getFile();
+            assertTrue(spilled.exists());
+            assertEquals(content.length, prefetched.contentLength());
+
+            try (InputStream in = prefetched.getInputStream()) {
+                assertArrayEquals(content, IOUtils.toByteArray(in));
+            }
+
+            assertFalse(spilled.exists());
+        }
+    }
+
+    /**
+     * Resources held by the writer (e.g. while they are compressed concurrently) share the memory budget with the
+     * resources being fetched, so a resource that would fit in the share of a writer holding one resource is spilled.
+     */
+    @Test
+    public void heldResourcesShareBudget() throws Exception {
+        List<DepositFileResource> resources = new ArrayList<>();
+        resources.add(resource("medium", new byte[300]));
+
+        assertEquals(400, new ResourcePrefetcher(resources, executor, 2, 1200).memoryPerResource());
+
+        try (ResourcePrefetcher underTest = new ResourcePrefetcher(resources, executor, 2, 1200, 4)) {
+            assertEquals(200, underTest.memoryPerResource());
+            PrefetchedResource prefetched = (PrefetchedResource) underTest.next().getResource();
+            assertFalse(prefetched.isInMemory());
+            prefetched.release();
+        }
+    }
+
+    /**
+     * An exception fetching a resource is thrown when that resource is requested.
+     */
+    @Test
+    public void fetchExceptionThrownToWriter() throws Exception {
+        IOException expected = new IOException("Expected");
+        List<DepositFileResource> resources = new ArrayList<>();
+        resources.add(resource("ok", new byte[10]));
+        resources.add(new DepositFileResource(new DepositFile(), new AbstractResource() {
+            @Override
+            public String getDescription() {
+                return "failing resource";
+            }
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                throw expected;
+            }
+        }));
+
+        try (ResourcePrefetcher underTest = new ResourcePrefetcher(resources, executor, 2, 1024)) {
+            underTest.next().getInputStream().close();
+            try {
+                underTest.next();
+                fail("Expected IOException");
+            } catch (IOException e) {
+                assertSame(expected, e);
+            }
+        }
+    }
+
+    /**
+     * A fetch which is still running when the prefetcher is closed deletes the temporary file it spilled to once it
+     * completes, even though it cannot be interrupted.
+     */
+    @Test
+    public void runningFetchReleasedAfterClose() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        List<DepositFileResource> resources = new ArrayList<>();
+        resources.add(resource("small", new byte[10]));
+        resources.add(new DepositFileResource(new DepositFile(), new ByteArrayResource(new byte[4096]) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                started.countDown();
+                boolean interrupted = false;
+                while (true) {
+                    try {
+                        proceed.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getInputStream();
+            }
+        }));
+
+        Set<File> before = spillFiles();
+        ResourcePrefetcher underTest = new ResourcePrefetcher(resources, executor, 2, 1024);
+        underTest.next().getInputStream().close();
+        assertTrue(started.await(30, TimeUnit.SECONDS));
+
+        underTest.close();
+        proceed.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(before, spillFiles());
+    }
+
+    private static Set<File> spillFiles() {
+        File[] files = new File(System.getProperty("java.io.tmpdir"))
+            .listFiles((dir, name) -> name.startsWith("prefetch-"));
+        return new HashSet<>(Arrays.asList(files == null ? new File[0] : files));
+    }
+
+    private static DepositFileResource resource(String name, byte[] content) {
+        DepositFile df = new DepositFile();
+        df.setName(name);
+        Resource delegate = new ByteArrayResource(content, name) {
+            @Override
+            public String getFilename() {
+                return name;
+            }
+        };
+        return new DepositFileResource(df, delegate);
+    }
+
+}
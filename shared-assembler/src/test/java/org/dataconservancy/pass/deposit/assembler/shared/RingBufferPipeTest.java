@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.assembler.shared;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class RingBufferPipeTest {
+
+    private ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() throws Exception {
+        writer.shutdownNow();
+    }
+
+    /**
+     * Bytes written in arbitrarily sized chunks should be read back in the same order, even when the buffer wraps
+     * around many times.
+     */
+    @Test
+    public void roundTrip() throws Exception {
+        byte[] expected = new byte[1024 * 1024];
+        Random random = new Random(1);
+        random.nextBytes(expected);
+
+        RingBufferPipe underTest = new RingBufferPipe(4099);
+
+        Future<?> written = writer.submit(() -> {
+            try (OutputStream out = underTest.outputStream()) {
+                Random chunks = new Random(2);
+                int off = 0;
+                while (off < expected.length) {
+                    int len = Math.min(expected.length - off, chunks.nextInt(10000));
+                    out.write(expected, off, len);
+                    off += len;
+                }
+            }
+            return null;
+        });
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try (InputStream in = underTest.inputStream()) {
+            byte[] buf = new byte[3001];
+            int read;
+            while ((read = in.read(buf)) != -1) {
+                actual.write(buf, 0, read);
+            }
+        }
+
+        written.get(10, TimeUnit.SECONDS);
+        assertArrayEquals(expected, actual.toByteArray());
+        assertEquals(expected.length, underTest.bytesRead());
+    }
+
+    /**
+     * An exception set by the writer should be thrown to a blocked reader.
+     */
+    @Test
+    public void writerExceptionThrownToReader() throws Exception {
+        RingBufferPipe underTest = new RingBufferPipe(16);
+        RuntimeException expected = new RuntimeException("Expected");
+
+        writer.submit(() -> {
+            Thread.sleep(100);
+            underTest.setWriterEx(expected);
+            return null;
+        });
+
+        try {
+            underTest.inputStream().read();
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertSame(expected, e.getCause());
+        }
+
+        assertTrue(underTest.readerBlockedNanos() > 0);
+    }
+
+    /**
+     * A writer blocked on a full buffer should fail when the reader closes the pipe, instead of blocking forever.
+     */
+    @Test
+    public void readerCloseUnblocksWriter() throws Exception {
+        RingBufferPipe underTest = new RingBufferPipe(16);
+
+        Future<?> written = writer.submit(() -> {
+            underTest.outputStream().write(new byte[32]);
+            return null;
+        });
+
+        Thread.sleep(100);
+        underTest.inputStream().close();
+
+        try {
+            written.get(10, TimeUnit.SECONDS);
+            fail("Expected the writer to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        assertTrue(underTest.writerBlockedNanos() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSize() throws Exception {
+        RingBufferPipe.ofMib(0);
+    }
+
+}
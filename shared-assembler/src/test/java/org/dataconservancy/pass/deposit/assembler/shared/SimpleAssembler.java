@@ -57,6 +57,6 @@ public class SimpleAssembler extends AbstractAssembler {
                                                      List<PackageStream.Resource> packageResources) {
                 return Collections.emptyList();
             }
-        });
+        }, getPackageStreamExecutor());
     }
 }
@@ -0,0 +1,469 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.transport.sword2;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Credentials;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.Okio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swordapp.client.AuthCredentials;
+import org.swordapp.client.Deposit;
+import org.swordapp.client.DepositReceipt;
+import org.swordapp.client.ProtocolViolationException;
+import org.swordapp.client.SWORDClient;
+import org.swordapp.client.SWORDClientException;
+import org.swordapp.client.SWORDError;
+import org.swordapp.client.SwordIdentifier;
+
+/**
+ * Performs SWORD binary deposits by streaming the package to the collection, holding no more than a few buffers of
+ * the package in memory regardless of its size.
+ * <p>
+ * The {@link SWORDClient} buffers the entire package in memory in order to compute the {@code Content-Length} of the
+ * deposit request.  Instead, this depositor sends the package with the length known from the package metadata, or
+ * using chunked transfer encoding when the length is unknown.  The deposit receipt is then retrieved by the
+ * {@code SWORDClient} from the {@code Location} (the Edit-IRI) of the deposit response.
+ * </p>
+ * <p>
+ * Packages larger than a configured segment size are sent as a SWORD continued deposit, one segment per request, so
+ * that a failure part way through the package is recovered by sending a single segment again.  SWORD v2 does not
+ * define how a repository combines the media added to a resource, so segmentation is only used when a segment size is
+ * configured.
+ * </p>
+ *
+ * @see
+ * <a href="http://swordapp.github.io/SWORDv2-Profile/SWORDProfile.html#protocoloperations_creatingresource_binary">
+ * SWORD v2 Profile</a>
+ */
+class BinaryDepositor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryDepositor.class);
+
+    /**
+     * The maximum number of bytes of an error response body that are read
+     */
+    static final long MAX_ERROR_BODY_BYTES = 64 * 1024;
+
+    /**
+     * The number of times a segment of a continued deposit is sent before the deposit fails
+     */
+    static final int SEGMENT_ATTEMPTS = 3;
+
+    /**
+     * The delay before a segment is sent again, multiplied by the number of attempts made
+     */
+    static final long SEGMENT_RETRY_DELAY_MS = 2000;
+
+    /**
+     * The packaging of the segments of a continued deposit, each of which is a range of bytes of the package
+     */
+    static final String BINARY_PACKAGING = "http://purl.org/net/sword/package/Binary";
+
+    private static volatile BinaryDepositor defaultInstance;
+
+    private final OkHttpClient httpClient;
+
+    /**
+     * Creates a depositor using the connection pool and dispatcher of the supplied client.  Interceptors of the
+     * supplied client are not used (a logging interceptor would buffer the package), redirects are not followed, and
+     * failed requests are not retried, because the package can only be read once.  Responses are awaited without a
+     * timeout, because a repository may ingest the package before responding.
+     *
+     * @param httpClient the HTTP client
+     */
+    BinaryDepositor(OkHttpClient httpClient) {
+        OkHttpClient.Builder builder = httpClient.newBuilder()
+                                                 .followRedirects(false)
+                                                 .retryOnConnectionFailure(false)
+                                                 .readTimeout(0, TimeUnit.MILLISECONDS);
+        builder.interceptors().clear();
+        builder.networkInterceptors().clear();
+        this.httpClient = builder.build();
+    }
+
+    /**
+     * Answers a depositor using its own HTTP client, for use when no client is supplied by the application.
+     *
+     * @return the default depositor
+     */
+    static BinaryDepositor defaultInstance() {
+        BinaryDepositor instance = defaultInstance;
+        if (instance == null) {
+            synchronized (BinaryDepositor.class) {
+                instance = defaultInstance;
+                if (instance == null) {
+                    instance = new BinaryDepositor(new OkHttpClient());
+                    defaultInstance = instance;
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * Streams the {@link Deposit#getFile() file} of the deposit to the collection, and retrieves the deposit receipt.
+     *
+     * @param collectionUrl the URL of the collection receiving the deposit
+     * @param deposit       the deposit, supplying the package and the headers of the deposit request
+     * @param contentLength the length of the package in bytes, or {@code -1} if unknown
+     * @param authCreds     the credentials of the deposit
+     * @param userAgent     the user agent of the deposit request
+     * @param client        retrieves the deposit receipt
+     * @return the deposit receipt
+     * @throws SWORDError                 if the repository responds to the deposit with an error
+     * @throws ProtocolViolationException if the repository response does not identify the deposited resource
+     * @throws SWORDClientException       if the deposit receipt cannot be retrieved
+     * @throws IOException                if the package cannot be read or sent
+     */
+    DepositReceipt deposit(String collectionUrl, Deposit deposit, long contentLength, AuthCredentials authCreds,
+                           String userAgent, SWORDClient client)
+        throws SWORDError, ProtocolViolationException, SWORDClientException, IOException {
+        return deposit(collectionUrl, deposit, contentLength, -1, authCreds, userAgent, client);
+    }
+
+    /**
+     * Deposits the {@link Deposit#getFile() file} of the deposit to the collection, and retrieves the deposit
+     * receipt.  Packages larger than {@code segmentSize} (or of unknown length) are deposited as a continued deposit:
+     * <ol>
+     *     <li>the first segment creates the resource in the collection, with {@code In-Progress: true}</li>
+     *     <li>each further segment is added to the Edit-Media IRI of the resource, with {@code In-Progress: true}</li>
+     *     <li>the deposit is completed by an empty request to the SE-IRI of the resource, taken from the deposit
+     *         receipt of the first segment, with {@code In-Progress: false}</li>
+     * </ol>
+     * A segment is not a package in its own right, so every segment is sent as {@link #BINARY_PACKAGING binary}
+     * media; the packaging of the deposit is only sent when the package is deposited in a single request.  Each
+     * segment is spooled to a temporary file, so a segment which fails
+     * with an I/O error or a server error is retried on its own, up to {@link #SEGMENT_ATTEMPTS} times, resuming the
+     * deposit from the last segment which was accepted.  The first segment is not retried after an I/O error, because
+     * the repository may have created the resource without the response reaching the depositor.
+     *
+     * @param collectionUrl the URL of the collection receiving the deposit
+     * @param deposit       the deposit, supplying the package and the headers of the deposit request
+     * @param contentLength the length of the package in bytes, or {@code -1} if unknown
+     * @param segmentSize   the maximum size of a segment in bytes, or {@code 0} or less to deposit the package in a
+     *                      single request
+     * @param authCreds     the credentials of the deposit
+     * @param userAgent     the user agent of the deposit request
+     * @param client        retrieves the deposit receipt
+     * @return the deposit receipt
+     * @throws SWORDError                 if the repository responds to the deposit with an error
+     * @throws ProtocolViolationException if the repository response does not identify the deposited resource, or the
+     *                                    deposit receipt of a continued deposit lacks the SE-IRI of the resource
+     * @throws SWORDClientException       if the deposit receipt cannot be retrieved
+     * @throws IOException                if the package cannot be read or sent
+     */
+    DepositReceipt deposit(String collectionUrl, Deposit deposit, long contentLength, long segmentSize,
+                           AuthCredentials authCreds, String userAgent, SWORDClient client)
+        throws SWORDError, ProtocolViolationException, SWORDClientException, IOException {
+        if (segmentSize > 0 && (contentLength < 0 || contentLength > segmentSize)) {
+            return depositSegments(collectionUrl, deposit, segmentSize, authCreds, userAgent, client);
+        }
+
+        Request.Builder request = request(collectionUrl, deposit, deposit.getPackaging(), deposit.getMd5(),
+                                          deposit.isInProgress(), authCreds, userAgent)
+            .post(new PackageBody(deposit.getFile(), deposit.getMimeType(), contentLength));
+
+        String editIri = execute(request.build(), true);
+
+        LOG.debug("Deposited package {} to {}, retrieving deposit receipt from {}", deposit.getFilename(),
+                  collectionUrl, editIri);
+
+        return client.getDepositReceipt(editIri, authCreds);
+    }
+
+    private DepositReceipt depositSegments(String collectionUrl, Deposit deposit, long segmentSize,
+                                           AuthCredentials authCreds, String userAgent, SWORDClient client)
+        throws SWORDError, ProtocolViolationException, SWORDClientException, IOException {
+        PushbackInputStream in = new PushbackInputStream(deposit.getFile(), 1);
+        MediaType contentType = (deposit.getMimeType() != null) ? MediaType.parse(deposit.getMimeType()) : null;
+        Checkpoint checkpoint = new Checkpoint();
+        boolean last = false;
+
+        while (!last) {
+            Path segment = Files.createTempFile("sword-segment-", ".part");
+            try {
+                String md5 = spool(in, segment, segmentSize);
+                last = atEnd(in);
+
+                // A package which fits in a single segment is deposited, and completed, by a single request
+                boolean inProgress = !last || checkpoint.segments > 0;
+                String url = (checkpoint.editMediaIri != null) ? checkpoint.editMediaIri : collectionUrl;
+                String location = postSegment(url, deposit, contentType, segment, md5, inProgress,
+                                              checkpoint.editIri == null, checkpoint, authCreds, userAgent);
+
+                checkpoint.segments++;
+                checkpoint.bytes += Files.size(segment);
+
+                if (checkpoint.editIri == null) {
+                    checkpoint.editIri = location;
+                    if (inProgress) {
+                        DepositReceipt receipt = client.getDepositReceipt(location, authCreds);
+                        checkpoint.editMediaIri = receipt.getEditMediaLink().getHref().toString();
+                        checkpoint.seIri = seIri(receipt, location);
+                    }
+                }
+
+                LOG.info("Deposited segment {} of package {} to {} ({} bytes deposited)", checkpoint.segments,
+                         deposit.getFilename(), url, checkpoint.bytes);
+            } finally {
+                Files.deleteIfExists(segment);
+            }
+        }
+
+        if (checkpoint.segments > 1) {
+            execute(request(checkpoint.seIri, null, null, null, false, authCreds, userAgent)
+                        .post(RequestBody.create(null, new byte[0])).build(), false);
+            LOG.debug("Completed continued deposit of package {} ({} segments, {} bytes) to {}",
+                      deposit.getFilename(), checkpoint.segments, checkpoint.bytes, checkpoint.seIri);
+        }
+
+        return client.getDepositReceipt(checkpoint.editIri, authCreds);
+    }
+
+    private String postSegment(String url, Deposit deposit, MediaType contentType, Path segment, String md5,
+                               boolean inProgress, boolean requireLocation, Checkpoint checkpoint,
+                               AuthCredentials authCreds, String userAgent)
+        throws SWORDError, ProtocolViolationException, IOException {
+        boolean first = checkpoint.editIri == null;
+        String packaging = (first && !inProgress) ? deposit.getPackaging() : BINARY_PACKAGING;
+        for (int attempt = 1; ; attempt++) {
+            Request request = request(url, deposit, packaging, md5, inProgress, authCreds, userAgent)
+                .post(RequestBody.create(contentType, segment.toFile()))
+                .build();
+            try {
+                return execute(request, requireLocation);
+            } catch (IOException | SWORDError e) {
+                if (attempt == SEGMENT_ATTEMPTS || (e instanceof SWORDError && ((SWORDError) e).getStatus() < 500) ||
+                    (first && e instanceof IOException)) {
+                    throw e;
+                }
+                LOG.warn("Attempt {} of {} to deposit segment {} of package {} to {} failed, retrying: {}", attempt,
+                         SEGMENT_ATTEMPTS, checkpoint.segments + 1, deposit.getFilename(), url, e.getMessage());
+                try {
+                    Thread.sleep(attempt * SEGMENT_RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while retrying segment " +
+                                                     (checkpoint.segments + 1) + " of " + deposit.getFilename());
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers the SE-IRI of the resource described by the deposit receipt, which completes a continued deposit.
+     */
+    private static String seIri(DepositReceipt receipt, String editIri) throws ProtocolViolationException {
+        SwordIdentifier seIri = receipt.getSwordEditLink();
+        if (seIri == null || seIri.getHref() == null) {
+            throw new ProtocolViolationException("SWORD deposit receipt of '" + editIri + "' is missing the SE-IRI " +
+                                                 "needed to complete the continued deposit.");
+        }
+        return seIri.getHref();
+    }
+
+    /**
+     * Creates a request carrying the SWORD headers of the deposit, omitting the headers describing the content if the
+     * deposit is {@code null}.
+     */
+    private static Request.Builder request(String url, Deposit deposit, String packaging, String md5,
+                                           boolean inProgress, AuthCredentials authCreds, String userAgent) {
+        Request.Builder request = new Request.Builder()
+            .url(url)
+            .header("User-Agent", userAgent)
+            .header("Authorization", Credentials.basic(authCreds.getUsername(), authCreds.getPassword()))
+            .header("In-Progress", String.valueOf(inProgress));
+
+        if (authCreds.getOnBehalfOf() != null) {
+            request.header("On-Behalf-Of", authCreds.getOnBehalfOf());
+        }
+
+        if (deposit == null) {
+            return request;
+        }
+
+        request.header("Content-Disposition", "attachment; filename=" + deposit.getFilename());
+
+        if (md5 != null) {
+            request.header("Content-MD5", md5);
+        }
+
+        if (packaging != null) {
+            request.header("Packaging", packaging);
+        }
+
+        return request;
+    }
+
+    /**
+     * Executes the request, answering the {@code Location} of the response resolved against the request URL.
+     */
+    private String execute(Request request, boolean requireLocation)
+        throws SWORDError, ProtocolViolationException, IOException {
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new SWORDError(response.code(), response.peekBody(MAX_ERROR_BODY_BYTES).string());
+            }
+
+            String location = response.header("Location");
+            if (location == null) {
+                if (requireLocation) {
+                    throw new ProtocolViolationException("SWORD deposit response (" + response.code() + ") from '" +
+                                                         request.url() + "' is missing the Location header.");
+                }
+                return null;
+            }
+
+            HttpUrl resolved = request.url().resolve(location);
+            return (resolved != null) ? resolved.toString() : location;
+        }
+    }
+
+    /**
+     * Copies at most {@code segmentSize} bytes of the package to the segment file, answering the hex-encoded MD5 of
+     * the segment.
+     */
+    private static String spool(InputStream in, Path segment, long segmentSize) throws IOException {
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        byte[] buf = new byte[64 * 1024];
+        long remaining = segmentSize;
+        try (OutputStream out = Files.newOutputStream(segment)) {
+            int read;
+            while (remaining > 0 && (read = in.read(buf, 0, (int) Math.min(buf.length, remaining))) > -1) {
+                out.write(buf, 0, read);
+                md5.update(buf, 0, read);
+                remaining -= read;
+            }
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : md5.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static boolean atEnd(PushbackInputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            return true;
+        }
+        in.unread(b);
+        return false;
+    }
+
+    /**
+     * The progress of a continued deposit: the segments accepted by the repository, and the IRIs of the resource
+     * created by the first segment
+     */
+    private static class Checkpoint {
+
+        private int segments;
+
+        private long bytes;
+
+        private String editIri;
+
+        private String editMediaIri;
+
+        private String seIri;
+
+    }
+
+    /**
+     * Streams the package to the request, with a {@code Content-Length} if the length of the package is known,
+     * otherwise using chunked transfer encoding.
+     */
+    private static class PackageBody extends RequestBody {
+
+        private final InputStream in;
+
+        private final MediaType contentType;
+
+        private final long contentLength;
+
+        private PackageBody(InputStream in, String contentType, long contentLength) {
+            this.in = in;
+            this.contentType = (contentType != null) ? MediaType.parse(contentType) : null;
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return contentType;
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+
+        /**
+         * Writes the package to the request.  A package read from a file, as a spooled package is, is transferred from
+         * its channel, which maps the file rather than reading it through a heap buffer.
+         *
+         * @param sink the request body
+         * @throws IOException if the package cannot be read, or the request cannot be written
+         */
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            // The package stream is closed by the caller
+            if (in instanceof FileInputStream) {
+                FileChannel source = ((FileInputStream) in).getChannel();
+                WritableByteChannel target = Channels.newChannel(sink.outputStream());
+                long position = source.position();
+                long transferred;
+                while ((transferred = source.transferTo(position, source.size() - position, target)) > 0) {
+                    position += transferred;
+                }
+                source.position(position);
+            }
+
+            // Writes whatever remains of the package, which is all of it unless it was read from a file
+            sink.writeAll(Okio.source(in));
+        }
+    }
+
+}
@@ -28,11 +28,13 @@ import org.swordapp.client.SWORDClient;
 @Component
 public class DefaultSword2ClientFactory implements Sword2ClientFactory {
 
+    static final String DEFAULT_USER_AGENT = "oapass/SWORDv2";
+
     @Override
     public SWORDClient newInstance(Map<String, String> hints) {
         ClientConfiguration clientConfiguration = new ClientConfiguration();
         clientConfiguration.setUserAgent(hints.getOrDefault(Sword2TransportHints.SWORD_CLIENT_USER_AGENT,
-                                                            "oapass/SWORDv2"));
+                                                            DEFAULT_USER_AGENT));
         clientConfiguration.setReturnDepositReceipt(true);
 
         return new SWORDClient(clientConfiguration);
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.transport.sword2;
+
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_PASSWORD;
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_USERNAME;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swordapp.client.AuthCredentials;
+import org.swordapp.client.ProtocolViolationException;
+import org.swordapp.client.SWORDClient;
+import org.swordapp.client.SWORDClientException;
+import org.swordapp.client.ServiceDocument;
+
+/**
+ * Caches parsed SWORD service documents, and the {@link SWORDClient}s used to retrieve them, keyed by the service
+ * document URL, the credentials used to retrieve it, and the user agent of the client.
+ * <p>
+ * Cached documents expire once they are older than the time-to-live.  A document that is requested once it is older
+ * than {@link #REFRESH_AHEAD} of the time-to-live is answered from the cache, and refreshed in the background, so
+ * documents that are in regular use are not retrieved by the thread opening a transport session.  Documents which
+ * are found to be stale (e.g. they do not advertise a configured collection) may be {@link #invalidate(Entry)
+ * invalidated}.  A time-to-live of {@code 0} or less disables caching: each request retrieves the document.
+ * </p>
+ */
+class ServiceDocumentCache {
+
+    /**
+     * The fraction of the time-to-live after which a requested document is refreshed in the background
+     */
+    static final double REFRESH_AHEAD = 0.75;
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServiceDocumentCache.class);
+
+    private final ConcurrentMap<List<String>, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Sword2ClientFactory clientFactory;
+
+    private final long ttlMs;
+
+    private final Executor refresher;
+
+    private final LongSupplier clock;
+
+    /**
+     * Creates a cache which refreshes documents using a single background thread.
+     *
+     * @param clientFactory creates the clients used to retrieve documents
+     * @param ttlMs         the time-to-live of a cached document, in milliseconds
+     */
+    ServiceDocumentCache(Sword2ClientFactory clientFactory, long ttlMs) {
+        this(clientFactory, ttlMs, Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "SWORD-Service-Document-Refresh");
+            t.setDaemon(true);
+            return t;
+        }), System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a cache which refreshes documents using the supplied executor, and ages documents using the supplied
+     * clock.
+     *
+     * @param clientFactory creates the clients used to retrieve documents
+     * @param ttlMs         the time-to-live of a cached document, in milliseconds
+     * @param refresher     executes background refreshes of documents
+     * @param clock         answers the current time in milliseconds
+     */
+    ServiceDocumentCache(Sword2ClientFactory clientFactory, long ttlMs, Executor refresher, LongSupplier clock) {
+        this.clientFactory = clientFactory;
+        this.ttlMs = ttlMs;
+        this.refresher = refresher;
+        this.clock = clock;
+    }
+
+    /**
+     * Answers the service document at {@code serviceDocUrl}, and the client used to retrieve it, from the cache if
+     * present and unexpired, otherwise the document is retrieved (using a new client) and cached.
+     *
+     * @param hints         the transport hints, used to create the client
+     * @param serviceDocUrl the URL of the service document
+     * @param authCreds     the credentials used to retrieve the service document
+     * @return the cache entry holding the service document and the client
+     * @throws SWORDClientException       if the service document cannot be retrieved
+     * @throws ProtocolViolationException if the service document cannot be parsed
+     */
+    Entry get(Map<String, String> hints, String serviceDocUrl, AuthCredentials authCreds)
+        throws SWORDClientException, ProtocolViolationException {
+        List<String> key = Arrays.asList(serviceDocUrl, hints.get(TRANSPORT_USERNAME), hints.get(TRANSPORT_PASSWORD),
+                                         authCreds.getOnBehalfOf(),
+                                         hints.get(Sword2TransportHints.SWORD_CLIENT_USER_AGENT));
+
+        Entry entry = entries.get(key);
+        long now = clock.getAsLong();
+
+        if (entry != null && now - entry.retrievedAt < ttlMs) {
+            if (now - entry.retrievedAt >= ttlMs * REFRESH_AHEAD && entry.refreshing.compareAndSet(false, true)) {
+                try {
+                    refresher.execute(() -> refresh(entry));
+                } catch (RejectedExecutionException e) {
+                    LOG.trace("Not refreshing service document {}, the cache has been closed", serviceDocUrl);
+                    entry.refreshing.set(false);
+                }
+            }
+            return entry;
+        }
+
+        SWORDClient client = (entry != null) ? entry.client : clientFactory.newInstance(hints);
+        Entry retrieved = new Entry(key, client, authCreds, client.getServiceDocument(serviceDocUrl, authCreds),
+                                    clock.getAsLong());
+        if (ttlMs > 0) {
+            entries.put(key, retrieved);
+        }
+
+        return retrieved;
+    }
+
+    /**
+     * Discards the cached documents, and shuts down the executor refreshing them if it is an {@code ExecutorService}.
+     * Documents requested once the cache is closed are still retrieved, but are no longer refreshed in the background.
+     */
+    void close() {
+        if (refresher instanceof ExecutorService) {
+            ((ExecutorService) refresher).shutdownNow();
+        }
+        entries.clear();
+    }
+
+    /**
+     * Removes the entry from the cache, so the service document is retrieved when it is next requested.  If the entry
+     * has already been replaced (e.g. it has been refreshed), the cache is unchanged.
+     *
+     * @param entry the entry to invalidate
+     */
+    void invalidate(Entry entry) {
+        if (entries.remove(entry.key, entry)) {
+            LOG.debug("Invalidated cached SWORD service document {}", entry.key.get(0));
+        }
+    }
+
+    private void refresh(Entry entry) {
+        String serviceDocUrl = entry.key.get(0);
+        try {
+            Entry refreshed = new Entry(entry.key, entry.client, entry.authCreds,
+                                        entry.client.getServiceDocument(serviceDocUrl, entry.authCreds),
+                                        clock.getAsLong());
+            entries.replace(entry.key, entry, refreshed);
+            LOG.debug("Refreshed cached SWORD service document {}", serviceDocUrl);
+        } catch (Exception e) {
+            // The entry is left to expire, and the document will be retrieved when it is next requested
+            LOG.warn("Unable to refresh SWORD service document {}: {}", serviceDocUrl, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * A cached service document, and the client used to retrieve it
+     */
+    static class Entry {
+
+        private final List<String> key;
+
+        private final SWORDClient client;
+
+        private final AuthCredentials authCreds;
+
+        private final ServiceDocument serviceDocument;
+
+        private final long retrievedAt;
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(List<String> key, SWORDClient client, AuthCredentials authCreds,
+                      ServiceDocument serviceDocument, long retrievedAt) {
+            this.key = key;
+            this.client = client;
+            this.authCreds = authCreds;
+            this.serviceDocument = serviceDocument;
+            this.retrievedAt = retrievedAt;
+        }
+
+        SWORDClient client() {
+            return client;
+        }
+
+        ServiceDocument serviceDocument() {
+            return serviceDocument;
+        }
+
+    }
+
+}
@@ -15,6 +15,7 @@
  */
 package org.dataconservancy.pass.deposit.transport.sword2;
 
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
 import org.dataconservancy.pass.deposit.transport.TransportResponse;
 import org.swordapp.client.DepositReceipt;
 
@@ -34,11 +35,18 @@ public class Sword2DepositReceiptResponse implements TransportResponse {
 
     private DepositReceipt receipt;
 
+    private PackageStream.Metadata packageMetadata;
+
     public Sword2DepositReceiptResponse(DepositReceipt receipt) {
+        this(receipt, null);
+    }
+
+    public Sword2DepositReceiptResponse(DepositReceipt receipt, PackageStream.Metadata packageMetadata) {
         if (receipt == null) {
             throw new IllegalArgumentException("Deposit receipt must not be null.");
         }
         this.receipt = receipt;
+        this.packageMetadata = packageMetadata;
     }
 
     @Override
@@ -51,6 +59,11 @@ public class Sword2DepositReceiptResponse implements TransportResponse {
         return null;
     }
 
+    @Override
+    public PackageStream.Metadata packageMetadata() {
+        return packageMetadata;
+    }
+
     public DepositReceipt getReceipt() {
         return receipt;
     }
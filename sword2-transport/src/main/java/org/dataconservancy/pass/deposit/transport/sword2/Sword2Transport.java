@@ -19,13 +19,17 @@ import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportH
 
 import java.util.Map;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import okhttp3.OkHttpClient;
 import org.dataconservancy.pass.deposit.assembler.PackageStream;
 import org.dataconservancy.pass.deposit.transport.Transport;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.swordapp.client.AuthCredentials;
 import org.swordapp.client.SWORDClient;
-import org.swordapp.client.ServiceDocument;
 
 /**
  * Encapsulates a provider for SWORD protocol version 2 transport sessions.  {@link #open(Map) Opening} a SWORDv2
@@ -41,6 +45,12 @@ import org.swordapp.client.ServiceDocument;
  * that is configured with a {@code SWORDClient}, working authentication credentials (potentially acting on behalf of
  * a user), and the {@code ServiceDocument} located at the {@link Sword2TransportHints#SWORD_SERVICE_DOC_URL service
  * document URL}.
+ * <p>
+ * Service documents, and the {@code SWORDClient} used to retrieve them, are cached for
+ * {@link #setServiceDocTtlMs(long) a time-to-live}, keyed by the service document URL, credentials, and user agent, so
+ * sessions opened against the same endpoint share a client and do not retrieve the service document each time.  The
+ * cached service document is invalidated if a session fails to select the configured collection from it.
+ * </p>
  *
  * Hints accepted by this transport are:
  * <dl>
@@ -70,8 +80,20 @@ public class Sword2Transport implements Transport {
 
     static final String MISSING_REQUIRED_HINT = "Missing required transport hint '%s'";
 
+    static final long DEFAULT_SERVICE_DOC_TTL_MS = 5 * 60 * 1000;
+
     private Sword2ClientFactory clientFactory;
 
+    private long serviceDocTtlMs = DEFAULT_SERVICE_DOC_TTL_MS;
+
+    /**
+     * Created once the properties of this transport have been set, by {@link #init()} or when the first session is
+     * opened
+     */
+    private ServiceDocumentCache serviceDocuments;
+
+    private BinaryDepositor depositor = BinaryDepositor.defaultInstance();
+
     @Autowired
     public Sword2Transport(Sword2ClientFactory clientFactory) {
         if (clientFactory == null) {
@@ -80,11 +102,54 @@ public class Sword2Transport implements Transport {
         this.clientFactory = clientFactory;
     }
 
+    /**
+     * Sets the time-to-live of cached SWORD service documents; {@code 0} or less retrieves the service document each
+     * time a session is opened.  Takes effect if set before the service document cache is created.
+     *
+     * @param serviceDocTtlMs the time-to-live of cached service documents, in milliseconds
+     */
+    @Value("${pass.deposit.transport.swordv2.service-doc-ttl-ms:" + DEFAULT_SERVICE_DOC_TTL_MS + "}")
+    public void setServiceDocTtlMs(long serviceDocTtlMs) {
+        this.serviceDocTtlMs = serviceDocTtlMs;
+    }
+
+    /**
+     * Creates the service document cache, once the properties of this transport have been set.
+     */
+    @PostConstruct
+    public synchronized void init() {
+        if (serviceDocuments == null) {
+            serviceDocuments = new ServiceDocumentCache(clientFactory, serviceDocTtlMs);
+        }
+    }
+
+    /**
+     * Stops the background refresh of cached service documents.
+     */
+    @PreDestroy
+    public synchronized void destroy() {
+        if (serviceDocuments != null) {
+            serviceDocuments.close();
+        }
+    }
+
     @Override
     public PROTOCOL protocol() {
         return PROTOCOL.SWORDv2;
     }
 
+    /**
+     * The HTTP client used to deposit packages.  The connection pool and dispatcher of the supplied client are shared,
+     * but its interceptors are not.  When no client is supplied, packages are deposited using a client owned by this
+     * module.
+     *
+     * @param httpClient the HTTP client, typically shared by the application, may be {@code null}
+     */
+    @Autowired(required = false)
+    public void setHttpClient(OkHttpClient httpClient) {
+        this.depositor = (httpClient != null) ? new BinaryDepositor(httpClient) : BinaryDepositor.defaultInstance();
+    }
+
     /**
      * Hints <em>must</em> carry:
      * <ul>
@@ -101,7 +166,6 @@ public class Sword2Transport implements Transport {
      */
     @Override
     public Sword2TransportSession open(Map<String, String> hints) {
-        SWORDClient client = clientFactory.newInstance(hints);
         String serviceDocUrl = getServiceDocUrl(hints);
 
         if (!AUTHMODE.userpass.name().equals(hints.get(TRANSPORT_AUTHMODE))) {
@@ -117,7 +181,10 @@ public class Sword2Transport implements Transport {
             throw new IllegalArgumentException(String.format(MISSING_REQUIRED_HINT, TRANSPORT_PASSWORD));
         }
 
-        ServiceDocument serviceDocument = null;
+        init();
+        ServiceDocumentCache cache = serviceDocuments;
+
+        ServiceDocumentCache.Entry entry = null;
         AuthCredentials authCreds = null;
         try {
             if (hints.containsKey(Sword2TransportHints.SWORD_ON_BEHALF_OF_USER) &&
@@ -129,12 +196,14 @@ public class Sword2Transport implements Transport {
                 authCreds = new AuthCredentials(hints.get(TRANSPORT_USERNAME), hints.get(TRANSPORT_PASSWORD));
             }
 
-            serviceDocument = client.getServiceDocument(serviceDocUrl, authCreds);
+            entry = cache.get(hints, serviceDocUrl, authCreds);
         } catch (Exception e) {
             throw new RuntimeException("Error reading or parsing SWORD service document '" + serviceDocUrl + "'", e);
         }
 
-        return new Sword2TransportSession(client, serviceDocument, authCreds);
+        ServiceDocumentCache.Entry cached = entry;
+        return new Sword2TransportSession(entry.client(), entry.serviceDocument(), authCreds,
+                                          () -> cache.invalidate(cached), depositor);
     }
 
     /**
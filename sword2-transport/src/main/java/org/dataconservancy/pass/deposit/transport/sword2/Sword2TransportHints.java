@@ -69,4 +69,11 @@ public interface Sword2TransportHints {
      */
     String SWORD_CLIENT_USER_AGENT = "deposit.transport.protocol.swordv2.user-agent-string";
 
+    /**
+     * Property identifying the maximum size, in MiB, of each segment of a continued deposit.  Packages larger than a
+     * segment are deposited in segments, each sent with {@code In-Progress: true}, followed by a request completing the
+     * deposit.  When absent, or {@code 0}, every package is deposited in a single request.
+     */
+    String SWORD_SEGMENT_SIZE_MIB = "deposit.transport.protocol.swordv2.segment-size-mib";
+
 }
@@ -19,16 +19,21 @@ import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportH
 import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints.HINT_KEY;
 import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints.HINT_TUPLE_SEPARATOR;
 import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints.HINT_URL_SEPARATOR;
+import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints.SWORD_CLIENT_USER_AGENT;
 import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints.SWORD_COLLECTION_HINTS;
 import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints.SWORD_COLLECTION_URL;
+import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints.SWORD_SEGMENT_SIZE_MIB;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 
 import com.google.gson.JsonElement;
 import org.dataconservancy.pass.deposit.assembler.PackageOptions.Checksum;
 import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.dataconservancy.pass.deposit.transport.PreflightCheck;
+import org.dataconservancy.pass.deposit.transport.PreflightException;
 import org.dataconservancy.pass.deposit.transport.TransportResponse;
 import org.dataconservancy.pass.deposit.transport.TransportSession;
 import org.slf4j.Logger;
@@ -48,7 +53,7 @@ import org.swordapp.client.ServiceDocument;
  *
  * @author Elliot Metsger (emetsger@jhu.edu)
  */
-public class Sword2TransportSession implements TransportSession {
+public class Sword2TransportSession implements TransportSession, PreflightCheck {
 
     private static final Logger LOG = LoggerFactory.getLogger(Sword2TransportSession.class);
 
@@ -66,7 +71,40 @@ public class Sword2TransportSession implements TransportSession {
 
     private AuthCredentials authCreds;
 
+    private Runnable invalidateServiceDocument;
+
+    private BinaryDepositor depositor;
+
     public Sword2TransportSession(SWORDClient client, ServiceDocument serviceDocument, AuthCredentials authCreds) {
+        this(client, serviceDocument, authCreds, () -> { });
+    }
+
+    /**
+     * Creates a session which runs {@code invalidateServiceDocument} when the collection configured for a deposit
+     * cannot be selected from the {@code serviceDocument}, e.g. because the service document was cached before the
+     * collection was added to it.
+     *
+     * @param client                    the SWORD client
+     * @param serviceDocument           the SWORD service document
+     * @param authCreds                 the credentials used to deposit packages
+     * @param invalidateServiceDocument invalidates the service document
+     */
+    public Sword2TransportSession(SWORDClient client, ServiceDocument serviceDocument, AuthCredentials authCreds,
+                                  Runnable invalidateServiceDocument) {
+        this(client, serviceDocument, authCreds, invalidateServiceDocument, BinaryDepositor.defaultInstance());
+    }
+
+    /**
+     * Creates a session which deposits packages using the supplied {@code depositor}.
+     *
+     * @param client                    the SWORD client, used to retrieve deposit receipts
+     * @param serviceDocument           the SWORD service document
+     * @param authCreds                 the credentials used to deposit packages
+     * @param invalidateServiceDocument invalidates the service document
+     * @param depositor                 streams packages to the SWORD collection
+     */
+    Sword2TransportSession(SWORDClient client, ServiceDocument serviceDocument, AuthCredentials authCreds,
+                           Runnable invalidateServiceDocument, BinaryDepositor depositor) {
         if (client == null) {
             throw new IllegalArgumentException("SWORDClient must not be null.");
         }
@@ -82,6 +120,8 @@ public class Sword2TransportSession implements TransportSession {
         this.client = client;
         this.serviceDocument = serviceDocument;
         this.authCreds = authCreds;
+        this.invalidateServiceDocument = invalidateServiceDocument;
+        this.depositor = depositor;
     }
 
     /**
@@ -165,11 +205,19 @@ public class Sword2TransportSession implements TransportSession {
 
         try (InputStream stream = packageStream.open()) {
             swordDeposit.setFile(stream);
-            receipt = client.deposit(selectCollection(serviceDocument, packageStream.metadata(), metadata),
-                                     swordDeposit, authCreds);
+            String collectionUrl = selectCollection(serviceDocument, packageStream.metadata(), metadata)
+                .getHref().toASCIIString();
+            receipt = depositor.deposit(collectionUrl, swordDeposit, streamMetadata.sizeBytes(),
+                                        segmentSize(metadata), authCreds,
+                                        metadata.getOrDefault(SWORD_CLIENT_USER_AGENT,
+                                                              DefaultSword2ClientFactory.DEFAULT_USER_AGENT),
+                                        client);
         } catch (SWORDError e) {
             return new Sword2ErrorResponse(e);
-        } catch (ProtocolViolationException | InvalidCollectionUrl e) {
+        } catch (InvalidCollectionUrl e) {
+            invalidateServiceDocument.run();
+            return new Sword2ThrowableResponse(e);
+        } catch (ProtocolViolationException e) {
             return new Sword2ThrowableResponse(e);
         } catch (IOException e) {
             return new Sword2ThrowableResponse(
@@ -183,7 +231,58 @@ public class Sword2TransportSession implements TransportSession {
                                                                     "': " + e.getMessage(), e));
         }
 
-        return new Sword2DepositReceiptResponse(receipt);
+        return new Sword2DepositReceiptResponse(receipt, packageStream.metadata());
+    }
+
+    /**
+     * Checks the package against the service document of this session: the collection selected for the package must
+     * be advertised by the service document, and accept the packaging of the package, and no deposit request for the
+     * package (a segment, if the package is deposited in segments) may exceed the maximum upload size of the service
+     * document.  If the package would be rejected, the cached service document is invalidated, in case it is stale.
+     *
+     * @param packageMetadata {@inheritDoc}
+     * @param metadata        {@inheritDoc}
+     * @throws PreflightException {@inheritDoc}
+     */
+    @Override
+    public void preflight(PackageStream.Metadata packageMetadata, Map<String, String> metadata)
+        throws PreflightException {
+        try {
+            SWORDCollection collection = selectCollection(serviceDocument, packageMetadata, metadata);
+
+            String spec = packageMetadata.spec();
+            List<String> acceptPackaging = collection.getAcceptPackaging();
+            if (spec != null && spec.length() > 0 && acceptPackaging != null && !acceptPackaging.isEmpty() &&
+                !acceptPackaging.contains(spec)) {
+                throw new PreflightException(String.format("SWORD collection '%s' does not accept packaging '%s' " +
+                                                           "(accepts %s)", collection.getHref(), spec,
+                                                           acceptPackaging));
+            }
+
+            long maxUploadBytes;
+            try {
+                // sword:maxUploadSize is expressed in kB
+                maxUploadBytes = serviceDocument.getMaxUploadSize() * 1024L;
+            } catch (ProtocolViolationException e) {
+                LOG.warn("Ignoring the maximum upload size of the SWORD service document: {}", e.getMessage());
+                maxUploadBytes = -1;
+            }
+            long sizeBytes = packageMetadata.sizeBytes();
+            long segmentSize = segmentSize(metadata);
+            long largestRequest = (segmentSize > 0 && (sizeBytes < 0 || sizeBytes > segmentSize)) ?
+                                  segmentSize : sizeBytes;
+            if (maxUploadBytes > 0 && largestRequest > maxUploadBytes) {
+                throw new PreflightException(String.format("SWORD deposit request of %s bytes to '%s' exceeds the " +
+                                                           "maximum upload size of %s bytes", largestRequest,
+                                                           collection.getHref(), maxUploadBytes));
+            }
+        } catch (InvalidCollectionUrl e) {
+            invalidateServiceDocument.run();
+            throw new PreflightException(e.getMessage(), e);
+        } catch (PreflightException e) {
+            invalidateServiceDocument.run();
+            throw e;
+        }
     }
 
     @Override
@@ -287,6 +386,22 @@ public class Sword2TransportSession implements TransportSession {
         return collection;
     }
 
+    /**
+     * Answers the maximum size of each segment of a continued deposit, as configured by the
+     * {@link Sword2TransportHints#SWORD_SEGMENT_SIZE_MIB} hint.
+     *
+     * @param metadata the transport hints
+     * @return the maximum size of a segment in bytes, or {@code -1} if packages are not deposited in segments
+     */
+    long segmentSize(Map<String, String> metadata) {
+        String segmentSizeMib = metadata.get(SWORD_SEGMENT_SIZE_MIB);
+        if (segmentSizeMib != null && segmentSizeMib.trim().length() > 0) {
+            return Long.parseLong(segmentSizeMib.trim()) * 1024 * 1024;
+        }
+
+        return -1;
+    }
+
     /**
      * Exposed for unit testing only.
      *
@@ -295,4 +410,13 @@ public class Sword2TransportSession implements TransportSession {
     AuthCredentials getAuthCreds() {
         return authCreds;
     }
+
+    /**
+     * Exposed for unit testing only.
+     *
+     * @return the SWORD service document
+     */
+    ServiceDocument getServiceDocument() {
+        return serviceDocument;
+    }
 }
@@ -0,0 +1,405 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.transport.sword2;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.swordapp.client.AuthCredentials;
+import org.swordapp.client.Deposit;
+import org.swordapp.client.DepositReceipt;
+import org.swordapp.client.ProtocolViolationException;
+import org.swordapp.client.SWORDClient;
+import org.swordapp.client.SWORDError;
+import org.swordapp.client.SwordIdentifier;
+
+/**
+ * Deposits packages to a stub SWORD collection, which counts the bytes of each deposit and responds with the Edit-IRI
+ * of the deposited resource.
+ */
+public class BinaryDepositorTest {
+
+    private static final long MiB = 1024 * 1024;
+
+    /**
+     * The size of the package deposited by {@link #constantMemory()}: at least 2 GiB, and larger than the maximum heap
+     */
+    private static final long LARGE_PACKAGE_BYTES = Long.getLong("pass.deposit.test.sword.package-bytes",
+        Math.max(2048 * MiB, Runtime.getRuntime().maxMemory() + 256 * MiB));
+
+    /**
+     * The maximum growth of the heap, measured after garbage collection, while depositing a large package
+     */
+    private static final long MAX_HEAP_GROWTH_BYTES = 32 * MiB;
+
+    private static final String COLLECTION_PATH = "/swordv2/collection/1";
+
+    private static final String EDIT_PATH = "/swordv2/edit/1";
+
+    private static final String EDIT_MEDIA_PATH = "/swordv2/edit-media/1";
+
+    private static final String SE_PATH = "/swordv2/se/1";
+
+    private HttpServer server;
+
+    private String collectionUrl;
+
+    private volatile int status = 201;
+
+    private volatile Headers requestHeaders;
+
+    private AtomicLong received = new AtomicLong();
+
+    private List<String> requests = new CopyOnWriteArrayList<>();
+
+    private List<String> packaging = new CopyOnWriteArrayList<>();
+
+    private volatile boolean recordBodies;
+
+    private volatile boolean verifyMd5;
+
+    private ByteArrayOutputStream bodies = new ByteArrayOutputStream();
+
+    private volatile String failPath;
+
+    private AtomicInteger failures = new AtomicInteger();
+
+    private volatile boolean failByClosing;
+
+    private AuthCredentials authCreds = new AuthCredentials("sworduser", "swordpassword", "another_user");
+
+    private SWORDClient swordClient = mock(SWORDClient.class);
+
+    private DepositReceipt receipt = mock(DepositReceipt.class);
+
+    private BinaryDepositor underTest = new BinaryDepositor(new OkHttpClient());
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/swordv2", exchange -> {
+            requestHeaders = exchange.getRequestHeaders();
+            String path = exchange.getRequestURI().getPath();
+            MessageDigest md5 = newMd5();
+            byte[] buf = new byte[64 * 1024];
+            long count = 0;
+            try (InputStream in = exchange.getRequestBody()) {
+                int read;
+                while ((read = in.read(buf)) > -1) {
+                    count += read;
+                    md5.update(buf, 0, read);
+                    if (recordBodies) {
+                        bodies.write(buf, 0, read);
+                    }
+                }
+            }
+            received.addAndGet(count);
+
+            int responseStatus = status;
+            if (path.equals(failPath) && failures.getAndDecrement() > 0) {
+                responseStatus = 503;
+            }
+            requests.add(path + " " + requestHeaders.getFirst("In-Progress") + " " + count + " " + responseStatus);
+            packaging.add(String.valueOf(requestHeaders.getFirst("Packaging")));
+            if (responseStatus == 503 && failByClosing) {
+                // Closes the connection without a response
+                throw new IOException("Failing " + path);
+            }
+            if (verifyMd5 && count > 0 && !hex(md5.digest()).equals(requestHeaders.getFirst("Content-MD5"))) {
+                responseStatus = 412;
+            }
+
+            byte[] body = (responseStatus < 300) ? new byte[0] : "<sword:error/>".getBytes(UTF_8);
+            if (path.startsWith(COLLECTION_PATH)) {
+                exchange.getResponseHeaders().add("Location", EDIT_PATH);
+            }
+            exchange.sendResponseHeaders(responseStatus, body.length > 0 ? body.length : -1);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        collectionUrl = baseUrl + COLLECTION_PATH;
+
+        SwordIdentifier editMedia = mock(SwordIdentifier.class);
+        when(editMedia.getHref()).thenReturn(baseUrl + EDIT_MEDIA_PATH);
+        when(receipt.getEditMediaLink()).thenReturn(editMedia);
+        SwordIdentifier se = mock(SwordIdentifier.class);
+        when(se.getHref()).thenReturn(baseUrl + SE_PATH);
+        when(receipt.getSwordEditLink()).thenReturn(se);
+        when(swordClient.getDepositReceipt(eq(baseUrl + EDIT_PATH), any())).thenReturn(receipt);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop(0);
+    }
+
+    /**
+     * A package larger than the heap, of unknown length, is deposited using chunked transfer encoding without growing
+     * the heap.
+     */
+    @Test
+    public void constantMemory() throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                memory.gc();
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(250);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "heap-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+
+        try {
+            assertSame(receipt, underTest.deposit(collectionUrl, deposit(LARGE_PACKAGE_BYTES), -1, authCreds,
+                                                  "test-agent", swordClient));
+        } finally {
+            sampler.interrupt();
+            sampler.join();
+        }
+
+        assertEquals(LARGE_PACKAGE_BYTES, received.get());
+        assertEquals("chunked", requestHeaders.getFirst("Transfer-Encoding"));
+        assertTrue("Heap grew by " + (peak.get() - baseline) + " bytes",
+                   peak.get() - baseline < MAX_HEAP_GROWTH_BYTES);
+    }
+
+    /**
+     * A package of known length is deposited with its Content-Length, and the SWORD headers of the deposit.
+     */
+    @Test
+    public void knownLength() throws Exception {
+        long length = 5 * MiB + 17;
+        underTest.deposit(collectionUrl, deposit(length), length, authCreds, "test-agent", swordClient);
+
+        assertEquals(length, received.get());
+        assertEquals(String.valueOf(length), requestHeaders.getFirst("Content-Length"));
+        assertNull(requestHeaders.getFirst("Transfer-Encoding"));
+        assertEquals("attachment; filename=package.zip", requestHeaders.getFirst("Content-Disposition"));
+        assertEquals("application/zip", requestHeaders.getFirst("Content-Type"));
+        assertEquals("http://purl.org/net/sword/package/SimpleZip", requestHeaders.getFirst("Packaging"));
+        assertEquals("5d41402abc4b2a76b9719d911017c592", requestHeaders.getFirst("Content-MD5"));
+        assertEquals("false", requestHeaders.getFirst("In-Progress"));
+        assertEquals("another_user", requestHeaders.getFirst("On-Behalf-Of"));
+        assertEquals("test-agent", requestHeaders.getFirst("User-Agent"));
+        assertTrue(requestHeaders.getFirst("Authorization").startsWith("Basic "));
+    }
+
+    /**
+     * A package larger than the segment size is deposited as a continued deposit of binary media: the first segment
+     * creates the resource, later segments are added to its media resource, and an empty request to its SE-IRI
+     * completes the deposit.  A segment failing with a server error is sent again on its own.
+     */
+    @Test
+    public void segmented() throws Exception {
+        byte[] content = new byte[10 * 1024 + 5];
+        new Random(content.length).nextBytes(content);
+        recordBodies = true;
+        verifyMd5 = true;
+        failPath = EDIT_MEDIA_PATH;
+        failures.set(1);
+
+        Deposit deposit = deposit(0);
+        deposit.setFile(new ByteArrayInputStream(content));
+        assertSame(receipt, underTest.deposit(collectionUrl, deposit, -1, 4096, authCreds, "test-agent",
+                                              swordClient));
+
+        assertEquals(Arrays.asList(COLLECTION_PATH + " true 4096 201",
+                                   EDIT_MEDIA_PATH + " true 4096 503",
+                                   EDIT_MEDIA_PATH + " true 4096 201",
+                                   EDIT_MEDIA_PATH + " true 2053 201",
+                                   SE_PATH + " false 0 201"), requests);
+        assertEquals(Arrays.asList(BinaryDepositor.BINARY_PACKAGING,
+                                   BinaryDepositor.BINARY_PACKAGING,
+                                   BinaryDepositor.BINARY_PACKAGING,
+                                   BinaryDepositor.BINARY_PACKAGING,
+                                   "null"), packaging);
+        byte[] deposited = bodies.toByteArray();
+        assertArrayEquals(Arrays.copyOfRange(content, 0, 4096), Arrays.copyOfRange(deposited, 0, 4096));
+        assertArrayEquals(Arrays.copyOfRange(content, 4096, content.length),
+                          Arrays.copyOfRange(deposited, 2 * 4096, deposited.length));
+    }
+
+    /**
+     * A package which fits in a single segment is deposited, and completed, by a single request.
+     */
+    @Test
+    public void singleSegment() throws Exception {
+        verifyMd5 = true;
+        underTest.deposit(collectionUrl, deposit(4096), -1, 4096, authCreds, "test-agent", swordClient);
+
+        assertEquals(Collections.singletonList(COLLECTION_PATH + " false 4096 201"), requests);
+        assertEquals(Collections.singletonList("http://purl.org/net/sword/package/SimpleZip"), packaging);
+    }
+
+    /**
+     * Segments failing with a client error are not sent again.
+     */
+    @Test
+    public void segmentRejected() throws Exception {
+        status = 413;
+        try {
+            underTest.deposit(collectionUrl, deposit(8192), 8192, 4096, authCreds, "test-agent", swordClient);
+            fail("Expected the deposit to fail");
+        } catch (SWORDError e) {
+            assertEquals(413, e.getStatus());
+        }
+
+        assertEquals(Collections.singletonList(COLLECTION_PATH + " true 4096 413"), requests);
+    }
+
+    /**
+     * A continued deposit fails, without sending further segments, if the deposit receipt lacks the SE-IRI which
+     * completes the deposit.
+     */
+    @Test
+    public void missingSeIri() throws Exception {
+        when(receipt.getSwordEditLink()).thenReturn(null);
+        try {
+            underTest.deposit(collectionUrl, deposit(8192), 8192, 4096, authCreds, "test-agent", swordClient);
+            fail("Expected the deposit to fail");
+        } catch (ProtocolViolationException e) {
+            assertTrue(e.getMessage().contains("SE-IRI"));
+        }
+
+        assertEquals(Collections.singletonList(COLLECTION_PATH + " true 4096 201"), requests);
+    }
+
+    /**
+     * The first segment is not sent again after an I/O error, because the resource may have been created.
+     */
+    @Test
+    public void firstSegmentNotRetried() throws Exception {
+        failPath = COLLECTION_PATH;
+        failures.set(1);
+        failByClosing = true;
+        try {
+            underTest.deposit(collectionUrl, deposit(8192), 8192, 4096, authCreds, "test-agent", swordClient);
+            fail("Expected the deposit to fail");
+        } catch (IOException e) {
+            // expected
+        }
+
+        assertEquals(Collections.singletonList(COLLECTION_PATH + " true 4096 503"), requests);
+    }
+
+    @Test(expected = SWORDError.class)
+    public void errorResponse() throws Exception {
+        status = 415;
+        underTest.deposit(collectionUrl, deposit(1024), -1, authCreds, "test-agent", swordClient);
+    }
+
+    private static Deposit deposit(long length) {
+        Deposit deposit = new Deposit();
+        deposit.setFile(new SyntheticInputStream(length));
+        deposit.setFilename("package.zip");
+        deposit.setMimeType("application/zip");
+        deposit.setPackaging("http://purl.org/net/sword/package/SimpleZip");
+        deposit.setMd5("5d41402abc4b2a76b9719d911017c592");
+        deposit.setInProgress(false);
+        return deposit;
+    }
+
+    private static MessageDigest newMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Answers {@code length} bytes without holding them in memory.
+     */
+    private static class SyntheticInputStream extends InputStream {
+
+        private long remaining;
+
+        private SyntheticInputStream(long length) {
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() {
+            if (remaining == 0) {
+                return -1;
+            }
+            remaining--;
+            return (int) (remaining & 0xff);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining == 0) {
+                return -1;
+            }
+            int read = (int) Math.min(len, remaining);
+            remaining -= read;
+            return read;
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.transport.sword2;
+
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_PASSWORD;
+import static org.dataconservancy.pass.deposit.transport.Transport.TRANSPORT_USERNAME;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.swordapp.client.AuthCredentials;
+import org.swordapp.client.SWORDClient;
+import org.swordapp.client.ServiceDocument;
+
+public class ServiceDocumentCacheTest {
+
+    private static final String SERVICE_DOC_URL = "http://localhost:8080/swordv2/servicedocument";
+
+    private static final long TTL_MS = 1000;
+
+    private Map<String, String> hints = new HashMap<>();
+
+    private AuthCredentials authCreds = new AuthCredentials("sworduser", "swordpassword");
+
+    private AtomicLong clock = new AtomicLong();
+
+    private SWORDClient swordClient;
+
+    private Sword2ClientFactory clientFactory;
+
+    private ServiceDocumentCache underTest;
+
+    @Before
+    public void setUp() throws Exception {
+        hints.put(TRANSPORT_USERNAME, "sworduser");
+        hints.put(TRANSPORT_PASSWORD, "swordpassword");
+
+        swordClient = mock(SWORDClient.class);
+        clientFactory = mock(Sword2ClientFactory.class);
+        when(swordClient.getServiceDocument(any(), any()))
+            .thenAnswer(inv -> mock(ServiceDocument.class));
+        when(clientFactory.newInstance(anyMap())).thenReturn(swordClient);
+
+        underTest = new ServiceDocumentCache(clientFactory, TTL_MS, Runnable::run, clock::get);
+    }
+
+    /**
+     * Unexpired service documents, and their clients, are answered from the cache.
+     */
+    @Test
+    public void cached() throws Exception {
+        ServiceDocumentCache.Entry entry = underTest.get(hints, SERVICE_DOC_URL, authCreds);
+        clock.set(TTL_MS / 2);
+
+        assertSame(entry, underTest.get(hints, SERVICE_DOC_URL, authCreds));
+        verify(clientFactory).newInstance(anyMap());
+        verify(swordClient).getServiceDocument(SERVICE_DOC_URL, authCreds);
+    }
+
+    /**
+     * Documents requested after the refresh-ahead point are answered from the cache, and replaced by a refreshed
+     * document retrieved using the same client.
+     */
+    @Test
+    public void refreshedAhead() throws Exception {
+        ServiceDocumentCache.Entry entry = underTest.get(hints, SERVICE_DOC_URL, authCreds);
+        clock.set((long) (TTL_MS * ServiceDocumentCache.REFRESH_AHEAD));
+
+        assertSame(entry, underTest.get(hints, SERVICE_DOC_URL, authCreds));
+        ServiceDocumentCache.Entry refreshed = underTest.get(hints, SERVICE_DOC_URL, authCreds);
+
+        assertNotSame(entry.serviceDocument(), refreshed.serviceDocument());
+        assertSame(entry.client(), refreshed.client());
+        verify(clientFactory).newInstance(anyMap());
+        verify(swordClient, times(2)).getServiceDocument(SERVICE_DOC_URL, authCreds);
+    }
+
+    /**
+     * Expired and invalidated documents are retrieved when they are next requested.
+     */
+    @Test
+    public void expiredAndInvalidated() throws Exception {
+        ServiceDocumentCache.Entry entry = underTest.get(hints, SERVICE_DOC_URL, authCreds);
+        underTest.invalidate(entry);
+        ServiceDocumentCache.Entry retrieved = underTest.get(hints, SERVICE_DOC_URL, authCreds);
+        assertNotSame(entry.serviceDocument(), retrieved.serviceDocument());
+
+        clock.set(TTL_MS);
+        assertNotSame(retrieved.serviceDocument(), underTest.get(hints, SERVICE_DOC_URL, authCreds).serviceDocument());
+        verify(swordClient, times(3)).getServiceDocument(SERVICE_DOC_URL, authCreds);
+    }
+
+    /**
+     * Documents retrieved with different credentials are cached separately.
+     */
+    @Test
+    public void keyedByCredentials() throws Exception {
+        underTest.get(hints, SERVICE_DOC_URL, authCreds);
+        hints.put(TRANSPORT_USERNAME, "anotheruser");
+        underTest.get(hints, SERVICE_DOC_URL, new AuthCredentials("anotheruser", "swordpassword"));
+
+        verify(clientFactory, times(2)).newInstance(anyMap());
+    }
+
+    /**
+     * A time-to-live of zero disables caching.
+     */
+    @Test
+    public void disabled() throws Exception {
+        underTest = new ServiceDocumentCache(clientFactory, 0, Runnable::run, clock::get);
+        underTest.get(hints, SERVICE_DOC_URL, authCreds);
+        underTest.get(hints, SERVICE_DOC_URL, authCreds);
+
+        verify(swordClient, times(2)).getServiceDocument(SERVICE_DOC_URL, authCreds);
+    }
+
+    /**
+     * Closing the cache shuts down its refresher, and documents due to be refreshed are still answered.
+     */
+    @Test
+    public void closed() throws Exception {
+        ExecutorService refresher = Executors.newSingleThreadExecutor();
+        underTest = new ServiceDocumentCache(clientFactory, TTL_MS, refresher, clock::get);
+        ServiceDocumentCache.Entry entry = underTest.get(hints, SERVICE_DOC_URL, authCreds);
+
+        underTest.close();
+        assertTrue(refresher.isShutdown());
+
+        clock.set((long) (TTL_MS * ServiceDocumentCache.REFRESH_AHEAD));
+        ServiceDocumentCache.Entry retrieved = underTest.get(hints, SERVICE_DOC_URL, authCreds);
+        assertNotSame(entry, retrieved);
+
+        clock.addAndGet((long) (TTL_MS * ServiceDocumentCache.REFRESH_AHEAD));
+        assertSame(retrieved, underTest.get(hints, SERVICE_DOC_URL, authCreds));
+    }
+
+}
@@ -20,19 +20,26 @@ import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportH
 import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints.HINT_URL_SEPARATOR;
 import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints.SWORD_COLLECTION_HINTS;
 import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints.SWORD_COLLECTION_URL;
+import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportHints.SWORD_SEGMENT_SIZE_MIB;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import org.apache.abdera.i18n.iri.IRI;
 import org.dataconservancy.pass.deposit.assembler.PackageStream;
+import org.dataconservancy.pass.deposit.transport.PreflightException;
 import org.junit.Before;
 import org.junit.Test;
 import org.swordapp.client.AuthCredentials;
@@ -209,6 +216,85 @@ public class Sword2TransportSessionTest {
         assertEquals(defaultCollectionUrl, selectedCollection.getHref().toString());
     }
 
+    /**
+     * Packages whose packaging is accepted by the selected collection, and which fit in the maximum upload size,
+     * pass the pre-flight check.
+     */
+    @Test
+    public void preflightAccepted() throws Exception {
+        Map<String, String> transportMd = preflightFixture("http://purl.org/net/sword/package/METSDSpaceSIP", 2048);
+        AtomicBoolean invalidated = new AtomicBoolean();
+        Sword2TransportSession underTest = new Sword2TransportSession(mock(SWORDClient.class), serviceDoc, authCreds,
+                                                                      () -> invalidated.set(true));
+
+        underTest.preflight(packageMd, transportMd);
+
+        assertFalse(invalidated.get());
+    }
+
+    /**
+     * Packages whose packaging is not accepted by the selected collection fail the pre-flight check, and invalidate
+     * the service document.
+     */
+    @Test
+    public void preflightPackagingNotAccepted() throws Exception {
+        Map<String, String> transportMd = preflightFixture("http://purl.org/net/sword/package/SimpleZip", 2048);
+        AtomicBoolean invalidated = new AtomicBoolean();
+        Sword2TransportSession underTest = new Sword2TransportSession(mock(SWORDClient.class), serviceDoc, authCreds,
+                                                                      () -> invalidated.set(true));
+
+        try {
+            underTest.preflight(packageMd, transportMd);
+            fail("Expected the pre-flight check to fail");
+        } catch (PreflightException e) {
+            assertTrue(e.getMessage().contains("does not accept packaging"));
+        }
+
+        assertTrue(invalidated.get());
+    }
+
+    /**
+     * Packages larger than the maximum upload size pass the pre-flight check when they are deposited in segments, and
+     * fail it otherwise.  Packages are only deposited in segments when a segment size is configured.
+     */
+    @Test
+    public void preflightMaxUploadSize() throws Exception {
+        Map<String, String> transportMd =
+            preflightFixture("http://purl.org/net/sword/package/METSDSpaceSIP", 4 * 1024 * 1024);
+        Sword2TransportSession underTest = new Sword2TransportSession(mock(SWORDClient.class), serviceDoc, authCreds);
+
+        for (String segmentSizeMib : Arrays.asList(null, "0")) {
+            transportMd.put(SWORD_SEGMENT_SIZE_MIB, segmentSizeMib);
+            try {
+                underTest.preflight(packageMd, transportMd);
+                fail("Expected the pre-flight check to fail");
+            } catch (PreflightException e) {
+                assertTrue(e.getMessage().contains("exceeds the maximum upload size"));
+            }
+        }
+
+        transportMd.put(SWORD_SEGMENT_SIZE_MIB, "1");
+        underTest.preflight(packageMd, transportMd);
+    }
+
+    // Mocks a METSDSpaceSIP collection, in a service document with a maximum upload size of 1 MiB, and a package of
+    // the supplied spec and size
+    private Map<String, String> preflightFixture(String spec, long sizeBytes) throws Exception {
+        String collectionUrl = "http://moo.cow/bar";
+        swordServiceDocument(serviceDoc, collectionUrl);
+        SWORDCollection collection = serviceDoc.getWorkspaces().get(0).getCollections().get(0);
+        when(collection.getAcceptPackaging())
+            .thenReturn(Arrays.asList("http://purl.org/net/sword/package/METSDSpaceSIP",
+                                      "http://purl.org/net/sword/package/Binary"));
+        when(serviceDoc.getMaxUploadSize()).thenReturn(1024L);
+        when(packageMd.spec()).thenReturn(spec);
+        when(packageMd.sizeBytes()).thenReturn(sizeBytes);
+
+        Map<String, String> transportMd = new HashMap<>();
+        transportMd.put(SWORD_COLLECTION_URL, collectionUrl);
+        return transportMd;
+    }
+
     // Mocks a service document providing access to the following collections in a single SWORDWorkspace
     private static ServiceDocument swordServiceDocument(ServiceDocument doc, String... collectionUrls) {
         SWORDWorkspace workspace = mock(SWORDWorkspace.class);
@@ -26,9 +26,11 @@ import static org.dataconservancy.pass.deposit.transport.sword2.Sword2TransportH
 import static org.hamcrest.CoreMatchers.isA;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
@@ -135,6 +137,18 @@ public class Sword2TransportTest {
         assertEquals(ON_BEHALF_OF, authCredentials.getOnBehalfOf());
     }
 
+    /**
+     * Sessions opened against the same endpoint share the client and the service document.
+     */
+    @Test
+    public void testOpenCachesServiceDocument() throws Exception {
+        Sword2TransportSession first = underTest.open(TRANSPORT_HINTS);
+        Sword2TransportSession second = underTest.open(TRANSPORT_HINTS);
+
+        assertSame(first.getServiceDocument(), second.getServiceDocument());
+        verify(swordClient).getServiceDocument(any(), any());
+    }
+
     @Test
     public void testGetServiceDocumentThrowsRuntimeException() throws Exception {
         expectedException.expect(RuntimeException.class);
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.deposit.transport;
+
+import java.util.Map;
+
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
+
+/**
+ * Implemented by {@link TransportSession}s which can determine, before a package is written, whether the remote system
+ * would reject it (e.g. because the package specification is not accepted by the target, or the package is too
+ * large).  Failing before the package is written avoids retrieving and compressing the custodial content of a package
+ * that cannot be sent.
+ */
+public interface PreflightCheck {
+
+    /**
+     * Checks that a package described by {@code packageMetadata} would be accepted when {@link
+     * TransportSession#send(PackageStream, Map) sent} with the supplied {@code metadata}.  The package has not been
+     * written when this method is invoked: its size may be unknown ({@code -1}), and it has no checksums.
+     *
+     * @param packageMetadata the expected metadata of the package
+     * @param metadata        transport-related metadata, as will be supplied to {@code send(...)}
+     * @throws PreflightException if the package would be rejected
+     */
+    void preflight(PackageStream.Metadata packageMetadata, Map<String, String> metadata) throws PreflightException;
+
+}
@@ -16,6 +16,7 @@
 
 package org.dataconservancy.pass.deposit.transport;
 
+import org.dataconservancy.pass.deposit.assembler.PackageStream;
 import org.dataconservancy.pass.model.Deposit;
 import org.dataconservancy.pass.model.RepositoryCopy;
 import org.dataconservancy.pass.model.Submission;
@@ -38,6 +39,17 @@ public interface TransportResponse {
      */
     Throwable error();
 
+    /**
+     * The metadata of the package that was transferred.  If the package was read in its entirety, the metadata carries
+     * the size and checksums of the bytes that were actually sent, so the fixity of the deposited package may be
+     * recorded.
+     *
+     * @return the metadata of the package that was transferred, may be {@code null}
+     */
+    default PackageStream.Metadata packageMetadata() {
+        return null;
+    }
+
     /**
      * Invoked as a callback by Deposit Services after creating or updating PASS repository resources related to the
      * successful transfer of bytes by a Transport.  At a minimum {@link #success()} must return {@code true} for this